@@ -73,6 +73,7 @@ public class Messages {
     public static final String INTERPOLATION_ELASTIC;
     public static final String INTERPOLATION_ELASTIC_IN;
     public static final String INTERPOLATION_ELASTIC_OUT;
+    public static final String INTERPOLATION_BAKED;
 
     public static final String PARTICLE_INFLUENCER_ALPHA;
     public static final String PARTICLE_INFLUENCER_COLOR;
@@ -84,6 +85,9 @@ public class Messages {
     public static final String PARTICLE_INFLUENCER_ROTATION;
     public static final String PARTICLE_INFLUENCER_SIZE;
     public static final String PARTICLE_INFLUENCER_SPRITE;
+    public static final String PARTICLE_INFLUENCER_VECTOR_FIELD;
+    public static final String PARTICLE_INFLUENCER_TURBULENCE;
+    public static final String PARTICLE_INFLUENCER_INTERACTION;
     public static final String PARTICLE_INFLUENCER_GRAVITY_ALIGNMENT_WORLD;
     public static final String PARTICLE_INFLUENCER_GRAVITY_ALIGNMENT_REVERSE_VELOCITY;
     public static final String PARTICLE_INFLUENCER_GRAVITY_ALIGNMENT_EMISSION_POINT;
@@ -91,6 +95,10 @@ public class Messages {
     public static final String PARTICLE_INFLUENCER_PHYSICS_COLLISION_REACTION_BOUNCE;
     public static final String PARTICLE_INFLUENCER_PHYSICS_COLLISION_REACTION_STICK;
     public static final String PARTICLE_INFLUENCER_PHYSICS_COLLISION_REACTION_DESTROY;
+    public static final String PARTICLE_INFLUENCER_VECTOR_FIELD_MODE_FORCE;
+    public static final String PARTICLE_INFLUENCER_VECTOR_FIELD_MODE_VELOCITY;
+    public static final String PARTICLE_INFLUENCER_TURBULENCE_ANIMATION_SCROLL;
+    public static final String PARTICLE_INFLUENCER_TURBULENCE_ANIMATION_BLEND;
     public static final String PARTICLE_INFLUENCER_RADIAL_VELOCITY_PULL_ALIGNMENT_EMISSION_POINT;
     public static final String PARTICLE_INFLUENCER_RADIAL_VELOCITY_PULL_ALIGNMENT_EMITTER_CENTER;
     public static final String PARTICLE_INFLUENCER_RADIAL_VELOCITY_PULL_CENTER_ABSOLUTE;
@@ -143,6 +151,7 @@ public class Messages {
         INTERPOLATION_ELASTIC = bundle.getString("Interpolation.Elastic");
         INTERPOLATION_ELASTIC_IN = bundle.getString("Interpolation.ElasticIn");
         INTERPOLATION_ELASTIC_OUT = bundle.getString("Interpolation.ElasticOut");
+        INTERPOLATION_BAKED = bundle.getString("Interpolation.Baked");
 
         EMISSION_POINT_CENTER = bundle.getString("Emission.Point.Center");
         EMISSION_POINT_EDGE_TOP = bundle.getString("Emission.Point.EdgeTop");
@@ -175,6 +184,9 @@ public class Messages {
         PARTICLE_INFLUENCER_ROTATION = bundle.getString("ParticleInfluencer.Rotation");
         PARTICLE_INFLUENCER_SIZE = bundle.getString("ParticleInfluencer.Size");
         PARTICLE_INFLUENCER_SPRITE = bundle.getString("ParticleInfluencer.Sprite");
+        PARTICLE_INFLUENCER_VECTOR_FIELD = bundle.getString("ParticleInfluencer.VectorField");
+        PARTICLE_INFLUENCER_TURBULENCE = bundle.getString("ParticleInfluencer.Turbulence");
+        PARTICLE_INFLUENCER_INTERACTION = bundle.getString("ParticleInfluencer.Interaction");
 
         PARTICLE_INFLUENCER_GRAVITY_ALIGNMENT_WORLD = bundle.getString("ParticleInfluencer.Gravity.Alignment.World");
         PARTICLE_INFLUENCER_GRAVITY_ALIGNMENT_REVERSE_VELOCITY = bundle.getString("ParticleInfluencer.Gravity.Alignment.ReverseVelocity");
@@ -185,6 +197,12 @@ public class Messages {
         PARTICLE_INFLUENCER_PHYSICS_COLLISION_REACTION_STICK = bundle.getString("ParticleInfluencer.Physics.CollisionReaction.Stick");
         PARTICLE_INFLUENCER_PHYSICS_COLLISION_REACTION_DESTROY = bundle.getString("ParticleInfluencer.Physics.CollisionReaction.Destroy");
 
+        PARTICLE_INFLUENCER_VECTOR_FIELD_MODE_FORCE = bundle.getString("ParticleInfluencer.VectorField.Mode.Force");
+        PARTICLE_INFLUENCER_VECTOR_FIELD_MODE_VELOCITY = bundle.getString("ParticleInfluencer.VectorField.Mode.Velocity");
+
+        PARTICLE_INFLUENCER_TURBULENCE_ANIMATION_SCROLL = bundle.getString("ParticleInfluencer.Turbulence.Animation.Scroll");
+        PARTICLE_INFLUENCER_TURBULENCE_ANIMATION_BLEND = bundle.getString("ParticleInfluencer.Turbulence.Animation.Blend");
+
         PARTICLE_INFLUENCER_RADIAL_VELOCITY_PULL_ALIGNMENT_EMISSION_POINT = bundle.getString("ParticleInfluencer.RadialVelocity.PullAlignment.EmissionPoint");
         PARTICLE_INFLUENCER_RADIAL_VELOCITY_PULL_ALIGNMENT_EMITTER_CENTER = bundle.getString("ParticleInfluencer.RadialVelocity.PullAlignment.EmitterCenter");
 
@@ -8,6 +8,7 @@ import com.jme3.animation.AnimControl;
 import com.jme3.animation.LoopMode;
 import com.jme3.asset.AssetManager;
 import com.jme3.asset.MaterialKey;
+import com.jme3.bounding.BoundingBox;
 import com.jme3.export.*;
 import com.jme3.material.MatParamTexture;
 import com.jme3.material.Material;
@@ -15,8 +16,10 @@ import com.jme3.material.RenderState;
 import com.jme3.material.RenderState.BlendMode;
 import com.jme3.material.RenderState.FaceCullMode;
 import com.jme3.math.ColorRGBA;
+import com.jme3.math.FastMath;
 import com.jme3.math.Matrix3f;
 import com.jme3.math.Vector2f;
+import com.jme3.math.Vector3f;
 import com.jme3.renderer.Camera;
 import com.jme3.renderer.RenderManager;
 import com.jme3.renderer.ViewPort;
@@ -36,9 +39,13 @@ import org.jetbrains.annotations.Nullable;
 import tonegod.emitter.EmitterMesh.DirectionType;
 import tonegod.emitter.geometry.EmitterShapeGeometry;
 import tonegod.emitter.geometry.ParticleGeometry;
+import tonegod.emitter.influencers.AnalyticParticleInfluencer;
 import tonegod.emitter.influencers.ParticleInfluencer;
+import tonegod.emitter.influencers.PreparedParticleInfluencer;
 import tonegod.emitter.interpolation.Interpolation;
+import tonegod.emitter.material.ParticleCurveTexture;
 import tonegod.emitter.material.ParticlesMaterial;
+import tonegod.emitter.node.ParticleBatchNode;
 import tonegod.emitter.node.ParticleNode;
 import tonegod.emitter.node.TestParticleEmitterNode;
 import tonegod.emitter.particle.*;
@@ -369,6 +376,18 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
      */
     protected int spriteRows;
 
+    /**
+     * The explicit texture coordinates of sprite frames for non-uniform atlases.
+     */
+    @Nullable
+    protected float[] spriteFrames;
+
+    /**
+     * The outlines of sprite frames for the trimmed mesh.
+     */
+    @Nullable
+    protected float[] spriteOutlines;
+
     /**
      * The Emitter anim node.
      */
@@ -456,6 +475,89 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
      */
     public boolean testParticles;
 
+    /**
+     * The bound of particles which is calculated during the simulation.
+     */
+    @NotNull
+    protected BoundingBox particleBound;
+
+    /**
+     * The min point of particles with their radius.
+     */
+    @NotNull
+    protected Vector3f particleBoundMin;
+
+    /**
+     * The max point of particles with their radius.
+     */
+    @NotNull
+    protected Vector3f particleBoundMax;
+
+    /**
+     * True if the min and max points of particles were calculated by the last simulation.
+     */
+    protected boolean particleBoundReady;
+
+    /**
+     * True if alive particles are sorted back-to-front by the view depth before updating the particle mesh.
+     */
+    protected boolean depthSorting;
+
+    /**
+     * The sorter of particles by the view depth.
+     */
+    @NotNull
+    protected ParticleDepthSorter depthSorter;
+
+    /**
+     * The batch node which draws particles of this emitter.
+     */
+    @Nullable
+    protected ParticleBatchNode batchNode;
+
+    /**
+     * True if the particle mesh should use compact formats of vertex buffers.
+     */
+    protected boolean compactVertexLayout;
+
+    /**
+     * The half size of the range of quantized positions.
+     */
+    @NotNull
+    protected Vector3f positionScale;
+
+    /**
+     * True if color, alpha, size and sprite animation of particles should be evaluated by the shader.
+     */
+    protected boolean gpuCurves;
+
+    /**
+     * The texture with curves of influencers for the shader.
+     */
+    @Nullable
+    protected ParticleCurveTexture curveTexture;
+
+    /**
+     * The count of sprite columns and rows for the shader.
+     */
+    @NotNull
+    protected Vector2f spriteGrid;
+
+    /**
+     * True if particles should be evaluated in closed form by their age when influencers support it.
+     */
+    protected boolean analyticParticles;
+
+    /**
+     * True if particles are evaluated in closed form in the current update.
+     */
+    protected boolean analyticUpdate;
+
+    /**
+     * True if the emitter should be registered in the {@link ParticleEmitterRegistry} on the next update.
+     */
+    protected boolean registrationChanged;
+
     public ParticleEmitterNode(@NotNull AssetManager assetManager) {
         this();
         changeEmitterShapeMesh(new TriangleEmitterShape(1));
@@ -500,6 +602,12 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
         this.particlesAnimBlendTime = 1;
         this.particlesAnimLoopMode = LoopMode.Loop;
         this.particleDataSize = DEFAULT_PARTICLE_DATA_SIZE;
+        this.particleBound = new BoundingBox();
+        this.particleBoundMin = new Vector3f();
+        this.particleBoundMax = new Vector3f();
+        this.depthSorter = new ParticleDepthSorter();
+        this.positionScale = new Vector3f();
+        this.spriteGrid = new Vector2f();
         attachChild(particleNode);
         reset();
         setEmissionsPerSecond(100);
@@ -663,6 +771,13 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
             setEnabled(false);
         }
 
+        if (parent == null) {
+            registrationChanged = false;
+            ParticleEmitterRegistry.unregister(this);
+        } else {
+            registrationChanged = true;
+        }
+
         setEmittedTime(0);
     }
 
@@ -824,7 +939,7 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
      *
      * @return the data mesh of particles.
      */
-    protected @NotNull ParticleDataMesh getParticleDataMesh() {
+    public @NotNull ParticleDataMesh getParticleDataMesh() {
         return requireNonNull(particleDataMesh);
     }
 
@@ -842,8 +957,54 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
         }
 
         ParticleDataMesh dataMesh = getParticleDataMesh();
+        dataMesh.setCompactLayout(isCompactLayoutFor(dataMesh), isQuantizedPositionsSupported());
+        dataMesh.initialize(this, maxParticles);
+        updateSpriteFrames(dataMesh);
+    }
+
+    /**
+     * Returns true if the particle mesh should use compact formats of vertex buffers.
+     *
+     * @param dataMesh the particle data mesh.
+     * @return true if compact formats should be used.
+     */
+    protected boolean isCompactLayoutFor(@NotNull ParticleDataMesh dataMesh) {
+        return compactVertexLayout && dataMesh.isCompactLayoutSupported();
+    }
+
+    /**
+     * Returns true if the current material can decode quantized positions.
+     *
+     * @return true if quantized positions are supported.
+     */
+    protected boolean isQuantizedPositionsSupported() {
+        return material != null &&
+                material.getMaterialDef().getMaterialParam(ParticlesMaterial.PROP_POSITION_SCALE) != null;
+    }
+
+    /**
+     * Re-initializes the particle mesh if its compact layout doesn't match the current settings.
+     */
+    protected void updateCompactLayout() {
+
+        if (!isEmitterInitialized()) {
+            return;
+        }
+
+        ParticleDataMesh dataMesh = getParticleDataMesh();
+
+        boolean compact = isCompactLayoutFor(dataMesh);
+        boolean quantized = compact && isQuantizedPositionsSupported();
+
+        if (dataMesh.isCompactLayout() == compact && dataMesh.isQuantizedPositions() == quantized) {
+            return;
+        }
+
+        dataMesh.setCompactLayout(compact, quantized);
         dataMesh.initialize(this, maxParticles);
-        dataMesh.setImagesXY(getSpriteColCount(), getSpriteRowCount());
+        updateSpriteFrames(dataMesh);
+
+        requiresUpdate = true;
     }
 
     /**
@@ -1053,6 +1214,165 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
         return particlesFollowEmitter;
     }
 
+    /**
+     * Enables sorting of particles back-to-front by the view depth. It's required for materials which use not
+     * additive blending such as {@link com.jme3.material.RenderState.BlendMode#Alpha}.
+     *
+     * @param depthSorting true if particles should be sorted by the view depth.
+     */
+    public void setDepthSorting(boolean depthSorting) {
+        this.depthSorting = depthSorting;
+        requiresUpdate = true;
+    }
+
+    /**
+     * Returns true if particles are sorted back-to-front by the view depth.
+     *
+     * @return true if particles are sorted by the view depth.
+     */
+    public boolean isDepthSorting() {
+        return depthSorting;
+    }
+
+    /**
+     * Sets the batch node to draw particles of this emitter together with particles of other emitters which use
+     * the same material. If the material or the particle mesh isn't compatible with the batch, this emitter draws
+     * its particles itself.
+     *
+     * @param batchNode the batch node or null to draw particles by this emitter.
+     */
+    public void setBatchNode(@Nullable ParticleBatchNode batchNode) {
+
+        ParticleBatchNode prevBatchNode = this.batchNode;
+
+        if (prevBatchNode == batchNode) {
+            return;
+        }
+
+        this.batchNode = batchNode;
+
+        if (prevBatchNode != null) {
+            prevBatchNode.removeEmitter(this);
+        }
+
+        if (batchNode != null) {
+            batchNode.addEmitter(this);
+        }
+
+        particleGeometry.setCullHint(CullHint.Inherit);
+        requiresUpdate = true;
+    }
+
+    /**
+     * Gets the batch node which draws particles of this emitter.
+     *
+     * @return the batch node or null.
+     */
+    public @Nullable ParticleBatchNode getBatchNode() {
+        return batchNode;
+    }
+
+    /**
+     * Enables compact formats of vertex buffers of the particle mesh to reduce the upload bandwidth: normalized
+     * shorts for texture coords, normalized bytes for normals and quantized positions if the material can decode
+     * them (see {@link ParticlesMaterial#PROP_POSITION_SCALE}). It's supported by the tri and template meshes.
+     *
+     * @param compactVertexLayout true if compact formats should be used.
+     */
+    public void setCompactVertexLayout(boolean compactVertexLayout) {
+        this.compactVertexLayout = compactVertexLayout;
+        updateCompactLayout();
+    }
+
+    /**
+     * Returns true if compact formats of vertex buffers are enabled.
+     *
+     * @return true if compact formats are enabled.
+     */
+    public boolean isCompactVertexLayout() {
+        return compactVertexLayout;
+    }
+
+    /**
+     * Enables evaluating color, alpha, size and sprite animation of particles by the vertex shader from a curve
+     * texture (see {@link ParticleCurveTexture}), then only the life blend and the seed of each particle are
+     * uploaded instead of these values. It's supported by the billboard mesh with shader billboarding when the
+     * influencers can be baked to curves over life, otherwise particles are updated on the CPU.
+     *
+     * @param gpuCurves true if the shader should evaluate curves.
+     */
+    public void setGpuCurves(boolean gpuCurves) {
+        this.gpuCurves = gpuCurves;
+        requiresUpdate = true;
+    }
+
+    /**
+     * Returns true if the shader should evaluate curves of influencers.
+     *
+     * @return true if the shader should evaluate curves.
+     */
+    public boolean isGpuCurves() {
+        return gpuCurves;
+    }
+
+    /**
+     * Enables evaluating particles in closed form by their age: the position is calculated from the position and
+     * the velocity at the emission and influencers are evaluated by {@link AnalyticParticleInfluencer}, so particle
+     * state isn't integrated over frames. It's used only when all enabled influencers can be evaluated in closed
+     * form (world gravity, curves of color, alpha and size and sprite animation), otherwise particles are updated as
+     * usual.
+     *
+     * @param analyticParticles true if particles should be evaluated in closed form.
+     */
+    public void setAnalyticParticles(boolean analyticParticles) {
+        this.analyticParticles = analyticParticles;
+        requiresUpdate = true;
+    }
+
+    /**
+     * Returns true if particles should be evaluated in closed form.
+     *
+     * @return true if particles should be evaluated in closed form.
+     */
+    public boolean isAnalyticParticles() {
+        return analyticParticles;
+    }
+
+    /**
+     * Returns true if particles are evaluated in closed form in the current update.
+     *
+     * @return true if particles are evaluated in closed form.
+     */
+    public boolean isAnalyticUpdate() {
+        return analyticUpdate;
+    }
+
+    /**
+     * Checks that particles can be evaluated in closed form with the current influencers.
+     *
+     * @return true if particles can be evaluated in closed form.
+     */
+    protected boolean canUpdateAnalytic() {
+
+        if (!analyticParticles || isStaticParticles()) {
+            return false;
+        }
+
+        for (ParticleInfluencer<?> influencer : getInfluencers().getArray()) {
+
+            if (!influencer.isEnabled()) {
+                continue;
+            }
+
+            if (!(influencer instanceof AnalyticParticleInfluencer) ||
+                    !((AnalyticParticleInfluencer<?>) influencer).isAnalytic(this)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     /**
      * By default, emission happens from the direct center of the selected emitter shape face.  This flag enables
      * selecting a random point of emission within the selected face.
@@ -1548,7 +1868,7 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
     }
 
     /**
-     * Changes the current texture to the new texture.
+     * Changes the current texture to the new texture, explicit sprite frames are reset to the grid of sprites.
      *
      * @param texturePath the path to texture.
      */
@@ -1567,7 +1887,7 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
     }
 
     /**
-     * Changes the current texture to the new texture.
+     * Changes the current texture to the new texture, explicit sprite frames are reset to the grid of sprites.
      *
      * @param texture the new texture.
      */
@@ -1592,7 +1912,8 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
     }
 
     /**
-     * Sets the count of columns and rows in the current texture for splitting for sprites.
+     * Sets the count of columns and rows in the current texture for splitting for sprites, explicit sprite frames
+     * are reset.
      *
      * @param spriteCols The number of columns containing sprite images.
      * @param spriteRows The number of rows containing sprite images.
@@ -1606,6 +1927,7 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
 
         this.spriteCols = spriteCols;
         this.spriteRows = spriteRows;
+        this.spriteFrames = null;
 
         if (!isEmitterInitialized()) {
             return;
@@ -1622,12 +1944,109 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
         spriteWidth = width / spriteCols;
         spriteHeight = height / spriteRows;
 
-        ParticleDataMesh particleDataMesh = getParticleDataMesh();
-        particleDataMesh.setImagesXY(spriteCols, spriteRows);
+        updateSpriteFrames(getParticleDataMesh());
+
+        requiresUpdate = true;
+    }
+
+    /**
+     * Sets explicit texture coordinates of sprite frames for a non-uniform atlas instead of splitting the texture
+     * by the count of columns and rows. The frames are reset by changing the texture, the material or the count of
+     * columns and rows.
+     *
+     * @param spriteFrames the rectangles of frames: startX, startY, endX, endY per a frame or null to use the
+     *                     count of columns and rows.
+     * @see SpriteFrameTable
+     */
+    public void setSpriteFrames(@Nullable float[] spriteFrames) {
+
+        if (spriteFrames != null && (spriteFrames.length < SpriteFrameTable.FRAME_SIZE ||
+                spriteFrames.length % SpriteFrameTable.FRAME_SIZE != 0)) {
+            throw new IllegalArgumentException("the length " + spriteFrames.length + " isn't a positive multiple of " +
+                    SpriteFrameTable.FRAME_SIZE + ".");
+        }
+
+        this.spriteFrames = spriteFrames == null ? null : spriteFrames.clone();
+
+        if (!isEmitterInitialized()) {
+            return;
+        }
+
+        updateSpriteFrames(getParticleDataMesh());
 
         requiresUpdate = true;
     }
 
+    /**
+     * Gets explicit texture coordinates of sprite frames.
+     *
+     * @return the rectangles of frames or null if the texture is split by the count of columns and rows.
+     */
+    public @Nullable float[] getSpriteFrames() {
+        return spriteFrames == null ? null : spriteFrames.clone();
+    }
+
+    /**
+     * Returns the count of sprite frames.
+     *
+     * @return the count of sprite frames.
+     */
+    public int getSpriteFrameCount() {
+        return spriteFrames == null ? spriteCols * spriteRows : spriteFrames.length / SpriteFrameTable.FRAME_SIZE;
+    }
+
+    /**
+     * Sets the outlines of sprite frames which are used by {@link ParticleDataTrimmedMesh} to skip transparent
+     * corners of sprites.
+     *
+     * @param spriteOutlines the outlines built by {@link SpriteOutlineBuilder} or null to draw quads.
+     */
+    public void setSpriteOutlines(@Nullable float[] spriteOutlines) {
+
+        if (spriteOutlines != null && (spriteOutlines.length < SpriteOutlineBuilder.OUTLINE_SIZE ||
+                spriteOutlines.length % SpriteOutlineBuilder.OUTLINE_SIZE != 0)) {
+            throw new IllegalArgumentException("the length " + spriteOutlines.length +
+                    " isn't a positive multiple of " + SpriteOutlineBuilder.OUTLINE_SIZE + ".");
+        }
+
+        this.spriteOutlines = spriteOutlines == null ? null : spriteOutlines.clone();
+
+        if (!isEmitterInitialized()) {
+            return;
+        }
+
+        updateSpriteFrames(getParticleDataMesh());
+
+        requiresUpdate = true;
+    }
+
+    /**
+     * Gets the outlines of sprite frames.
+     *
+     * @return the outlines of sprite frames or null.
+     */
+    public @Nullable float[] getSpriteOutlines() {
+        return spriteOutlines == null ? null : spriteOutlines.clone();
+    }
+
+    /**
+     * Updates the sprite frame table of the particle data mesh.
+     *
+     * @param dataMesh the particle data mesh.
+     */
+    protected void updateSpriteFrames(@NotNull ParticleDataMesh dataMesh) {
+
+        if (spriteFrames == null) {
+            dataMesh.setImagesXY(spriteCols, spriteRows);
+        } else {
+            dataMesh.setSpriteFrames(spriteFrames);
+        }
+
+        if (dataMesh instanceof ParticleDataTrimmedMesh) {
+            ((ParticleDataTrimmedMesh) dataMesh).setOutlines(spriteOutlines);
+        }
+    }
+
     /**
      * Gets particle geometry.
      *
@@ -1686,6 +2105,12 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
             @NotNull String textureParamName,
             boolean applyLightingTransform
     ) {
+
+        // explicit sprite frames are in the space of the texture of the previous material
+        if (this.material != material) {
+            this.spriteFrames = null;
+        }
+
         this.material = material;
         this.applyLightingTransform = applyLightingTransform;
         this.textureParamName = textureParamName;
@@ -1699,6 +2124,14 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
 
         particleNode.setMaterial(material);
         requiresUpdate = true;
+
+        if (isEmitterInitialized()) {
+            updateSpriteFrames(getParticleDataMesh());
+        }
+
+        updateCompactLayout();
+
+        registrationChanged = getParent() != null;
     }
 
     /**
@@ -1794,7 +2227,7 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
      *
      * @return true if this emitter is initialized.
      */
-    private boolean isEmitterInitialized() {
+    public boolean isEmitterInitialized() {
         return emitterInitialized;
     }
 
@@ -2003,10 +2436,17 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
     public void updateGeometricState() {
 
         if (isEmitterInitialized() && (isEnabled() || postRequiresUpdate)) {
-            particleGeometry.updateModelBound();
+
+            if (!particleBoundReady) {
+                calcParticleBound();
+            }
+
+            updateParticleBound();
+
+            particleGeometry.updateModelBound(particleBound);
 
             if (particleTestGeometry != null) {
-                particleTestGeometry.updateModelBound();
+                particleTestGeometry.updateModelBound(particleBound);
             }
 
             postRequiresUpdate = false;
@@ -2015,26 +2455,148 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
         super.updateGeometricState();
     }
 
+    /**
+     * Resets the min and max points of particles.
+     */
+    protected void resetParticleBound() {
+        particleBoundMin.set(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+        particleBoundMax.set(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Calculates the min and max points of all alive particles.
+     */
+    protected void calcParticleBound() {
+
+        resetParticleBound();
+
+        for (ParticleData particleData : particles) {
+            if (particleData.isActive()) {
+                includeToParticleBound(particleData);
+            }
+        }
+
+        particleBoundReady = true;
+    }
+
+    /**
+     * Includes the particle with its radius to the min and max points of particles. Particles which don't follow
+     * the emitter are included with their initial position, the world translation of the emitter is applied
+     * in {@link #updateParticleBound()}.
+     *
+     * @param particleData the particle data.
+     */
+    protected void includeToParticleBound(@NotNull ParticleData particleData) {
+
+        ParticleDataMesh dataMesh = getParticleDataMesh();
+
+        float stretch = 1F;
+
+        if (isVelocityStretching()) {
+            stretch = particleData.velocity.length() * getVelocityStretchFactor();
+        }
+
+        float radius = dataMesh.calcParticleRadius(particleData, stretch);
+
+        Vector3f position = particleData.position;
+
+        float x = position.x;
+        float y = position.y;
+        float z = position.z;
+
+        if (!isParticlesFollowEmitter() && dataMesh.isEmitterOffsetSupported()) {
+            Vector3f initialPosition = particleData.initialPosition;
+            x += initialPosition.x;
+            y += initialPosition.y;
+            z += initialPosition.z;
+        }
+
+        Vector3f min = particleBoundMin;
+        Vector3f max = particleBoundMax;
+
+        min.set(Math.min(min.x, x - radius), Math.min(min.y, y - radius), Math.min(min.z, z - radius));
+        max.set(Math.max(max.x, x + radius), Math.max(max.y, y + radius), Math.max(max.z, z + radius));
+    }
+
+    /**
+     * Updates the bound of particles from the min and max points of particles.
+     */
+    protected void updateParticleBound() {
+
+        Vector3f min = particleBoundMin;
+        Vector3f max = particleBoundMax;
+
+        if (min.x > max.x) {
+            particleBound.setCenter(Vector3f.ZERO);
+            particleBound.setXExtent(0F);
+            particleBound.setYExtent(0F);
+            particleBound.setZExtent(0F);
+            return;
+        }
+
+        float offsetX = 0F, offsetY = 0F, offsetZ = 0F;
+
+        if (!isParticlesFollowEmitter() && getParticleDataMesh().isEmitterOffsetSupported()) {
+            Vector3f worldTranslation = getWorldTranslation();
+            offsetX = worldTranslation.x;
+            offsetY = worldTranslation.y;
+            offsetZ = worldTranslation.z;
+        }
+
+        Vector3f center = particleBound.getCenter();
+        center.set((min.x + max.x) * 0.5F - offsetX, (min.y + max.y) * 0.5F - offsetY, (min.z + max.z) * 0.5F - offsetZ);
+
+        particleBound.setCenter(center);
+        particleBound.setXExtent((max.x - min.x) * 0.5F);
+        particleBound.setYExtent((max.y - min.y) * 0.5F);
+        particleBound.setZExtent((max.z - min.z) * 0.5F);
+    }
+
+    /**
+     * Registers this emitter in the {@link ParticleEmitterRegistry} if it was attached or changed its material since
+     * the last update, the emitter is updated only while its scene is updated.
+     */
+    protected void updateRegistration() {
+        if (registrationChanged && isEmitterInitialized()) {
+            registrationChanged = false;
+            ParticleEmitterRegistry.register(this);
+        }
+    }
+
     @Override
     public void updateLogicalState(float tpf) {
         super.updateLogicalState(tpf);
 
         boolean enabled = isEnabled();
 
-        if (!enabled) {
+        if (enabled && !isEmitterInitialized() && !initialize()) {
             return;
-        } else if (!isEmitterInitialized() && !initialize()) {
+        }
+
+        updateRegistration();
+
+        if (!enabled) {
             return;
         }
 
         emittedTime += tpf;
+        analyticUpdate = canUpdateAnalytic();
+
+        beforeUpdateInfluencers(tpf);
+
+        resetParticleBound();
 
         for (ParticleData particleData : particles) {
             if (particleData.isActive()) {
                 particleData.update(this, tpf);
             }
+            if (particleData.isActive()) {
+                includeToParticleBound(particleData);
+            }
         }
 
+        particleBoundReady = true;
+
         currentInterval += (tpf <= targetInterval) ? tpf : targetInterval;
         if (currentInterval <= targetInterval) {
             return;
@@ -2069,6 +2631,39 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
         }
     }
 
+    /**
+     * Prepares enabled influencers to update particles.
+     *
+     * @param tpf the tpf.
+     */
+    protected void beforeUpdateInfluencers(float tpf) {
+
+        for (ParticleInfluencer<?> influencer : getInfluencers().getArray()) {
+            if (influencer instanceof PreparedParticleInfluencer && influencer.isEnabled()) {
+                ((PreparedParticleInfluencer<?>) influencer).beforeUpdate(this, tpf);
+            }
+        }
+    }
+
+    /**
+     * Evaluates influencers for the particle data by its age.
+     *
+     * @param particleData the particle data.
+     * @param age          the age of the particle.
+     */
+    @Internal
+    public void evaluateInfluencers(@NotNull ParticleData particleData, float age) {
+
+        ParticleInfluencer<?>[] influencers = getInfluencers()
+                .getArray();
+
+        for (ParticleInfluencer<?> influencer : influencers) {
+            if (influencer.isEnabled()) {
+                ((AnalyticParticleInfluencer<?>) influencer).evaluate(this, particleData, age);
+            }
+        }
+    }
+
     /**
      * Handle the new created particle data.
      *
@@ -2131,6 +2726,7 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
         }
 
         particles[nextIndex].initialize(this);
+        includeToParticleBound(particles[nextIndex]);
 
         int searchIndex = nextIndex;
         int initIndex = nextIndex;
@@ -2155,6 +2751,7 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
      * Emits all non-active particles.
      */
     public void emitAllParticles() {
+        particleBoundReady = false;
 
         for (ParticleData data : particles) {
             if (!data.isActive()) {
@@ -2171,6 +2768,7 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
      * @param count the number of particles to emit.
      */
     public void emitNumParticles(int count) {
+        particleBoundReady = false;
 
         int counter = 0;
 
@@ -2193,6 +2791,7 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
      * Clears all current particles, setting them to inactive.
      */
     public void killAllParticles() {
+        particleBoundReady = false;
         for (ParticleData data : particles) {
             data.reset(this);
         }
@@ -2205,6 +2804,7 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
      * @param toKill the particle to reset.
      */
     public void killParticle(@NotNull ParticleData toKill) {
+        particleBoundReady = false;
         for (ParticleData data : particles) {
             if (data == toKill) toKill.reset(this);
         }
@@ -2220,6 +2820,35 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
         return activeParticleCount;
     }
 
+    /**
+     * Gets the array of all particles of this emitter, inactive particles are included.
+     *
+     * @return the array of particles.
+     */
+    @Internal
+    public @NotNull ParticleData[] getParticles() {
+        return particles;
+    }
+
+    /**
+     * Returns the count of bytes of vertex data which were uploaded to GPU during the last update of the particle
+     * mesh. Unchanged vertex attributes and vertices of dead particles aren't uploaded.
+     *
+     * @return the count of uploaded bytes.
+     */
+    public int getUploadedBytes() {
+        return particleDataMesh == null ? 0 : particleDataMesh.getUploadedBytes();
+    }
+
+    /**
+     * Returns the time of the last sorting of particles by the view depth in nanoseconds.
+     *
+     * @return the time of the last depth sorting or 0 if the depth sorting is disabled.
+     */
+    public long getDepthSortTime() {
+        return depthSorting ? depthSorter.getSortTime() : 0;
+    }
+
     /**
      * Notify about a new particle was activated.
      */
@@ -2243,6 +2872,7 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
      * @param index the index of the particle to reset.
      */
     public void killParticle(int index) {
+        particleBoundReady = false;
         particles[index].reset(this);
         requiresUpdate = true;
     }
@@ -2308,11 +2938,25 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
     public void runControlRender(@NotNull RenderManager renderManager, @NotNull ViewPort viewPort) {
         super.runControlRender(renderManager, viewPort);
 
+        if (batchNode != null && batchNode.isBatched(this)) {
+            return;
+        }
+
+        updateParticleMesh(viewPort.getCamera());
+    }
+
+    /**
+     * Updates the particle mesh by the current state of particles for the camera.
+     *
+     * @param camera the camera.
+     */
+    @Internal
+    public void updateParticleMesh(@NotNull Camera camera) {
+
         if (!isEmitterInitialized() || (!isEnabled() && !requiresUpdate)) {
             return;
         }
 
-        Camera camera = viewPort.getCamera();
         ParticleDataMesh particleDataMesh = getParticleDataMesh();
         Material material = getMaterial();
 
@@ -2325,6 +2969,33 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
             material.setFloat(ParticlesMaterial.PROP_QUADRATIC, c);
         }
 
+        if (particleDataMesh.getClass() == ParticleDataBillboardMesh.class) {
+            ParticleDataBillboardMesh billboardMesh = (ParticleDataBillboardMesh) particleDataMesh;
+            updateShaderBillboardParams(material, billboardMesh);
+            updateCurveTextureParams(material, billboardMesh);
+        } else {
+
+            if (material.getParam(ParticlesMaterial.PROP_SHADER_BILLBOARD) != null) {
+                material.clearParam(ParticlesMaterial.PROP_SHADER_BILLBOARD);
+            }
+
+            clearCurveTextureParams(material);
+        }
+
+        if (particleDataMesh.isQuantizedPositions()) {
+            updateQuantizedPositionParams(material, particleDataMesh);
+        } else if (material.getParam(ParticlesMaterial.PROP_POSITION_SCALE) != null) {
+            material.clearParam(ParticlesMaterial.PROP_POSITION_OFFSET);
+            material.clearParam(ParticlesMaterial.PROP_POSITION_SCALE);
+        }
+
+        ParticleData[] particles = this.particles;
+
+        if (depthSorting && particles.length > 1) {
+            particles = depthSorter.sort(particles, camera.getDirection(), particleGeometry.getWorldRotation(),
+                    particleGeometry.getWorldScale(), !isParticlesFollowEmitter() && particleDataMesh.isEmitterOffsetSupported());
+        }
+
         particleDataMesh.updateParticleData(particles, camera, inverseRotation);
 
         if (requiresUpdate) {
@@ -2333,6 +3004,117 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
         }
     }
 
+    /**
+     * Updates the range of quantized positions by the current bound of particles.
+     *
+     * @param material the material.
+     * @param dataMesh the particle data mesh.
+     */
+    protected void updateQuantizedPositionParams(@NotNull Material material, @NotNull ParticleDataMesh dataMesh) {
+
+        BoundingBox bound = particleBound;
+        Vector3f center = bound.getCenter();
+
+        positionScale.set(Math.max(bound.getXExtent(), FastMath.ZERO_TOLERANCE),
+                Math.max(bound.getYExtent(), FastMath.ZERO_TOLERANCE),
+                Math.max(bound.getZExtent(), FastMath.ZERO_TOLERANCE));
+
+        dataMesh.setPositionRange(center, positionScale);
+
+        material.setVector3(ParticlesMaterial.PROP_POSITION_OFFSET, dataMesh.getPositionOffset());
+        material.setVector3(ParticlesMaterial.PROP_POSITION_SCALE, dataMesh.getPositionScale());
+    }
+
+    /**
+     * Updates the material parameters of shader billboarding.
+     *
+     * @param material      the material.
+     * @param billboardMesh the billboard mesh.
+     */
+    protected void updateShaderBillboardParams(
+            @NotNull Material material,
+            @NotNull ParticleDataBillboardMesh billboardMesh
+    ) {
+
+        boolean supported = material.getMaterialDef()
+                .getMaterialParam(ParticlesMaterial.PROP_SHADER_BILLBOARD) != null;
+
+        billboardMesh.setShaderBillboarding(supported);
+
+        if (!supported) {
+            return;
+        }
+
+        BillboardMode billboardMode = getBillboardMode();
+
+        int mode = ParticleDataBillboardMesh.isShaderBillboardMode(billboardMode) ?
+                billboardMode.ordinal() : ParticleDataBillboardMesh.CPU_BILLBOARD_MODE;
+
+        material.setBoolean(ParticlesMaterial.PROP_SHADER_BILLBOARD, true);
+        material.setInt(ParticlesMaterial.PROP_BILLBOARD_MODE, mode);
+
+        if (isVelocityStretching()) {
+            material.setFloat(ParticlesMaterial.PROP_VELOCITY_STRETCH_FACTOR, getVelocityStretchFactor());
+        } else if (material.getParam(ParticlesMaterial.PROP_VELOCITY_STRETCH_FACTOR) != null) {
+            material.clearParam(ParticlesMaterial.PROP_VELOCITY_STRETCH_FACTOR);
+        }
+    }
+
+    /**
+     * Updates the curve texture and its material parameters.
+     *
+     * @param material      the material.
+     * @param billboardMesh the billboard mesh.
+     */
+    protected void updateCurveTextureParams(
+            @NotNull Material material,
+            @NotNull ParticleDataBillboardMesh billboardMesh
+    ) {
+
+        boolean enabled = gpuCurves && billboardMesh.isShaderBillboarding() && !isStaticParticles() &&
+                ParticleDataBillboardMesh.isShaderBillboardMode(getBillboardMode()) &&
+                material.getMaterialDef().getMaterialParam(ParticlesMaterial.PROP_CURVE_TEXTURE) != null;
+
+        ParticleCurveTexture curveTexture = this.curveTexture;
+
+        if (enabled) {
+
+            if (curveTexture == null) {
+                curveTexture = new ParticleCurveTexture();
+                this.curveTexture = curveTexture;
+            }
+
+            enabled = curveTexture.update(this);
+        }
+
+        billboardMesh.setCurveMode(enabled);
+
+        if (!enabled) {
+            clearCurveTextureParams(material);
+            return;
+        }
+
+        SpriteFrameTable frameTable = billboardMesh.getFrameTable();
+        spriteGrid.set(frameTable.getCols(), frameTable.getRows());
+
+        material.setTexture(ParticlesMaterial.PROP_CURVE_TEXTURE, curveTexture.getTexture());
+        material.setFloat(ParticlesMaterial.PROP_CURVE_SAMPLES, curveTexture.getSampleCount());
+        material.setVector2(ParticlesMaterial.PROP_SPRITE_GRID, spriteGrid);
+    }
+
+    /**
+     * Clears the material parameters of the curve texture.
+     *
+     * @param material the material.
+     */
+    protected void clearCurveTextureParams(@NotNull Material material) {
+        if (material.getParam(ParticlesMaterial.PROP_CURVE_TEXTURE) != null) {
+            material.clearParam(ParticlesMaterial.PROP_CURVE_TEXTURE);
+            material.clearParam(ParticlesMaterial.PROP_CURVE_SAMPLES);
+            material.clearParam(ParticlesMaterial.PROP_SPRITE_GRID);
+        }
+    }
+
     @Override
     public void write(@NotNull JmeExporter exporter) throws IOException {
 
@@ -2377,6 +3159,10 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
         // PARTICLES
         capsule.write(billboardMode.ordinal(), "billboardMode", 0);
         capsule.write(particlesFollowEmitter, "particlesFollowEmitter", false);
+        capsule.write(depthSorting, "depthSorting", false);
+        capsule.write(compactVertexLayout, "compactVertexLayout", false);
+        capsule.write(gpuCurves, "gpuCurves", false);
+        capsule.write(analyticParticles, "analyticParticles", false);
 
         // PARTICLES MESH DATA
         capsule.write(particleDataMeshType.getName(), "particleDataMeshType", ParticleDataTriMesh.class.getName());
@@ -2398,6 +3184,8 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
         capsule.write(applyLightingTransform, "applyLightingTransform", false);
         capsule.write(spriteCols, "spriteCols", 0);
         capsule.write(spriteRows, "spriteRows", 0);
+        capsule.write(spriteFrames, "spriteFrames", null);
+        capsule.write(spriteOutlines, "spriteOutlines", null);
     }
 
     @Override
@@ -2449,6 +3237,10 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
         // PARTICLES
         setBillboardMode(BillboardMode.valueOf(capsule.readInt("billboardMode", BillboardMode.CAMERA.ordinal())));
         setParticlesFollowEmitter(capsule.readBoolean("particlesFollowEmitter", false));
+        setDepthSorting(capsule.readBoolean("depthSorting", false));
+        setCompactVertexLayout(capsule.readBoolean("compactVertexLayout", false));
+        setGpuCurves(capsule.readBoolean("gpuCurves", false));
+        setAnalyticParticles(capsule.readBoolean("analyticParticles", false));
 
         // PARTICLES MESH DATA
         final Class<? extends ParticleDataMesh> meshType;
@@ -2484,6 +3276,8 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
 
         setMaterial(material, textureParamName, applyLightingTransform);
         setSpriteCount(capsule.readInt("spriteCols", 0), capsule.readInt("spriteRows", 0));
+        setSpriteFrames(capsule.readFloatArray("spriteFrames", null));
+        setSpriteOutlines(capsule.readFloatArray("spriteOutlines", null));
     }
 
     @Override
@@ -2536,9 +3330,20 @@ public class ParticleEmitterNode extends Node implements JmeCloneable, Cloneable
             particleDataMesh = cloner.clone(particleDataMesh);
         }
 
+        particleBound = cloner.clone(particleBound);
+        particleBoundMin = cloner.clone(particleBoundMin);
+        particleBoundMax = cloner.clone(particleBoundMax);
+        particleBoundReady = false;
+        depthSorter = new ParticleDepthSorter();
+        batchNode = null;
+        particleGeometry.setCullHint(CullHint.Inherit);
+        positionScale = cloner.clone(positionScale);
+        spriteGrid = cloner.clone(spriteGrid);
+        curveTexture = null;
+
         ParticleDataMesh dataMesh = getParticleDataMesh();
         dataMesh.initialize(this, maxParticles);
-        dataMesh.setImagesXY(getSpriteColCount(), getSpriteRowCount());
+        updateSpriteFrames(dataMesh);
     }
 
     @Override
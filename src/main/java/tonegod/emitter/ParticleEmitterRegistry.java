@@ -0,0 +1,81 @@
+package tonegod.emitter;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The registry of emitters which are attached to a scene. Emitters join the registry on the first update after
+ * attaching and leave it on detaching, so post processors can iterate emitters without walking the scene graph.
+ * Emitters are referenced weakly, so an emitter which is dropped with a detached subtree doesn't leak. The registry
+ * isn't thread safe and should be used from the render thread.
+ *
+ * @author JavaSaBr
+ */
+public final class ParticleEmitterRegistry {
+
+    /**
+     * The registered emitters.
+     */
+    @NotNull
+    private static final Map<ParticleEmitterNode, Boolean> EMITTERS = new WeakHashMap<>();
+
+    /**
+     * The version which is incremented on each change of registered emitters.
+     */
+    private static int version;
+
+    /**
+     * Registers an updated emitter or notifies about changing its material.
+     *
+     * @param emitterNode the emitter.
+     */
+    static void register(@NotNull ParticleEmitterNode emitterNode) {
+        EMITTERS.put(emitterNode, Boolean.TRUE);
+        version++;
+    }
+
+    /**
+     * Unregisters an emitter.
+     *
+     * @param emitterNode the emitter.
+     */
+    static void unregister(@NotNull ParticleEmitterNode emitterNode) {
+        if (EMITTERS.remove(emitterNode) != null) {
+            version++;
+        }
+    }
+
+    /**
+     * Returns true if the emitter is registered.
+     *
+     * @param emitterNode the emitter.
+     * @return true if the emitter is registered.
+     */
+    public static boolean contains(@NotNull ParticleEmitterNode emitterNode) {
+        return EMITTERS.containsKey(emitterNode);
+    }
+
+    /**
+     * Gets the registered emitters, the store shouldn't be kept after using to not hold emitters.
+     *
+     * @param store the store of emitters.
+     * @return the store.
+     */
+    public static @NotNull <C extends Collection<ParticleEmitterNode>> C getEmitters(@NotNull C store) {
+        store.addAll(EMITTERS.keySet());
+        return store;
+    }
+
+    /**
+     * Gets the version of the registry, it's changed when an emitter is registered, unregistered or changes its
+     * material.
+     *
+     * @return the version of the registry.
+     */
+    public static int getVersion() {
+        return version;
+    }
+}
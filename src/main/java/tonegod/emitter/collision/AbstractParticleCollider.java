@@ -0,0 +1,39 @@
+package tonegod.emitter.collision;
+
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The base implementation of the {@link ParticleCollider}.
+ *
+ * @author JavaSaBr
+ */
+public abstract class AbstractParticleCollider implements ParticleCollider {
+
+    @Override
+    public float intersect(@NotNull Vector3f start, @NotNull Vector3f end, @NotNull Vector3f normal) {
+        return intersect(start.x, start.y, start.z, end.x, end.y, end.z, normal);
+    }
+
+    /**
+     * Finds the first contact of the segment which enters this collider.
+     *
+     * @param startX the start X.
+     * @param startY the start Y.
+     * @param startZ the start Z.
+     * @param endX   the end X.
+     * @param endY   the end Y.
+     * @param endZ   the end Z.
+     * @param normal the normal of the surface at the contact, it's changed only if the segment hits.
+     * @return the fraction of the segment before the contact or {@link #NO_HIT}.
+     */
+    protected abstract float intersect(
+            float startX,
+            float startY,
+            float startZ,
+            float endX,
+            float endY,
+            float endZ,
+            @NotNull Vector3f normal
+    );
+}
@@ -0,0 +1,239 @@
+package tonegod.emitter.collision;
+
+import com.jme3.math.Matrix3f;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The solid oriented box collider.
+ *
+ * @author JavaSaBr
+ */
+public class BoxCollider extends AbstractParticleCollider {
+
+    /**
+     * The center of the box.
+     */
+    @NotNull
+    private final Vector3f center;
+
+    /**
+     * The half sizes of the box.
+     */
+    @NotNull
+    private final Vector3f extents;
+
+    /**
+     * The rotation of the box.
+     */
+    @NotNull
+    private final Quaternion rotation;
+
+    /**
+     * The axes of the box: X, Y, Z of the local X axis, then the local Y and Z axes.
+     */
+    @NotNull
+    private final float[] axes;
+
+    /**
+     * The temp matrix.
+     */
+    @NotNull
+    private final Matrix3f tempMatrix;
+
+    public BoxCollider() {
+        this(Vector3f.ZERO, Vector3f.UNIT_XYZ, Quaternion.IDENTITY);
+    }
+
+    public BoxCollider(@NotNull Vector3f center, @NotNull Vector3f extents, @NotNull Quaternion rotation) {
+        this.center = new Vector3f(center);
+        this.extents = new Vector3f();
+        this.rotation = new Quaternion();
+        this.axes = new float[9];
+        this.tempMatrix = new Matrix3f();
+        setExtents(extents);
+        setRotation(rotation);
+    }
+
+    /**
+     * Sets the center of the box.
+     *
+     * @param center the center of the box.
+     */
+    public void setCenter(@NotNull Vector3f center) {
+        this.center.set(center);
+    }
+
+    /**
+     * Gets the center of the box.
+     *
+     * @return the center of the box.
+     */
+    public @NotNull Vector3f getCenter() {
+        return center;
+    }
+
+    /**
+     * Sets the half sizes of the box.
+     *
+     * @param extents the half sizes of the box.
+     */
+    public void setExtents(@NotNull Vector3f extents) {
+
+        if (extents.x <= 0F || extents.y <= 0F || extents.z <= 0F) {
+            throw new IllegalArgumentException("the extents " + extents + " aren't positive.");
+        }
+
+        this.extents.set(extents);
+    }
+
+    /**
+     * Gets the half sizes of the box.
+     *
+     * @return the half sizes of the box.
+     */
+    public @NotNull Vector3f getExtents() {
+        return extents;
+    }
+
+    /**
+     * Sets the rotation of the box.
+     *
+     * @param rotation the rotation of the box.
+     */
+    public void setRotation(@NotNull Quaternion rotation) {
+
+        this.rotation.set(rotation);
+
+        Matrix3f matrix = rotation.toRotationMatrix(tempMatrix);
+
+        for (int axis = 0; axis < 3; axis++) {
+            axes[axis * 3] = matrix.get(0, axis);
+            axes[axis * 3 + 1] = matrix.get(1, axis);
+            axes[axis * 3 + 2] = matrix.get(2, axis);
+        }
+    }
+
+    /**
+     * Gets the rotation of the box.
+     *
+     * @return the rotation of the box.
+     */
+    public @NotNull Quaternion getRotation() {
+        return rotation;
+    }
+
+    @Override
+    public void getBounds(@NotNull Vector3f min, @NotNull Vector3f max) {
+
+        float[] axes = this.axes;
+
+        for (int i = 0; i < 3; i++) {
+
+            float extent = Math.abs(axes[i]) * extents.x + Math.abs(axes[3 + i]) * extents.y +
+                    Math.abs(axes[6 + i]) * extents.z;
+
+            min.set(i, center.get(i) - extent);
+            max.set(i, center.get(i) + extent);
+        }
+    }
+
+    @Override
+    public boolean contains(@NotNull Vector3f point) {
+
+        float diffX = point.x - center.x;
+        float diffY = point.y - center.y;
+        float diffZ = point.z - center.z;
+
+        for (int axis = 0; axis < 3; axis++) {
+
+            int index = axis * 3;
+            float local = axes[index] * diffX + axes[index + 1] * diffY + axes[index + 2] * diffZ;
+
+            if (Math.abs(local) >= extents.get(axis)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    protected float intersect(
+            float startX,
+            float startY,
+            float startZ,
+            float endX,
+            float endY,
+            float endZ,
+            @NotNull Vector3f normal
+    ) {
+
+        float[] axes = this.axes;
+
+        float diffX = startX - center.x;
+        float diffY = startY - center.y;
+        float diffZ = startZ - center.z;
+        float dirX = endX - startX;
+        float dirY = endY - startY;
+        float dirZ = endZ - startZ;
+
+        float enter = 0F;
+        float exit = 1F;
+        float enterSign = 0F;
+        int enterAxis = -1;
+
+        for (int axis = 0; axis < 3; axis++) {
+
+            int index = axis * 3;
+            float from = axes[index] * diffX + axes[index + 1] * diffY + axes[index + 2] * diffZ;
+            float delta = axes[index] * dirX + axes[index + 1] * dirY + axes[index + 2] * dirZ;
+            float extent = extents.get(axis);
+
+            if (delta == 0F) {
+
+                if (from <= -extent || from >= extent) {
+                    return NO_HIT;
+                }
+
+                continue;
+            }
+
+            float invDelta = 1F / delta;
+            float near = (-extent - from) * invDelta;
+            float far = (extent - from) * invDelta;
+            float sign = -1F;
+
+            if (near > far) {
+                float temp = near;
+                near = far;
+                far = temp;
+                sign = 1F;
+            }
+
+            if (near > enter) {
+                enter = near;
+                enterAxis = axis;
+                enterSign = sign;
+            }
+
+            exit = Math.min(exit, far);
+
+            if (enter > exit) {
+                return NO_HIT;
+            }
+        }
+
+        // the segment starts inside the box
+        if (enterAxis < 0) {
+            return NO_HIT;
+        }
+
+        int index = enterAxis * 3;
+
+        normal.set(axes[index] * enterSign, axes[index + 1] * enterSign, axes[index + 2] * enterSign);
+
+        return enter;
+    }
+}
@@ -0,0 +1,559 @@
+package tonegod.emitter.collision;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.bounding.BoundingSphere;
+import com.jme3.bounding.BoundingVolume;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * The uniform grid over world bounds of colliders which finds colliders near a particle. The grid is rebuilt only
+ * after changing bounds of colliders, queries don't allocate memory. Colliders without finite bounds are returned by
+ * each query.
+ *
+ * @author JavaSaBr
+ */
+public final class ColliderGrid {
+
+    /**
+     * The default max count of cells per an axis.
+     */
+    public static final int DEFAULT_MAX_CELLS = 16;
+
+    /**
+     * The count of values of bounds of a collider.
+     */
+    private static final int BOUND_SIZE = 6;
+
+    /**
+     * The bounds of colliders: minX, minY, minZ, maxX, maxY, maxZ per a collider.
+     */
+    @NotNull
+    private float[] bounds;
+
+    /**
+     * The query stamps of colliders.
+     */
+    @NotNull
+    private int[] stamps;
+
+    /**
+     * The found colliders of the last query.
+     */
+    @NotNull
+    private int[] candidates;
+
+    /**
+     * The start indexes of colliders of cells, the last value is the count of all cell items.
+     */
+    @NotNull
+    private int[] cellStarts;
+
+    /**
+     * The colliders of cells.
+     */
+    @NotNull
+    private int[] cellItems;
+
+    /**
+     * The colliders without finite bounds.
+     */
+    @NotNull
+    private int[] unbounded;
+
+    /**
+     * The min point of the grid.
+     */
+    @NotNull
+    private final Vector3f origin;
+
+    /**
+     * The max count of cells per an axis.
+     */
+    private final int maxCells;
+
+    /**
+     * The count of colliders.
+     */
+    private int count;
+
+    /**
+     * The count of colliders without finite bounds.
+     */
+    private int unboundedCount;
+
+    /**
+     * The count of cells by X.
+     */
+    private int cellsX;
+
+    /**
+     * The count of cells by Y.
+     */
+    private int cellsY;
+
+    /**
+     * The count of cells by Z.
+     */
+    private int cellsZ;
+
+    /**
+     * The inverted size of a cell.
+     */
+    private float invCellSize;
+
+    /**
+     * The current query stamp.
+     */
+    private int stamp;
+
+    /**
+     * True if bounds of colliders were changed after the last rebuild.
+     */
+    private boolean dirty;
+
+    /**
+     * The count of rebuilds of the grid.
+     */
+    private int version;
+
+    public ColliderGrid() {
+        this(DEFAULT_MAX_CELLS);
+    }
+
+    public ColliderGrid(int maxCells) {
+
+        if (maxCells < 1) {
+            throw new IllegalArgumentException("the max count of cells " + maxCells + " isn't positive.");
+        }
+
+        this.maxCells = maxCells;
+        this.bounds = new float[0];
+        this.stamps = new int[0];
+        this.candidates = new int[0];
+        this.cellStarts = new int[1];
+        this.cellItems = new int[0];
+        this.unbounded = new int[0];
+        this.origin = new Vector3f();
+    }
+
+    /**
+     * Sets the count of colliders, bounds of new colliders are unbounded.
+     *
+     * @param count the count of colliders.
+     */
+    public void setCount(int count) {
+
+        if (count == this.count) {
+            return;
+        }
+
+        if (count * BOUND_SIZE > bounds.length) {
+            bounds = Arrays.copyOf(bounds, count * BOUND_SIZE);
+            stamps = new int[count];
+            candidates = new int[count];
+            stamp = 0;
+        }
+
+        for (int i = this.count; i < count; i++) {
+            setUnbounded(i);
+        }
+
+        this.count = count;
+        this.dirty = true;
+    }
+
+    /**
+     * Gets the count of colliders.
+     *
+     * @return the count of colliders.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Sets bounds of the collider by its world bound.
+     *
+     * @param index the index of the collider.
+     * @param bound the world bound or null if the collider is unbounded.
+     */
+    public void setBounds(int index, @Nullable BoundingVolume bound) {
+
+        if (bound instanceof BoundingBox) {
+
+            BoundingBox box = (BoundingBox) bound;
+            Vector3f center = box.getCenter();
+
+            setBounds(index, center.x - box.getXExtent(), center.y - box.getYExtent(),
+                    center.z - box.getZExtent(), center.x + box.getXExtent(), center.y + box.getYExtent(),
+                    center.z + box.getZExtent());
+
+        } else if (bound instanceof BoundingSphere) {
+
+            BoundingSphere sphere = (BoundingSphere) bound;
+            Vector3f center = sphere.getCenter();
+            float radius = sphere.getRadius();
+
+            setBounds(index, center.x - radius, center.y - radius, center.z - radius,
+                    center.x + radius, center.y + radius, center.z + radius);
+
+        } else {
+            setBounds(index, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY,
+                    Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Sets bounds of the collider.
+     *
+     * @param index the index of the collider.
+     * @param minX  the min X.
+     * @param minY  the min Y.
+     * @param minZ  the min Z.
+     * @param maxX  the max X.
+     * @param maxY  the max Y.
+     * @param maxZ  the max Z.
+     */
+    public void setBounds(int index, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("the index " + index + " isn't in the range 0-" + (count - 1) + ".");
+        }
+
+        float[] bounds = this.bounds;
+        int offset = index * BOUND_SIZE;
+
+        if (bounds[offset] == minX && bounds[offset + 1] == minY && bounds[offset + 2] == minZ &&
+                bounds[offset + 3] == maxX && bounds[offset + 4] == maxY && bounds[offset + 5] == maxZ) {
+            return;
+        }
+
+        bounds[offset] = minX;
+        bounds[offset + 1] = minY;
+        bounds[offset + 2] = minZ;
+        bounds[offset + 3] = maxX;
+        bounds[offset + 4] = maxY;
+        bounds[offset + 5] = maxZ;
+
+        dirty = true;
+    }
+
+    /**
+     * Marks the collider as unbounded.
+     */
+    private void setUnbounded(int index) {
+        int offset = index * BOUND_SIZE;
+        Arrays.fill(bounds, offset, offset + 3, Float.NEGATIVE_INFINITY);
+        Arrays.fill(bounds, offset + 3, offset + BOUND_SIZE, Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Returns true if the collider has finite bounds.
+     */
+    private boolean isBounded(int index) {
+
+        int offset = index * BOUND_SIZE;
+
+        for (int i = offset; i < offset + BOUND_SIZE; i++) {
+            if (Float.isInfinite(bounds[i]) || Float.isNaN(bounds[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if bounds of colliders were changed after the last rebuild.
+     *
+     * @return true if the grid should be rebuilt.
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Gets the count of rebuilds of the grid, it's changed when bounds of colliders are changed.
+     *
+     * @return the count of rebuilds.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Rebuilds the grid if bounds of colliders were changed.
+     */
+    public void rebuild() {
+
+        if (!dirty) {
+            return;
+        }
+
+        dirty = false;
+        version++;
+
+        float[] bounds = this.bounds;
+
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+        float sizeSum = 0F;
+
+        unboundedCount = 0;
+
+        if (unbounded.length < count) {
+            unbounded = new int[count];
+        }
+
+        for (int i = 0; i < count; i++) {
+
+            if (!isBounded(i)) {
+                unbounded[unboundedCount++] = i;
+                continue;
+            }
+
+            int offset = i * BOUND_SIZE;
+
+            minX = Math.min(minX, bounds[offset]);
+            minY = Math.min(minY, bounds[offset + 1]);
+            minZ = Math.min(minZ, bounds[offset + 2]);
+            maxX = Math.max(maxX, bounds[offset + 3]);
+            maxY = Math.max(maxY, bounds[offset + 4]);
+            maxZ = Math.max(maxZ, bounds[offset + 5]);
+
+            sizeSum += Math.max(bounds[offset + 3] - bounds[offset],
+                    Math.max(bounds[offset + 4] - bounds[offset + 1], bounds[offset + 5] - bounds[offset + 2]));
+        }
+
+        int boundedCount = count - unboundedCount;
+
+        if (boundedCount == 0) {
+            cellsX = cellsY = cellsZ = 0;
+            cellStarts = new int[1];
+            return;
+        }
+
+        // the cell is about the average collider, but the grid can't have too many cells
+        float cellSize = sizeSum / boundedCount;
+        cellSize = Math.max(cellSize, (maxX - minX) / maxCells);
+        cellSize = Math.max(cellSize, (maxY - minY) / maxCells);
+        cellSize = Math.max(cellSize, (maxZ - minZ) / maxCells);
+        cellSize = Math.max(cellSize, 1e-4F);
+
+        origin.set(minX, minY, minZ);
+        invCellSize = 1F / cellSize;
+        cellsX = Math.max(1, Math.min(maxCells, (int) Math.ceil((maxX - minX) * invCellSize)));
+        cellsY = Math.max(1, Math.min(maxCells, (int) Math.ceil((maxY - minY) * invCellSize)));
+        cellsZ = Math.max(1, Math.min(maxCells, (int) Math.ceil((maxZ - minZ) * invCellSize)));
+
+        int[] cellStarts = new int[cellsX * cellsY * cellsZ + 1];
+
+        // count items of cells, then place items by the counting sort
+        for (int pass = 0; pass < 2; pass++) {
+
+            int[] cellItems = pass == 0 ? null : new int[cellStarts[cellStarts.length - 1]];
+            int[] cursors = pass == 0 ? null : Arrays.copyOf(cellStarts, cellStarts.length);
+
+            for (int i = 0; i < count; i++) {
+
+                if (!isBounded(i)) {
+                    continue;
+                }
+
+                int offset = i * BOUND_SIZE;
+
+                int startX = toCell(bounds[offset], origin.x, cellsX);
+                int startY = toCell(bounds[offset + 1], origin.y, cellsY);
+                int startZ = toCell(bounds[offset + 2], origin.z, cellsZ);
+                int endX = toCell(bounds[offset + 3], origin.x, cellsX);
+                int endY = toCell(bounds[offset + 4], origin.y, cellsY);
+                int endZ = toCell(bounds[offset + 5], origin.z, cellsZ);
+
+                for (int z = startZ; z <= endZ; z++) {
+                    for (int y = startY; y <= endY; y++) {
+                        for (int x = startX; x <= endX; x++) {
+
+                            int cell = (z * cellsY + y) * cellsX + x;
+
+                            if (cellItems == null) {
+                                cellStarts[cell + 1]++;
+                            } else {
+                                cellItems[cursors[cell]++] = i;
+                            }
+                        }
+                    }
+                }
+            }
+
+            if (cellItems == null) {
+                for (int cell = 1; cell < cellStarts.length; cell++) {
+                    cellStarts[cell] += cellStarts[cell - 1];
+                }
+            } else {
+                this.cellItems = cellItems;
+            }
+        }
+
+        this.cellStarts = cellStarts;
+    }
+
+    /**
+     * Converts the coordinate to the index of a cell.
+     */
+    private int toCell(float value, float origin, int cells) {
+        int cell = (int) ((value - origin) * invCellSize);
+        return cell < 0 ? 0 : cell >= cells ? cells - 1 : cell;
+    }
+
+    /**
+     * Finds colliders whose bounds overlap the box, the result is available by {@link #getCandidates()}.
+     *
+     * @param minX the min X.
+     * @param minY the min Y.
+     * @param minZ the min Z.
+     * @param maxX the max X.
+     * @param maxY the max Y.
+     * @param maxZ the max Z.
+     * @return the count of found colliders.
+     */
+    public int query(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+
+        int[] candidates = this.candidates;
+        int found = 0;
+
+        for (int i = 0; i < unboundedCount; i++) {
+            candidates[found++] = unbounded[i];
+        }
+
+        if (cellsX == 0 || maxX < origin.x || maxY < origin.y || maxZ < origin.z ||
+                minX > origin.x + cellsX / invCellSize || minY > origin.y + cellsY / invCellSize ||
+                minZ > origin.z + cellsZ / invCellSize) {
+            return found;
+        }
+
+        int stamp = nextStamp();
+
+        int[] stamps = this.stamps;
+        int[] cellStarts = this.cellStarts;
+        int[] cellItems = this.cellItems;
+        float[] bounds = this.bounds;
+
+        int startX = toCell(minX, origin.x, cellsX);
+        int startY = toCell(minY, origin.y, cellsY);
+        int startZ = toCell(minZ, origin.z, cellsZ);
+        int endX = toCell(maxX, origin.x, cellsX);
+        int endY = toCell(maxY, origin.y, cellsY);
+        int endZ = toCell(maxZ, origin.z, cellsZ);
+
+        for (int z = startZ; z <= endZ; z++) {
+            for (int y = startY; y <= endY; y++) {
+                for (int x = startX; x <= endX; x++) {
+
+                    int cell = (z * cellsY + y) * cellsX + x;
+
+                    for (int i = cellStarts[cell], last = cellStarts[cell + 1]; i < last; i++) {
+
+                        int item = cellItems[i];
+
+                        if (stamps[item] == stamp) {
+                            continue;
+                        }
+
+                        stamps[item] = stamp;
+
+                        int offset = item * BOUND_SIZE;
+
+                        if (maxX < bounds[offset] || maxY < bounds[offset + 1] || maxZ < bounds[offset + 2] ||
+                                minX > bounds[offset + 3] || minY > bounds[offset + 4] ||
+                                minZ > bounds[offset + 5]) {
+                            continue;
+                        }
+
+                        candidates[found++] = item;
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Gets the next query stamp.
+     */
+    private int nextStamp() {
+
+        stamp++;
+
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+
+        return stamp;
+    }
+
+    /**
+     * Gets the found colliders of the last query, the array must not be changed.
+     *
+     * @return the found colliders.
+     */
+    public @NotNull int[] getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Returns true if the segment intersects bounds of the collider.
+     *
+     * @param index the index of the collider.
+     * @param start the start of the segment.
+     * @param end   the end of the segment.
+     * @return true if the segment intersects bounds of the collider.
+     */
+    public boolean intersectsSegment(int index, @NotNull Vector3f start, @NotNull Vector3f end) {
+
+        int offset = index * BOUND_SIZE;
+
+        float enter = 0F;
+        float exit = 1F;
+
+        for (int axis = 0; axis < 3; axis++) {
+
+            float from = start.get(axis);
+            float delta = end.get(axis) - from;
+            float min = bounds[offset + axis];
+            float max = bounds[offset + axis + 3];
+
+            if (delta == 0F) {
+
+                if (from < min || from > max) {
+                    return false;
+                }
+
+                continue;
+            }
+
+            float t1 = (min - from) / delta;
+            float t2 = (max - from) / delta;
+
+            if (t1 > t2) {
+                float temp = t1;
+                t1 = t2;
+                t2 = temp;
+            }
+
+            enter = Math.max(enter, t1);
+            exit = Math.min(exit, t2);
+
+            if (enter > exit) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
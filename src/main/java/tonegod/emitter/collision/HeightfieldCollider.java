@@ -0,0 +1,305 @@
+package tonegod.emitter.collision;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The heightfield collider which is sampled from a grid of heights, the space below the surface is solid. Particles
+ * outside the area of the grid don't collide.
+ *
+ * @author JavaSaBr
+ */
+public class HeightfieldCollider extends AbstractParticleCollider {
+
+    /**
+     * The max count of steps of a segment over the surface.
+     */
+    public static final int MAX_STEPS = 64;
+
+    /**
+     * The heights: rows by Z of samples by X.
+     */
+    @NotNull
+    private float[] heights;
+
+    /**
+     * The position of the first sample with zero height.
+     */
+    @NotNull
+    private final Vector3f origin;
+
+    /**
+     * The distance between samples by X and Z and the multiplier of heights by Y.
+     */
+    @NotNull
+    private final Vector3f scale;
+
+    /**
+     * The count of samples by X.
+     */
+    private int width;
+
+    /**
+     * The count of samples by Z.
+     */
+    private int depth;
+
+    /**
+     * The min height.
+     */
+    private float minHeight;
+
+    /**
+     * The max height.
+     */
+    private float maxHeight;
+
+    public HeightfieldCollider(@NotNull float[] heights, int width, int depth) {
+        this(heights, width, depth, Vector3f.ZERO, Vector3f.UNIT_XYZ);
+    }
+
+    public HeightfieldCollider(
+            @NotNull float[] heights,
+            int width,
+            int depth,
+            @NotNull Vector3f origin,
+            @NotNull Vector3f scale
+    ) {
+        this.heights = heights;
+        this.origin = new Vector3f(origin);
+        this.scale = new Vector3f();
+        setScale(scale);
+        setHeights(heights, width, depth);
+    }
+
+    /**
+     * Sets the heights.
+     *
+     * @param heights the heights: rows by Z of samples by X.
+     * @param width   the count of samples by X.
+     * @param depth   the count of samples by Z.
+     */
+    public void setHeights(@NotNull float[] heights, int width, int depth) {
+
+        if (width < 2 || depth < 2) {
+            throw new IllegalArgumentException("the size " + width + "x" + depth + " is less than 2x2.");
+        } else if (heights.length < width * depth) {
+            throw new IllegalArgumentException("the length " + heights.length + " is less than " +
+                    (width * depth) + ".");
+        }
+
+        this.heights = heights.clone();
+        this.width = width;
+        this.depth = depth;
+
+        updateHeightRange();
+    }
+
+    /**
+     * Updates the range of heights.
+     */
+    private void updateHeightRange() {
+
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+
+        for (int i = 0, length = width * depth; i < length; i++) {
+            min = Math.min(min, heights[i]);
+            max = Math.max(max, heights[i]);
+        }
+
+        this.minHeight = min;
+        this.maxHeight = max;
+    }
+
+    /**
+     * Gets the count of samples by X.
+     *
+     * @return the count of samples by X.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the count of samples by Z.
+     *
+     * @return the count of samples by Z.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Sets the position of the first sample with zero height.
+     *
+     * @param origin the position of the first sample.
+     */
+    public void setOrigin(@NotNull Vector3f origin) {
+        this.origin.set(origin);
+    }
+
+    /**
+     * Gets the position of the first sample with zero height.
+     *
+     * @return the position of the first sample.
+     */
+    public @NotNull Vector3f getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Sets the distance between samples by X and Z and the multiplier of heights by Y.
+     *
+     * @param scale the scale.
+     */
+    public void setScale(@NotNull Vector3f scale) {
+
+        if (scale.x <= 0F || scale.z <= 0F) {
+            throw new IllegalArgumentException("the distance between samples " + scale + " isn't positive.");
+        }
+
+        this.scale.set(scale);
+    }
+
+    /**
+     * Gets the distance between samples by X and Z and the multiplier of heights by Y.
+     *
+     * @return the scale.
+     */
+    public @NotNull Vector3f getScale() {
+        return scale;
+    }
+
+    /**
+     * Gets the world height of the surface at the point.
+     *
+     * @param x the world X.
+     * @param z the world Z.
+     * @return the world height or NaN if the point is outside the area of the grid.
+     */
+    public float getHeight(float x, float z) {
+
+        float gridX = (x - origin.x) / scale.x;
+        float gridZ = (z - origin.z) / scale.z;
+
+        if (!(gridX >= 0F && gridX <= width - 1 && gridZ >= 0F && gridZ <= depth - 1)) {
+            return Float.NaN;
+        }
+
+        return sampleHeight(gridX, gridZ);
+    }
+
+    /**
+     * Samples the world height at the point of the grid.
+     */
+    private float sampleHeight(float gridX, float gridZ) {
+
+        int col = Math.min((int) gridX, width - 2);
+        int row = Math.min((int) gridZ, depth - 2);
+
+        float blendX = gridX - col;
+        float blendZ = gridZ - row;
+
+        int index = row * width + col;
+
+        float top = heights[index] + (heights[index + 1] - heights[index]) * blendX;
+        float bottom = heights[index + width] + (heights[index + width + 1] - heights[index + width]) * blendX;
+
+        return origin.y + (top + (bottom - top) * blendZ) * scale.y;
+    }
+
+    @Override
+    public void getBounds(@NotNull Vector3f min, @NotNull Vector3f max) {
+
+        float first = origin.y + minHeight * scale.y;
+        float last = origin.y + maxHeight * scale.y;
+
+        min.set(origin.x, Math.min(first, last), origin.z);
+        max.set(origin.x + (width - 1) * scale.x, Math.max(first, last), origin.z + (depth - 1) * scale.z);
+    }
+
+    @Override
+    public boolean contains(@NotNull Vector3f point) {
+        // NaN outside the grid gives false
+        return point.y < getHeight(point.x, point.z);
+    }
+
+    @Override
+    protected float intersect(
+            float startX,
+            float startY,
+            float startZ,
+            float endX,
+            float endY,
+            float endZ,
+            @NotNull Vector3f normal
+    ) {
+
+        float dirX = endX - startX;
+        float dirY = endY - startY;
+        float dirZ = endZ - startZ;
+
+        // a step of the segment crosses about one cell
+        float cells = Math.max(Math.abs(dirX) / scale.x, Math.abs(dirZ) / scale.z);
+        int steps = Math.max(1, Math.min(MAX_STEPS, (int) FastMath.ceil(cells)));
+
+        float prevFraction = 0F;
+        float prevAbove = startY - getHeight(startX, startZ);
+
+        for (int i = 1; i <= steps; i++) {
+
+            float fraction = (float) i / steps;
+            float x = startX + dirX * fraction;
+            float z = startZ + dirZ * fraction;
+            float above = startY + dirY * fraction - getHeight(x, z);
+
+            // NaN outside the grid fails both checks
+            if (prevAbove >= 0F && above < 0F) {
+
+                float hit = prevFraction + (fraction - prevFraction) * prevAbove / (prevAbove - above);
+
+                writeNormal(startX + dirX * hit, startZ + dirZ * hit, normal);
+
+                return hit;
+            }
+
+            prevFraction = fraction;
+            prevAbove = above;
+        }
+
+        return NO_HIT;
+    }
+
+    /**
+     * Writes the normal of the surface at the point.
+     */
+    private void writeNormal(float x, float z, @NotNull Vector3f normal) {
+
+        float stepX = scale.x * 0.5F;
+        float stepZ = scale.z * 0.5F;
+
+        float left = getHeightClamped(x - stepX, z);
+        float right = getHeightClamped(x + stepX, z);
+        float back = getHeightClamped(x, z - stepZ);
+        float front = getHeightClamped(x, z + stepZ);
+
+        float normalX = (left - right) / (stepX * 2F);
+        float normalZ = (back - front) / (stepZ * 2F);
+        float invLength = 1F / FastMath.sqrt(normalX * normalX + 1F + normalZ * normalZ);
+
+        normal.set(normalX * invLength, invLength, normalZ * invLength);
+    }
+
+    /**
+     * Gets the world height at the point clamped by the area of the grid.
+     */
+    private float getHeightClamped(float x, float z) {
+
+        float gridX = (x - origin.x) / scale.x;
+        float gridZ = (z - origin.z) / scale.z;
+
+        return sampleHeight(Math.max(0F, Math.min(width - 1, gridX)), Math.max(0F, Math.min(depth - 1, gridZ)));
+    }
+}
@@ -0,0 +1,44 @@
+package tonegod.emitter.collision;
+
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The interface for implementing analytic colliders of particles which are tested without triangles of meshes. All
+ * values of colliders are in world space.
+ *
+ * @author JavaSaBr
+ */
+public interface ParticleCollider {
+
+    /**
+     * The result of a segment which doesn't hit the collider.
+     */
+    float NO_HIT = -1F;
+
+    /**
+     * Gets the bounds of this collider.
+     *
+     * @param min the min point of the bounds, it's negative infinity if the collider isn't bounded.
+     * @param max the max point of the bounds, it's positive infinity if the collider isn't bounded.
+     */
+    void getBounds(@NotNull Vector3f min, @NotNull Vector3f max);
+
+    /**
+     * Returns true if the point is inside this collider.
+     *
+     * @param point the point.
+     * @return true if the point is inside this collider.
+     */
+    boolean contains(@NotNull Vector3f point);
+
+    /**
+     * Finds the first contact of the segment which enters this collider.
+     *
+     * @param start  the start of the segment.
+     * @param end    the end of the segment.
+     * @param normal the normal of the surface at the contact.
+     * @return the fraction of the segment before the contact or {@link #NO_HIT}.
+     */
+    float intersect(@NotNull Vector3f start, @NotNull Vector3f end, @NotNull Vector3f normal);
+}
@@ -0,0 +1,111 @@
+package tonegod.emitter.collision;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The infinite plane collider, the space behind the plane is solid.
+ *
+ * @author JavaSaBr
+ */
+public class PlaneCollider extends AbstractParticleCollider {
+
+    /**
+     * The normal of the plane.
+     */
+    @NotNull
+    private final Vector3f normal;
+
+    /**
+     * The distance of the plane from the origin along the normal.
+     */
+    private float constant;
+
+    public PlaneCollider() {
+        this(Vector3f.UNIT_Y, 0F);
+    }
+
+    public PlaneCollider(@NotNull Vector3f normal, float constant) {
+        this.normal = new Vector3f();
+        setNormal(normal);
+        setConstant(constant);
+    }
+
+    /**
+     * Sets the normal of the plane.
+     *
+     * @param normal the normal of the plane.
+     */
+    public void setNormal(@NotNull Vector3f normal) {
+
+        if (normal.lengthSquared() < FastMath.ZERO_TOLERANCE) {
+            throw new IllegalArgumentException("the normal " + normal + " has zero length.");
+        }
+
+        this.normal.set(normal).normalizeLocal();
+    }
+
+    /**
+     * Gets the normal of the plane.
+     *
+     * @return the normal of the plane.
+     */
+    public @NotNull Vector3f getNormal() {
+        return normal;
+    }
+
+    /**
+     * Sets the distance of the plane from the origin along the normal.
+     *
+     * @param constant the distance of the plane.
+     */
+    public void setConstant(float constant) {
+        this.constant = constant;
+    }
+
+    /**
+     * Gets the distance of the plane from the origin along the normal.
+     *
+     * @return the distance of the plane.
+     */
+    public float getConstant() {
+        return constant;
+    }
+
+    @Override
+    public void getBounds(@NotNull Vector3f min, @NotNull Vector3f max) {
+        min.set(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+        max.set(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+    }
+
+    @Override
+    public boolean contains(@NotNull Vector3f point) {
+        return normal.dot(point) < constant;
+    }
+
+    @Override
+    protected float intersect(
+            float startX,
+            float startY,
+            float startZ,
+            float endX,
+            float endY,
+            float endZ,
+            @NotNull Vector3f normal
+    ) {
+
+        Vector3f planeNormal = this.normal;
+
+        float startDistance = planeNormal.x * startX + planeNormal.y * startY + planeNormal.z * startZ - constant;
+        float endDistance = planeNormal.x * endX + planeNormal.y * endY + planeNormal.z * endZ - constant;
+
+        if (startDistance < 0F || endDistance >= 0F) {
+            return NO_HIT;
+        }
+
+        normal.set(planeNormal);
+
+        return startDistance / (startDistance - endDistance);
+    }
+}
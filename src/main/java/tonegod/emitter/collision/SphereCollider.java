@@ -0,0 +1,134 @@
+package tonegod.emitter.collision;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The solid sphere collider.
+ *
+ * @author JavaSaBr
+ */
+public class SphereCollider extends AbstractParticleCollider {
+
+    /**
+     * The center of the sphere.
+     */
+    @NotNull
+    private final Vector3f center;
+
+    /**
+     * The radius of the sphere.
+     */
+    private float radius;
+
+    public SphereCollider() {
+        this(Vector3f.ZERO, 1F);
+    }
+
+    public SphereCollider(@NotNull Vector3f center, float radius) {
+        this.center = new Vector3f(center);
+        setRadius(radius);
+    }
+
+    /**
+     * Sets the center of the sphere.
+     *
+     * @param center the center of the sphere.
+     */
+    public void setCenter(@NotNull Vector3f center) {
+        this.center.set(center);
+    }
+
+    /**
+     * Gets the center of the sphere.
+     *
+     * @return the center of the sphere.
+     */
+    public @NotNull Vector3f getCenter() {
+        return center;
+    }
+
+    /**
+     * Sets the radius of the sphere.
+     *
+     * @param radius the radius of the sphere.
+     */
+    public void setRadius(float radius) {
+
+        if (radius <= 0F) {
+            throw new IllegalArgumentException("the radius " + radius + " isn't positive.");
+        }
+
+        this.radius = radius;
+    }
+
+    /**
+     * Gets the radius of the sphere.
+     *
+     * @return the radius of the sphere.
+     */
+    public float getRadius() {
+        return radius;
+    }
+
+    @Override
+    public void getBounds(@NotNull Vector3f min, @NotNull Vector3f max) {
+        min.set(center).subtractLocal(radius, radius, radius);
+        max.set(center).addLocal(radius, radius, radius);
+    }
+
+    @Override
+    public boolean contains(@NotNull Vector3f point) {
+        return point.distanceSquared(center) < radius * radius;
+    }
+
+    @Override
+    protected float intersect(
+            float startX,
+            float startY,
+            float startZ,
+            float endX,
+            float endY,
+            float endZ,
+            @NotNull Vector3f normal
+    ) {
+
+        Vector3f center = this.center;
+
+        float dirX = endX - startX;
+        float dirY = endY - startY;
+        float dirZ = endZ - startZ;
+        float diffX = startX - center.x;
+        float diffY = startY - center.y;
+        float diffZ = startZ - center.z;
+
+        float a = dirX * dirX + dirY * dirY + dirZ * dirZ;
+        float b = diffX * dirX + diffY * dirY + diffZ * dirZ;
+        float c = diffX * diffX + diffY * diffY + diffZ * diffZ - radius * radius;
+
+        // the segment starts inside or moves away from the sphere
+        if (c < 0F || b >= 0F || a < FastMath.ZERO_TOLERANCE) {
+            return NO_HIT;
+        }
+
+        float discriminant = b * b - a * c;
+
+        if (discriminant < 0F) {
+            return NO_HIT;
+        }
+
+        float fraction = (-b - FastMath.sqrt(discriminant)) / a;
+
+        if (fraction > 1F) {
+            return NO_HIT;
+        }
+
+        float invRadius = 1F / radius;
+
+        normal.set((diffX + dirX * fraction) * invRadius, (diffY + dirY * fraction) * invRadius,
+                (diffZ + dirZ * fraction) * invRadius);
+
+        return fraction;
+    }
+}
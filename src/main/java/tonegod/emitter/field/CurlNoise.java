@@ -0,0 +1,235 @@
+package tonegod.emitter.field;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+
+/**
+ * The generator of tileable curl noise lattices. The curl of a noise potential is divergence free, so particles
+ * moved by it swirl without gathering in sinks.
+ *
+ * @author JavaSaBr
+ */
+public final class CurlNoise {
+
+    /**
+     * The size of permutation tables.
+     */
+    private static final int TABLE_SIZE = 256;
+
+    /**
+     * The gradients of the noise: the directions to the edges of a cube.
+     */
+    @NotNull
+    private static final float[] GRADIENTS = {
+            1, 1, 0, -1, 1, 0, 1, -1, 0, -1, -1, 0,
+            1, 0, 1, -1, 0, 1, 1, 0, -1, -1, 0, -1,
+            0, 1, 1, 0, -1, 1, 0, 1, -1, 0, -1, -1
+    };
+
+    /**
+     * Generates the tileable lattice of curl noise, vectors of the lattice have max length 1.
+     *
+     * @param resolution the count of samples of the lattice by each axis.
+     * @param frequency  the count of noise cells of the first octave by each axis.
+     * @param octaves    the count of octaves, each next octave has double frequency and half amplitude.
+     * @param seed       the seed.
+     * @return the tileable vector field grid.
+     */
+    public static @NotNull VectorFieldGrid generate(int resolution, int frequency, int octaves, long seed) {
+
+        if (resolution < 2) {
+            throw new IllegalArgumentException("the resolution " + resolution + " is less than 2.");
+        } else if (frequency < 1 || frequency > TABLE_SIZE) {
+            throw new IllegalArgumentException("the frequency " + frequency + " isn't in the range 1-" +
+                    TABLE_SIZE + ".");
+        } else if (octaves < 1) {
+            throw new IllegalArgumentException("the count of octaves " + octaves + " isn't positive.");
+        }
+
+        Random random = new Random(seed);
+
+        int[][] tables = {createTable(random), createTable(random), createTable(random)};
+        int count = resolution * resolution * resolution;
+
+        float[] potential = new float[count * VectorFieldGrid.VECTOR_SIZE];
+
+        for (int z = 0, index = 0; z < resolution; z++) {
+            for (int y = 0; y < resolution; y++) {
+                for (int x = 0; x < resolution; x++, index += VectorFieldGrid.VECTOR_SIZE) {
+                    for (int k = 0; k < VectorFieldGrid.VECTOR_SIZE; k++) {
+                        potential[index + k] = fractal(x, y, z, resolution, frequency, octaves, tables[k]);
+                    }
+                }
+            }
+        }
+
+        float[] vectors = new float[potential.length];
+        float maxLength = 0F;
+
+        // the curl by central differences wrapped over the tile
+        for (int z = 0, index = 0; z < resolution; z++) {
+
+            int prevZ = (z + resolution - 1) % resolution;
+            int nextZ = (z + 1) % resolution;
+
+            for (int y = 0; y < resolution; y++) {
+
+                int prevY = (y + resolution - 1) % resolution;
+                int nextY = (y + 1) % resolution;
+
+                for (int x = 0; x < resolution; x++, index += VectorFieldGrid.VECTOR_SIZE) {
+
+                    int prevX = (x + resolution - 1) % resolution;
+                    int nextX = (x + 1) % resolution;
+
+                    int offsetPrevX = offset(prevX, y, z, resolution);
+                    int offsetNextX = offset(nextX, y, z, resolution);
+                    int offsetPrevY = offset(x, prevY, z, resolution);
+                    int offsetNextY = offset(x, nextY, z, resolution);
+                    int offsetPrevZ = offset(x, y, prevZ, resolution);
+                    int offsetNextZ = offset(x, y, nextZ, resolution);
+
+                    float dzdy = potential[offsetNextY + 2] - potential[offsetPrevY + 2];
+                    float dydz = potential[offsetNextZ + 1] - potential[offsetPrevZ + 1];
+                    float dxdz = potential[offsetNextZ] - potential[offsetPrevZ];
+                    float dzdx = potential[offsetNextX + 2] - potential[offsetPrevX + 2];
+                    float dydx = potential[offsetNextX + 1] - potential[offsetPrevX + 1];
+                    float dxdy = potential[offsetNextY] - potential[offsetPrevY];
+
+                    float curlX = dzdy - dydz;
+                    float curlY = dxdz - dzdx;
+                    float curlZ = dydx - dxdy;
+
+                    vectors[index] = curlX;
+                    vectors[index + 1] = curlY;
+                    vectors[index + 2] = curlZ;
+
+                    maxLength = Math.max(maxLength, curlX * curlX + curlY * curlY + curlZ * curlZ);
+                }
+            }
+        }
+
+        if (maxLength > 0F) {
+
+            float scale = 1F / (float) Math.sqrt(maxLength);
+
+            for (int i = 0; i < vectors.length; i++) {
+                vectors[i] *= scale;
+            }
+        }
+
+        return new VectorFieldGrid(vectors, resolution, resolution, resolution, true);
+    }
+
+    /**
+     * Gets the offset of the sample in the lattice.
+     */
+    private static int offset(int x, int y, int z, int resolution) {
+        return ((z * resolution + y) * resolution + x) * VectorFieldGrid.VECTOR_SIZE;
+    }
+
+    /**
+     * Creates a random permutation table.
+     */
+    private static @NotNull int[] createTable(@NotNull Random random) {
+
+        int[] table = new int[TABLE_SIZE];
+
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            table[i] = i;
+        }
+
+        for (int i = TABLE_SIZE - 1; i > 0; i--) {
+            int index = random.nextInt(i + 1);
+            int temp = table[i];
+            table[i] = table[index];
+            table[index] = temp;
+        }
+
+        return table;
+    }
+
+    /**
+     * Calculates the sum of octaves of the noise at the sample of the lattice.
+     */
+    private static float fractal(
+            int x,
+            int y,
+            int z,
+            int resolution,
+            int frequency,
+            int octaves,
+            @NotNull int[] table
+    ) {
+
+        float result = 0F;
+        float amplitude = 1F;
+
+        for (int octave = 0; octave < octaves; octave++) {
+
+            int period = Math.min(frequency << octave, TABLE_SIZE);
+            float scale = (float) period / resolution;
+
+            result += noise(x * scale, y * scale, z * scale, period, table) * amplitude;
+            amplitude *= 0.5F;
+        }
+
+        return result;
+    }
+
+    /**
+     * Calculates the gradient noise which is repeated with the period.
+     */
+    private static float noise(float x, float y, float z, int period, @NotNull int[] table) {
+
+        int cellX = (int) Math.floor(x);
+        int cellY = (int) Math.floor(y);
+        int cellZ = (int) Math.floor(z);
+
+        float fx = x - cellX;
+        float fy = y - cellY;
+        float fz = z - cellZ;
+
+        int x0 = cellX % period, y0 = cellY % period, z0 = cellZ % period;
+        int x1 = (x0 + 1) % period, y1 = (y0 + 1) % period, z1 = (z0 + 1) % period;
+
+        float n000 = gradient(table, x0, y0, z0, fx, fy, fz);
+        float n100 = gradient(table, x1, y0, z0, fx - 1, fy, fz);
+        float n010 = gradient(table, x0, y1, z0, fx, fy - 1, fz);
+        float n110 = gradient(table, x1, y1, z0, fx - 1, fy - 1, fz);
+        float n001 = gradient(table, x0, y0, z1, fx, fy, fz - 1);
+        float n101 = gradient(table, x1, y0, z1, fx - 1, fy, fz - 1);
+        float n011 = gradient(table, x0, y1, z1, fx, fy - 1, fz - 1);
+        float n111 = gradient(table, x1, y1, z1, fx - 1, fy - 1, fz - 1);
+
+        float u = fade(fx);
+        float v = fade(fy);
+        float w = fade(fz);
+
+        float nx00 = n000 + (n100 - n000) * u;
+        float nx10 = n010 + (n110 - n010) * u;
+        float nx01 = n001 + (n101 - n001) * u;
+        float nx11 = n011 + (n111 - n011) * u;
+
+        float nxy0 = nx00 + (nx10 - nx00) * v;
+        float nxy1 = nx01 + (nx11 - nx01) * v;
+
+        return nxy0 + (nxy1 - nxy0) * w;
+    }
+
+    /**
+     * Calculates the dot product of the gradient of the lattice point and the offset.
+     */
+    private static float gradient(@NotNull int[] table, int x, int y, int z, float dx, float dy, float dz) {
+        int hash = table[(table[(table[x] + y) % TABLE_SIZE] + z) % TABLE_SIZE] % 12 * 3;
+        return GRADIENTS[hash] * dx + GRADIENTS[hash + 1] * dy + GRADIENTS[hash + 2] * dz;
+    }
+
+    /**
+     * The quintic fade curve.
+     */
+    private static float fade(float value) {
+        return value * value * value * (value * (value * 6F - 15F) + 10F);
+    }
+}
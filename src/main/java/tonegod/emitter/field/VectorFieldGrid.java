@@ -0,0 +1,393 @@
+package tonegod.emitter.field;
+
+import com.jme3.export.InputCapsule;
+import com.jme3.export.JmeExporter;
+import com.jme3.export.JmeImporter;
+import com.jme3.export.OutputCapsule;
+import com.jme3.export.Savable;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The 3D grid of vectors which is sampled trilinearly in grid space, where the point (i, j, k) is the sample
+ * (i, j, k). Points outside the grid are clamped to its border or wrapped if the grid is tileable. Sampling doesn't
+ * allocate memory.
+ * <p>
+ * The binary format is the magic number, the width, the height, the depth, the tileable flag as ints and then
+ * X, Y, Z of samples with X changing fastest, all values are big endian.
+ *
+ * @author JavaSaBr
+ */
+public final class VectorFieldGrid implements Savable, Cloneable {
+
+    /**
+     * The magic number of the binary format.
+     */
+    public static final int MAGIC = 0x56464731;
+
+    /**
+     * The count of values of a point or a sample.
+     */
+    public static final int VECTOR_SIZE = 3;
+
+    /**
+     * Reads a grid in the binary format.
+     *
+     * @param stream the input stream.
+     * @return the read grid.
+     * @throws IOException if the stream has a wrong format.
+     */
+    public static @NotNull VectorFieldGrid read(@NotNull InputStream stream) throws IOException {
+
+        DataInputStream input = new DataInputStream(stream);
+
+        if (input.readInt() != MAGIC) {
+            throw new IOException("the stream doesn't contain a vector field.");
+        }
+
+        int width = input.readInt();
+        int height = input.readInt();
+        int depth = input.readInt();
+        boolean tileable = input.readInt() != 0;
+
+        if (width < 1 || height < 1 || depth < 1 || (long) width * height * depth * VECTOR_SIZE > Integer.MAX_VALUE) {
+            throw new IOException("the size " + width + "x" + height + "x" + depth + " is wrong.");
+        }
+
+        float[] vectors = new float[width * height * depth * VECTOR_SIZE];
+
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = input.readFloat();
+        }
+
+        VectorFieldGrid grid = new VectorFieldGrid();
+        grid.vectors = vectors;
+        grid.width = width;
+        grid.height = height;
+        grid.depth = depth;
+        grid.tileable = tileable;
+
+        return grid;
+    }
+
+    /**
+     * The vectors: X, Y, Z of samples with X changing fastest.
+     */
+    @NotNull
+    private float[] vectors;
+
+    /**
+     * The count of samples by X.
+     */
+    private int width;
+
+    /**
+     * The count of samples by Y.
+     */
+    private int height;
+
+    /**
+     * The count of samples by Z.
+     */
+    private int depth;
+
+    /**
+     * True if the grid is repeated out of its bounds.
+     */
+    private boolean tileable;
+
+    /**
+     * The store of a single sample.
+     */
+    @NotNull
+    private transient float[] sampleStore;
+
+    /**
+     * Creates an empty grid for serialization.
+     */
+    public VectorFieldGrid() {
+        this.vectors = new float[VECTOR_SIZE];
+        this.sampleStore = new float[VECTOR_SIZE];
+        this.width = 1;
+        this.height = 1;
+        this.depth = 1;
+    }
+
+    public VectorFieldGrid(int width, int height, int depth, boolean tileable) {
+        this(new float[Math.max(width * height * depth, 1) * VECTOR_SIZE], width, height, depth, tileable);
+    }
+
+    public VectorFieldGrid(@NotNull float[] vectors, int width, int height, int depth, boolean tileable) {
+
+        if (width < 1 || height < 1 || depth < 1) {
+            throw new IllegalArgumentException("the size " + width + "x" + height + "x" + depth + " isn't positive.");
+        } else if (vectors.length != width * height * depth * VECTOR_SIZE) {
+            throw new IllegalArgumentException("the length " + vectors.length + " isn't " +
+                    (width * height * depth * VECTOR_SIZE) + ".");
+        }
+
+        this.vectors = vectors;
+        this.sampleStore = new float[VECTOR_SIZE];
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+        this.tileable = tileable;
+    }
+
+    /**
+     * Writes this grid in the binary format.
+     *
+     * @param stream the output stream.
+     * @throws IOException if the stream can't be written.
+     */
+    public void write(@NotNull OutputStream stream) throws IOException {
+
+        DataOutputStream output = new DataOutputStream(stream);
+        output.writeInt(MAGIC);
+        output.writeInt(width);
+        output.writeInt(height);
+        output.writeInt(depth);
+        output.writeInt(tileable ? 1 : 0);
+
+        for (float value : vectors) {
+            output.writeFloat(value);
+        }
+
+        output.flush();
+    }
+
+    /**
+     * Gets the vectors of this grid, changes of the array are visible to sampling.
+     *
+     * @return the vectors: X, Y, Z of samples with X changing fastest.
+     */
+    public @NotNull float[] getVectors() {
+        return vectors;
+    }
+
+    /**
+     * Sets the vector of the sample.
+     *
+     * @param x      the X of the sample.
+     * @param y      the Y of the sample.
+     * @param z      the Z of the sample.
+     * @param vector the vector.
+     */
+    public void setVector(int x, int y, int z, @NotNull Vector3f vector) {
+        int offset = ((z * height + y) * width + x) * VECTOR_SIZE;
+        vectors[offset] = vector.x;
+        vectors[offset + 1] = vector.y;
+        vectors[offset + 2] = vector.z;
+    }
+
+    /**
+     * Gets the count of samples by X.
+     *
+     * @return the count of samples by X.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the count of samples by Y.
+     *
+     * @return the count of samples by Y.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the count of samples by Z.
+     *
+     * @return the count of samples by Z.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns true if the grid is repeated out of its bounds.
+     *
+     * @return true if the grid is tileable.
+     */
+    public boolean isTileable() {
+        return tileable;
+    }
+
+    /**
+     * Sets true if the grid should be repeated out of its bounds, the last sample is interpolated with the first one.
+     *
+     * @param tileable true if the grid is tileable.
+     */
+    public void setTileable(boolean tileable) {
+        this.tileable = tileable;
+    }
+
+    /**
+     * Samples the vector at the point of grid space.
+     *
+     * @param x     the X in grid space.
+     * @param y     the Y in grid space.
+     * @param z     the Z in grid space.
+     * @param store the store of the vector.
+     * @return the store.
+     */
+    public @NotNull Vector3f sample(float x, float y, float z, @NotNull Vector3f store) {
+
+        float[] result = this.sampleStore;
+        sample(x, y, z, result, 0);
+
+        return store.set(result[0], result[1], result[2]);
+    }
+
+    /**
+     * Samples vectors at the points of grid space in one loop.
+     *
+     * @param points  the points: X, Y, Z per a point.
+     * @param count   the count of points.
+     * @param results the store of vectors: X, Y, Z per a point.
+     */
+    public void sample(@NotNull float[] points, int count, @NotNull float[] results) {
+
+        if (points.length < count * VECTOR_SIZE || results.length < count * VECTOR_SIZE) {
+            throw new IllegalArgumentException("the arrays are too small for " + count + " points.");
+        }
+
+        for (int i = 0, offset = 0; i < count; i++, offset += VECTOR_SIZE) {
+            sample(points[offset], points[offset + 1], points[offset + 2], results, offset);
+        }
+    }
+
+    /**
+     * Samples the vector at the point of grid space.
+     *
+     * @param x      the X in grid space.
+     * @param y      the Y in grid space.
+     * @param z      the Z in grid space.
+     * @param store  the store of the vector.
+     * @param offset the offset of the vector in the store.
+     */
+    public void sample(float x, float y, float z, @NotNull float[] store, int offset) {
+
+        int width = this.width;
+        int height = this.height;
+        int depth = this.depth;
+        boolean tileable = this.tileable;
+
+        float floorX = (float) Math.floor(x);
+        float floorY = (float) Math.floor(y);
+        float floorZ = (float) Math.floor(z);
+
+        float blendX = x - floorX;
+        float blendY = y - floorY;
+        float blendZ = z - floorZ;
+
+        int x0, x1, y0, y1, z0, z1;
+
+        if (tileable) {
+            x0 = wrap((int) floorX, width);
+            y0 = wrap((int) floorY, height);
+            z0 = wrap((int) floorZ, depth);
+            x1 = x0 + 1 == width ? 0 : x0 + 1;
+            y1 = y0 + 1 == height ? 0 : y0 + 1;
+            z1 = z0 + 1 == depth ? 0 : z0 + 1;
+        } else {
+
+            x0 = clamp((int) floorX, width);
+            y0 = clamp((int) floorY, height);
+            z0 = clamp((int) floorZ, depth);
+            x1 = clamp((int) floorX + 1, width);
+            y1 = clamp((int) floorY + 1, height);
+            z1 = clamp((int) floorZ + 1, depth);
+
+            // out of the grid the border sample is used
+            if (x0 == x1) blendX = 0F;
+            if (y0 == y1) blendY = 0F;
+            if (z0 == z1) blendZ = 0F;
+        }
+
+        float[] vectors = this.vectors;
+
+        int row00 = (z0 * height + y0) * width;
+        int row10 = (z0 * height + y1) * width;
+        int row01 = (z1 * height + y0) * width;
+        int row11 = (z1 * height + y1) * width;
+
+        int i000 = (row00 + x0) * VECTOR_SIZE;
+        int i100 = (row00 + x1) * VECTOR_SIZE;
+        int i010 = (row10 + x0) * VECTOR_SIZE;
+        int i110 = (row10 + x1) * VECTOR_SIZE;
+        int i001 = (row01 + x0) * VECTOR_SIZE;
+        int i101 = (row01 + x1) * VECTOR_SIZE;
+        int i011 = (row11 + x0) * VECTOR_SIZE;
+        int i111 = (row11 + x1) * VECTOR_SIZE;
+
+        for (int k = 0; k < VECTOR_SIZE; k++) {
+
+            float v00 = vectors[i000 + k] + (vectors[i100 + k] - vectors[i000 + k]) * blendX;
+            float v10 = vectors[i010 + k] + (vectors[i110 + k] - vectors[i010 + k]) * blendX;
+            float v01 = vectors[i001 + k] + (vectors[i101 + k] - vectors[i001 + k]) * blendX;
+            float v11 = vectors[i011 + k] + (vectors[i111 + k] - vectors[i011 + k]) * blendX;
+
+            float v0 = v00 + (v10 - v00) * blendY;
+            float v1 = v01 + (v11 - v01) * blendY;
+
+            store[offset + k] = v0 + (v1 - v0) * blendZ;
+        }
+    }
+
+    /**
+     * Wraps the index of a sample by the size.
+     */
+    private static int wrap(int value, int size) {
+        int result = value % size;
+        return result < 0 ? result + size : result;
+    }
+
+    /**
+     * Clamps the index of a sample by the size.
+     */
+    private static int clamp(int value, int size) {
+        return value < 0 ? 0 : value >= size ? size - 1 : value;
+    }
+
+    @Override
+    public @NotNull VectorFieldGrid clone() {
+        try {
+            VectorFieldGrid clone = (VectorFieldGrid) super.clone();
+            clone.vectors = vectors.clone();
+            clone.sampleStore = new float[VECTOR_SIZE];
+            return clone;
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void write(@NotNull JmeExporter exporter) throws IOException {
+        OutputCapsule capsule = exporter.getCapsule(this);
+        capsule.write(vectors, "vectors", null);
+        capsule.write(width, "width", 1);
+        capsule.write(height, "height", 1);
+        capsule.write(depth, "depth", 1);
+        capsule.write(tileable, "tileable", false);
+    }
+
+    @Override
+    public void read(@NotNull JmeImporter importer) throws IOException {
+        InputCapsule capsule = importer.getCapsule(this);
+        vectors = capsule.readFloatArray("vectors", new float[VECTOR_SIZE]);
+        width = capsule.readInt("width", 1);
+        height = capsule.readInt("height", 1);
+        depth = capsule.readInt("depth", 1);
+        tileable = capsule.readBoolean("tileable", false);
+    }
+}
@@ -4,14 +4,22 @@ import com.jme3.asset.AssetManager;
 import com.jme3.material.MatParam;
 import com.jme3.material.Material;
 import com.jme3.material.MaterialDef;
+import com.jme3.material.RenderState;
+import com.jme3.material.RenderState.BlendFunc;
+import com.jme3.material.RenderState.BlendMode;
+import com.jme3.material.Technique;
 import com.jme3.math.ColorRGBA;
+import com.jme3.math.Vector2f;
 import com.jme3.post.Filter;
+import com.jme3.renderer.Camera;
 import com.jme3.renderer.RenderManager;
 import com.jme3.renderer.Renderer;
 import com.jme3.renderer.ViewPort;
 import com.jme3.renderer.queue.RenderQueue;
+import com.jme3.scene.Geometry;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
+import com.jme3.scene.shape.Quad;
 import com.jme3.texture.FrameBuffer;
 import com.jme3.texture.Image;
 import com.jme3.texture.Texture;
@@ -19,10 +27,20 @@ import com.jme3.texture.Texture2D;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.ParticleEmitterRegistry;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * A filter to handle translucent objects when rendering a scene with filters that uses depth like WaterFilter and
  * SSAOFilter just create a TranslucentBucketFilter and add it to the Filter list of a FilterPostPorcessor
+ * <p>
+ * The translucent bucket can be rendered to a reduced resolution target to save fill rate (see
+ * {@link #setResolutionFactor(int)}), the result is composited to the scene by a depth-aware upsample.
  *
  * @author Nehon, JavaSaBr
  */
@@ -34,8 +52,91 @@ public class TonegodTranslucentBucketFilter extends Filter {
 
     private boolean enabledSoftParticles;
 
+    /**
+     * The divider of the resolution of the translucent pass: 1, 2 or 4.
+     */
+    private int resolutionFactor;
+
+    /**
+     * The blend mode to composite the reduced resolution pass to the scene.
+     */
+    @NotNull
+    private BlendMode compositeBlendMode;
+
+    private AssetManager assetManager;
+
+    private int width;
+    private int height;
+
+    /**
+     * The reduced resolution target with the downsampled scene depth.
+     */
+    @Nullable
+    private FrameBuffer lowResBuffer;
+
+    @Nullable
+    private Texture2D lowResColor;
+
+    @Nullable
+    private Texture2D lowResDepth;
+
+    @Nullable
+    private Material downsampleMaterial;
+
+    @Nullable
+    private Material upsampleMaterial;
+
+    @Nullable
+    private Geometry screenQuad;
+
+    /**
+     * The copy of the scene camera with the reduced resolution.
+     */
+    @Nullable
+    private Camera lowResCamera;
+
+    @Nullable
+    private Camera lowResScreenCamera;
+
+    @Nullable
+    private Camera screenCamera;
+
+    /**
+     * The materials of emitters which already have the soft particles params.
+     */
+    @NotNull
+    private final Map<ParticleEmitterNode, Material> preparedEmitters;
+
+    /**
+     * The temp list of registered emitters.
+     */
+    @NotNull
+    private final List<ParticleEmitterNode> registeredEmitters;
+
+    /**
+     * The render states of alpha blended emitters which blend the alpha as coverage during the reduced resolution
+     * pass.
+     */
+    @NotNull
+    private final List<RenderState> coverageStates;
+
+    /**
+     * The version of the emitter registry which was processed last time.
+     */
+    private int registryVersion;
+
+    /**
+     * True if registered emitters should be processed regardless of the version of the registry.
+     */
+    private boolean needUpdateEmitters;
+
     public TonegodTranslucentBucketFilter() {
         super("TonegodTranslucentBucketFilter");
+        this.preparedEmitters = new WeakHashMap<>();
+        this.registeredEmitters = new ArrayList<>();
+        this.coverageStates = new ArrayList<>();
+        this.resolutionFactor = 1;
+        this.compositeBlendMode = BlendMode.PremultAlpha;
     }
 
     public TonegodTranslucentBucketFilter(boolean enabledSoftParticles) {
@@ -54,6 +155,9 @@ public class TonegodTranslucentBucketFilter extends Filter {
 
         this.renderManager = renderManager;
         this.viewPort = viewPort;
+        this.assetManager = manager;
+        this.width = width;
+        this.height = height;
 
         material = new Material(manager, "Common/MatDefs/Post/Overlay.j3md");
         material.setColor("Color", ColorRGBA.White);
@@ -77,10 +181,71 @@ public class TonegodTranslucentBucketFilter extends Filter {
     }
 
     private void initSoftParticles(@NotNull ViewPort viewPort, boolean enabledSP) {
+        preparedEmitters.clear();
+        needUpdateEmitters = true;
         if (depthTexture == null) return;
-        for (Spatial scene : viewPort.getScenes()) {
-            makeSoftParticleEmitter(scene, enabledSP && enabled);
+        updateSoftParticleEmitters(viewPort, enabledSP && enabled);
+    }
+
+    /**
+     * Pushes the soft particles params to registered emitters of the scenes which are new or have changed
+     * materials since the last update. Emitters out of the scenes are skipped until the registry is changed, an
+     * emitter changes the registry when it's updated after attaching.
+     *
+     * @param viewPort the view port.
+     * @param enabled  true if soft particles are enabled.
+     */
+    private void updateSoftParticleEmitters(@NotNull ViewPort viewPort, boolean enabled) {
+
+        int version = ParticleEmitterRegistry.getVersion();
+
+        if (version == registryVersion && !needUpdateEmitters) {
+            return;
+        }
+
+        registryVersion = version;
+        needUpdateEmitters = false;
+
+        for (Iterator<ParticleEmitterNode> iterator = preparedEmitters.keySet().iterator(); iterator.hasNext(); ) {
+            if (!ParticleEmitterRegistry.contains(iterator.next())) {
+                iterator.remove();
+            }
         }
+
+        List<ParticleEmitterNode> emitters = ParticleEmitterRegistry.getEmitters(registeredEmitters);
+
+        for (ParticleEmitterNode emitter : emitters) {
+
+            if (!emitter.isEmitterInitialized()) {
+                continue;
+            }
+
+            Material material = emitter.getMaterial();
+
+            if (preparedEmitters.get(emitter) == material || !isInScenes(viewPort, emitter)) {
+                continue;
+            }
+
+            makeSoftParticleEmitter(emitter, enabled);
+            preparedEmitters.put(emitter, material);
+        }
+
+        // the list shouldn't hold emitters between updates
+        emitters.clear();
+    }
+
+    /**
+     * Returns true if the spatial is attached to a scene of the view port.
+     */
+    private static boolean isInScenes(@NotNull ViewPort viewPort, @NotNull Spatial spatial) {
+
+        Spatial root = spatial;
+
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+
+        return viewPort.getScenes().contains(root);
     }
 
     @Override
@@ -98,7 +263,247 @@ public class TonegodTranslucentBucketFilter extends Filter {
 
     @Override
     protected boolean isRequiresDepthTexture() {
-        return enabledSoftParticles;
+        return enabledSoftParticles || resolutionFactor > 1;
+    }
+
+    /**
+     * Sets the divider of the resolution of the translucent pass. The reduced resolution pass requires the depth
+     * texture, so the factor should be set before adding this filter to a processor, and it isn't used with
+     * multisampling.
+     *
+     * @param resolutionFactor 1 for the full resolution, 2 for the half resolution or 4 for the quarter resolution.
+     */
+    public void setResolutionFactor(int resolutionFactor) {
+
+        if (resolutionFactor != 1 && resolutionFactor != 2 && resolutionFactor != 4) {
+            throw new IllegalArgumentException("the resolution factor " + resolutionFactor + " isn't 1, 2 or 4.");
+        }
+
+        this.resolutionFactor = resolutionFactor;
+    }
+
+    /**
+     * Gets the divider of the resolution of the translucent pass.
+     *
+     * @return the resolution factor.
+     */
+    public int getResolutionFactor() {
+        return resolutionFactor;
+    }
+
+    /**
+     * Sets the blend mode to composite the reduced resolution pass to the scene. Alpha blended emitters accumulate
+     * their coverage in the alpha of the pass, which suits {@link BlendMode#PremultAlpha}. Additive emitters add
+     * their alpha to the pass too, so scenes with mostly additive particles look closer to the full resolution
+     * with {@link BlendMode#Additive}.
+     *
+     * @param compositeBlendMode the blend mode.
+     */
+    public void setCompositeBlendMode(@NotNull BlendMode compositeBlendMode) {
+        this.compositeBlendMode = compositeBlendMode;
+        if (upsampleMaterial != null) {
+            upsampleMaterial.getAdditionalRenderState().setBlendMode(compositeBlendMode);
+        }
+    }
+
+    /**
+     * Gets the blend mode to composite the reduced resolution pass to the scene.
+     *
+     * @return the blend mode.
+     */
+    public @NotNull BlendMode getCompositeBlendMode() {
+        return compositeBlendMode;
+    }
+
+    /**
+     * Returns true if the translucent bucket should be rendered with the reduced resolution.
+     */
+    private boolean isLowResolution() {
+        return resolutionFactor > 1 && depthTexture != null && assetManager != null &&
+                processor.getNumSamples() <= 1 && width >= resolutionFactor && height >= resolutionFactor;
+    }
+
+    /**
+     * Creates or recreates resources of the reduced resolution pass if the resolution was changed.
+     */
+    private void prepareLowResolution(@NotNull Renderer renderer) {
+
+        int lowWidth = width / resolutionFactor;
+        int lowHeight = height / resolutionFactor;
+
+        if (lowResColor != null && lowResColor.getImage().getWidth() == lowWidth &&
+                lowResColor.getImage().getHeight() == lowHeight) {
+            return;
+        }
+
+        releaseLowResolution(renderer);
+
+        lowResColor = new Texture2D(lowWidth, lowHeight, Image.Format.RGBA8);
+        lowResColor.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
+        lowResColor.setMagFilter(Texture.MagFilter.Nearest);
+
+        lowResDepth = new Texture2D(lowWidth, lowHeight, Image.Format.Depth);
+        lowResDepth.setMinFilter(Texture.MinFilter.NearestNoMipMaps);
+        lowResDepth.setMagFilter(Texture.MagFilter.Nearest);
+
+        lowResBuffer = new FrameBuffer(lowWidth, lowHeight, 1);
+        lowResBuffer.setColorTexture(lowResColor);
+        lowResBuffer.setDepthTexture(lowResDepth);
+
+        float offset = resolutionFactor * 0.5F - 0.5F;
+
+        downsampleMaterial = new Material(assetManager, "tonegod/emitter/shaders/DownsampleDepth.j3md");
+        downsampleMaterial.setTexture("DepthTexture", depthTexture);
+        downsampleMaterial.setVector2("SampleOffset", new Vector2f(offset / width, offset / height));
+
+        upsampleMaterial = new Material(assetManager, "tonegod/emitter/shaders/BilateralUpsample.j3md");
+        upsampleMaterial.setTexture("Texture", lowResColor);
+        upsampleMaterial.setTexture("LowDepthTexture", lowResDepth);
+        upsampleMaterial.setTexture("DepthTexture", depthTexture);
+        upsampleMaterial.setVector2("LowResolution", new Vector2f(lowWidth, lowHeight));
+        upsampleMaterial.getAdditionalRenderState().setBlendMode(compositeBlendMode);
+
+        screenQuad = new Geometry("TranslucentScreenQuad", new Quad(1, 1));
+        screenQuad.updateGeometricState();
+
+        lowResCamera = new Camera(lowWidth, lowHeight);
+        lowResScreenCamera = new Camera(lowWidth, lowHeight);
+        screenCamera = new Camera(width, height);
+    }
+
+    /**
+     * Releases resources of the reduced resolution pass.
+     */
+    private void releaseLowResolution(@NotNull Renderer renderer) {
+
+        if (lowResBuffer != null) {
+            renderer.deleteFrameBuffer(lowResBuffer);
+        }
+
+        lowResBuffer = null;
+        lowResColor = null;
+        lowResDepth = null;
+        downsampleMaterial = null;
+        upsampleMaterial = null;
+        screenQuad = null;
+        lowResCamera = null;
+        lowResScreenCamera = null;
+        screenCamera = null;
+    }
+
+    /**
+     * Renders the translucent bucket to the reduced resolution target and composites it to the scene buffer.
+     */
+    private void renderLowResolution(
+            @NotNull RenderManager renderManager,
+            @NotNull ViewPort viewPort,
+            @NotNull FrameBuffer sceneBuffer
+    ) {
+
+        Renderer renderer = renderManager.getRenderer();
+
+        prepareLowResolution(renderer);
+
+        Geometry screenQuad = this.screenQuad;
+        Camera camera = viewPort.getCamera();
+
+        // downsample the scene depth and clear the color
+        renderer.setFrameBuffer(lowResBuffer);
+        renderManager.setCamera(lowResScreenCamera, false);
+        screenQuad.setMaterial(downsampleMaterial);
+        renderManager.renderGeometry(screenQuad);
+
+        // render the translucent bucket
+        lowResCamera.copyFrom(camera);
+        lowResCamera.resize(lowResColor.getImage().getWidth(), lowResColor.getImage().getHeight(), false);
+
+        renderManager.setCamera(lowResCamera, false);
+
+        applyCoverageBlending();
+
+        viewPort.getQueue()
+                .renderQueue(RenderQueue.Bucket.Translucent, renderManager, lowResCamera);
+
+        restoreCoverageBlending();
+
+        // composite to the scene
+        renderer.setFrameBuffer(sceneBuffer);
+        renderManager.setCamera(screenCamera, false);
+        screenQuad.setMaterial(upsampleMaterial);
+        renderManager.renderGeometry(screenQuad);
+
+        renderManager.setCamera(camera, false);
+    }
+
+    /**
+     * Switches alpha blended emitters to blend the alpha as coverage. {@link BlendMode#Alpha} blends the alpha by
+     * the same factors as the color, so the cleared target would accumulate the squared alpha.
+     */
+    private void applyCoverageBlending() {
+
+        List<ParticleEmitterNode> emitters = ParticleEmitterRegistry.getEmitters(registeredEmitters);
+
+        for (ParticleEmitterNode emitter : emitters) {
+
+            if (!emitter.isEmitterInitialized()) {
+                continue;
+            }
+
+            Material material = emitter.getMaterial();
+
+            // emitters which share the material see the already changed state
+            if (getBlendMode(material) != BlendMode.Alpha) {
+                continue;
+            }
+
+            RenderState renderState = material.getAdditionalRenderState();
+            renderState.setBlendMode(BlendMode.Custom);
+            renderState.setCustomBlendFactors(BlendFunc.Src_Alpha, BlendFunc.One_Minus_Src_Alpha, BlendFunc.One,
+                    BlendFunc.One_Minus_Src_Alpha);
+
+            coverageStates.add(renderState);
+        }
+
+        // the list shouldn't hold emitters between updates
+        emitters.clear();
+    }
+
+    /**
+     * Restores the alpha blending of emitters after the reduced resolution pass.
+     */
+    private void restoreCoverageBlending() {
+
+        for (RenderState renderState : coverageStates) {
+            renderState.setBlendMode(BlendMode.Alpha);
+        }
+
+        coverageStates.clear();
+    }
+
+    /**
+     * Gets the blend mode which is used to render the material.
+     */
+    private static @Nullable BlendMode getBlendMode(@NotNull Material material) {
+
+        RenderState renderState = material.getAdditionalRenderState();
+
+        if (renderState.isApplyBlendMode()) {
+            return renderState.getBlendMode();
+        }
+
+        Technique technique = material.getActiveTechnique();
+        RenderState defRenderState = technique == null ? null : technique.getDef().getRenderState();
+
+        return defRenderState == null ? null : defRenderState.getBlendMode();
+    }
+
+    @Override
+    protected void preFrame(float tpf) {
+        super.preFrame(tpf);
+
+        if (enabledSoftParticles && depthTexture != null && viewPort != null) {
+            updateSoftParticleEmitters(viewPort, enabled);
+        }
     }
 
     @Override
@@ -117,6 +522,11 @@ public class TonegodTranslucentBucketFilter extends Filter {
             renderer.copyFrameBuffer(prevFilterBuffer, sceneBuffer, false);
         }
 
+        if (isLowResolution()) {
+            renderLowResolution(renderManager, viewPort, sceneBuffer);
+            return;
+        }
+
         renderer.setFrameBuffer(sceneBuffer);
 
         viewPort.getQueue()
@@ -126,6 +536,8 @@ public class TonegodTranslucentBucketFilter extends Filter {
     @Override
     protected void cleanUpFilter(@NotNull Renderer renderer) {
 
+        releaseLowResolution(renderer);
+
         if (renderManager != null) {
             renderManager.setHandleTranslucentBucket(true);
         }
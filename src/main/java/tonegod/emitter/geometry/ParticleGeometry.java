@@ -1,5 +1,6 @@
 package tonegod.emitter.geometry;
 
+import com.jme3.bounding.BoundingVolume;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Mesh;
 import com.jme3.scene.VertexBuffer;
@@ -27,6 +28,22 @@ public class ParticleGeometry extends Geometry {
         super(name, mesh);
     }
 
+    /**
+     * Set the bound of the mesh without rescanning its vertices and without dropping the current world bound,
+     * so the world bound instance is reused.
+     *
+     * @param modelBound the new model bound.
+     */
+    public void updateModelBound(@NotNull BoundingVolume modelBound) {
+
+        if (mesh == null) {
+            return;
+        }
+
+        mesh.setBound(modelBound);
+        setBoundRefresh();
+    }
+
     @Override
     public void cloneFields(@NotNull Cloner cloner, @NotNull Object original) {
 
@@ -0,0 +1,32 @@
+package tonegod.emitter.influencers;
+
+import org.jetbrains.annotations.NotNull;
+import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.particle.ParticleData;
+
+/**
+ * The interface for implementing particle influencers which can be evaluated in closed form by the age of a particle
+ * without integrating its state over frames.
+ *
+ * @author JavaSaBr
+ */
+public interface AnalyticParticleInfluencer<D> extends ParticleInfluencer<D> {
+
+    /**
+     * Returns true if the influence can be evaluated in closed form with the current settings.
+     *
+     * @param emitterNode the particle emitter node.
+     * @return true if the influence can be evaluated in closed form.
+     */
+    boolean isAnalytic(@NotNull ParticleEmitterNode emitterNode);
+
+    /**
+     * Evaluates the influence to the particle by its age, the position and the velocity of the particle are
+     * already reset to values of its initial motion at this age.
+     *
+     * @param emitterNode  the particle emitter node.
+     * @param particleData the particle data.
+     * @param age          the age of the particle in seconds.
+     */
+    void evaluate(@NotNull ParticleEmitterNode emitterNode, @NotNull ParticleData particleData, float age);
+}
@@ -0,0 +1,22 @@
+package tonegod.emitter.influencers;
+
+import org.jetbrains.annotations.NotNull;
+import tonegod.emitter.ParticleEmitterNode;
+
+/**
+ * The interface for implementing particle influencers which prepare their state once per an update of the emitter
+ * before updating particles.
+ *
+ * @author JavaSaBr
+ */
+public interface PreparedParticleInfluencer<D> extends ParticleInfluencer<D> {
+
+    /**
+     * Prepares this influencer to update particles of the emitter, it's called once per an update of the emitter
+     * before updating particles.
+     *
+     * @param emitterNode the particle emitter node.
+     * @param tpf         the time since last frame.
+     */
+    void beforeUpdate(@NotNull ParticleEmitterNode emitterNode, float tpf);
+}
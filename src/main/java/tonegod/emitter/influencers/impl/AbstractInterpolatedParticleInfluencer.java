@@ -6,22 +6,34 @@ import com.jme3.export.JmeImporter;
 import com.jme3.export.OutputCapsule;
 import com.jme3.util.SafeArrayList;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tonegod.emitter.ParticleEmitterNode;
 import tonegod.emitter.influencers.InterpolatedParticleInfluencer;
 import tonegod.emitter.influencers.ParticleInfluencer;
 import tonegod.emitter.interpolation.Interpolation;
 import tonegod.emitter.interpolation.InterpolationManager;
+import tonegod.emitter.particle.ParticleData;
 
 import java.io.IOException;
 import java.util.List;
 
 /**
  * The base implementation of the {@link InterpolatedParticleInfluencer}.
+ * <p>
+ * Influencers which support curves can bake their steps with interpolations to a life-normalized table in the
+ * curve mode, then values of a particle are read from the table by {@link ParticleData#blend} without stepping
+ * interpolations of each particle.
  *
  * @author JavaSaBr
  */
 public abstract class AbstractInterpolatedParticleInfluencer<D> extends AbstractWithDataParticleInfluencer<D>
     implements InterpolatedParticleInfluencer<D> {
 
+    /**
+     * The default count of intervals of a baked curve.
+     */
+    public static final int DEFAULT_CURVE_RESOLUTION = 128;
+
     /**
      * The list of interpolations.
      */
@@ -43,8 +55,25 @@ public abstract class AbstractInterpolatedParticleInfluencer<D> extends Abstract
      */
     private boolean cycle;
 
+    /**
+     * The flag of using the baked curve.
+     */
+    private boolean curveMode;
+
+    /**
+     * The count of intervals of the baked curve.
+     */
+    private int curveResolution;
+
+    /**
+     * The baked curve or null if it should be rebuilt.
+     */
+    @Nullable
+    private float[] curve;
+
     public AbstractInterpolatedParticleInfluencer() {
         this.interpolations = new SafeArrayList<>(Interpolation.class);
+        this.curveResolution = DEFAULT_CURVE_RESOLUTION;
     }
 
     @Override
@@ -83,6 +112,7 @@ public abstract class AbstractInterpolatedParticleInfluencer<D> extends Abstract
      */
     protected final void addInterpolation(@NotNull Interpolation interpolation) {
         interpolations.add(interpolation);
+        invalidateCurve();
     }
 
     /**
@@ -92,6 +122,7 @@ public abstract class AbstractInterpolatedParticleInfluencer<D> extends Abstract
      */
     protected final void removeInterpolation(int index) {
         interpolations.remove(index);
+        invalidateCurve();
     }
 
     /**
@@ -99,6 +130,7 @@ public abstract class AbstractInterpolatedParticleInfluencer<D> extends Abstract
      */
     protected final void clearInterpolations() {
         interpolations.clear();
+        invalidateCurve();
     }
 
     @Override
@@ -147,6 +179,7 @@ public abstract class AbstractInterpolatedParticleInfluencer<D> extends Abstract
             throw new RuntimeException("The index " + index + " isn't correct.");
         }
         interpolations.set(index, interpolation);
+        invalidateCurve();
     }
 
     @Override
@@ -154,6 +187,180 @@ public abstract class AbstractInterpolatedParticleInfluencer<D> extends Abstract
         return interpolations;
     }
 
+    /**
+     * Sets true to read values of particles from the baked curve. The curve is used only by influencers which
+     * support it and isn't used for cycled changing.
+     *
+     * @param curveMode true to use the baked curve.
+     */
+    public void setCurveMode(boolean curveMode) {
+        this.curveMode = curveMode;
+    }
+
+    /**
+     * Returns true if values of particles are read from the baked curve.
+     *
+     * @return true if values of particles are read from the baked curve.
+     */
+    public boolean isCurveMode() {
+        return curveMode;
+    }
+
+    /**
+     * Sets the count of intervals of the baked curve.
+     *
+     * @param curveResolution the count of intervals.
+     */
+    public void setCurveResolution(int curveResolution) {
+
+        if (curveResolution < 1) {
+            throw new IllegalArgumentException("the curve resolution " + curveResolution + " isn't positive.");
+        }
+
+        this.curveResolution = curveResolution;
+        invalidateCurve();
+    }
+
+    /**
+     * Gets the count of intervals of the baked curve.
+     *
+     * @return the count of intervals.
+     */
+    public int getCurveResolution() {
+        return curveResolution;
+    }
+
+    /**
+     * Marks the baked curve to be rebuilt, should be called after changing steps in place.
+     */
+    public void invalidateCurve() {
+        curve = null;
+    }
+
+    /**
+     * Returns true if values of particles of the emitter should be read from the baked curve.
+     *
+     * @param emitterNode the emitter node.
+     * @return true if the baked curve should be used.
+     */
+    protected boolean isCurveUsed(@NotNull ParticleEmitterNode emitterNode) {
+        return curveMode && isCurveBakeable() && !emitterNode.isStaticParticles();
+    }
+
+    /**
+     * Returns true if steps of this influencer can be baked to a curve over life of particles.
+     *
+     * @return true if steps can be baked to a curve.
+     */
+    public boolean isCurveBakeable() {
+        return !cycle && interpolations.size() > 1 && isCurveSupported();
+    }
+
+    /**
+     * Reads values of the sample of the baked curve which is the nearest to the life blend.
+     *
+     * @param lifeBlend the part of the lived life of a particle.
+     * @param store     the array to store values of the sample.
+     * @return the count of read values.
+     */
+    public final int readCurve(float lifeBlend, @NotNull float[] store) {
+        int components = getCurveComponents();
+        System.arraycopy(getCurve(), getCurveOffset(lifeBlend), store, 0, components);
+        return components;
+    }
+
+    /**
+     * Returns true if this influencer can bake its steps to a curve with its current settings.
+     *
+     * @return true if this influencer can bake its steps to a curve.
+     */
+    protected boolean isCurveSupported() {
+        return false;
+    }
+
+    /**
+     * Gets the count of values of a sample of the curve.
+     *
+     * @return the count of values of a sample.
+     */
+    protected int getCurveComponents() {
+        return 0;
+    }
+
+    /**
+     * Writes values of a sample of the curve.
+     *
+     * @param curve  the curve.
+     * @param offset the offset of the sample.
+     * @param index  the index of the start step.
+     * @param blend  the interpolated blend between the start and the next step.
+     */
+    protected void writeCurveSample(@NotNull float[] curve, int offset, int index, float blend) {
+    }
+
+    /**
+     * Gets the baked curve, the curve is rebuilt after changing steps.
+     *
+     * @return the baked curve.
+     */
+    protected final @NotNull float[] getCurve() {
+
+        float[] curve = this.curve;
+
+        if (curve == null) {
+            curve = bakeCurve();
+            this.curve = curve;
+        }
+
+        return curve;
+    }
+
+    /**
+     * Gets the offset of the sample of the baked curve which is the nearest to the life blend.
+     *
+     * @param lifeBlend the part of the lived life of a particle.
+     * @return the offset of the sample.
+     */
+    protected final int getCurveOffset(float lifeBlend) {
+
+        int sample = (int) (lifeBlend * curveResolution + 0.5F);
+
+        if (sample < 0) {
+            sample = 0;
+        } else if (sample > curveResolution) {
+            sample = curveResolution;
+        }
+
+        return sample * getCurveComponents();
+    }
+
+    /**
+     * Bakes steps with interpolations to the curve with equal intervals between steps over life of particles.
+     */
+    private @NotNull float[] bakeCurve() {
+
+        int components = getCurveComponents();
+        int segments = interpolations.size() - 1;
+
+        float[] curve = new float[(curveResolution + 1) * components];
+
+        if (segments < 1) {
+            return curve;
+        }
+
+        Interpolation[] array = interpolations.getArray();
+
+        for (int i = 0; i <= curveResolution; i++) {
+
+            float position = (float) i / curveResolution * segments;
+            int index = Math.min((int) position, segments - 1);
+
+            writeCurveSample(curve, i * components, index, array[index].apply(position - index));
+        }
+
+        return curve;
+    }
+
     @Override
     public void write(@NotNull JmeExporter exporter) throws IOException {
         super.write(exporter);
@@ -168,6 +375,8 @@ public abstract class AbstractInterpolatedParticleInfluencer<D> extends Abstract
         capsule.write(interpolationIds, "interpolations", null);
         capsule.write(cycle, "cycle", false);
         capsule.write(fixedDuration, "fixedDuration", 0.125f);
+        capsule.write(curveMode, "curveMode", false);
+        capsule.write(curveResolution, "curveResolution", DEFAULT_CURVE_RESOLUTION);
     }
 
     @Override
@@ -183,6 +392,9 @@ public abstract class AbstractInterpolatedParticleInfluencer<D> extends Abstract
 
         cycle = capsule.readBoolean("cycle", false);
         fixedDuration = capsule.readFloat("fixedDuration", 0.125f);
+        curveMode = capsule.readBoolean("curveMode", false);
+        curveResolution = capsule.readInt("curveResolution", DEFAULT_CURVE_RESOLUTION);
+        curve = null;
     }
 
     @Override
@@ -192,6 +404,9 @@ public abstract class AbstractInterpolatedParticleInfluencer<D> extends Abstract
         clone.interpolations.addAll(interpolations);
         clone.cycle = cycle;
         clone.fixedDuration = fixedDuration;
+        clone.curveMode = curveMode;
+        clone.curveResolution = curveResolution;
+        clone.curve = null;
         return clone;
     }
 }
@@ -10,6 +10,7 @@ import com.jme3.util.SafeArrayList;
 import org.jetbrains.annotations.NotNull;
 import tonegod.emitter.Messages;
 import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.influencers.AnalyticParticleInfluencer;
 import tonegod.emitter.influencers.ParticleInfluencer;
 import tonegod.emitter.interpolation.Interpolation;
 import tonegod.emitter.particle.ParticleData;
@@ -21,7 +22,8 @@ import java.io.IOException;
  *
  * @author t0neg0d, JavaSaBr
  */
-public final class AlphaInfluencer extends AbstractInterpolatedParticleInfluencer<BaseInterpolationData> {
+public final class AlphaInfluencer extends AbstractInterpolatedParticleInfluencer<BaseInterpolationData>
+        implements AnalyticParticleInfluencer<BaseInterpolationData> {
 
     /**
      * The list of alphas.
@@ -62,6 +64,12 @@ public final class AlphaInfluencer extends AbstractInterpolatedParticleInfluence
             float tpf
     ) {
 
+        if (isCurveUsed(emitterNode)) {
+            applyCurve(particleData);
+            super.updateImpl(emitterNode, particleData, data, tpf);
+            return;
+        }
+
         data.interval += tpf;
 
         if (data.index >= alphas.size()) {
@@ -93,6 +101,25 @@ public final class AlphaInfluencer extends AbstractInterpolatedParticleInfluence
         super.updateImpl(emitterNode, particleData, data, tpf);
     }
 
+    /**
+     * Applies the alpha of the baked curve by the life blend of the particle.
+     *
+     * @param particleData the particle's data.
+     */
+    private void applyCurve(@NotNull ParticleData particleData) {
+        particleData.alpha = getCurve()[getCurveOffset(particleData.blend)];
+    }
+
+    @Override
+    public boolean isAnalytic(@NotNull ParticleEmitterNode emitterNode) {
+        return isCurveBakeable();
+    }
+
+    @Override
+    public void evaluate(@NotNull ParticleEmitterNode emitterNode, @NotNull ParticleData particleData, float age) {
+        applyCurve(particleData);
+    }
+
     @Override
     protected void firstInitializeImpl(@NotNull ParticleData particleData) {
 
@@ -115,6 +142,12 @@ public final class AlphaInfluencer extends AbstractInterpolatedParticleInfluence
             @NotNull BaseInterpolationData data
     ) {
 
+        if (isCurveUsed(emitterNode)) {
+            particleData.alpha = getCurve()[0];
+            super.initializeImpl(emitterNode, particleData, data);
+            return;
+        }
+
         SafeArrayList<Interpolation> interpolations = getInterpolations();
 
         if (isRandomStartAlpha()) {
@@ -142,6 +175,22 @@ public final class AlphaInfluencer extends AbstractInterpolatedParticleInfluence
         return randomStartAlpha;
     }
 
+    @Override
+    protected boolean isCurveSupported() {
+        return !randomStartAlpha;
+    }
+
+    @Override
+    protected int getCurveComponents() {
+        return 1;
+    }
+
+    @Override
+    protected void writeCurveSample(@NotNull float[] curve, int offset, int index, float blend) {
+        Float[] alphas = getAlphas().getArray();
+        curve[offset] = interpolateLinear(blend, alphas[index], alphas[index + 1]);
+    }
+
     @Override
     public void resetImpl(
             @NotNull ParticleEmitterNode emitterNode,
@@ -200,6 +249,7 @@ public final class AlphaInfluencer extends AbstractInterpolatedParticleInfluence
      */
     public void updateAlpha(@NotNull Float alpha, int index) {
         alphas.set(index, alpha);
+        invalidateCurve();
     }
 
     /**
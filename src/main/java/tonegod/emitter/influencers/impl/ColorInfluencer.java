@@ -1,5 +1,6 @@
 package tonegod.emitter.influencers.impl;
 
+import static com.jme3.math.FastMath.interpolateLinear;
 import static com.jme3.math.FastMath.nextRandomInt;
 import com.jme3.export.*;
 import com.jme3.math.ColorRGBA;
@@ -7,6 +8,7 @@ import com.jme3.util.SafeArrayList;
 import org.jetbrains.annotations.NotNull;
 import tonegod.emitter.Messages;
 import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.influencers.AnalyticParticleInfluencer;
 import tonegod.emitter.influencers.ParticleInfluencer;
 import tonegod.emitter.interpolation.Interpolation;
 import tonegod.emitter.particle.ParticleData;
@@ -18,7 +20,8 @@ import java.io.IOException;
  *
  * @author t0neg0d, JavaSaBr
  */
-public final class ColorInfluencer extends AbstractInterpolatedParticleInfluencer<BaseInterpolationData> {
+public final class ColorInfluencer extends AbstractInterpolatedParticleInfluencer<BaseInterpolationData>
+        implements AnalyticParticleInfluencer<BaseInterpolationData> {
 
     /**
      * The list of colors.
@@ -82,6 +85,12 @@ public final class ColorInfluencer extends AbstractInterpolatedParticleInfluence
             float tpf
     ) {
 
+        if (isCurveUsed(emitterNode)) {
+            applyCurve(particleData);
+            super.updateImpl(emitterNode, particleData, data, tpf);
+            return;
+        }
+
         data.interval += tpf;
 
         if (data.index >= colors.size()) {
@@ -110,6 +119,27 @@ public final class ColorInfluencer extends AbstractInterpolatedParticleInfluence
         super.updateImpl(emitterNode, particleData, data, tpf);
     }
 
+    /**
+     * Applies the color of the baked curve by the life blend of the particle.
+     *
+     * @param particleData the particle's data.
+     */
+    private void applyCurve(@NotNull ParticleData particleData) {
+        float[] curve = getCurve();
+        int offset = getCurveOffset(particleData.blend);
+        particleData.color.set(curve[offset], curve[offset + 1], curve[offset + 2], curve[offset + 3]);
+    }
+
+    @Override
+    public boolean isAnalytic(@NotNull ParticleEmitterNode emitterNode) {
+        return isCurveBakeable();
+    }
+
+    @Override
+    public void evaluate(@NotNull ParticleEmitterNode emitterNode, @NotNull ParticleData particleData, float age) {
+        applyCurve(particleData);
+    }
+
     @Override
     protected void firstInitializeImpl(@NotNull ParticleData particleData) {
 
@@ -132,6 +162,13 @@ public final class ColorInfluencer extends AbstractInterpolatedParticleInfluence
             @NotNull BaseInterpolationData data
     ) {
 
+        if (isCurveUsed(emitterNode)) {
+            float[] curve = getCurve();
+            particleData.color.set(curve[0], curve[1], curve[2], curve[3]);
+            super.initializeImpl(emitterNode, particleData, data);
+            return;
+        }
+
         SafeArrayList<Interpolation> interpolations = getInterpolations();
 
         if (isRandomStartColor()) {
@@ -149,6 +186,29 @@ public final class ColorInfluencer extends AbstractInterpolatedParticleInfluence
         super.initializeImpl(emitterNode, particleData, data);
     }
 
+    @Override
+    protected boolean isCurveSupported() {
+        return !randomStartColor;
+    }
+
+    @Override
+    protected int getCurveComponents() {
+        return 4;
+    }
+
+    @Override
+    protected void writeCurveSample(@NotNull float[] curve, int offset, int index, float blend) {
+
+        ColorRGBA[] colors = getColors().getArray();
+        ColorRGBA start = colors[index];
+        ColorRGBA end = colors[index + 1];
+
+        curve[offset] = interpolateLinear(blend, start.r, end.r);
+        curve[offset + 1] = interpolateLinear(blend, start.g, end.g);
+        curve[offset + 2] = interpolateLinear(blend, start.b, end.b);
+        curve[offset + 3] = interpolateLinear(blend, start.a, end.a);
+    }
+
     @Override
     protected void resetImpl(
             @NotNull ParticleEmitterNode emitterNode,
@@ -242,6 +302,7 @@ public final class ColorInfluencer extends AbstractInterpolatedParticleInfluence
      */
     public void updateColor(@NotNull ColorRGBA color, int index) {
         colors.set(index, color);
+        invalidateCurve();
     }
 
     /**
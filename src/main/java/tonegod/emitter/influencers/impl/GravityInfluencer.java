@@ -9,6 +9,7 @@ import org.jetbrains.annotations.NotNull;
 import tonegod.emitter.EmitterMesh;
 import tonegod.emitter.Messages;
 import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.influencers.AnalyticParticleInfluencer;
 import tonegod.emitter.influencers.ParticleInfluencer;
 import tonegod.emitter.particle.ParticleData;
 
@@ -19,7 +20,8 @@ import java.io.IOException;
  *
  * @author t0neg0d, JavaSaBr
  */
-public class GravityInfluencer extends AbstractWithoutDataParticleInfluencer {
+public class GravityInfluencer extends AbstractWithoutDataParticleInfluencer
+        implements AnalyticParticleInfluencer<Void> {
 
     /**
      * The enum Gravity alignment.
@@ -183,6 +185,21 @@ public class GravityInfluencer extends AbstractWithoutDataParticleInfluencer {
         super.initializeImpl(emitterNode, particleData);
     }
 
+    @Override
+    public boolean isAnalytic(@NotNull ParticleEmitterNode emitterNode) {
+        return alignment == GravityAlignment.WORLD;
+    }
+
+    @Override
+    public void evaluate(@NotNull ParticleEmitterNode emitterNode, @NotNull ParticleData particleData, float age) {
+
+        Vector3f store = getStore();
+        store.set(getGravity()).multLocal(age);
+
+        particleData.getVelocity().subtractLocal(store);
+        particleData.getPosition().subtractLocal(store.multLocal(age * 0.5F));
+    }
+
     /**
      * Aligns the gravity to the specified GravityAlignment
      *
@@ -0,0 +1,528 @@
+package tonegod.emitter.influencers.impl;
+
+import com.jme3.export.InputCapsule;
+import com.jme3.export.JmeExporter;
+import com.jme3.export.JmeImporter;
+import com.jme3.export.OutputCapsule;
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+import tonegod.emitter.Messages;
+import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.influencers.ParticleInfluencer;
+import tonegod.emitter.influencers.PreparedParticleInfluencer;
+import tonegod.emitter.particle.ParticleData;
+
+import java.io.IOException;
+
+/**
+ * The implementation of the {@link ParticleInfluencer} to give interactions between particles of the emitter:
+ * separation, alignment and cohesion of boids. Neighbors are found by a spatial hash of particles which is rebuilt
+ * once per frame by the counting sort, so a particle checks only particles in cells around it.
+ *
+ * @author JavaSaBr
+ */
+public class InteractionInfluencer extends AbstractWithoutDataParticleInfluencer
+        implements PreparedParticleInfluencer<Void> {
+
+    /**
+     * The count of values of a vector in snapshots.
+     */
+    private static final int VECTOR_SIZE = 3;
+
+    /**
+     * The count of neighbor cells of a particle.
+     */
+    private static final int NEIGHBOR_CELLS = 27;
+
+    /**
+     * The positions of particles at the start of the frame.
+     */
+    @NotNull
+    private transient float[] positions;
+
+    /**
+     * The velocities of particles at the start of the frame.
+     */
+    @NotNull
+    private transient float[] velocities;
+
+    /**
+     * The indexes of particles of entries.
+     */
+    @NotNull
+    private transient int[] entryParticles;
+
+    /**
+     * The buckets of entries.
+     */
+    @NotNull
+    private transient int[] entryBuckets;
+
+    /**
+     * The start indexes of entries of buckets, the last value is the count of entries.
+     */
+    @NotNull
+    private transient int[] bucketStarts;
+
+    /**
+     * The entries sorted by buckets.
+     */
+    @NotNull
+    private transient int[] bucketEntries;
+
+    /**
+     * The visited buckets of a neighbor search.
+     */
+    @NotNull
+    private final transient int[] visitedBuckets;
+
+    /**
+     * The temp vector.
+     */
+    @NotNull
+    private final transient Vector3f temp;
+
+    /**
+     * The count of entries.
+     */
+    private transient int entryCount;
+
+    /**
+     * The mask of bucket indexes.
+     */
+    private transient int bucketMask;
+
+    /**
+     * The radius of interaction.
+     */
+    private float radius;
+
+    /**
+     * The strength of pushing particles apart.
+     */
+    private float separation;
+
+    /**
+     * The strength of matching velocities of neighbors.
+     */
+    private float alignment;
+
+    /**
+     * The strength of pulling particles to the center of neighbors, negative values push them out.
+     */
+    private float cohesion;
+
+    /**
+     * The max count of neighbors of a particle.
+     */
+    private int maxNeighbors;
+
+    public InteractionInfluencer() {
+        this.positions = new float[0];
+        this.velocities = new float[0];
+        this.entryParticles = new int[0];
+        this.entryBuckets = new int[0];
+        this.bucketStarts = new int[2];
+        this.bucketEntries = new int[0];
+        this.visitedBuckets = new int[NEIGHBOR_CELLS];
+        this.temp = new Vector3f();
+        this.radius = 1f;
+        this.separation = 1f;
+        this.alignment = 0.5f;
+        this.cohesion = 0.5f;
+        this.maxNeighbors = 16;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return Messages.PARTICLE_INFLUENCER_INTERACTION;
+    }
+
+    @Override
+    public void beforeUpdate(@NotNull ParticleEmitterNode emitterNode, float tpf) {
+
+        ParticleData[] particles = emitterNode.getParticles();
+
+        ensureCapacity(particles.length);
+
+        float[] positions = this.positions;
+        float[] velocities = this.velocities;
+        int[] entryParticles = this.entryParticles;
+        int[] entryBuckets = this.entryBuckets;
+        int[] bucketStarts = this.bucketStarts;
+
+        float invRadius = 1F / radius;
+        int count = 0;
+
+        for (ParticleData particleData : particles) {
+
+            if (particleData.life <= 0 || !particleData.isActive()) {
+                continue;
+            }
+
+            Vector3f position = particleData.position;
+            Vector3f velocity = particleData.velocity;
+
+            int offset = count * VECTOR_SIZE;
+
+            positions[offset] = position.x;
+            positions[offset + 1] = position.y;
+            positions[offset + 2] = position.z;
+            velocities[offset] = velocity.x;
+            velocities[offset + 1] = velocity.y;
+            velocities[offset + 2] = velocity.z;
+
+            entryParticles[count] = particleData.index;
+            entryBuckets[count] = hash(toCell(position.x, invRadius), toCell(position.y, invRadius),
+                    toCell(position.z, invRadius));
+
+            count++;
+        }
+
+        entryCount = count;
+
+        // the counting sort of entries by buckets
+        int bucketCount = bucketMask + 1;
+
+        for (int i = 0; i <= bucketCount; i++) {
+            bucketStarts[i] = 0;
+        }
+
+        for (int i = 0; i < count; i++) {
+            bucketStarts[entryBuckets[i] + 1]++;
+        }
+
+        for (int i = 1; i <= bucketCount; i++) {
+            bucketStarts[i] += bucketStarts[i - 1];
+        }
+
+        int[] bucketEntries = this.bucketEntries;
+
+        // each entry is placed before the end of its bucket, so finally the ends become the starts of buckets
+        for (int i = 0; i < count; i++) {
+            bucketEntries[--bucketStarts[entryBuckets[i] + 1]] = i;
+        }
+
+        for (int i = 0; i < bucketCount; i++) {
+            bucketStarts[i] = bucketStarts[i + 1];
+        }
+
+        bucketStarts[bucketCount] = count;
+    }
+
+    /**
+     * Prepares arrays for the count of particles, arrays are reallocated only if the count is increased.
+     *
+     * @param particleCount the count of particles.
+     */
+    private void ensureCapacity(int particleCount) {
+
+        if (entryParticles.length >= particleCount) {
+            return;
+        }
+
+        int bucketCount = Integer.highestOneBit(Math.max(particleCount, 1) * 2 - 1) << 1;
+
+        positions = new float[particleCount * VECTOR_SIZE];
+        velocities = new float[particleCount * VECTOR_SIZE];
+        entryParticles = new int[particleCount];
+        entryBuckets = new int[particleCount];
+        bucketEntries = new int[particleCount];
+        bucketStarts = new int[bucketCount + 1];
+        bucketMask = bucketCount - 1;
+    }
+
+    @Override
+    protected void updateImpl(
+            @NotNull ParticleEmitterNode emitterNode,
+            @NotNull ParticleData particleData,
+            float tpf
+    ) {
+
+        if (entryCount > 1) {
+            interact(particleData, tpf);
+        }
+
+        super.updateImpl(emitterNode, particleData, tpf);
+    }
+
+    /**
+     * Applies forces of neighbors to the particle.
+     *
+     * @param particleData the particle data.
+     * @param tpf          the tpf.
+     */
+    private void interact(@NotNull ParticleData particleData, float tpf) {
+
+        float[] positions = this.positions;
+        float[] velocities = this.velocities;
+        int[] entryParticles = this.entryParticles;
+        int[] bucketStarts = this.bucketStarts;
+        int[] bucketEntries = this.bucketEntries;
+        int[] visitedBuckets = this.visitedBuckets;
+
+        Vector3f position = particleData.position;
+        Vector3f velocity = particleData.velocity;
+
+        float radius = this.radius;
+        float radiusSquared = radius * radius;
+        float invRadius = 1F / radius;
+
+        int cellX = toCell(position.x, invRadius);
+        int cellY = toCell(position.y, invRadius);
+        int cellZ = toCell(position.z, invRadius);
+
+        float separationX = 0F, separationY = 0F, separationZ = 0F;
+        float velocityX = 0F, velocityY = 0F, velocityZ = 0F;
+        float centerX = 0F, centerY = 0F, centerZ = 0F;
+
+        int neighbors = 0;
+        int visited = 0;
+
+        search:
+        for (int z = cellZ - 1; z <= cellZ + 1; z++) {
+            for (int y = cellY - 1; y <= cellY + 1; y++) {
+                for (int x = cellX - 1; x <= cellX + 1; x++) {
+
+                    int bucket = hash(x, y, z);
+
+                    // different cells can share a bucket
+                    if (contains(visitedBuckets, visited, bucket)) {
+                        continue;
+                    }
+
+                    visitedBuckets[visited++] = bucket;
+
+                    for (int i = bucketStarts[bucket], last = bucketStarts[bucket + 1]; i < last; i++) {
+
+                        int entry = bucketEntries[i];
+
+                        if (entryParticles[entry] == particleData.index) {
+                            continue;
+                        }
+
+                        int offset = entry * VECTOR_SIZE;
+
+                        float diffX = position.x - positions[offset];
+                        float diffY = position.y - positions[offset + 1];
+                        float diffZ = position.z - positions[offset + 2];
+                        float distanceSquared = diffX * diffX + diffY * diffY + diffZ * diffZ;
+
+                        if (distanceSquared >= radiusSquared) {
+                            continue;
+                        }
+
+                        // the closer the neighbor, the stronger the push
+                        float push = distanceSquared > FastMath.ZERO_TOLERANCE ? 1F / distanceSquared : 0F;
+
+                        separationX += diffX * push;
+                        separationY += diffY * push;
+                        separationZ += diffZ * push;
+                        velocityX += velocities[offset];
+                        velocityY += velocities[offset + 1];
+                        velocityZ += velocities[offset + 2];
+                        centerX += positions[offset];
+                        centerY += positions[offset + 1];
+                        centerZ += positions[offset + 2];
+
+                        if (++neighbors >= maxNeighbors) {
+                            break search;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (neighbors == 0) {
+            return;
+        }
+
+        float invNeighbors = 1F / neighbors;
+
+        Vector3f force = temp.set(separationX, separationY, separationZ)
+                .multLocal(separation * radius);
+
+        force.addLocal((velocityX * invNeighbors - velocity.x) * alignment,
+                (velocityY * invNeighbors - velocity.y) * alignment,
+                (velocityZ * invNeighbors - velocity.z) * alignment);
+
+        force.addLocal((centerX * invNeighbors - position.x) * cohesion,
+                (centerY * invNeighbors - position.y) * cohesion,
+                (centerZ * invNeighbors - position.z) * cohesion);
+
+        velocity.addLocal(force.multLocal(tpf));
+    }
+
+    /**
+     * Returns true if the array contains the value in the first count items.
+     */
+    private static boolean contains(@NotNull int[] array, int count, int value) {
+
+        for (int i = 0; i < count; i++) {
+            if (array[i] == value) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Converts the coordinate to the cell coordinate.
+     */
+    private static int toCell(float value, float invRadius) {
+        return (int) Math.floor(value * invRadius);
+    }
+
+    /**
+     * Calculates the bucket of the cell.
+     */
+    private int hash(int x, int y, int z) {
+        return ((x * 73856093) ^ (y * 19349663) ^ (z * 83492791)) & bucketMask;
+    }
+
+    /**
+     * Sets the radius of interaction, it's also the size of cells of the spatial hash.
+     *
+     * @param radius the radius of interaction.
+     */
+    public void setRadius(float radius) {
+
+        if (radius <= 0F) {
+            throw new IllegalArgumentException("the radius " + radius + " isn't positive.");
+        }
+
+        this.radius = radius;
+    }
+
+    /**
+     * Gets the radius of interaction.
+     *
+     * @return the radius of interaction.
+     */
+    public float getRadius() {
+        return radius;
+    }
+
+    /**
+     * Sets the strength of pushing particles apart, it's the repulsion of particles.
+     *
+     * @param separation the strength of separation.
+     */
+    public void setSeparation(float separation) {
+        this.separation = separation;
+    }
+
+    /**
+     * Gets the strength of pushing particles apart.
+     *
+     * @return the strength of separation.
+     */
+    public float getSeparation() {
+        return separation;
+    }
+
+    /**
+     * Sets the strength of matching velocities of neighbors.
+     *
+     * @param alignment the strength of alignment.
+     */
+    public void setAlignment(float alignment) {
+        this.alignment = alignment;
+    }
+
+    /**
+     * Gets the strength of matching velocities of neighbors.
+     *
+     * @return the strength of alignment.
+     */
+    public float getAlignment() {
+        return alignment;
+    }
+
+    /**
+     * Sets the strength of pulling particles to the center of neighbors, it's the attraction of particles. Negative
+     * values push particles out of the center.
+     *
+     * @param cohesion the strength of cohesion.
+     */
+    public void setCohesion(float cohesion) {
+        this.cohesion = cohesion;
+    }
+
+    /**
+     * Gets the strength of pulling particles to the center of neighbors.
+     *
+     * @return the strength of cohesion.
+     */
+    public float getCohesion() {
+        return cohesion;
+    }
+
+    /**
+     * Sets the max count of neighbors of a particle, other neighbors are ignored to bound the cost.
+     *
+     * @param maxNeighbors the max count of neighbors.
+     */
+    public void setMaxNeighbors(int maxNeighbors) {
+
+        if (maxNeighbors < 1) {
+            throw new IllegalArgumentException("the max count of neighbors " + maxNeighbors + " isn't positive.");
+        }
+
+        this.maxNeighbors = maxNeighbors;
+    }
+
+    /**
+     * Gets the max count of neighbors of a particle.
+     *
+     * @return the max count of neighbors.
+     */
+    public int getMaxNeighbors() {
+        return maxNeighbors;
+    }
+
+    @Override
+    public void write(@NotNull JmeExporter exporter) throws IOException {
+        super.write(exporter);
+
+        OutputCapsule capsule = exporter.getCapsule(this);
+        capsule.write(radius, "radius", 1f);
+        capsule.write(separation, "separation", 1f);
+        capsule.write(alignment, "alignment", 0.5f);
+        capsule.write(cohesion, "cohesion", 0.5f);
+        capsule.write(maxNeighbors, "maxNeighbors", 16);
+    }
+
+    @Override
+    public void read(@NotNull JmeImporter importer) throws IOException {
+        super.read(importer);
+
+        InputCapsule capsule = importer.getCapsule(this);
+        radius = capsule.readFloat("radius", 1f);
+        separation = capsule.readFloat("separation", 1f);
+        alignment = capsule.readFloat("alignment", 0.5f);
+        cohesion = capsule.readFloat("cohesion", 0.5f);
+        maxNeighbors = capsule.readInt("maxNeighbors", 16);
+    }
+
+    @Override
+    public @NotNull ParticleInfluencer<Void> clone() {
+        InteractionInfluencer clone = (InteractionInfluencer) super.clone();
+        clone.positions = new float[0];
+        clone.velocities = new float[0];
+        clone.entryParticles = new int[0];
+        clone.entryBuckets = new int[0];
+        clone.bucketStarts = new int[2];
+        clone.bucketEntries = new int[0];
+        clone.entryCount = 0;
+        clone.bucketMask = 0;
+        clone.setRadius(radius);
+        clone.setSeparation(separation);
+        clone.setAlignment(alignment);
+        clone.setCohesion(cohesion);
+        clone.setMaxNeighbors(maxNeighbors);
+        return clone;
+    }
+}
@@ -7,20 +7,23 @@ import com.jme3.export.JmeExporter;
 import com.jme3.export.JmeImporter;
 import com.jme3.export.OutputCapsule;
 import com.jme3.math.FastMath;
-import com.jme3.math.Quaternion;
+import com.jme3.math.Ray;
 import com.jme3.math.Triangle;
 import com.jme3.math.Vector3f;
 import com.jme3.renderer.queue.GeometryList;
 import com.jme3.renderer.queue.OpaqueComparator;
 import com.jme3.scene.Geometry;
-import com.jme3.scene.shape.Quad;
+import com.jme3.util.SafeArrayList;
 import com.jme3.util.clone.Cloner;
 import com.jme3.util.clone.JmeCloneable;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 import tonegod.emitter.Messages;
 import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.collision.ColliderGrid;
+import tonegod.emitter.collision.ParticleCollider;
+import tonegod.emitter.influencers.AnalyticParticleInfluencer;
 import tonegod.emitter.influencers.ParticleInfluencer;
+import tonegod.emitter.influencers.PreparedParticleInfluencer;
 import tonegod.emitter.particle.ParticleData;
 
 import java.io.IOException;
@@ -30,7 +33,13 @@ import java.io.IOException;
  *
  * @author t0neg0d, JavaSaBr
  */
-public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<PhysicsInfluencer.PhysicsInfluencerData> {
+public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<PhysicsInfluencer.PhysicsInfluencerData>
+        implements PreparedParticleInfluencer<PhysicsInfluencer.PhysicsInfluencerData> {
+
+    /**
+     * The distance between a surface and a particle which is moved back to the contact.
+     */
+    private static final float CONTACT_OFFSET = 0.001f;
 
     protected static class PhysicsInfluencerData implements JmeCloneable {
 
@@ -44,7 +53,35 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
          */
         public float interval;
 
+        /**
+         * The world position where the last tested path ended.
+         */
+        @NotNull
+        public Vector3f lastPosition;
+
+        /**
+         * True if the next test should sweep from the last position.
+         */
+        public boolean swept;
+
+        /**
+         * The slot of the particle in time-sliced testing.
+         */
+        public int slot;
+
+        /**
+         * The version of the broadphase grid when the reachability was checked or -1.
+         */
+        public int reachVersion;
+
+        /**
+         * True if the predicted path of the particle can't reach any collider.
+         */
+        public boolean unreachable;
+
         private PhysicsInfluencerData() {
+            this.lastPosition = new Vector3f();
+            this.reachVersion = -1;
         }
 
         @Override
@@ -58,6 +95,7 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
 
         @Override
         public void cloneFields(@NotNull Cloner cloner, @NotNull Object original) {
+            lastPosition = cloner.clone(lastPosition);
         }
 
         @Override
@@ -66,6 +104,11 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
             if (o == null || getClass() != o.getClass()) return false;
             final PhysicsInfluencerData that = (PhysicsInfluencerData) o;
             if (collision != that.collision) return false;
+            if (swept != that.swept) return false;
+            if (slot != that.slot) return false;
+            if (reachVersion != that.reachVersion) return false;
+            if (unreachable != that.unreachable) return false;
+            if (!lastPosition.equals(that.lastPosition)) return false;
             return Float.compare(that.interval, interval) == 0;
         }
 
@@ -73,12 +116,19 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
         public int hashCode() {
             int result = (collision ? 1 : 0);
             result = 31 * result + (interval != +0.0f ? Float.floatToIntBits(interval) : 0);
+            result = 31 * result + lastPosition.hashCode();
+            result = 31 * result + (swept ? 1 : 0);
+            result = 31 * result + slot;
+            result = 31 * result + reachVersion;
+            result = 31 * result + (unreachable ? 1 : 0);
             return result;
         }
 
         @Override
         public String toString() {
-            return "PhysicsInfluencerData{" + "collision=" + collision + ", interval=" + interval + '}';
+            return "PhysicsInfluencerData{" + "collision=" + collision + ", interval=" + interval +
+                    ", lastPosition=" + lastPosition + ", swept=" + swept + ", slot=" + slot +
+                    ", reachVersion=" + reachVersion + ", unreachable=" + unreachable + '}';
         }
     }
 
@@ -137,28 +187,52 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
     private final GeometryList tempGeometries;
 
     /**
-     * The quad.
+     * The list of analytic colliders.
      */
     @NotNull
-    private final Quad quad;
+    private SafeArrayList<ParticleCollider> colliders;
 
     /**
-     * The geometry.
+     * The broadphase grid over world bounds of collidable geometries and colliders.
      */
     @NotNull
-    private final Geometry geom;
+    private ColliderGrid grid;
 
     /**
-     * The triangle of contacted surface.
+     * The ray of the path of a particle.
      */
     @NotNull
-    private final Triangle contactSurface;
+    private final Ray ray;
+
+    /**
+     * The current world position of a particle.
+     */
+    @NotNull
+    private final Vector3f currentPosition;
+
+    /**
+     * The gravity which is used to predict paths of particles.
+     */
+    @NotNull
+    private final Vector3f predictedGravity;
+
+    /**
+     * The start of the path of a particle.
+     */
+    @NotNull
+    private final Vector3f segmentStart;
+
+    /**
+     * The end of the path of a particle.
+     */
+    @NotNull
+    private final Vector3f segmentEnd;
 
     /**
-     * The rotation of particle.
+     * The triangle of contacted surface.
      */
     @NotNull
-    private final Quaternion quaternion;
+    private final Triangle contactSurface;
 
     /**
      * The collision results.
@@ -197,10 +271,22 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
     private final Vector3f tempVec2;
 
     /**
-     * The collision result.
+     * The min point of bounds of a collider.
      */
-    @Nullable
-    private CollisionResult result;
+    @NotNull
+    private final Vector3f boundsMin;
+
+    /**
+     * The max point of bounds of a collider.
+     */
+    @NotNull
+    private final Vector3f boundsMax;
+
+    /**
+     * The normal of a contact with a collider.
+     */
+    @NotNull
+    private final Vector3f colliderNormal;
 
     /**
      * The collision reaction.
@@ -228,12 +314,54 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
      */
     private float restitution;
 
+    /**
+     * The count of frames to test all particles, each frame tests only one slice of particles.
+     */
+    private int timeSlices;
+
+    /**
+     * The current frame of time-sliced testing.
+     */
+    private int frame;
+
+    /**
+     * The slot of the next initialized particle.
+     */
+    private int nextSlot;
+
+    /**
+     * True if particles whose predicted paths can't reach any collider are skipped.
+     */
+    private boolean reachabilityCulling;
+
+    /**
+     * The distance which is added to predicted paths to cover the error of prediction.
+     */
+    private float reachabilityMargin;
+
+    /**
+     * True if paths of particles can be predicted in the current update.
+     */
+    private boolean predictable;
+
+    /**
+     * True if the prediction was changed in the current update, so cached results of particles are checked again.
+     */
+    private boolean predictionChanged;
+
     public PhysicsInfluencer() {
         this.geometries = new GeometryList(new OpaqueComparator());
         this.tempGeometries = new GeometryList(new OpaqueComparator());
-        this.quad = new Quad(1, 1);
-        this.geom = new Geometry();
-        this.quaternion = new Quaternion();
+        this.grid = new ColliderGrid();
+        this.colliders = new SafeArrayList<>(ParticleCollider.class);
+        this.ray = new Ray();
+        this.boundsMin = new Vector3f();
+        this.boundsMax = new Vector3f();
+        this.colliderNormal = new Vector3f();
+        this.currentPosition = new Vector3f();
+        this.predictedGravity = new Vector3f();
+        this.segmentStart = new Vector3f();
+        this.segmentEnd = new Vector3f();
         this.results = new CollisionResults();
         this.reflect = new Vector3f();
         this.two = new Vector3f();
@@ -243,10 +371,9 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
         this.collisionReaction = CollisionReaction.BOUNCE;
         this.collisionThreshold = 0.1f;
         this.restitution = 0.5f;
+        this.timeSlices = 1;
+        this.reachabilityMargin = 1f;
         this.contactSurface = new Triangle();
-        geom.setMesh(quad);
-        quad.updateBound();
-        geom.updateModelBound();
     }
 
     @Override
@@ -268,7 +395,13 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
     ) {
 
         if (!data.collision) {
-            findCollisions(emitterNode, particleData, data, tpf);
+
+            if (reachabilityCulling && isUnreachable(emitterNode, particleData, data)) {
+                data.swept = false;
+            } else if (timeSlices < 2 || data.slot % timeSlices == frame % timeSlices) {
+                findCollisions(emitterNode, particleData, data, tpf);
+            }
+
         } else {
             data.interval += tpf;
             if (data.interval >= collisionThreshold) {
@@ -289,8 +422,133 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
         return results;
     }
 
+    @Override
+    public void beforeUpdate(@NotNull ParticleEmitterNode emitterNode, float tpf) {
+
+        GeometryList geometries = getGeometries();
+        ParticleCollider[] colliders = this.colliders.getArray();
+        ColliderGrid grid = this.grid;
+        grid.setCount(geometries.size() + colliders.length);
+
+        for (int i = 0; i < geometries.size(); i++) {
+            grid.setBounds(i, geometries.get(i).getWorldBound());
+        }
+
+        for (int i = 0, index = geometries.size(); i < colliders.length; i++, index++) {
+            colliders[i].getBounds(boundsMin, boundsMax);
+            grid.setBounds(index, boundsMin.x, boundsMin.y, boundsMin.z, boundsMax.x, boundsMax.y, boundsMax.z);
+        }
+
+        // the grid is rebuilt only if some collidable geometry or collider was moved
+        grid.rebuild();
+
+        frame = frame == Integer.MAX_VALUE ? 0 : frame + 1;
+
+        if (reachabilityCulling) {
+            updatePrediction(emitterNode);
+        }
+    }
+
+    /**
+     * Checks how paths of particles can be predicted in the current update.
+     *
+     * @param emitterNode the emitter node.
+     */
+    private void updatePrediction(@NotNull ParticleEmitterNode emitterNode) {
+
+        boolean wasPredictable = predictable;
+        Vector3f gravity = Vector3f.ZERO;
+
+        predictable = true;
+
+        for (ParticleInfluencer<?> influencer : emitterNode.getInfluencers().getArray()) {
+
+            if (influencer == this || !influencer.isEnabled()) {
+                continue;
+            }
+
+            // other analytic influencers don't change velocities of particles
+            if (influencer instanceof GravityInfluencer) {
+
+                GravityInfluencer gravityInfluencer = (GravityInfluencer) influencer;
+                predictable &= gravityInfluencer.isAnalytic(emitterNode);
+                gravity = gravityInfluencer.getGravity();
+
+            } else if (!(influencer instanceof AnalyticParticleInfluencer)) {
+                predictable = false;
+            }
+        }
+
+        predictionChanged = predictable != wasPredictable || !predictedGravity.equals(gravity);
+        predictedGravity.set(gravity);
+    }
+
+    /**
+     * Returns true if the predicted path of the particle over its remaining life can't reach any collider, the result
+     * is cached until the particle collides, colliders are moved or the prediction is changed. Paths aren't predicted
+     * if the emitter has enabled influencers which change velocities of particles in non-analytic way.
+     *
+     * @param emitterNode  the emitter node.
+     * @param particleData the particle data.
+     * @param data         the influence's data.
+     * @return true if the particle can't reach any collider.
+     */
+    private boolean isUnreachable(
+            @NotNull ParticleEmitterNode emitterNode,
+            @NotNull ParticleData particleData,
+            @NotNull PhysicsInfluencerData data
+    ) {
+
+        ColliderGrid grid = this.grid;
+
+        if (!predictable) {
+            return false;
+        } else if (data.reachVersion == grid.getVersion() && !predictionChanged) {
+            return data.unreachable;
+        }
+
+        Vector3f position = currentPosition.set(particleData.position)
+                .addLocal(emitterNode.getLocalTranslation());
+        Vector3f velocity = particleData.velocity;
+        Vector3f min = boundsMin;
+        Vector3f max = boundsMax;
+
+        float time = Math.max(particleData.life, 0F);
+
+        // the path is p + v * t - g * t^2 / 2, so its bounds are at the ends and at the top of the parabola
+        for (int axis = 0; axis < 3; axis++) {
+
+            float from = position.get(axis);
+            float speed = velocity.get(axis);
+            float gravity = predictedGravity.get(axis);
+            float to = from + speed * time - gravity * time * time * 0.5F;
+
+            float low = Math.min(from, to);
+            float high = Math.max(from, to);
+
+            if (gravity != 0F) {
+
+                float top = speed / gravity;
+
+                if (top > 0F && top < time) {
+                    float value = from + speed * top - gravity * top * top * 0.5F;
+                    low = Math.min(low, value);
+                    high = Math.max(high, value);
+                }
+            }
+
+            min.set(axis, low - reachabilityMargin);
+            max.set(axis, high + reachabilityMargin);
+        }
+
+        data.reachVersion = grid.getVersion();
+        data.unreachable = grid.query(min.x, min.y, min.z, max.x, max.y, max.z) < 1;
+
+        return data.unreachable;
+    }
+
     /**
-     * Finds collisions.
+     * Finds collisions on the path of the particle for this update.
      *
      * @param emitterNode  the emitter node.
      * @param particleData the particle data.
@@ -304,60 +562,144 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
             float tpf
     ) {
 
-        CollisionReaction collisionReaction = getCollisionReaction();
         GeometryList geometries = getGeometries();
+        ParticleCollider[] colliders = this.colliders.getArray();
+        ColliderGrid grid = this.grid;
+
+        int geometryCount = geometries.size();
+
+        if (grid.getCount() < 1 || grid.getCount() != geometryCount + colliders.length) {
+            return;
+        }
+
+        Vector3f velocity = particleData.velocity;
+        Vector3f current = currentPosition.set(particleData.position)
+                .addLocal(emitterNode.getLocalTranslation());
+        Vector3f end = segmentEnd.set(velocity)
+                .multLocal(tpf)
+                .addLocal(current);
+
+        // the swept path covers frames which were skipped by time slicing
+        Vector3f start = segmentStart.set(data.swept ? data.lastPosition : current);
+
+        data.lastPosition.set(end);
+        data.swept = true;
+
+        float distance = start.distance(end);
+
+        if (distance < FastMath.ZERO_TOLERANCE) {
+            return;
+        }
+
+        int found = grid.query(Math.min(start.x, end.x), Math.min(start.y, end.y), Math.min(start.z, end.z),
+                Math.max(start.x, end.x), Math.max(start.y, end.y), Math.max(start.z, end.z));
+
+        if (found < 1) {
+            return;
+        }
+
         CollisionResults results = getResults();
+        int[] candidates = grid.getCandidates();
 
-        for (int i = 0; i < geometries.size(); i++) {
-            Geometry geometry = geometries.get(i);
-            try {
+        Ray ray = null;
 
-                if (results.size() != 0) {
-                    results.clear();
-                }
+        float hitDistance = Float.POSITIVE_INFINITY;
+
+        for (int i = 0; i < found; i++) {
+
+            int index = candidates[i];
+
+            if (!grid.intersectsSegment(index, start, end)) {
+                continue;
+            }
 
-                updateCollisionShape(emitterNode, particleData, tpf);
+            if (index >= geometryCount) {
 
-                geometry.collideWith(geom.getWorldBound(), results);
+                ParticleCollider collider = colliders[index - geometryCount];
+                float fraction = collider.intersect(start, end, colliderNormal);
 
-                if (results.size() <= 0) {
-                    continue;
+                if (fraction != ParticleCollider.NO_HIT && fraction * distance < hitDistance) {
+                    hitDistance = fraction * distance;
+                    normal.set(colliderNormal);
                 }
 
-                Vector3f velocity = particleData.velocity;
+                continue;
+            }
+
+            if (ray == null) {
+                ray = this.ray;
+                ray.setOrigin(start);
+                ray.setDirection(tempVec.set(end).subtractLocal(start).divideLocal(distance));
+                ray.setLimit(distance);
+            }
 
-                result = results.getClosestCollision();
+            results.clear();
+            geometries.get(index).collideWith(ray, results);
 
-                switch (collisionReaction) {
-                    case BOUNCE: {
+            if (results.size() < 1) {
+                continue;
+            }
 
-                        result.getTriangle(contactSurface);
-                        normal.set(contactSurface.getNormal());
-                        twoDot = 2.0f * velocity.dot(normal);
-                        two.set(twoDot, twoDot, twoDot);
+            CollisionResult result = results.getClosestCollision();
 
-                        reflect.set(two.mult(normal, tempVec)
-                                .subtract(velocity, tempVec2))
-                                .negateLocal().normalizeLocal();
+            if (result.getDistance() > distance || result.getDistance() >= hitDistance) {
+                continue;
+            }
 
-                        length = velocity.length() * (restitution - 0.1f) + (FastMath.nextRandomFloat() * 0.2f);
+            hitDistance = result.getDistance();
 
-                        velocity.set(reflect).multLocal(length);
-                        data.collision = true;
-                        break;
-                    }
-                    case STICK: {
-                        velocity.set(0, 0, 0);
-                        break;
-                    }
-                    case DESTROY: {
-                        emitterNode.killParticle(particleData);
-                        break;
-                    }
-                }
+            Vector3f contactNormal = result.getContactNormal();
 
-            } catch (Exception ex) {
-                ex.printStackTrace();
+            if (contactNormal != null) {
+                normal.set(contactNormal);
+            } else {
+                result.getTriangle(contactSurface);
+                normal.set(contactSurface.getNormal());
+            }
+        }
+
+        results.clear();
+
+        if (hitDistance == Float.POSITIVE_INFINITY) {
+            return;
+        }
+
+        data.swept = false;
+        data.reachVersion = -1;
+
+        // the particle has already passed the contact in skipped frames
+        if (hitDistance < start.distance(current)) {
+            particleData.position.set(end)
+                    .subtractLocal(start)
+                    .multLocal(hitDistance / distance)
+                    .addLocal(start)
+                    .subtractLocal(emitterNode.getLocalTranslation())
+                    .addLocal(normal.x * CONTACT_OFFSET, normal.y * CONTACT_OFFSET, normal.z * CONTACT_OFFSET);
+        }
+
+        switch (getCollisionReaction()) {
+            case BOUNCE: {
+
+                twoDot = 2.0f * velocity.dot(normal);
+                two.set(twoDot, twoDot, twoDot);
+
+                reflect.set(two.mult(normal, tempVec)
+                        .subtract(velocity, tempVec2))
+                        .negateLocal().normalizeLocal();
+
+                length = velocity.length() * (restitution - 0.1f) + (FastMath.nextRandomFloat() * 0.2f);
+
+                velocity.set(reflect).multLocal(length);
+                data.collision = true;
+                break;
+            }
+            case STICK: {
+                velocity.set(0, 0, 0);
+                break;
+            }
+            case DESTROY: {
+                emitterNode.killParticle(particleData);
+                break;
             }
         }
     }
@@ -371,35 +713,16 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
 
         data.collision = false;
         data.interval = 0;
-
-        super.initializeImpl(emitterNode, particleData, data);
-    }
-
-    /**
-     * Updates collision shape.
-     *
-     * @param emitterNode  the emitter node.
-     * @param particleData the particle data.
-     * @param tpf          the tpf.
-     */
-    private void updateCollisionShape(
-            @NotNull ParticleEmitterNode emitterNode,
-            @NotNull ParticleData particleData,
-            float tpf
-    ) {
-
-        Vector3f translation = tempVec.set(particleData.position)
+        data.lastPosition.set(particleData.position)
                 .addLocal(emitterNode.getLocalTranslation());
+        data.swept = true;
+        data.slot = nextSlot;
+        data.reachVersion = -1;
+        data.unreachable = false;
 
-        Vector3f angles = particleData.angles;
+        nextSlot = nextSlot == Integer.MAX_VALUE ? 0 : nextSlot + 1;
 
-        quaternion.fromAngles(angles.x, angles.y, angles.z);
-        geom.setLocalTranslation(translation);
-        geom.setLocalRotation(quaternion);
-        geom.setLocalScale(particleData.size);
-        geom.updateLogicalState(tpf);
-        geom.updateGeometricState();
-        geom.updateModelBound();
+        super.initializeImpl(emitterNode, particleData, data);
     }
 
     /**
@@ -469,6 +792,38 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
         return geometries;
     }
 
+    /**
+     * Adds an analytic collider to this influencer.
+     *
+     * @param collider the collider.
+     */
+    public void addCollider(@NotNull ParticleCollider collider) {
+
+        if (colliders.contains(collider)) {
+            throw new IllegalArgumentException("The collider " + collider + " is already exists.");
+        }
+
+        colliders.add(collider);
+    }
+
+    /**
+     * Removes an analytic collider from this influencer.
+     *
+     * @param collider the collider.
+     */
+    public void removeCollider(@NotNull ParticleCollider collider) {
+        colliders.remove(collider);
+    }
+
+    /**
+     * Gets the list of analytic colliders.
+     *
+     * @return the list of analytic colliders.
+     */
+    public @NotNull SafeArrayList<ParticleCollider> getColliders() {
+        return colliders;
+    }
+
     /**
      * How "bouncy" the particle is (a value between 0.0f and 1.0f).  The default value is 0.5f.
      *
@@ -505,6 +860,73 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
         return collisionReaction;
     }
 
+    /**
+     * Sets the count of frames to test all particles, each frame tests only one slice of particles along their paths
+     * since the previous test, so the cost of a frame is divided by this count.
+     *
+     * @param timeSlices the count of frames to test all particles.
+     */
+    public void setTimeSlices(int timeSlices) {
+
+        if (timeSlices < 1) {
+            throw new IllegalArgumentException("the count of time slices " + timeSlices + " isn't positive.");
+        }
+
+        this.timeSlices = timeSlices;
+    }
+
+    /**
+     * Gets the count of frames to test all particles.
+     *
+     * @return the count of frames to test all particles.
+     */
+    public int getTimeSlices() {
+        return timeSlices;
+    }
+
+    /**
+     * Sets true to skip particles whose predicted paths over remaining life can't reach bounds of any collider. The
+     * path is predicted by the velocity and the world gravity, so particles of emitters with other enabled influencers
+     * which change velocities, like impulse or turbulence, are always tested.
+     *
+     * @param reachabilityCulling true to skip unreachable particles.
+     */
+    public void setReachabilityCulling(boolean reachabilityCulling) {
+        this.reachabilityCulling = reachabilityCulling;
+    }
+
+    /**
+     * Returns true if particles whose predicted paths can't reach any collider are skipped.
+     *
+     * @return true if unreachable particles are skipped.
+     */
+    public boolean isReachabilityCulling() {
+        return reachabilityCulling;
+    }
+
+    /**
+     * Sets the distance which is added to predicted paths of particles.
+     *
+     * @param reachabilityMargin the distance which is added to predicted paths.
+     */
+    public void setReachabilityMargin(float reachabilityMargin) {
+
+        if (reachabilityMargin < 0F) {
+            throw new IllegalArgumentException("the margin " + reachabilityMargin + " is negative.");
+        }
+
+        this.reachabilityMargin = reachabilityMargin;
+    }
+
+    /**
+     * Gets the distance which is added to predicted paths of particles.
+     *
+     * @return the distance which is added to predicted paths.
+     */
+    public float getReachabilityMargin() {
+        return reachabilityMargin;
+    }
+
     /**
      * Gets the collision threshold.
      *
@@ -531,6 +953,9 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
         capsule.write(collisionThreshold, "collisionThreshold", 0.1f);
         capsule.write(restitution, "restitution", 0.5f);
         capsule.write(collisionReaction.ordinal(), "collisionReaction", CollisionReaction.BOUNCE.ordinal());
+        capsule.write(timeSlices, "timeSlices", 1);
+        capsule.write(reachabilityCulling, "reachabilityCulling", false);
+        capsule.write(reachabilityMargin, "reachabilityMargin", 1f);
     }
 
     @Override
@@ -541,20 +966,28 @@ public class PhysicsInfluencer extends AbstractWithDataParticleInfluencer<Physic
         collisionThreshold = capsule.readFloat("collisionThreshold", 0.1f);
         restitution = capsule.readFloat("restitution", 0.5f);
         collisionReaction = CollisionReaction.valueOf(capsule.readInt("collisionReaction", CollisionReaction.BOUNCE.ordinal()));
+        timeSlices = capsule.readInt("timeSlices", 1);
+        reachabilityCulling = capsule.readBoolean("reachabilityCulling", false);
+        reachabilityMargin = capsule.readFloat("reachabilityMargin", 1f);
     }
 
     /**
      * This method clones the influencer instance.
      *
-     * ** Please note the geometry list is specific to each instance of the physics influencer and must be maintained by
-     * the user.  This list is NOT cloned from the original influencer.
+     * ** Please note the geometry list and the collider list are specific to each instance of the physics influencer and
+     * must be maintained by the user.  These lists are NOT cloned from the original influencer.
      */
     @Override
     public @NotNull ParticleInfluencer clone() {
         PhysicsInfluencer clone = (PhysicsInfluencer) super.clone();
+        clone.grid = new ColliderGrid();
+        clone.colliders = new SafeArrayList<>(ParticleCollider.class);
         clone.setCollisionReaction(collisionReaction);
         clone.setRestitution(restitution);
         clone.setCollisionThreshold(collisionThreshold);
+        clone.setTimeSlices(timeSlices);
+        clone.setReachabilityCulling(reachabilityCulling);
+        clone.setReachabilityMargin(reachabilityMargin);
         return clone;
     }
 }
@@ -1,12 +1,14 @@
 package tonegod.emitter.influencers.impl;
 
 import com.jme3.export.*;
+import com.jme3.math.FastMath;
 import com.jme3.math.Vector3f;
 import com.jme3.util.SafeArrayList;
 import com.jme3.util.clone.Cloner;
 import org.jetbrains.annotations.NotNull;
 import tonegod.emitter.Messages;
 import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.influencers.AnalyticParticleInfluencer;
 import tonegod.emitter.influencers.ParticleInfluencer;
 import tonegod.emitter.interpolation.Interpolation;
 import tonegod.emitter.particle.ParticleData;
@@ -20,7 +22,8 @@ import java.util.Random;
  *
  * @author t0neg0d, JavaSaBr
  */
-public final class SizeInfluencer extends AbstractInterpolatedParticleInfluencer<SizeInfluencer.SizeInfluencerData> {
+public final class SizeInfluencer extends AbstractInterpolatedParticleInfluencer<SizeInfluencer.SizeInfluencerData>
+        implements AnalyticParticleInfluencer<SizeInfluencer.SizeInfluencerData> {
 
     protected static class SizeInfluencerData extends BaseInterpolationData {
 
@@ -107,6 +110,12 @@ public final class SizeInfluencer extends AbstractInterpolatedParticleInfluencer
             float tpf
     ) {
 
+        if (isCurveUsed(emitterNode)) {
+            applyCurve(particleData);
+            super.updateImpl(emitterNode, particleData, data, tpf);
+            return;
+        }
+
         data.interval += tpf;
 
         if (data.index >= sizes.size()) {
@@ -125,6 +134,27 @@ public final class SizeInfluencer extends AbstractInterpolatedParticleInfluencer
         super.updateImpl(emitterNode, particleData, data, tpf);
     }
 
+    /**
+     * Applies the size of the baked curve by the life blend of the particle.
+     *
+     * @param particleData the particle's data.
+     */
+    private void applyCurve(@NotNull ParticleData particleData) {
+        float[] curve = getCurve();
+        int offset = getCurveOffset(particleData.blend);
+        particleData.size.set(curve[offset], curve[offset + 1], curve[offset + 2]);
+    }
+
+    @Override
+    public boolean isAnalytic(@NotNull ParticleEmitterNode emitterNode) {
+        return isCurveBakeable();
+    }
+
+    @Override
+    public void evaluate(@NotNull ParticleEmitterNode emitterNode, @NotNull ParticleData particleData, float age) {
+        applyCurve(particleData);
+    }
+
     /**
      * Updates the particle's size.
      *
@@ -167,6 +197,13 @@ public final class SizeInfluencer extends AbstractInterpolatedParticleInfluencer
             @NotNull SizeInfluencer.SizeInfluencerData data
     ) {
 
+        if (isCurveUsed(emitterNode)) {
+            float[] curve = getCurve();
+            particleData.size.set(curve[0], curve[1], curve[2]);
+            super.initializeImpl(emitterNode, particleData, data);
+            return;
+        }
+
         SafeArrayList<Interpolation> interpolations = getInterpolations();
 
         data.index = 0;
@@ -234,6 +271,28 @@ public final class SizeInfluencer extends AbstractInterpolatedParticleInfluencer
         particleData.size.set(data.startSize);
     }
 
+    @Override
+    protected boolean isCurveSupported() {
+        return !randomSize;
+    }
+
+    @Override
+    protected int getCurveComponents() {
+        return 3;
+    }
+
+    @Override
+    protected void writeCurveSample(@NotNull float[] curve, int offset, int index, float blend) {
+
+        Vector3f[] sizes = getSizes().getArray();
+        Vector3f start = sizes[index];
+        Vector3f end = sizes[index + 1];
+
+        curve[offset] = FastMath.interpolateLinear(blend, start.x, end.x);
+        curve[offset + 1] = FastMath.interpolateLinear(blend, start.y, end.y);
+        curve[offset + 2] = FastMath.interpolateLinear(blend, start.z, end.z);
+    }
+
     @Override
     protected void resetImpl(
             @NotNull ParticleEmitterNode emitterNode,
@@ -310,6 +369,7 @@ public final class SizeInfluencer extends AbstractInterpolatedParticleInfluencer
      */
     public void updateSize(@NotNull Vector3f size, int index) {
         sizes.set(index, size);
+        invalidateCurve();
     }
 
     /**
@@ -4,11 +4,11 @@ import com.jme3.export.InputCapsule;
 import com.jme3.export.JmeExporter;
 import com.jme3.export.JmeImporter;
 import com.jme3.export.OutputCapsule;
-import com.jme3.math.FastMath;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import tonegod.emitter.Messages;
 import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.influencers.AnalyticParticleInfluencer;
 import tonegod.emitter.influencers.ParticleInfluencer;
 import tonegod.emitter.particle.ParticleData;
 
@@ -19,7 +19,8 @@ import java.io.IOException;
  *
  * @author t0neg0d, JavaSaBr
  */
-public class SpriteInfluencer extends AbstractInterpolatedParticleInfluencer<BaseInterpolationData> {
+public class SpriteInfluencer extends AbstractInterpolatedParticleInfluencer<BaseInterpolationData>
+        implements AnalyticParticleInfluencer<BaseInterpolationData> {
 
     /**
      * The frame sequence.
@@ -97,15 +98,10 @@ public class SpriteInfluencer extends AbstractInterpolatedParticleInfluencer<Bas
 
         if (frameSequence == null) {
 
-            particleData.spriteCol++;
+            particleData.spriteFrame++;
 
-            if (particleData.spriteCol == emitterNode.getSpriteColCount()) {
-                particleData.spriteCol = 0;
-                particleData.spriteRow++;
-
-                if (particleData.spriteRow == emitterNode.getSpriteRowCount()) {
-                    particleData.spriteRow = 0;
-                }
+            if (particleData.spriteFrame >= emitterNode.getSpriteFrameCount()) {
+                particleData.spriteFrame = 0;
             }
 
         } else {
@@ -116,10 +112,7 @@ public class SpriteInfluencer extends AbstractInterpolatedParticleInfluencer<Bas
                 data.index = 0;
             }
 
-            int frame = frameSequence[data.index];
-
-            particleData.spriteRow = (int) FastMath.floor(frame / emitterNode.getSpriteRowCount()) - 2;
-            particleData.spriteCol = frame % emitterNode.getSpriteColCount();
+            particleData.spriteFrame = frameSequence[data.index];
         }
 
         data.interval -= targetInterval;
@@ -132,11 +125,8 @@ public class SpriteInfluencer extends AbstractInterpolatedParticleInfluencer<Bas
             @NotNull BaseInterpolationData data
     ) {
 
-        int spriteRowCount = emitterNode.getSpriteRowCount();
-        int spriteColCount = emitterNode.getSpriteColCount();
-
         if (totalFrames == -1) {
-            totalFrames = spriteColCount * spriteRowCount;
+            totalFrames = emitterNode.getSpriteFrameCount();
             if (totalFrames == 1) {
                 setAnimate(false);
             }
@@ -144,24 +134,15 @@ public class SpriteInfluencer extends AbstractInterpolatedParticleInfluencer<Bas
 
         if (isRandomStartImage()) {
             if (frameSequence == null) {
-                data.index = FastMath.nextRandomInt(0, totalFrames - 1);
-                particleData.spriteRow = (int) FastMath.floor(data.index / spriteRowCount) - 1;
-                particleData.spriteCol = data.index % spriteColCount;
+                data.index = getStartFrame(particleData, totalFrames);
+                particleData.spriteFrame = data.index;
             } else {
-                data.index = FastMath.nextRandomInt(0, frameSequence.length - 1);
-                particleData.spriteRow = (int) FastMath.floor(frameSequence[data.index] / spriteRowCount) - 1;
-                particleData.spriteCol = frameSequence[data.index] % spriteColCount;
+                data.index = getStartFrame(particleData, frameSequence.length);
+                particleData.spriteFrame = frameSequence[data.index];
             }
         } else {
-            if (frameSequence != null) {
-                data.index = frameSequence[0];
-                particleData.spriteRow = (int) FastMath.floor(frameSequence[data.index] / spriteRowCount) - 2;
-                particleData.spriteCol = frameSequence[data.index] % spriteColCount;
-            } else {
-                data.index = 0;
-                particleData.spriteRow = 0;
-                particleData.spriteCol = 0;
-            }
+            data.index = 0;
+            particleData.spriteFrame = frameSequence == null ? 0 : frameSequence[0];
         }
 
         if (!isAnimate()) {
@@ -183,6 +164,36 @@ public class SpriteInfluencer extends AbstractInterpolatedParticleInfluencer<Bas
         super.initializeImpl(emitterNode, particleData, data);
     }
 
+    @Override
+    public boolean isAnalytic(@NotNull ParticleEmitterNode emitterNode) {
+        return frameSequence == null && (!isAnimate() || !isCycle());
+    }
+
+    @Override
+    public void evaluate(@NotNull ParticleEmitterNode emitterNode, @NotNull ParticleData particleData, float age) {
+
+        if (!isAnimate()) {
+            return;
+        }
+
+        int frameCount = emitterNode.getSpriteFrameCount();
+        int startFrame = isRandomStartImage() ? getStartFrame(particleData, frameCount) : 0;
+
+        particleData.spriteFrame = (startFrame + (int) (particleData.blend * frameCount)) % frameCount;
+    }
+
+    /**
+     * Gets the random start frame of the particle by its seed, so updated and evaluated particles start from the
+     * same frame.
+     *
+     * @param particleData the particle data.
+     * @param frameCount   the count of frames.
+     * @return the start frame.
+     */
+    private static int getStartFrame(@NotNull ParticleData particleData, int frameCount) {
+        return Math.min((int) (particleData.seed * frameCount), frameCount - 1);
+    }
+
     @Override
     protected void resetImpl(
             @NotNull ParticleEmitterNode emitterNode,
@@ -190,8 +201,7 @@ public class SpriteInfluencer extends AbstractInterpolatedParticleInfluencer<Bas
             @NotNull BaseInterpolationData data
     ) {
 
-        particleData.spriteCol = 0;
-        particleData.spriteRow = 0;
+        particleData.spriteFrame = 0;
 
         super.resetImpl(emitterNode, particleData, data);
     }
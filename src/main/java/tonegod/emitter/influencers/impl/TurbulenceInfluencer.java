@@ -0,0 +1,496 @@
+package tonegod.emitter.influencers.impl;
+
+import com.jme3.export.InputCapsule;
+import com.jme3.export.JmeExporter;
+import com.jme3.export.JmeImporter;
+import com.jme3.export.OutputCapsule;
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tonegod.emitter.Messages;
+import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.field.CurlNoise;
+import tonegod.emitter.field.VectorFieldGrid;
+import tonegod.emitter.influencers.ParticleInfluencer;
+import tonegod.emitter.influencers.PreparedParticleInfluencer;
+import tonegod.emitter.particle.ParticleData;
+
+import java.io.IOException;
+
+/**
+ * The implementation of the {@link ParticleInfluencer} to give turbulent motion to particles by curl noise. The noise
+ * is precomputed to a tileable lattice which is sampled trilinearly, so a particle costs one lookup per frame.
+ *
+ * @author JavaSaBr
+ */
+public class TurbulenceInfluencer extends AbstractWithoutDataParticleInfluencer
+        implements PreparedParticleInfluencer<Void> {
+
+    /**
+     * The list of animation modes of the turbulence.
+     */
+    public enum AnimationMode {
+        /**
+         * The lattice is scrolled through particles.
+         */
+        SCROLL(Messages.PARTICLE_INFLUENCER_TURBULENCE_ANIMATION_SCROLL),
+        /**
+         * Two lattices are blended back and forth.
+         */
+        BLEND(Messages.PARTICLE_INFLUENCER_TURBULENCE_ANIMATION_BLEND);
+
+        private static final AnimationMode[] VALUES = values();
+
+        /**
+         * Get an animation mode by the index.
+         *
+         * @param index the index.
+         * @return the animation mode.
+         */
+        public static @NotNull AnimationMode valueOf(int index) {
+            return VALUES[index];
+        }
+
+        @NotNull
+        private final String name;
+
+        AnimationMode(@NotNull String name) {
+            this.name = name;
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * The scroll velocity of the lattice.
+     */
+    @NotNull
+    private Vector3f scrollVelocity;
+
+    /**
+     * The scroll offset of the lattice in grid space.
+     */
+    @NotNull
+    private transient Vector3f scrollOffset;
+
+    /**
+     * The temp vector.
+     */
+    @NotNull
+    private final transient Vector3f temp;
+
+    /**
+     * The temp vector #2.
+     */
+    @NotNull
+    private final transient Vector3f temp2;
+
+    /**
+     * The lattice.
+     */
+    @Nullable
+    private transient VectorFieldGrid lattice;
+
+    /**
+     * The second lattice of the blend animation.
+     */
+    @Nullable
+    private transient VectorFieldGrid blendLattice;
+
+    /**
+     * The animation mode.
+     */
+    @NotNull
+    private AnimationMode animationMode;
+
+    /**
+     * The count of samples of the lattice by each axis.
+     */
+    private int resolution;
+
+    /**
+     * The count of noise cells of the first octave in the lattice by each axis.
+     */
+    private int frequency;
+
+    /**
+     * The count of octaves.
+     */
+    private int octaves;
+
+    /**
+     * The seed of the noise.
+     */
+    private int seed;
+
+    /**
+     * The size of the lattice in the space of particles.
+     */
+    private float scale;
+
+    /**
+     * The strength of the turbulence.
+     */
+    private float strength;
+
+    /**
+     * The period of the blend animation in seconds.
+     */
+    private float blendPeriod;
+
+    /**
+     * The animation time.
+     */
+    private float time;
+
+    /**
+     * The current blend of the blend animation.
+     */
+    private float blend;
+
+    public TurbulenceInfluencer() {
+        this.scrollVelocity = new Vector3f(0, 1, 0);
+        this.scrollOffset = new Vector3f();
+        this.temp = new Vector3f();
+        this.temp2 = new Vector3f();
+        this.animationMode = AnimationMode.SCROLL;
+        this.resolution = 16;
+        this.frequency = 2;
+        this.octaves = 2;
+        this.scale = 10f;
+        this.strength = 1f;
+        this.blendPeriod = 4f;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return Messages.PARTICLE_INFLUENCER_TURBULENCE;
+    }
+
+    @Override
+    public void beforeUpdate(@NotNull ParticleEmitterNode emitterNode, float tpf) {
+
+        if (lattice == null) {
+            lattice = CurlNoise.generate(resolution, frequency, octaves, seed);
+        }
+
+        switch (animationMode) {
+            case SCROLL: {
+
+                // the lattice is tileable, so the offset is wrapped to keep precision
+                float cellsPerUnit = resolution / scale;
+
+                scrollOffset.set(scrollVelocity)
+                        .multLocal(-tpf * cellsPerUnit)
+                        .addLocal(scrollOffset);
+                scrollOffset.set(scrollOffset.x % resolution, scrollOffset.y % resolution,
+                        scrollOffset.z % resolution);
+
+                break;
+            }
+            case BLEND: {
+
+                if (blendLattice == null) {
+                    blendLattice = CurlNoise.generate(resolution, frequency, octaves, seed + 1);
+                }
+
+                time = (time + tpf) % blendPeriod;
+                blend = 0.5f - 0.5f * FastMath.cos(FastMath.TWO_PI * time / blendPeriod);
+                break;
+            }
+        }
+    }
+
+    @Override
+    protected void updateImpl(
+            @NotNull ParticleEmitterNode emitterNode,
+            @NotNull ParticleData particleData,
+            float tpf
+    ) {
+
+        VectorFieldGrid lattice = this.lattice;
+
+        if (lattice != null) {
+
+            float cellsPerUnit = resolution / scale;
+
+            Vector3f position = particleData.position;
+            Vector3f point = temp.set(position).multLocal(cellsPerUnit);
+            Vector3f vector;
+
+            if (animationMode == AnimationMode.SCROLL) {
+                point.addLocal(scrollOffset);
+                vector = lattice.sample(point.x, point.y, point.z, point);
+            } else {
+
+                VectorFieldGrid blendLattice = this.blendLattice;
+                vector = lattice.sample(point.x, point.y, point.z, temp2);
+
+                if (blendLattice != null) {
+                    vector.interpolateLocal(blendLattice.sample(point.x, point.y, point.z, point), blend);
+                }
+            }
+
+            particleData.velocity.addLocal(vector.multLocal(strength * tpf));
+        }
+
+        super.updateImpl(emitterNode, particleData, tpf);
+    }
+
+    /**
+     * Resets the generated lattices, they are generated again on the next update.
+     */
+    private void resetLattices() {
+        lattice = null;
+        blendLattice = null;
+    }
+
+    /**
+     * Sets the count of samples of the lattice by each axis.
+     *
+     * @param resolution the count of samples by each axis.
+     */
+    public void setResolution(int resolution) {
+
+        if (resolution < 2) {
+            throw new IllegalArgumentException("the resolution " + resolution + " is less than 2.");
+        }
+
+        this.resolution = resolution;
+        resetLattices();
+    }
+
+    /**
+     * Gets the count of samples of the lattice by each axis.
+     *
+     * @return the count of samples by each axis.
+     */
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Sets the count of noise cells of the first octave in the lattice by each axis.
+     *
+     * @param frequency the count of noise cells.
+     */
+    public void setFrequency(int frequency) {
+
+        if (frequency < 1) {
+            throw new IllegalArgumentException("the frequency " + frequency + " isn't positive.");
+        }
+
+        this.frequency = frequency;
+        resetLattices();
+    }
+
+    /**
+     * Gets the count of noise cells of the first octave in the lattice by each axis.
+     *
+     * @return the count of noise cells.
+     */
+    public int getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Sets the count of octaves, each next octave has double frequency and half amplitude.
+     *
+     * @param octaves the count of octaves.
+     */
+    public void setOctaves(int octaves) {
+
+        if (octaves < 1) {
+            throw new IllegalArgumentException("the count of octaves " + octaves + " isn't positive.");
+        }
+
+        this.octaves = octaves;
+        resetLattices();
+    }
+
+    /**
+     * Gets the count of octaves.
+     *
+     * @return the count of octaves.
+     */
+    public int getOctaves() {
+        return octaves;
+    }
+
+    /**
+     * Sets the seed of the noise.
+     *
+     * @param seed the seed.
+     */
+    public void setSeed(int seed) {
+        this.seed = seed;
+        resetLattices();
+    }
+
+    /**
+     * Gets the seed of the noise.
+     *
+     * @return the seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the size of the lattice in the space of particles, the lattice is repeated after this distance.
+     *
+     * @param scale the size of the lattice.
+     */
+    public void setScale(float scale) {
+
+        if (scale <= 0F) {
+            throw new IllegalArgumentException("the scale " + scale + " isn't positive.");
+        }
+
+        this.scale = scale;
+    }
+
+    /**
+     * Gets the size of the lattice in the space of particles.
+     *
+     * @return the size of the lattice.
+     */
+    public float getScale() {
+        return scale;
+    }
+
+    /**
+     * Sets the strength of the turbulence.
+     *
+     * @param strength the strength.
+     */
+    public void setStrength(float strength) {
+        this.strength = strength;
+    }
+
+    /**
+     * Gets the strength of the turbulence.
+     *
+     * @return the strength.
+     */
+    public float getStrength() {
+        return strength;
+    }
+
+    /**
+     * Sets the animation mode.
+     *
+     * @param animationMode the animation mode.
+     */
+    public void setAnimationMode(@NotNull AnimationMode animationMode) {
+        this.animationMode = animationMode;
+    }
+
+    /**
+     * Gets the animation mode.
+     *
+     * @return the animation mode.
+     */
+    public @NotNull AnimationMode getAnimationMode() {
+        return animationMode;
+    }
+
+    /**
+     * Sets the velocity of scrolling the lattice through particles.
+     *
+     * @param scrollVelocity the scroll velocity.
+     */
+    public void setScrollVelocity(@NotNull Vector3f scrollVelocity) {
+        this.scrollVelocity.set(scrollVelocity);
+    }
+
+    /**
+     * Gets the velocity of scrolling the lattice through particles.
+     *
+     * @return the scroll velocity.
+     */
+    public @NotNull Vector3f getScrollVelocity() {
+        return scrollVelocity;
+    }
+
+    /**
+     * Sets the period of the blend animation.
+     *
+     * @param blendPeriod the period in seconds.
+     */
+    public void setBlendPeriod(float blendPeriod) {
+
+        if (blendPeriod <= 0F) {
+            throw new IllegalArgumentException("the period " + blendPeriod + " isn't positive.");
+        }
+
+        this.blendPeriod = blendPeriod;
+    }
+
+    /**
+     * Gets the period of the blend animation.
+     *
+     * @return the period in seconds.
+     */
+    public float getBlendPeriod() {
+        return blendPeriod;
+    }
+
+    @Override
+    public void write(@NotNull JmeExporter exporter) throws IOException {
+        super.write(exporter);
+
+        OutputCapsule capsule = exporter.getCapsule(this);
+        capsule.write(animationMode.ordinal(), "animationMode", AnimationMode.SCROLL.ordinal());
+        capsule.write(resolution, "resolution", 16);
+        capsule.write(frequency, "frequency", 2);
+        capsule.write(octaves, "octaves", 2);
+        capsule.write(seed, "seed", 0);
+        capsule.write(scale, "scale", 10f);
+        capsule.write(strength, "strength", 1f);
+        capsule.write(blendPeriod, "blendPeriod", 4f);
+        capsule.write(scrollVelocity, "scrollVelocity", null);
+    }
+
+    @Override
+    public void read(@NotNull JmeImporter importer) throws IOException {
+        super.read(importer);
+
+        InputCapsule capsule = importer.getCapsule(this);
+        animationMode = AnimationMode.valueOf(capsule.readInt("animationMode", AnimationMode.SCROLL.ordinal()));
+        resolution = capsule.readInt("resolution", 16);
+        frequency = capsule.readInt("frequency", 2);
+        octaves = capsule.readInt("octaves", 2);
+        seed = capsule.readInt("seed", 0);
+        scale = capsule.readFloat("scale", 10f);
+        strength = capsule.readFloat("strength", 1f);
+        blendPeriod = capsule.readFloat("blendPeriod", 4f);
+
+        Vector3f scrollVelocity = (Vector3f) capsule.readSavable("scrollVelocity", null);
+
+        if (scrollVelocity != null) {
+            this.scrollVelocity.set(scrollVelocity);
+        }
+
+        resetLattices();
+    }
+
+    /**
+     * This method clones the influencer instance, generated lattices are shared with the original influencer.
+     */
+    @Override
+    public @NotNull ParticleInfluencer<Void> clone() {
+        TurbulenceInfluencer clone = (TurbulenceInfluencer) super.clone();
+        clone.scrollVelocity = scrollVelocity.clone();
+        clone.scrollOffset = scrollOffset.clone();
+        clone.setAnimationMode(animationMode);
+        clone.setScale(scale);
+        clone.setStrength(strength);
+        clone.setBlendPeriod(blendPeriod);
+        return clone;
+    }
+}
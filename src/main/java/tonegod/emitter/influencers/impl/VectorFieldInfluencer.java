@@ -0,0 +1,331 @@
+package tonegod.emitter.influencers.impl;
+
+import com.jme3.export.InputCapsule;
+import com.jme3.export.JmeExporter;
+import com.jme3.export.JmeImporter;
+import com.jme3.export.OutputCapsule;
+import com.jme3.math.Matrix3f;
+import com.jme3.math.Matrix4f;
+import com.jme3.math.Transform;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tonegod.emitter.Messages;
+import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.field.VectorFieldGrid;
+import tonegod.emitter.influencers.ParticleInfluencer;
+import tonegod.emitter.influencers.PreparedParticleInfluencer;
+import tonegod.emitter.particle.ParticleData;
+
+import java.io.IOException;
+
+/**
+ * The implementation of the {@link ParticleInfluencer} to move particles through a precomputed vector field.
+ * The transform maps grid space of the field to the space of particles or to world space, so a cell of the field
+ * has the size of the scale of the transform.
+ *
+ * @author JavaSaBr
+ */
+public class VectorFieldInfluencer extends AbstractWithoutDataParticleInfluencer
+        implements PreparedParticleInfluencer<Void> {
+
+    /**
+     * The list of modes of influence of the field.
+     */
+    public enum FieldMode {
+        /**
+         * Vectors of the field are accelerations of particles.
+         */
+        FORCE(Messages.PARTICLE_INFLUENCER_VECTOR_FIELD_MODE_FORCE),
+        /**
+         * Vectors of the field replace velocities of particles.
+         */
+        VELOCITY(Messages.PARTICLE_INFLUENCER_VECTOR_FIELD_MODE_VELOCITY);
+
+        private static final FieldMode[] VALUES = values();
+
+        /**
+         * Get a field mode by the index.
+         *
+         * @param index the index.
+         * @return the field mode.
+         */
+        public static @NotNull FieldMode valueOf(int index) {
+            return VALUES[index];
+        }
+
+        @NotNull
+        private final String name;
+
+        FieldMode(@NotNull String name) {
+            this.name = name;
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * The transform of grid space of the field.
+     */
+    @NotNull
+    private Transform transform;
+
+    /**
+     * The matrix from the space of particles to grid space.
+     */
+    @NotNull
+    private final transient Matrix4f toField;
+
+    /**
+     * The rotation from grid space to the space of particles.
+     */
+    @NotNull
+    private final transient Matrix3f fromField;
+
+    /**
+     * The temp matrix.
+     */
+    @NotNull
+    private final transient Matrix4f tempMatrix;
+
+    /**
+     * The temp rotation.
+     */
+    @NotNull
+    private final transient Matrix3f tempRotation;
+
+    /**
+     * The temp vector.
+     */
+    @NotNull
+    private final transient Vector3f temp;
+
+    /**
+     * The vector field.
+     */
+    @Nullable
+    private VectorFieldGrid field;
+
+    /**
+     * The field mode.
+     */
+    @NotNull
+    private FieldMode fieldMode;
+
+    /**
+     * The multiplier of vectors of the field.
+     */
+    private float strength;
+
+    /**
+     * True if the transform is in world space instead of the space of particles.
+     */
+    private boolean worldSpace;
+
+    public VectorFieldInfluencer() {
+        this.transform = new Transform();
+        this.toField = new Matrix4f();
+        this.fromField = new Matrix3f();
+        this.tempMatrix = new Matrix4f();
+        this.tempRotation = new Matrix3f();
+        this.temp = new Vector3f();
+        this.fieldMode = FieldMode.FORCE;
+        this.strength = 1f;
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return Messages.PARTICLE_INFLUENCER_VECTOR_FIELD;
+    }
+
+    @Override
+    public void beforeUpdate(@NotNull ParticleEmitterNode emitterNode, float tpf) {
+
+        Transform transform = getTransform();
+
+        // the transforms are combined once per frame, so a particle needs only one matrix multiplication
+        toField.setTransform(transform.getTranslation(), transform.getScale(),
+                transform.getRotation().toRotationMatrix(tempRotation));
+        toField.invertLocal();
+
+        transform.getRotation().toRotationMatrix(fromField);
+
+        if (worldSpace) {
+
+            Transform worldTransform = emitterNode.getWorldTransform();
+
+            tempMatrix.setTransform(worldTransform.getTranslation(), worldTransform.getScale(),
+                    worldTransform.getRotation().toRotationMatrix(tempRotation));
+
+            toField.multLocal(tempMatrix);
+            tempRotation.transposeLocal().mult(fromField, fromField);
+        }
+    }
+
+    @Override
+    protected void updateImpl(
+            @NotNull ParticleEmitterNode emitterNode,
+            @NotNull ParticleData particleData,
+            float tpf
+    ) {
+
+        VectorFieldGrid field = getField();
+
+        if (field != null) {
+
+            Vector3f point = toField.mult(particleData.position, temp);
+            Vector3f vector = fromField.mult(field.sample(point.x, point.y, point.z, point), point);
+            Vector3f velocity = particleData.velocity;
+
+            switch (fieldMode) {
+                case FORCE: {
+                    velocity.addLocal(vector.multLocal(strength * tpf));
+                    break;
+                }
+                case VELOCITY: {
+                    velocity.set(vector).multLocal(strength);
+                    break;
+                }
+            }
+        }
+
+        super.updateImpl(emitterNode, particleData, tpf);
+    }
+
+    /**
+     * Sets the vector field.
+     *
+     * @param field the vector field or null.
+     */
+    public void setField(@Nullable VectorFieldGrid field) {
+        this.field = field;
+    }
+
+    /**
+     * Gets the vector field.
+     *
+     * @return the vector field or null.
+     */
+    public @Nullable VectorFieldGrid getField() {
+        return field;
+    }
+
+    /**
+     * Sets the field mode.
+     *
+     * @param fieldMode the field mode.
+     */
+    public void setFieldMode(@NotNull FieldMode fieldMode) {
+        this.fieldMode = fieldMode;
+    }
+
+    /**
+     * Gets the field mode.
+     *
+     * @return the field mode.
+     */
+    public @NotNull FieldMode getFieldMode() {
+        return fieldMode;
+    }
+
+    /**
+     * Sets the multiplier of vectors of the field.
+     *
+     * @param strength the multiplier of vectors.
+     */
+    public void setStrength(float strength) {
+        this.strength = strength;
+    }
+
+    /**
+     * Gets the multiplier of vectors of the field.
+     *
+     * @return the multiplier of vectors.
+     */
+    public float getStrength() {
+        return strength;
+    }
+
+    /**
+     * Sets the transform of grid space of the field, the sample (i, j, k) of the field is at the point (i, j, k)
+     * transformed by it.
+     *
+     * @param transform the transform of grid space.
+     */
+    public void setTransform(@NotNull Transform transform) {
+        this.transform.set(transform);
+    }
+
+    /**
+     * Gets the transform of grid space of the field.
+     *
+     * @return the transform of grid space.
+     */
+    public @NotNull Transform getTransform() {
+        return transform;
+    }
+
+    /**
+     * Sets true if the transform is in world space instead of the space of particles.
+     *
+     * @param worldSpace true if the transform is in world space.
+     */
+    public void setWorldSpace(boolean worldSpace) {
+        this.worldSpace = worldSpace;
+    }
+
+    /**
+     * Returns true if the transform is in world space instead of the space of particles.
+     *
+     * @return true if the transform is in world space.
+     */
+    public boolean isWorldSpace() {
+        return worldSpace;
+    }
+
+    @Override
+    public void write(@NotNull JmeExporter exporter) throws IOException {
+        super.write(exporter);
+
+        OutputCapsule capsule = exporter.getCapsule(this);
+        capsule.write(field, "field", null);
+        capsule.write(fieldMode.ordinal(), "fieldMode", FieldMode.FORCE.ordinal());
+        capsule.write(strength, "strength", 1f);
+        capsule.write(transform, "transform", null);
+        capsule.write(worldSpace, "worldSpace", false);
+    }
+
+    @Override
+    public void read(@NotNull JmeImporter importer) throws IOException {
+        super.read(importer);
+
+        InputCapsule capsule = importer.getCapsule(this);
+        field = (VectorFieldGrid) capsule.readSavable("field", null);
+        fieldMode = FieldMode.valueOf(capsule.readInt("fieldMode", FieldMode.FORCE.ordinal()));
+        strength = capsule.readFloat("strength", 1f);
+        worldSpace = capsule.readBoolean("worldSpace", false);
+
+        Transform transform = (Transform) capsule.readSavable("transform", null);
+
+        if (transform != null) {
+            this.transform.set(transform);
+        }
+    }
+
+    /**
+     * This method clones the influencer instance, the vector field is shared with the original influencer.
+     */
+    @Override
+    public @NotNull ParticleInfluencer<Void> clone() {
+        VectorFieldInfluencer clone = (VectorFieldInfluencer) super.clone();
+        clone.transform = transform.clone();
+        clone.setField(field);
+        clone.setFieldMode(fieldMode);
+        clone.setStrength(strength);
+        clone.setWorldSpace(worldSpace);
+        return clone;
+    }
+}
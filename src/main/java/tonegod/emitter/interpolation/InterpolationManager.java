@@ -4,13 +4,17 @@ import static java.util.Objects.requireNonNull;
 import com.jme3.util.IntMap;
 import com.jme3.util.SafeArrayList;
 import org.jetbrains.annotations.NotNull;
+import tonegod.emitter.interpolation.impl.BakedInterpolation;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * The class for managing available interpolations.
+ * The class for managing available interpolations. Baked variants are registered lazily, so access to the
+ * registry is synchronized to allow resolving interpolations from asset loading threads.
  *
  * @author JavaSaBr
  */
@@ -28,6 +32,15 @@ public class InterpolationManager {
     @NotNull
     private static final SafeArrayList<Interpolation> INTERPOLATIONS;
 
+    @NotNull
+    private static final Map<Interpolation, Interpolation> SOURCE_TO_BAKED;
+
+    /**
+     * The interpolations which are faster than their baked variants.
+     */
+    @NotNull
+    private static final Set<Interpolation> NOT_BAKEABLE;
+
     @NotNull
     private static final AtomicInteger ID_FACTORY = new AtomicInteger();
 
@@ -36,6 +49,8 @@ public class InterpolationManager {
         ID_TO_INTER = new IntMap<>();
         NAME_TO_INTER = new HashMap<>();
         INTERPOLATIONS = new SafeArrayList<>(Interpolation.class);
+        SOURCE_TO_BAKED = new HashMap<>();
+        NOT_BAKEABLE = new HashSet<>();
         register(Interpolation.LINEAR);
         register(Interpolation.FADE);
         register(Interpolation.SINE);
@@ -71,6 +86,15 @@ public class InterpolationManager {
         register(Interpolation.ELASTIC);
         register(Interpolation.ELASTIC_IN);
         register(Interpolation.ELASTIC_OUT);
+
+        // sqrt and polynomials are cheaper than a table lookup
+        NOT_BAKEABLE.add(Interpolation.LINEAR);
+        NOT_BAKEABLE.add(Interpolation.CIRCLE);
+        NOT_BAKEABLE.add(Interpolation.CIRCLE_IN);
+        NOT_BAKEABLE.add(Interpolation.CIRCLE_OUT);
+        NOT_BAKEABLE.add(Interpolation.SWING);
+        NOT_BAKEABLE.add(Interpolation.SWING_IN);
+        NOT_BAKEABLE.add(Interpolation.SWING_OUT);
     }
 
     /**
@@ -78,7 +102,7 @@ public class InterpolationManager {
      *
      * @param interpolation the interpolation.
      */
-    public static void register(@NotNull Interpolation interpolation) {
+    public static synchronized void register(@NotNull Interpolation interpolation) {
         int id = ID_FACTORY.incrementAndGet();
         INTER_TO_ID.put(interpolation, id);
         ID_TO_INTER.put(id, interpolation);
@@ -86,6 +110,56 @@ public class InterpolationManager {
         INTERPOLATIONS.add(interpolation);
     }
 
+    /**
+     * Creates a table-driven variant of an interpolation with linear interpolation between samples.
+     *
+     * @param interpolation the source interpolation.
+     * @param resolution    the count of intervals of the table.
+     * @return the baked interpolation.
+     */
+    public static @NotNull BakedInterpolation bake(@NotNull Interpolation interpolation, int resolution) {
+
+        if (interpolation instanceof BakedInterpolation) {
+            interpolation = ((BakedInterpolation) interpolation).getSource();
+        }
+
+        return new BakedInterpolation(interpolation, resolution);
+    }
+
+    /**
+     * Get the baked variant of a registered interpolation with the default resolution, the variant is created on
+     * the first call. The ID of the variant is the negative ID of the source, so IDs of registered interpolations
+     * don't depend on baked variants.
+     *
+     * @param interpolation the source interpolation.
+     * @return the baked interpolation or the interpolation itself if it isn't registered or is faster than its
+     * baked variant.
+     * @see BakedInterpolation#DEFAULT_RESOLUTION
+     */
+    public static synchronized @NotNull Interpolation getBaked(@NotNull Interpolation interpolation) {
+
+        Interpolation baked = SOURCE_TO_BAKED.get(interpolation);
+
+        if (baked != null) {
+            return baked;
+        }
+
+        Integer sourceId = INTER_TO_ID.get(interpolation);
+
+        if (sourceId == null || sourceId < 0 || NOT_BAKEABLE.contains(interpolation)) {
+            return interpolation;
+        }
+
+        baked = bake(interpolation, BakedInterpolation.DEFAULT_RESOLUTION);
+
+        SOURCE_TO_BAKED.put(interpolation, baked);
+        INTER_TO_ID.put(baked, -sourceId);
+        ID_TO_INTER.put(-sourceId, baked);
+        NAME_TO_INTER.put(baked.getName(), baked);
+
+        return baked;
+    }
+
     /**
      * Get a list of available interpolations.
      *
@@ -101,7 +175,7 @@ public class InterpolationManager {
      * @param name the name.
      * @return the interpolation.
      */
-    public static @NotNull Interpolation getInterpolation(@NotNull String name) {
+    public static synchronized @NotNull Interpolation getInterpolation(@NotNull String name) {
         return requireNonNull(NAME_TO_INTER.get(name), "Unknown interpolation " + name);
     }
 
@@ -111,7 +185,7 @@ public class InterpolationManager {
      * @param interpolation the interpolation.
      * @return its ID.
      */
-    public static int getId(@NotNull Interpolation interpolation) {
+    public static synchronized int getId(@NotNull Interpolation interpolation) {
         return requireNonNull(INTER_TO_ID.get(interpolation), "Unknown interpolation " + interpolation);
     }
 
@@ -121,7 +195,13 @@ public class InterpolationManager {
      * @param id the id.
      * @return the interpolation.
      */
-    public static @NotNull Interpolation getInterpolation(int id) {
+    public static synchronized @NotNull Interpolation getInterpolation(int id) {
+
+        // baked variants are created lazily
+        if (id < 0 && !ID_TO_INTER.containsKey(id)) {
+            getBaked(getInterpolation(-id));
+        }
+
         return requireNonNull(ID_TO_INTER.get(id), "Unknown id " + id);
     }
 }
@@ -0,0 +1,90 @@
+package tonegod.emitter.interpolation.impl;
+
+import org.jetbrains.annotations.NotNull;
+import tonegod.emitter.Messages;
+import tonegod.emitter.interpolation.Interpolation;
+
+/**
+ * The table-driven implementation of an {@link Interpolation}, values of the source interpolation are sampled
+ * uniformly in [0, 1] and linearly interpolated between samples. The blend value is clamped to [0, 1].
+ *
+ * @author JavaSaBr
+ */
+public class BakedInterpolation extends AbstractInterpolation {
+
+    /**
+     * The default count of intervals of the table.
+     */
+    public static final int DEFAULT_RESOLUTION = 256;
+
+    /**
+     * The source interpolation.
+     */
+    @NotNull
+    private final Interpolation source;
+
+    /**
+     * The sampled values, the count is resolution + 1.
+     */
+    @NotNull
+    private final float[] table;
+
+    /**
+     * The count of intervals of the table.
+     */
+    private final int resolution;
+
+    public BakedInterpolation(@NotNull Interpolation source, int resolution) {
+        this(source, resolution, String.format(Messages.INTERPOLATION_BAKED, source.getName()));
+    }
+
+    public BakedInterpolation(@NotNull Interpolation source, int resolution, @NotNull String name) {
+        super(name);
+
+        if (resolution < 1) {
+            throw new IllegalArgumentException("the resolution " + resolution + " can't be less than 1.");
+        }
+
+        this.source = source;
+        this.resolution = resolution;
+        this.table = new float[resolution + 1];
+
+        for (int i = 0; i <= resolution; i++) {
+            table[i] = source.apply((float) i / resolution);
+        }
+    }
+
+    @Override
+    public float apply(float a) {
+
+        if (a <= 0F) {
+            return table[0];
+        } else if (a >= 1F) {
+            return table[resolution];
+        }
+
+        float position = a * resolution;
+        int index = (int) position;
+
+        float first = table[index];
+        return first + (table[index + 1] - first) * (position - index);
+    }
+
+    /**
+     * Gets the source interpolation.
+     *
+     * @return the source interpolation.
+     */
+    public @NotNull Interpolation getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the count of intervals of the table.
+     *
+     * @return the count of intervals.
+     */
+    public int getResolution() {
+        return resolution;
+    }
+}
@@ -0,0 +1,241 @@
+package tonegod.emitter.material;
+
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture.MagFilter;
+import com.jme3.texture.Texture.MinFilter;
+import com.jme3.texture.Texture.WrapMode;
+import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.util.BufferUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.influencers.ParticleInfluencer;
+import tonegod.emitter.influencers.impl.AbstractInterpolatedParticleInfluencer;
+import tonegod.emitter.influencers.impl.AlphaInfluencer;
+import tonegod.emitter.influencers.impl.ColorInfluencer;
+import tonegod.emitter.influencers.impl.SizeInfluencer;
+import tonegod.emitter.influencers.impl.SpriteInfluencer;
+import tonegod.emitter.particle.SpriteFrameTable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The texture with curves of color, alpha, size and sprite animation over life of particles which are sampled by
+ * the vertex shader of {@link tonegod.emitter.particle.ParticleDataBillboardMesh}, so these values aren't uploaded
+ * for each particle.
+ * <p>
+ * The texture has 2 rows of samples: the first row contains the color with multiplied alpha, the second row
+ * contains the size by X and Y, the sprite frame position and the flag of a random start frame.
+ *
+ * @author JavaSaBr
+ */
+public final class ParticleCurveTexture {
+
+    /**
+     * The count of rows of the texture.
+     */
+    private static final int ROWS = 2;
+
+    /**
+     * The count of values of a texel.
+     */
+    private static final int TEXEL_SIZE = 4;
+
+    /**
+     * The count of intervals between samples.
+     */
+    private final int resolution;
+
+    /**
+     * The uploaded samples.
+     */
+    @NotNull
+    private final float[] samples;
+
+    /**
+     * The samples of the current update.
+     */
+    @NotNull
+    private final float[] newSamples;
+
+    /**
+     * The values of a sample of a curve.
+     */
+    @NotNull
+    private final float[] store;
+
+    /**
+     * The texture.
+     */
+    @NotNull
+    private final Texture2D texture;
+
+    public ParticleCurveTexture() {
+        this(AbstractInterpolatedParticleInfluencer.DEFAULT_CURVE_RESOLUTION);
+    }
+
+    public ParticleCurveTexture(int resolution) {
+
+        if (resolution < 1) {
+            throw new IllegalArgumentException("the resolution " + resolution + " isn't positive.");
+        }
+
+        int width = resolution + 1;
+
+        this.resolution = resolution;
+        this.samples = new float[width * ROWS * TEXEL_SIZE];
+        this.newSamples = new float[samples.length];
+        this.store = new float[TEXEL_SIZE];
+
+        Image image = new Image(Image.Format.RGBA32F, width, ROWS,
+                BufferUtils.createByteBuffer(samples.length * 4), ColorSpace.Linear);
+
+        this.texture = new Texture2D(image);
+        this.texture.setName("Particle Curves");
+        this.texture.setMinFilter(MinFilter.BilinearNoMipMaps);
+        this.texture.setMagFilter(MagFilter.Bilinear);
+        this.texture.setWrap(WrapMode.EdgeClamp);
+    }
+
+    /**
+     * Gets the texture.
+     *
+     * @return the texture.
+     */
+    public @NotNull Texture2D getTexture() {
+        return texture;
+    }
+
+    /**
+     * Gets the count of samples in a row of the texture.
+     *
+     * @return the count of samples.
+     */
+    public int getSampleCount() {
+        return resolution + 1;
+    }
+
+    /**
+     * Bakes curves of influencers of the emitter and updates the texture if they were changed.
+     *
+     * @param emitterNode the emitter.
+     * @return false if influencers of the emitter can't be evaluated by the shader.
+     */
+    public boolean update(@NotNull ParticleEmitterNode emitterNode) {
+
+        ColorInfluencer colorInfluencer = getEnabled(emitterNode, ColorInfluencer.class);
+        AlphaInfluencer alphaInfluencer = getEnabled(emitterNode, AlphaInfluencer.class);
+        SizeInfluencer sizeInfluencer = getEnabled(emitterNode, SizeInfluencer.class);
+        SpriteInfluencer spriteInfluencer = getEnabled(emitterNode, SpriteInfluencer.class);
+
+        if (!isBakeable(colorInfluencer) || !isBakeable(alphaInfluencer) || !isBakeable(sizeInfluencer)) {
+            return false;
+        }
+
+        SpriteFrameTable frameTable = emitterNode.getParticleDataMesh().getFrameTable();
+
+        // the shader calculates frames only of uniform grids
+        if (frameTable.getCols() < 1) {
+            return false;
+        }
+
+        boolean animate = false;
+        boolean randomStart = false;
+
+        if (spriteInfluencer != null) {
+
+            animate = spriteInfluencer.isAnimate() && frameTable.getFrameCount() > 1;
+
+            if (spriteInfluencer.getFrameSequence() != null || (animate && spriteInfluencer.isCycle())) {
+                return false;
+            }
+
+            randomStart = spriteInfluencer.isRandomStartImage();
+        }
+
+        float[] samples = this.newSamples;
+        float[] store = this.store;
+
+        int sizeRow = (resolution + 1) * TEXEL_SIZE;
+        int frameCount = frameTable.getFrameCount();
+
+        for (int i = 0; i <= resolution; i++) {
+
+            float lifeBlend = (float) i / resolution;
+            int offset = i * TEXEL_SIZE;
+
+            if (colorInfluencer != null) {
+                colorInfluencer.readCurve(lifeBlend, store);
+            } else {
+                Arrays.fill(store, 1F);
+            }
+
+            samples[offset] = store[0];
+            samples[offset + 1] = store[1];
+            samples[offset + 2] = store[2];
+            samples[offset + 3] = store[3];
+
+            if (alphaInfluencer != null) {
+                alphaInfluencer.readCurve(lifeBlend, store);
+                samples[offset + 3] *= store[0];
+            }
+
+            offset += sizeRow;
+
+            if (sizeInfluencer != null) {
+                sizeInfluencer.readCurve(lifeBlend, store);
+            } else {
+                Arrays.fill(store, 1F);
+            }
+
+            samples[offset] = store[0];
+            samples[offset + 1] = store[1];
+            samples[offset + 2] = animate ? lifeBlend * frameCount : 0F;
+            samples[offset + 3] = randomStart ? 1F : 0F;
+        }
+
+        if (!Arrays.equals(samples, this.samples)) {
+            System.arraycopy(samples, 0, this.samples, 0, samples.length);
+            upload();
+        }
+
+        return true;
+    }
+
+    /**
+     * Copies samples to the image of the texture.
+     */
+    private void upload() {
+
+        Image image = texture.getImage();
+        ByteBuffer data = image.getData(0);
+        data.clear();
+
+        for (float sample : samples) {
+            data.putFloat(sample);
+        }
+
+        data.flip();
+        image.setUpdateNeeded();
+    }
+
+    /**
+     * Returns true if the influencer is absent or can be baked to a curve.
+     */
+    private static boolean isBakeable(@Nullable AbstractInterpolatedParticleInfluencer<?> influencer) {
+        return influencer == null || influencer.isCurveBakeable();
+    }
+
+    /**
+     * Gets the enabled influencer of the type.
+     */
+    private static @Nullable <T extends ParticleInfluencer<?>> T getEnabled(
+            @NotNull ParticleEmitterNode emitterNode,
+            @NotNull Class<T> type
+    ) {
+        T influencer = emitterNode.getInfluencer(type);
+        return influencer == null || !influencer.isEnabled() ? null : influencer;
+    }
+}
@@ -0,0 +1,412 @@
+package tonegod.emitter.material;
+
+import com.jme3.material.MatParamTexture;
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.Texture.MagFilter;
+import com.jme3.texture.Texture.MinFilter;
+import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.texture.image.ImageRaster;
+import com.jme3.util.BufferUtils;
+import com.jme3.util.SafeArrayList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.particle.SpriteFrameTable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The packer of textures of registered emitters to shared atlas textures. After packing, sprite frames of each
+ * emitter are remapped to the atlas space (see {@link ParticleEmitterNode#setSpriteFrames(float[])}) and
+ * each emitter gets its own copy of its material with the page texture. Emitters use per-emitter parameters of
+ * materials, so only the page texture is shared and emitters with otherwise equal materials can be merged by
+ * {@link tonegod.emitter.node.ParticleBatchNode}.
+ * <p>
+ * Packing is expected to be done once at load time after initializing emitters. Compressed textures and textures
+ * which don't fit to a page are left as is.
+ *
+ * @author JavaSaBr
+ */
+public class ParticleTextureAtlas {
+
+    /**
+     * The default size of an atlas page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 2048;
+
+    /**
+     * The default count of border pixels around each packed texture.
+     */
+    public static final int DEFAULT_PADDING = 2;
+
+    /**
+     * The region of a packed texture.
+     */
+    private static final class Region {
+
+        /**
+         * The source image.
+         */
+        @NotNull
+        private final Image image;
+
+        /**
+         * The index of the atlas page.
+         */
+        private int page;
+
+        /**
+         * The x position of the image in the page without padding.
+         */
+        private int x;
+
+        /**
+         * The y position of the image in the page without padding.
+         */
+        private int y;
+
+        private Region(@NotNull Image image) {
+            this.image = image;
+        }
+    }
+
+    /**
+     * The registered emitters.
+     */
+    @NotNull
+    private final SafeArrayList<ParticleEmitterNode> emitters;
+
+    /**
+     * The textures of atlas pages.
+     */
+    @NotNull
+    private final List<Texture2D> pages;
+
+    /**
+     * The materials of packed emitters.
+     */
+    @NotNull
+    private final List<Material> materials;
+
+    /**
+     * The width of an atlas page.
+     */
+    private final int pageWidth;
+
+    /**
+     * The height of an atlas page.
+     */
+    private final int pageHeight;
+
+    /**
+     * The count of border pixels around each packed texture.
+     */
+    private final int padding;
+
+    public ParticleTextureAtlas() {
+        this(DEFAULT_PAGE_SIZE, DEFAULT_PAGE_SIZE, DEFAULT_PADDING);
+    }
+
+    public ParticleTextureAtlas(int pageWidth, int pageHeight, int padding) {
+
+        if (pageWidth < 1 || pageHeight < 1) {
+            throw new IllegalArgumentException("the page size " + pageWidth + "x" + pageHeight + " is invalid.");
+        } else if (padding < 0) {
+            throw new IllegalArgumentException("padding can't be negative.");
+        }
+
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        this.padding = padding;
+        this.emitters = new SafeArrayList<>(ParticleEmitterNode.class);
+        this.pages = new ArrayList<>();
+        this.materials = new ArrayList<>();
+    }
+
+    /**
+     * Registers an initialized emitter to pack its texture.
+     *
+     * @param emitterNode the emitter.
+     */
+    public void register(@NotNull ParticleEmitterNode emitterNode) {
+
+        if (!emitterNode.isEmitterInitialized()) {
+            throw new IllegalArgumentException("the emitter " + emitterNode.getName() + " isn't initialized.");
+        }
+
+        if (!emitters.contains(emitterNode)) {
+            emitters.add(emitterNode);
+        }
+    }
+
+    /**
+     * Unregisters an emitter, already packed emitter keeps the atlas material.
+     *
+     * @param emitterNode the emitter.
+     */
+    public void unregister(@NotNull ParticleEmitterNode emitterNode) {
+        emitters.remove(emitterNode);
+    }
+
+    /**
+     * Gets the registered emitters.
+     *
+     * @return the registered emitters.
+     */
+    public @NotNull SafeArrayList<ParticleEmitterNode> getEmitters() {
+        return emitters;
+    }
+
+    /**
+     * Gets the textures of atlas pages.
+     *
+     * @return the textures of atlas pages.
+     */
+    public @NotNull List<Texture2D> getPages() {
+        return Collections.unmodifiableList(pages);
+    }
+
+    /**
+     * Gets the materials of packed emitters.
+     *
+     * @return the materials of packed emitters.
+     */
+    public @NotNull List<Material> getMaterials() {
+        return Collections.unmodifiableList(materials);
+    }
+
+    /**
+     * Packs textures of registered emitters to atlas pages and assigns the atlas materials to emitters.
+     *
+     * @return the count of emitters which use the atlas.
+     */
+    public int pack() {
+
+        Map<Image, Region> regions = new IdentityHashMap<>();
+
+        for (ParticleEmitterNode emitterNode : emitters.getArray()) {
+
+            Image image = getImage(emitterNode);
+
+            if (image != null && isPackable(image) && !regions.containsKey(image)) {
+                regions.put(image, new Region(image));
+            }
+        }
+
+        List<Region> sorted = new ArrayList<>(regions.values());
+
+        Collections.sort(sorted, new Comparator<Region>() {
+
+            @Override
+            public int compare(@NotNull Region first, @NotNull Region second) {
+                return second.image.getHeight() - first.image.getHeight();
+            }
+        });
+
+        int firstPage = pages.size();
+        int pageCount = place(sorted, firstPage);
+
+        for (int i = 0; i < pageCount; i++) {
+            pages.add(createPage(sorted, firstPage + i));
+        }
+
+        int packed = 0;
+
+        for (ParticleEmitterNode emitterNode : emitters.getArray()) {
+
+            Image image = getImage(emitterNode);
+            Region region = image == null ? null : regions.get(image);
+
+            if (region == null) {
+                continue;
+            }
+
+            apply(emitterNode, region);
+            packed++;
+        }
+
+        return packed;
+    }
+
+    /**
+     * Gets the image of the texture of the emitter.
+     */
+    private static @Nullable Image getImage(@NotNull ParticleEmitterNode emitterNode) {
+
+        ParticlesMaterial particlesMaterial = emitterNode.getParticlesMaterial();
+        MatParamTexture textureParam = particlesMaterial.getMaterial()
+                .getTextureParam(particlesMaterial.getTextureParam());
+
+        if (textureParam == null || !(textureParam.getTextureValue() instanceof Texture2D)) {
+            return null;
+        }
+
+        return textureParam.getTextureValue().getImage();
+    }
+
+    /**
+     * Returns true if the image can be copied to an atlas page.
+     */
+    private boolean isPackable(@NotNull Image image) {
+
+        if (image.getFormat().isCompressed() || image.getData().size() != 1 || image.getData(0) == null) {
+            return false;
+        }
+
+        for (Texture2D page : pages) {
+            if (page.getImage() == image) {
+                return false;
+            }
+        }
+
+        return image.getWidth() + padding * 2 <= pageWidth && image.getHeight() + padding * 2 <= pageHeight;
+    }
+
+    /**
+     * Places regions sorted by height to shelves of pages.
+     *
+     * @param regions   the regions.
+     * @param firstPage the index of the first new page.
+     * @return the count of new pages.
+     */
+    private int place(@NotNull List<Region> regions, int firstPage) {
+
+        if (regions.isEmpty()) {
+            return 0;
+        }
+
+        int page = firstPage;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        int cursorX = 0;
+
+        for (Region region : regions) {
+
+            int width = region.image.getWidth() + padding * 2;
+            int height = region.image.getHeight() + padding * 2;
+
+            if (cursorX + width > pageWidth) {
+                shelfY += shelfHeight;
+                shelfHeight = 0;
+                cursorX = 0;
+            }
+
+            if (shelfY + height > pageHeight) {
+                page++;
+                shelfY = 0;
+                shelfHeight = 0;
+                cursorX = 0;
+            }
+
+            region.page = page;
+            region.x = cursorX + padding;
+            region.y = shelfY + padding;
+
+            cursorX += width;
+            shelfHeight = Math.max(shelfHeight, height);
+        }
+
+        return page - firstPage + 1;
+    }
+
+    /**
+     * Creates an atlas page and copies images of its regions, border pixels are repeated to the padding. The page
+     * isn't mipmapped, so the padding only needs to cover bilinear filtering.
+     *
+     * @param regions the regions.
+     * @param page    the index of the page.
+     * @return the texture of the page.
+     */
+    private @NotNull Texture2D createPage(@NotNull List<Region> regions, int page) {
+
+        ColorSpace colorSpace = ColorSpace.Linear;
+
+        for (Region region : regions) {
+            if (region.page == page && region.image.getColorSpace() == ColorSpace.sRGB) {
+                colorSpace = ColorSpace.sRGB;
+                break;
+            }
+        }
+
+        Image image = new Image(Image.Format.RGBA8, pageWidth, pageHeight,
+                BufferUtils.createByteBuffer(pageWidth * pageHeight * 4), colorSpace);
+
+        ImageRaster target = ImageRaster.create(image);
+        ColorRGBA color = new ColorRGBA();
+
+        for (Region region : regions) {
+
+            if (region.page != page) {
+                continue;
+            }
+
+            ImageRaster source = ImageRaster.create(region.image);
+
+            int width = source.getWidth();
+            int height = source.getHeight();
+
+            for (int y = -padding; y < height + padding; y++) {
+                for (int x = -padding; x < width + padding; x++) {
+                    int sourceX = Math.min(Math.max(x, 0), width - 1);
+                    int sourceY = Math.min(Math.max(y, 0), height - 1);
+                    target.setPixel(region.x + x, region.y + y, source.getPixel(sourceX, sourceY, color));
+                }
+            }
+        }
+
+        Texture2D texture = new Texture2D(image);
+        texture.setName("Particle Atlas " + page);
+        // mip levels would blend neighbor regions once the padding is downsampled below a pixel
+        texture.setMinFilter(MinFilter.BilinearNoMipMaps);
+        texture.setMagFilter(MagFilter.Bilinear);
+
+        return texture;
+    }
+
+    /**
+     * Remaps sprite frames of the emitter to the region and assigns a copy of its material with the page texture.
+     */
+    private void apply(@NotNull ParticleEmitterNode emitterNode, @NotNull Region region) {
+
+        float[] frames = emitterNode.getSpriteFrames();
+
+        if (frames == null) {
+            SpriteFrameTable frameTable = new SpriteFrameTable();
+            frameTable.setGrid(emitterNode.getSpriteColCount(), emitterNode.getSpriteRowCount());
+            frames = frameTable.getRects();
+        }
+
+        float offsetX = (float) region.x / pageWidth;
+        float offsetY = (float) region.y / pageHeight;
+        float scaleX = (float) region.image.getWidth() / pageWidth;
+        float scaleY = (float) region.image.getHeight() / pageHeight;
+
+        float[] remapped = new float[frames.length];
+
+        for (int i = 0; i < frames.length; i += 2) {
+            remapped[i] = offsetX + frames[i] * scaleX;
+            remapped[i + 1] = offsetY + frames[i + 1] * scaleY;
+        }
+
+        ParticlesMaterial particlesMaterial = emitterNode.getParticlesMaterial();
+        String textureParam = particlesMaterial.getTextureParam();
+
+        Texture pageTexture = pages.get(region.page);
+        Material material = particlesMaterial.getMaterial().clone();
+        material.setTexture(textureParam, pageTexture);
+
+        materials.add(material);
+
+        emitterNode.setMaterial(material, textureParam, particlesMaterial.isApplyLightingTransform());
+        emitterNode.setSpriteFrames(remapped);
+    }
+}
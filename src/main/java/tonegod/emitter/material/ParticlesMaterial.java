@@ -25,6 +25,46 @@ public class ParticlesMaterial {
      */
     public static final String PROP_QUADRATIC = "Quadratic";
 
+    /**
+     * The constant PROP_SHADER_BILLBOARD.
+     */
+    public static final String PROP_SHADER_BILLBOARD = "ShaderBillboard";
+
+    /**
+     * The constant PROP_BILLBOARD_MODE.
+     */
+    public static final String PROP_BILLBOARD_MODE = "BillboardMode";
+
+    /**
+     * The constant PROP_VELOCITY_STRETCH_FACTOR.
+     */
+    public static final String PROP_VELOCITY_STRETCH_FACTOR = "VelocityStretchFactor";
+
+    /**
+     * The constant PROP_POSITION_OFFSET.
+     */
+    public static final String PROP_POSITION_OFFSET = "PositionOffset";
+
+    /**
+     * The constant PROP_POSITION_SCALE.
+     */
+    public static final String PROP_POSITION_SCALE = "PositionScale";
+
+    /**
+     * The constant PROP_CURVE_TEXTURE.
+     */
+    public static final String PROP_CURVE_TEXTURE = "CurveTexture";
+
+    /**
+     * The constant PROP_CURVE_SAMPLES.
+     */
+    public static final String PROP_CURVE_SAMPLES = "CurveSamples";
+
+    /**
+     * The constant PROP_SPRITE_GRID.
+     */
+    public static final String PROP_SPRITE_GRID = "SpriteGrid";
+
     /**
      * The material of particles.
      */
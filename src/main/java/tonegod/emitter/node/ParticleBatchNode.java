@@ -0,0 +1,430 @@
+package tonegod.emitter.node;
+
+import com.jme3.bounding.BoundingBox;
+import com.jme3.bounding.BoundingVolume;
+import com.jme3.material.Material;
+import com.jme3.math.Matrix4f;
+import com.jme3.renderer.RenderManager;
+import com.jme3.renderer.ViewPort;
+import com.jme3.renderer.queue.RenderQueue.Bucket;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.Node;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.VertexBuffer.Format;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.scene.VertexBuffer.Usage;
+import com.jme3.scene.mesh.IndexBuffer;
+import com.jme3.util.BufferUtils;
+import com.jme3.util.SafeArrayList;
+import com.jme3.util.clone.Cloner;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.geometry.ParticleGeometry;
+import tonegod.emitter.particle.ParticleDataMesh;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * The node to draw particles of several emitters by one draw call. Emitters join the batch by
+ * {@link ParticleEmitterNode#setBatchNode(ParticleBatchNode)}, particles of an emitter are merged to the shared
+ * buffers in world space if the emitter uses a compatible material and its particle mesh supports batching (see
+ * {@link ParticleDataMesh#isBatchSupported()}), otherwise the emitter draws its particles itself.
+ * <p>
+ * Emitters should be attached to the scene as usual to be updated. The batch node should be attached after its
+ * emitters to use the bounds of particles of the current frame.
+ *
+ * @author JavaSaBr
+ */
+public class ParticleBatchNode extends Node {
+
+    /**
+     * The count of additional vertices when the shared buffers grow.
+     */
+    private static final int GROW_VERTICES = 1024;
+
+    /**
+     * The batched emitters.
+     */
+    @NotNull
+    private SafeArrayList<ParticleEmitterNode> emitters;
+
+    /**
+     * The geometry to draw merged particles.
+     */
+    @NotNull
+    private ParticleGeometry batchGeometry;
+
+    /**
+     * The merged bound of batched particles.
+     */
+    @NotNull
+    private BoundingBox batchBound;
+
+    /**
+     * The material of batched particles.
+     */
+    @Nullable
+    private Material batchMaterial;
+
+    /**
+     * The count of batched emitters during the last update.
+     */
+    private int batchedEmitters;
+
+    public ParticleBatchNode() {
+        this("Particle Batch Node");
+    }
+
+    public ParticleBatchNode(@NotNull String name) {
+        super(name);
+        this.emitters = new SafeArrayList<>(ParticleEmitterNode.class);
+        this.batchBound = new BoundingBox();
+        this.batchGeometry = new ParticleGeometry("Particle Batch Geometry", createBatchMesh());
+        this.batchGeometry.setIgnoreTransform(true);
+        this.batchGeometry.setQueueBucket(Bucket.Transparent);
+        attachChild(batchGeometry);
+    }
+
+    /**
+     * Creates an empty mesh to merge particles.
+     *
+     * @return the new mesh.
+     */
+    private static @NotNull Mesh createBatchMesh() {
+
+        Mesh mesh = new Mesh();
+        mesh.setMode(Mesh.Mode.Triangles);
+        mesh.setDynamic();
+
+        VertexBuffer positions = new VertexBuffer(Type.Position);
+        positions.setupData(Usage.Stream, 3, Format.Float, BufferUtils.createFloatBuffer(3));
+
+        VertexBuffer colors = new VertexBuffer(Type.Color);
+        colors.setupData(Usage.Stream, 4, Format.UnsignedByte, BufferUtils.createByteBuffer(4));
+        colors.setNormalized(true);
+
+        VertexBuffer texCoords = new VertexBuffer(Type.TexCoord);
+        texCoords.setupData(Usage.Stream, 2, Format.Float, BufferUtils.createFloatBuffer(2));
+
+        VertexBuffer indexes = new VertexBuffer(Type.Index);
+        indexes.setupData(Usage.Stream, 3, Format.UnsignedInt, BufferUtils.createIntBuffer(3));
+
+        mesh.setBuffer(positions);
+        mesh.setBuffer(colors);
+        mesh.setBuffer(texCoords);
+        mesh.setBuffer(indexes);
+        mesh.updateCounts();
+
+        return mesh;
+    }
+
+    /**
+     * Adds an emitter to this batch, the first added emitter defines the material of this batch if it wasn't set.
+     *
+     * @param emitterNode the emitter.
+     */
+    public void addEmitter(@NotNull ParticleEmitterNode emitterNode) {
+
+        if (emitters.contains(emitterNode)) {
+            return;
+        }
+
+        emitters.add(emitterNode);
+
+        if (batchMaterial == null && emitterNode.isEmitterInitialized()) {
+            setBatchMaterial(emitterNode.getMaterial());
+        }
+
+        if (emitterNode.getBatchNode() != this) {
+            emitterNode.setBatchNode(this);
+        }
+    }
+
+    /**
+     * Removes an emitter from this batch, the emitter draws its particles itself again.
+     *
+     * @param emitterNode the emitter.
+     */
+    public void removeEmitter(@NotNull ParticleEmitterNode emitterNode) {
+
+        if (!emitters.remove(emitterNode)) {
+            return;
+        }
+
+        emitterNode.getParticleGeometry()
+                .setCullHint(CullHint.Inherit);
+
+        if (emitterNode.getBatchNode() == this) {
+            emitterNode.setBatchNode(null);
+        }
+    }
+
+    /**
+     * Gets the batched emitters.
+     *
+     * @return the batched emitters.
+     */
+    public @NotNull SafeArrayList<ParticleEmitterNode> getEmitters() {
+        return emitters;
+    }
+
+    /**
+     * Sets the material of this batch, only emitters with the same material are merged.
+     *
+     * @param material the material.
+     */
+    public void setBatchMaterial(@Nullable Material material) {
+        this.batchMaterial = material;
+        if (material != null) {
+            batchGeometry.setMaterial(material);
+        }
+    }
+
+    /**
+     * Gets the material of this batch.
+     *
+     * @return the material of this batch or null.
+     */
+    public @Nullable Material getBatchMaterial() {
+        return batchMaterial;
+    }
+
+    /**
+     * Gets the count of emitters which were merged during the last update.
+     *
+     * @return the count of merged emitters.
+     */
+    public int getBatchedEmitters() {
+        return batchedEmitters;
+    }
+
+    /**
+     * Returns true if particles of the emitter are merged by this batch.
+     *
+     * @param emitterNode the emitter.
+     * @return true if particles of the emitter are merged.
+     */
+    public boolean isBatched(@NotNull ParticleEmitterNode emitterNode) {
+
+        if (emitterNode.getBatchNode() != this || !emitterNode.isEmitterInitialized() || batchMaterial == null) {
+            return false;
+        }
+
+        ParticleDataMesh dataMesh = emitterNode.getParticleDataMesh();
+
+        if (!dataMesh.isBatchSupported() || dataMesh.isCompactLayout()) {
+            return false;
+        }
+
+        Material material = emitterNode.getMaterial();
+
+        return material == batchMaterial || material.contentEquals(batchMaterial);
+    }
+
+    @Override
+    public void updateGeometricState() {
+
+        boolean first = true;
+
+        for (ParticleEmitterNode emitterNode : emitters.getArray()) {
+
+            if (!isBatched(emitterNode) || emitterNode.getParent() == null) {
+                continue;
+            }
+
+            BoundingVolume bound = emitterNode.getParticleGeometry()
+                    .getWorldBound();
+
+            if (bound == null) {
+                continue;
+            } else if (first) {
+                bound.clone(batchBound);
+                first = false;
+            } else {
+                batchBound.mergeLocal(bound);
+            }
+        }
+
+        if (first) {
+            batchBound.setCenter(0, 0, 0);
+            batchBound.setXExtent(0);
+            batchBound.setYExtent(0);
+            batchBound.setZExtent(0);
+        }
+
+        batchGeometry.updateModelBound(batchBound);
+
+        super.updateGeometricState();
+    }
+
+    @Override
+    public void runControlRender(@NotNull RenderManager renderManager, @NotNull ViewPort viewPort) {
+        super.runControlRender(renderManager, viewPort);
+
+        Mesh mesh = batchGeometry.getMesh();
+
+        int vertexCount = 0;
+        int indexCount = 0;
+
+        ParticleEmitterNode[] array = emitters.getArray();
+
+        if (batchMaterial == null) {
+            for (ParticleEmitterNode emitterNode : array) {
+                if (emitterNode.isEmitterInitialized()) {
+                    setBatchMaterial(emitterNode.getMaterial());
+                    break;
+                }
+            }
+        }
+
+        for (ParticleEmitterNode emitterNode : array) {
+
+            ParticleGeometry particleGeometry = emitterNode.getParticleGeometry();
+
+            if (!isBatched(emitterNode)) {
+                particleGeometry.setCullHint(CullHint.Inherit);
+                continue;
+            }
+
+            particleGeometry.setCullHint(CullHint.Always);
+
+            if (emitterNode.getParent() == null) {
+                continue;
+            }
+
+            emitterNode.updateParticleMesh(viewPort.getCamera());
+
+            ParticleDataMesh dataMesh = emitterNode.getParticleDataMesh();
+
+            vertexCount += dataMesh.getBuffer(Type.Position).getData().limit() / 3;
+            indexCount += dataMesh.getBuffer(Type.Index).getData().limit();
+        }
+
+        ensureCapacity(mesh, vertexCount, indexCount);
+
+        FloatBuffer positions = (FloatBuffer) mesh.getBuffer(Type.Position).getData();
+        ByteBuffer colors = (ByteBuffer) mesh.getBuffer(Type.Color).getData();
+        FloatBuffer texCoords = (FloatBuffer) mesh.getBuffer(Type.TexCoord).getData();
+        IntBuffer indexes = (IntBuffer) mesh.getBuffer(Type.Index).getData();
+
+        positions.clear();
+        colors.clear();
+        texCoords.clear();
+        indexes.clear();
+
+        int vertexOffset = 0;
+        int batched = 0;
+
+        for (ParticleEmitterNode emitterNode : array) {
+
+            if (!isBatched(emitterNode) || emitterNode.getParent() == null) {
+                continue;
+            }
+
+            ParticleDataMesh dataMesh = emitterNode.getParticleDataMesh();
+            Matrix4f matrix = emitterNode.getParticleGeometry().getWorldMatrix();
+
+            vertexOffset = merge(dataMesh, matrix, vertexOffset, positions, colors, texCoords, indexes);
+            batched++;
+        }
+
+        positions.flip();
+        colors.flip();
+        texCoords.flip();
+        indexes.flip();
+
+        mesh.getBuffer(Type.Position).updateData(positions);
+        mesh.getBuffer(Type.Color).updateData(colors);
+        mesh.getBuffer(Type.TexCoord).updateData(texCoords);
+        mesh.getBuffer(Type.Index).updateData(indexes);
+        mesh.updateCounts();
+
+        batchedEmitters = batched;
+        batchGeometry.setCullHint(batched == 0 || indexes.limit() == 0 ? CullHint.Always : CullHint.Inherit);
+    }
+
+    /**
+     * Merges particles of a data mesh to the shared buffers.
+     *
+     * @return the vertex offset for the next data mesh.
+     */
+    private static int merge(
+            @NotNull ParticleDataMesh dataMesh,
+            @NotNull Matrix4f matrix,
+            int vertexOffset,
+            @NotNull FloatBuffer positions,
+            @NotNull ByteBuffer colors,
+            @NotNull FloatBuffer texCoords,
+            @NotNull IntBuffer indexes
+    ) {
+
+        FloatBuffer sourcePositions = (FloatBuffer) dataMesh.getBuffer(Type.Position).getData();
+        ByteBuffer sourceColors = (ByteBuffer) dataMesh.getBuffer(Type.Color).getData();
+        FloatBuffer sourceTexCoords = (FloatBuffer) dataMesh.getBuffer(Type.TexCoord).getData();
+        Buffer sourceIndexes = dataMesh.getBuffer(Type.Index).getData();
+
+        int vertexCount = sourcePositions.limit() / 3;
+
+        for (int i = 0, index = 0; i < vertexCount; i++, index += 3) {
+
+            float x = sourcePositions.get(index);
+            float y = sourcePositions.get(index + 1);
+            float z = sourcePositions.get(index + 2);
+
+            positions.put(matrix.m00 * x + matrix.m01 * y + matrix.m02 * z + matrix.m03);
+            positions.put(matrix.m10 * x + matrix.m11 * y + matrix.m12 * z + matrix.m13);
+            positions.put(matrix.m20 * x + matrix.m21 * y + matrix.m22 * z + matrix.m23);
+
+            colors.putInt(sourceColors.getInt(i * 4));
+
+            texCoords.put(sourceTexCoords.get(i * 2));
+            texCoords.put(sourceTexCoords.get(i * 2 + 1));
+        }
+
+        IndexBuffer indexBuffer = IndexBuffer.wrapIndexBuffer(sourceIndexes);
+
+        for (int i = 0, length = sourceIndexes.limit(); i < length; i++) {
+            indexes.put(indexBuffer.get(i) + vertexOffset);
+        }
+
+        return vertexOffset + vertexCount;
+    }
+
+    /**
+     * Grows the shared buffers if they can't contain the count of vertices and indexes.
+     */
+    private static void ensureCapacity(@NotNull Mesh mesh, int vertexCount, int indexCount) {
+
+        VertexBuffer positions = mesh.getBuffer(Type.Position);
+
+        if (positions.getData().capacity() < vertexCount * 3) {
+
+            int capacity = vertexCount + GROW_VERTICES;
+
+            positions.updateData(BufferUtils.createFloatBuffer(capacity * 3));
+            mesh.getBuffer(Type.Color).updateData(BufferUtils.createByteBuffer(capacity * 4));
+            mesh.getBuffer(Type.TexCoord).updateData(BufferUtils.createFloatBuffer(capacity * 2));
+        }
+
+        VertexBuffer indexes = mesh.getBuffer(Type.Index);
+
+        if (indexes.getData().capacity() < indexCount) {
+            indexes.updateData(BufferUtils.createIntBuffer(indexCount + GROW_VERTICES * 3));
+        }
+    }
+
+    @Override
+    public void cloneFields(@NotNull Cloner cloner, @NotNull Object original) {
+        super.cloneFields(cloner, original);
+
+        emitters = new SafeArrayList<>(ParticleEmitterNode.class);
+        batchGeometry = cloner.clone(batchGeometry);
+        batchBound = cloner.clone(batchBound);
+        batchMaterial = cloner.clone(batchMaterial);
+        batchedEmitters = 0;
+    }
+}
@@ -71,6 +71,18 @@ public final class ParticleData implements Cloneable, JmeCloneable {
     @NotNull
     public Vector3f position;
 
+    /**
+     * The particle's position at the emission.
+     */
+    @NotNull
+    public Vector3f birthPosition;
+
+    /**
+     * The particle's velocity at the emission.
+     */
+    @NotNull
+    public Vector3f birthVelocity;
+
     /**
      * The rotation angles per axis (in radians).
      */
@@ -130,19 +142,19 @@ public final class ParticleData implements Cloneable, JmeCloneable {
     public float alpha;
 
     /**
-     * The sprite columns.
+     * The index of the sprite frame in the emitter's sprite frame table.
      */
-    public int spriteCol;
+    public int spriteFrame;
 
     /**
-     * The sprite rows.
+     * The particles index
      */
-    public int spriteRow;
+    public int index;
 
     /**
-     * The particles index
+     * The random seed in [0, 1) which is changed on each emission.
      */
-    public int index;
+    public float seed;
 
     /**
      * The activity state of this particle.
@@ -156,6 +168,8 @@ public final class ParticleData implements Cloneable, JmeCloneable {
         this.velocity = new Vector3f();
         this.reversedVelocity = new Vector3f();
         this.position = new Vector3f();
+        this.birthPosition = new Vector3f();
+        this.birthVelocity = new Vector3f();
         this.alpha = 1;
         this.initialPosition = new Vector3f();
         this.randomOffset = new Vector3f();
@@ -278,6 +292,11 @@ public final class ParticleData implements Cloneable, JmeCloneable {
             interpBlend = interpolation.apply(blend);
         }
 
+        if (emitterNode.isAnalyticUpdate()) {
+            updateAnalytic(emitterNode);
+            return;
+        }
+
         emitterNode.updateInfluencers(this, tpf);
 
         tempV3.set(velocity).multLocal(tpf);
@@ -297,6 +316,23 @@ public final class ParticleData implements Cloneable, JmeCloneable {
         }
     }
 
+    /**
+     * Evaluates state of this particle in closed form by its age from the emission.
+     *
+     * @param emitterNode the emitter node.
+     */
+    private void updateAnalytic(@NotNull ParticleEmitterNode emitterNode) {
+
+        float age = startLife - life;
+
+        velocity.set(birthVelocity);
+        position.set(birthVelocity)
+                .multLocal(age)
+                .addLocal(birthPosition);
+
+        emitterNode.evaluateInfluencers(this, age);
+    }
+
     /**
      * Gets the initial length.
      *
@@ -321,6 +357,7 @@ public final class ParticleData implements Cloneable, JmeCloneable {
         float lifeMax = emitterNode.getLifeMax();
 
         blend = 0;
+        seed = FastMath.nextRandomFloat();
         size.set(1, 1, 1);
 
         if (lifeMin != lifeMax) {
@@ -375,6 +412,9 @@ public final class ParticleData implements Cloneable, JmeCloneable {
                 break;
             }
         }
+
+        birthPosition.set(position);
+        birthVelocity.set(velocity);
     }
 
     /**
@@ -462,6 +502,8 @@ public final class ParticleData implements Cloneable, JmeCloneable {
         velocity = cloner.clone(velocity);
         reversedVelocity = cloner.clone(reversedVelocity);
         position = cloner.clone(position);
+        birthPosition = cloner.clone(birthPosition);
+        birthVelocity = cloner.clone(birthVelocity);
         angles = cloner.clone(angles);
         upVec = cloner.clone(upVec);
         tempV3 = cloner.clone(tempV3);
@@ -479,9 +521,9 @@ public final class ParticleData implements Cloneable, JmeCloneable {
     /**
      * Sets true if this particle is active.
      *
-     * @param active  true if this particle is active.
+     * @param active true if this particle is active.
      */
-    private void setActive(boolean active) {
+    public void setActive(boolean active) {
         this.active = active;
     }
 }
\ No newline at end of file
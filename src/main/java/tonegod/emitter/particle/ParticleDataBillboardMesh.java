@@ -0,0 +1,439 @@
+package tonegod.emitter.particle;
+
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.Matrix3f;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.VertexBuffer.Format;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.scene.VertexBuffer.Usage;
+import com.jme3.scene.mesh.IndexBuffer;
+import com.jme3.util.BufferUtils;
+import com.jme3.util.clone.Cloner;
+import org.jetbrains.annotations.NotNull;
+import tonegod.emitter.BillboardMode;
+import tonegod.emitter.ParticleEmitterNode;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * The implementation of a quad particle mesh which lets the vertex shader expand the quad corners.
+ * <p>
+ * Every vertex of a particle contains the center of the particle, its size, rotation angles, velocity
+ * and the index of the corner, so the CPU doesn't calculate billboard vectors and rotations at all.
+ * The billboard modes {@link BillboardMode#CAMERA}, {@link BillboardMode#VELOCITY},
+ * {@link BillboardMode#VELOCITY_Z_UP} and {@link BillboardMode#UNIT_X}/{@link BillboardMode#UNIT_Y}/
+ * {@link BillboardMode#UNIT_Z} are calculated by the shader, other modes and materials without
+ * the parameter {@link tonegod.emitter.material.ParticlesMaterial#PROP_SHADER_BILLBOARD} are
+ * calculated on the CPU in the same way as {@link ParticleDataTriMesh}.
+ * <p>
+ * In the curve mode the shader also reads color, alpha, size and the sprite frame of particles from
+ * {@link tonegod.emitter.material.ParticleCurveTexture}, then only the life blend and the seed of a particle are
+ * uploaded instead of its size and colors and texture coords stay unchanged.
+ *
+ * @author JavaSaBr
+ */
+public final class ParticleDataBillboardMesh extends RotatedParticleDataMesh {
+
+    /**
+     * The value of the billboard mode parameter when corners are calculated on the CPU.
+     */
+    public static final int CPU_BILLBOARD_MODE = -1;
+
+    /**
+     * Check a billboard mode.
+     *
+     * @param billboardMode the billboard mode.
+     * @return true if the billboard mode can be calculated by the shader.
+     */
+    public static boolean isShaderBillboardMode(@NotNull BillboardMode billboardMode) {
+        switch (billboardMode) {
+            case CAMERA:
+            case VELOCITY:
+            case VELOCITY_Z_UP:
+            case UNIT_X:
+            case UNIT_Y:
+            case UNIT_Z:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The white color in the ABGR format.
+     */
+    private static final int WHITE_ABGR = ColorRGBA.White.asIntABGR();
+
+    /**
+     * The rectangle of the whole texture.
+     */
+    @NotNull
+    private static final float[] WHOLE_TEXTURE = {0F, 0F, 1F, 1F};
+
+    /**
+     * The color.
+     */
+    @NotNull
+    private ColorRGBA color;
+
+    /**
+     * The flag of using the shader to calculate corners of particles.
+     */
+    private boolean shaderBillboarding;
+
+    /**
+     * The flag of reading values of particles from the curve texture by the shader.
+     */
+    private boolean curveMode;
+
+    public ParticleDataBillboardMesh() {
+        this.color = new ColorRGBA();
+        this.shaderBillboarding = true;
+    }
+
+    @Override
+    public void initialize(@NotNull ParticleEmitterNode emitterNode, int numParticles) {
+        super.initialize(emitterNode, numParticles);
+
+        int vertexCount = numParticles * 4;
+
+        setUniqueTexCoords(false);
+        setMode(Mode.Triangles);
+        preparePositionBuffer(vertexCount);
+        prepareColorBuffer(vertexCount * 4);
+        prepareFloatBuffer(Type.Normal, Usage.Stream, 3, vertexCount);
+        prepareFloatBuffer(Type.TexCoord2, Usage.Stream, 3, vertexCount);
+        prepareFloatBuffer(Type.TexCoord3, Usage.Stream, 2, vertexCount);
+
+        // set texcoords and corner indexes
+        FloatBuffer tb = BufferUtils.createVector2Buffer(vertexCount);
+        FloatBuffer cb = BufferUtils.createFloatBuffer(vertexCount);
+
+        for (int i = 0; i < numParticles; i++) {
+
+            tb.put(0f).put(1f);
+            tb.put(1f).put(1f);
+            tb.put(0f).put(0f);
+            tb.put(1f).put(0f);
+
+            cb.put(0f).put(1f).put(2f).put(3f);
+        }
+
+        tb.flip();
+        cb.flip();
+
+        setupStaticBuffer(Type.TexCoord, 2, tb);
+        setupStaticBuffer(Type.TexCoord4, 1, cb);
+
+        // set indices
+        IndexBuffer ib = createIndexBuffer(vertexCount, numParticles * 6);
+        fillQuadIndexes(ib, numParticles);
+        applyIndexBuffer(ib);
+
+        updateCounts();
+    }
+
+    /**
+     * Prepare a float stream buffer.
+     *
+     * @param type       the type of the buffer.
+     * @param usage      the usage of the buffer.
+     * @param components the count of components.
+     * @param size       the count of vertices.
+     */
+    private void prepareFloatBuffer(@NotNull Type type, @NotNull Usage usage, int components, int size) {
+
+        FloatBuffer buffer = BufferUtils.createFloatBuffer(size * components);
+        VertexBuffer vertexBuffer = getBuffer(type);
+
+        if (vertexBuffer != null) {
+            vertexBuffer.updateData(buffer);
+        } else {
+            VertexBuffer vb = new VertexBuffer(type);
+            vb.setupData(usage, components, Format.Float, buffer);
+            setBuffer(vb);
+        }
+    }
+
+    /**
+     * Setup a static float buffer.
+     *
+     * @param type       the type of the buffer.
+     * @param components the count of components.
+     * @param buffer     the data.
+     */
+    private void setupStaticBuffer(@NotNull Type type, int components, @NotNull FloatBuffer buffer) {
+
+        VertexBuffer vertexBuffer = getBuffer(type);
+
+        if (vertexBuffer != null) {
+            vertexBuffer.updateData(buffer);
+        } else {
+            VertexBuffer vb = new VertexBuffer(type);
+            vb.setupData(Usage.Static, components, Format.Float, buffer);
+            setBuffer(vb);
+        }
+    }
+
+    @Override
+    protected void updateSpriteFrames() {
+        super.updateSpriteFrames();
+
+        VertexBuffer buffer = getBuffer(Type.TexCoord);
+
+        if (buffer != null && !getFrameTable().isWholeTexture()) {
+            buffer.setUsage(Usage.Stream);
+        }
+    }
+
+    /**
+     * Sets the flag of using the shader to calculate corners of particles.
+     *
+     * @param shaderBillboarding true if the material supports shader billboarding.
+     */
+    public void setShaderBillboarding(boolean shaderBillboarding) {
+        this.shaderBillboarding = shaderBillboarding;
+    }
+
+    /**
+     * Returns true if the material supports shader billboarding.
+     *
+     * @return true if the material supports shader billboarding.
+     */
+    public boolean isShaderBillboarding() {
+        return shaderBillboarding;
+    }
+
+    /**
+     * Sets the flag of reading color, alpha, size and the sprite frame of particles from the curve texture, it's
+     * used only with shader billboarding.
+     *
+     * @param curveMode true if the material has the curve texture.
+     */
+    public void setCurveMode(boolean curveMode) {
+        this.curveMode = curveMode;
+    }
+
+    /**
+     * Returns true if color, alpha, size and the sprite frame of particles are read from the curve texture.
+     *
+     * @return true if the curve texture is used.
+     */
+    public boolean isCurveMode() {
+        return curveMode;
+    }
+
+    @Override
+    public void updateParticleData(
+            @NotNull ParticleData[] particles,
+            @NotNull Camera camera,
+            @NotNull Matrix3f inverseRotation
+    ) {
+
+        beginUpdate();
+
+        ParticleEmitterNode emitterNode = getEmitterNode();
+        Vector3f worldTranslation = emitterNode.getWorldTranslation();
+        BillboardMode billboardMode = emitterNode.getBillboardMode();
+
+        boolean onCpu = !shaderBillboarding || !isShaderBillboardMode(billboardMode);
+        boolean curves = curveMode && !onCpu;
+
+        VertexBuffer pvb = getBuffer(Type.Position);
+        FloatBuffer positions = (FloatBuffer) pvb.getData();
+
+        VertexBuffer cvb = getBuffer(Type.Color);
+        ByteBuffer colors = (ByteBuffer) cvb.getData();
+
+        VertexBuffer tvb = getBuffer(Type.TexCoord);
+        FloatBuffer texcoords = (FloatBuffer) tvb.getData();
+
+        VertexBuffer vvb = getBuffer(Type.Normal);
+        FloatBuffer velocities = (FloatBuffer) vvb.getData();
+
+        VertexBuffer avb = getBuffer(Type.TexCoord2);
+        FloatBuffer angles = (FloatBuffer) avb.getData();
+
+        VertexBuffer svb = getBuffer(Type.TexCoord3);
+        FloatBuffer sizes = (FloatBuffer) svb.getData();
+
+        positions.clear();
+        colors.clear();
+        texcoords.clear();
+        velocities.clear();
+        angles.clear();
+        sizes.clear();
+
+        boolean uniqueTexCoords = isUniqueTexCoords();
+
+        SpriteFrameTable frameTable = getFrameTable();
+        float[] frameRects = frameTable.getRects();
+
+        boolean positionsChanged = false;
+        boolean colorsChanged = false;
+        boolean texcoordsChanged = false;
+        boolean velocitiesChanged = false;
+        boolean anglesChanged = false;
+        boolean sizesChanged = false;
+
+        // alive particles are packed to the start of the buffers
+        int count = 0;
+
+        for (ParticleData particleData : particles) {
+
+            if (particleData.life == 0 || !particleData.isActive()) {
+                continue;
+            }
+
+            int vertex = count * 4;
+
+            if (emitterNode.isParticlesFollowEmitter()) {
+                tempV1.set(particleData.position);
+            } else {
+
+                Vector3f subtract = worldTranslation
+                        .subtract(particleData.initialPosition, tempV2);
+
+                tempV1.set(particleData.position)
+                        .subtractLocal(subtract);
+            }
+
+            Vector3f size = particleData.getSize();
+
+            if (onCpu) {
+                expandCorners(particleData, billboardMode, camera);
+                positionsChanged |= putQuad(positions, vertex, tempV1, left, up);
+                sizesChanged |= putSize(sizes, vertex, 0F, 0F);
+            } else if (curves) {
+                // the size buffer contains the life blend and the seed to sample curves
+                positionsChanged |= putVector(positions, vertex, 4, tempV1);
+                sizesChanged |= putSize(sizes, vertex, particleData.blend, particleData.seed);
+            } else {
+                positionsChanged |= putVector(positions, vertex, 4, tempV1);
+                sizesChanged |= putSize(sizes, vertex, size.x, size.y);
+            }
+
+            velocitiesChanged |= putVector(velocities, vertex, 4, particleData.getVelocity());
+            anglesChanged |= putVector(angles, vertex, 4, particleData.getAngles());
+
+            if (curves) {
+
+                // the shader calculates sprite frames and colors
+                if (uniqueTexCoords) {
+                    texcoordsChanged |= putQuadTexCoords(texcoords, vertex, WHOLE_TEXTURE, 0);
+                }
+
+                colorsChanged |= putColor(colors, vertex, 4, WHITE_ABGR);
+                count++;
+                continue;
+            }
+
+            if (uniqueTexCoords) {
+
+                int offset = frameTable.getOffset(particleData.spriteFrame);
+                texcoordsChanged |= putQuadTexCoords(texcoords, vertex, frameRects, offset);
+            }
+
+            color.set(particleData.color);
+            color.a *= particleData.alpha;
+
+            colorsChanged |= putColor(colors, vertex, 4, color.asIntABGR());
+            count++;
+        }
+
+        // keep at least one degenerated particle to have a valid draw range
+        if (count == 0) {
+            positionsChanged |= putQuad(positions, 0, Vector3f.ZERO, Vector3f.ZERO, Vector3f.ZERO);
+            sizesChanged |= putSize(sizes, 0, 0F, 0F);
+            count = 1;
+        }
+
+        setDrawRange(count, 4, 6);
+
+        upload(pvb, positionsChanged);
+        upload(cvb, colorsChanged);
+        upload(vvb, velocitiesChanged);
+        upload(avb, anglesChanged);
+        upload(svb, sizesChanged);
+
+        if (uniqueTexCoords) {
+            upload(tvb, texcoordsChanged);
+        }
+    }
+
+    /**
+     * Put a size to the vertices of a particle.
+     *
+     * @param sizes  the size buffer.
+     * @param vertex the first vertex of the particle.
+     * @param sizeX  the size by X.
+     * @param sizeY  the size by Y.
+     * @return true if the size was changed.
+     */
+    private static boolean putSize(@NotNull FloatBuffer sizes, int vertex, float sizeX, float sizeY) {
+
+        boolean changed = false;
+
+        for (int i = vertex * 2, last = (vertex + 4) * 2; i < last; i += 2) {
+            changed |= putIfChanged(sizes, i, sizeX);
+            changed |= putIfChanged(sizes, i + 1, sizeY);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Calculate the left and up vectors of a particle on the CPU.
+     *
+     * @param particleData  the particle data.
+     * @param billboardMode the billboard mode.
+     * @param camera        the camera.
+     */
+    private void expandCorners(
+            @NotNull ParticleData particleData,
+            @NotNull BillboardMode billboardMode,
+            @NotNull Camera camera
+    ) {
+
+        ParticleEmitterNode emitterNode = getEmitterNode();
+
+        updateRotation(particleData, billboardMode, camera);
+
+        particleData.upVec.set(up);
+
+        if (emitterNode.isVelocityStretching()) {
+            Vector3f velocity = particleData.getVelocity();
+            up.multLocal(velocity.length() * emitterNode.getVelocityStretchFactor());
+        }
+
+        Vector3f size = particleData.getSize();
+        Vector3f angles = particleData.getAngles();
+
+        up.multLocal(size.y);
+        left.multLocal(size.x);
+
+        rotStore.fromAngleNormalAxis(angles.y, tempV3.set(left).normalizeLocal());
+
+        left.set(rotStore.mult(left, tempV2));
+        up.set(rotStore.mult(up, tempV2));
+
+        rotStore.fromAngleNormalAxis(angles.x, tempV3.set(up).normalizeLocal());
+
+        left.set(rotStore.mult(left, tempV2));
+        up.set(rotStore.mult(up, tempV2));
+
+        rotStore.fromAngleNormalAxis(angles.z, tempV3.set(dir).normalizeLocal());
+
+        left.set(rotStore.mult(left, tempV2));
+        up.set(rotStore.mult(up, tempV2));
+    }
+
+    @Override
+    public void cloneFields(@NotNull Cloner cloner, @NotNull Object original) {
+        super.cloneFields(cloner, original);
+        color = cloner.clone(color);
+    }
+}
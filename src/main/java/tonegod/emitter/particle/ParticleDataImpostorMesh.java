@@ -1,13 +1,14 @@
 package tonegod.emitter.particle;
 
+import com.jme3.math.ColorRGBA;
 import com.jme3.math.FastMath;
 import com.jme3.math.Matrix3f;
-import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 import com.jme3.renderer.Camera;
 import com.jme3.scene.VertexBuffer;
 import com.jme3.scene.VertexBuffer.Format;
 import com.jme3.scene.VertexBuffer.Usage;
+import com.jme3.scene.mesh.IndexBuffer;
 import com.jme3.util.BufferUtils;
 import com.jme3.util.clone.Cloner;
 import org.jetbrains.annotations.NotNull;
@@ -16,7 +17,6 @@ import tonegod.emitter.ParticleEmitterNode;
 
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
-import java.nio.ShortBuffer;
 
 /**
  * The type Particle data impostor mesh.
@@ -25,40 +25,55 @@ import java.nio.ShortBuffer;
  */
 public class ParticleDataImpostorMesh extends RotatedParticleDataMesh {
 
-    private Vector3f left33;
-    private Vector3f left66;
-    private Vector3f temp1V3;
-    private Vector3f temp2V3;
-    private Vector3f temp3V3;
-    private Vector3f temp4V3;
-    private Vector3f temp1aV3;
-    private Vector3f temp2aV3;
-    private Vector3f temp3aV3;
-    private Vector3f temp4aV3;
-    private Vector3f temp1bV3;
-    private Vector3f temp2bV3;
-    private Vector3f temp3bV3;
-    private Vector3f temp4bV3;
-
-    private Quaternion q33;
+    /**
+     * The angle between planes of an impostor.
+     */
+    private static final float PLANE_ANGLE = 66F * FastMath.DEG_TO_RAD;
+
+    /**
+     * The cos and sin of rotations of the second and the third planes around the up vector.
+     */
+    private static final float COS_1 = FastMath.cos(PLANE_ANGLE);
+    private static final float SIN_1 = FastMath.sin(PLANE_ANGLE);
+    private static final float COS_2 = FastMath.cos(PLANE_ANGLE * 2);
+    private static final float SIN_2 = FastMath.sin(PLANE_ANGLE * 2);
+
+    /**
+     * The left vector of the shared basis.
+     */
+    @NotNull
+    private Vector3f basisLeft;
+
+    /**
+     * The up vector of the shared basis.
+     */
+    @NotNull
+    private Vector3f basisUp;
+
+    /**
+     * The direction of the shared basis.
+     */
+    @NotNull
+    private Vector3f basisDir;
+
+    /**
+     * The left vector of a rotated plane.
+     */
+    @NotNull
+    private Vector3f planeLeft;
+
+    /**
+     * The color.
+     */
+    @NotNull
+    private ColorRGBA color;
 
     public ParticleDataImpostorMesh() {
-        left33 = new Vector3f();
-        left66 = new Vector3f();
-        tempV1 = new Vector3f();
-        temp1V3 = new Vector3f();
-        temp2V3 = new Vector3f();
-        temp3V3 = new Vector3f();
-        temp4V3 = new Vector3f();
-        temp1aV3 = new Vector3f();
-        temp2aV3 = new Vector3f();
-        temp3aV3 = new Vector3f();
-        temp4aV3 = new Vector3f();
-        temp1bV3 = new Vector3f();
-        temp2bV3 = new Vector3f();
-        temp3bV3 = new Vector3f();
-        temp4bV3 = new Vector3f();
-        q33 = new Quaternion();
+        basisLeft = new Vector3f();
+        basisUp = new Vector3f();
+        basisDir = new Vector3f();
+        planeLeft = new Vector3f();
+        color = new ColorRGBA();
         lock = new Vector3f(0, 0.99f, 0.01f);
     }
 
@@ -99,64 +114,21 @@ public class ParticleDataImpostorMesh extends RotatedParticleDataMesh {
             setBuffer(tvb);
         }
 
-        // set indices
-        ShortBuffer ib = BufferUtils.createShortBuffer(numParticles * 18);
-
-        for (int i = 0; i < numParticles; i++) {
-            int startIdx = (i * 12);
-
-            // triangle 1
-            ib.put((short) (startIdx + 1))
-                    .put((short) (startIdx + 0))
-                    .put((short) (startIdx + 2));
-
-            // triangle 2
-            ib.put((short) (startIdx + 1))
-                    .put((short) (startIdx + 2))
-                    .put((short) (startIdx + 3));
-
-            // triangle 3
-            ib.put((short) (startIdx + 5))
-                    .put((short) (startIdx + 4))
-                    .put((short) (startIdx + 6));
-
-            // triangle 4
-            ib.put((short) (startIdx + 5))
-                    .put((short) (startIdx + 6))
-                    .put((short) (startIdx + 7));
-
-            // triangle 5
-            ib.put((short) (startIdx + 9))
-                    .put((short) (startIdx + 8))
-                    .put((short) (startIdx + 10));
-
-            // triangle 6
-            ib.put((short) (startIdx + 9))
-                    .put((short) (startIdx + 10))
-                    .put((short) (startIdx + 11));
-        }
-        ib.flip();
-
-        buf = getBuffer(VertexBuffer.Type.Index);
-
-        if (buf != null) {
-            buf.updateData(ib);
-        } else {
-            VertexBuffer ivb = new VertexBuffer(VertexBuffer.Type.Index);
-            ivb.setupData(Usage.Static, 3, Format.UnsignedShort, ib);
-            setBuffer(ivb);
-        }
+        // set indices, each particle is 3 crossed quads
+        IndexBuffer ib = createIndexBuffer(numParticles * 12, numParticles * 18);
+        fillQuadIndexes(ib, numParticles * 3);
+        applyIndexBuffer(ib);
 
         updateCounts();
-
-        q33.fromAngleAxis(33f * 2f * FastMath.DEG_TO_RAD, Vector3f.UNIT_Y);
     }
 
     @Override
-    public void setImagesXY(int imagesX, int imagesY) {
-        super.setImagesXY(imagesX, imagesY);
-        if (imagesX != 1 || imagesY != 1) {
-            VertexBuffer buffer = getBuffer(VertexBuffer.Type.TexCoord);
+    protected void updateSpriteFrames() {
+        super.updateSpriteFrames();
+
+        VertexBuffer buffer = getBuffer(VertexBuffer.Type.TexCoord);
+
+        if (buffer != null && !getFrameTable().isWholeTexture()) {
             buffer.setUsage(Usage.Stream);
         }
     }
@@ -168,6 +140,8 @@ public class ParticleDataImpostorMesh extends RotatedParticleDataMesh {
             @NotNull Matrix3f inverseRotation
     ) {
 
+        beginUpdate();
+
         ParticleEmitterNode emitterNode = getEmitterNode();
         Vector3f worldTranslation = emitterNode.getWorldTranslation();
         BillboardMode billboardMode = emitterNode.getBillboardMode();
@@ -181,203 +155,158 @@ public class ParticleDataImpostorMesh extends RotatedParticleDataMesh {
         VertexBuffer tvb = getBuffer(VertexBuffer.Type.TexCoord);
         FloatBuffer texcoords = (FloatBuffer) tvb.getData();
 
-        // update data in vertex buffers
+        boolean uniqueTexCoords = isUniqueTexCoords();
+
+        SpriteFrameTable frameTable = getFrameTable();
+        float[] frameRects = frameTable.getRects();
+
+        boolean positionsChanged = false;
+        boolean colorsChanged = false;
+        boolean texcoordsChanged = false;
+
         positions.clear();
         colors.clear();
         texcoords.clear();
 
+        // the basis of these modes doesn't depend on particles, so it's calculated once per frame
+        boolean sharedBasis = isSharedBasis(billboardMode);
+
+        if (sharedBasis && particles.length > 0) {
+            updateRotation(particles[0], billboardMode, camera);
+            basisLeft.set(left);
+            basisUp.set(up);
+            basisDir.set(dir);
+        }
+
+        // alive particles are packed to the start of the buffers
+        int count = 0;
+
         for (ParticleData particleData : particles) {
 
             if (particleData.life == 0 || !particleData.isActive()) {
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-            } else {
+                continue;
+            }
 
+            int vertex = count * 12;
+
+            if (sharedBasis) {
+                left.set(basisLeft);
+                up.set(basisUp);
+                dir.set(basisDir);
+            } else {
                 updateRotation(particleData, billboardMode, camera);
+            }
+
+            particleData.upVec.set(up);
+
+            if (emitterNode.isVelocityStretching()) {
+                Vector3f velocity = particleData.getVelocity();
+                up.multLocal(velocity.length() * emitterNode.getVelocityStretchFactor());
+            }
+
+            up.multLocal(particleData.size.y);
+            left.multLocal(particleData.size.x);
+
+            rotStore.fromAngleAxis(particleData.angles.y, left);
+            left.set(rotStore.mult(left, tempV1));
+            up.set(rotStore.mult(up, tempV1));
+
+            rotStore.fromAngleAxis(particleData.angles.x, up);
+            left.set(rotStore.mult(left, tempV1));
+            up.set(rotStore.mult(up, tempV1));
+
+            rotStore.fromAngleAxis(particleData.angles.z, dir);
+            left.set(rotStore.mult(left, tempV1));
+            up.set(rotStore.mult(up, tempV1));
+
+            if (emitterNode.isParticlesFollowEmitter()) {
+                tempV2.set(particleData.position);
+            } else {
+
+                Vector3f subtract = worldTranslation
+                        .subtract(particleData.initialPosition, tempV1);
 
-                particleData.upVec.set(up);
-
-                if (emitterNode.isVelocityStretching()) {
-                    Vector3f velocity = particleData.getVelocity();
-                    up.multLocal(velocity.length() * emitterNode.getVelocityStretchFactor());
-                }
-
-                up.multLocal(particleData.size.y);
-                left.multLocal(particleData.size.x);
-
-                rotStore.fromAngleAxis(particleData.angles.y, left);
-                left.set(rotStore.mult(left, tempV1));
-                up.set(rotStore.mult(up, tempV1));
-
-                rotStore.fromAngleAxis(particleData.angles.x, up);
-                left.set(rotStore.mult(left, tempV1));
-                up.set(rotStore.mult(up, tempV1));
-
-                rotStore.fromAngleAxis(particleData.angles.z, dir);
-                left.set(rotStore.mult(left, tempV1));
-                up.set(rotStore.mult(up, tempV1));
-
-                if (emitterNode.isParticlesFollowEmitter()) {
-                    tempV2.set(particleData.position);
-                } else {
-
-                    Vector3f subtract = worldTranslation
-                            .subtract(particleData.initialPosition, tempV1);
-
-                    tempV2.set(particleData.position)
-                            .subtractLocal(subtract);//.divide(8f));
-                }
-
-                q33.fromAngleAxis(33f * 2f * FastMath.DEG_TO_RAD, up);
-                left33.set(q33.mult(left, tempV1));
-                left66.set(q33.mult(left33, tempV1));
-
-                temp1V3.set(tempV2.x + left.x + up.x, tempV2.y + left.y + up.y, tempV2.z + left.z + up.z);
-                temp2V3.set(tempV2.x - left.x + up.x, tempV2.y - left.y + up.y, tempV2.z - left.z + up.z);
-                temp3V3.set(tempV2.x + left.x - up.x, tempV2.y + left.y - up.y, tempV2.z + left.z - up.z);
-                temp4V3.set(tempV2.x - left.x - up.x, tempV2.y - left.y - up.y, tempV2.z - left.z - up.z);
-                temp1aV3.set(tempV2.x + left33.x + up.x, tempV2.y + left33.y + up.y, tempV2.z + left33.z + up.z);
-                temp2aV3.set(tempV2.x - left33.x + up.x, tempV2.y - left33.y + up.y, tempV2.z - left33.z + up.z);
-                temp3aV3.set(tempV2.x + left33.x - up.x, tempV2.y + left33.y - up.y, tempV2.z + left33.z - up.z);
-                temp4aV3.set(tempV2.x - left33.x - up.x, tempV2.y - left33.y - up.y, tempV2.z - left33.z - up.z);
-                temp1bV3.set(tempV2.x + left66.x + up.x, tempV2.y + left66.y + up.y, tempV2.z + left66.z + up.z);
-                temp2bV3.set(tempV2.x - left66.x + up.x, tempV2.y - left66.y + up.y, tempV2.z - left66.z + up.z);
-                temp3bV3.set(tempV2.x + left66.x - up.x, tempV2.y + left66.y - up.y, tempV2.z + left66.z - up.z);
-                temp4bV3.set(tempV2.x - left66.x - up.x, tempV2.y - left66.y - up.y, tempV2.z - left66.z - up.z);
-
-                // Face 1
-                positions.put(temp1V3.x)
-                        .put(temp1V3.y)
-                        .put(temp1V3.z);
-                positions.put(temp2V3.x)
-                        .put(temp2V3.y)
-                        .put(temp2V3.z);
-                positions.put(temp3V3.x)
-                        .put(temp3V3.y)
-                        .put(temp3V3.z);
-                positions.put(temp4V3.x)
-                        .put(temp4V3.y)
-                        .put(temp4V3.z);
-
-
-                // Face 2
-                positions.put(temp1aV3.x)
-                        .put(temp1aV3.y)
-                        .put(temp1aV3.z);
-                positions.put(temp2aV3.x)
-                        .put(temp2aV3.y)
-                        .put(temp2aV3.z);
-                positions.put(temp3aV3.x)
-                        .put(temp3aV3.y)
-                        .put(temp3aV3.z);
-                positions.put(temp4aV3.x)
-                        .put(temp4aV3.y)
-                        .put(temp4aV3.z);
-
-                // Face 3
-                positions.put(temp1bV3.x)
-                        .put(temp1bV3.y)
-                        .put(temp1bV3.z);
-                positions.put(temp2bV3.x)
-                        .put(temp2bV3.y)
-                        .put(temp2bV3.z);
-                positions.put(temp3bV3.x)
-                        .put(temp3bV3.y)
-                        .put(temp3bV3.z);
-                positions.put(temp4bV3.x)
-                        .put(temp4bV3.y)
-                        .put(temp4bV3.z);
+                tempV2.set(particleData.position)
+                        .subtractLocal(subtract);
             }
 
-            if (isUniqueTexCoords()) {
+            // left is orthogonal to up, so rotations of the left vector around up are
+            // left * cos + (normalized up x left) * sin
+            Vector3f normal = tempV3.set(up)
+                    .normalizeLocal()
+                    .crossLocal(left);
 
-                int imgX = particleData.spriteCol;
-                int imgY = particleData.spriteRow;
+            positionsChanged |= putQuad(positions, vertex, tempV2, left, up);
 
-                float startX = 1f / getSpriteCols() * imgX;
-                float startY = 1f / getSpriteRows() * imgY;
-                float endX = startX + 1f / getSpriteCols();
-                float endY = startY + 1f / getSpriteRows();
+            planeLeft.set(left).multLocal(COS_1).scaleAdd(SIN_1, normal, planeLeft);
+            positionsChanged |= putQuad(positions, vertex + 4, tempV2, planeLeft, up);
 
-                texcoords.put(startX).put(endY);
-                texcoords.put(endX).put(endY);
-                texcoords.put(startX).put(startY);
-                texcoords.put(endX).put(startY);
+            planeLeft.set(left).multLocal(COS_2).scaleAdd(SIN_2, normal, planeLeft);
+            positionsChanged |= putQuad(positions, vertex + 8, tempV2, planeLeft, up);
 
-                texcoords.put(startX).put(endY);
-                texcoords.put(endX).put(endY);
-                texcoords.put(startX).put(startY);
-                texcoords.put(endX).put(startY);
+            if (uniqueTexCoords) {
 
-                texcoords.put(startX).put(endY);
-                texcoords.put(endX).put(endY);
-                texcoords.put(startX).put(startY);
-                texcoords.put(endX).put(startY);
+                int offset = frameTable.getOffset(particleData.spriteFrame);
+
+                texcoordsChanged |= putQuadTexCoords(texcoords, vertex, frameRects, offset);
+                texcoordsChanged |= putQuadTexCoords(texcoords, vertex + 4, frameRects, offset);
+                texcoordsChanged |= putQuadTexCoords(texcoords, vertex + 8, frameRects, offset);
             }
 
-            particleData.color.a *= particleData.alpha;
-            int abgr = particleData.color.asIntABGR();
-            colors.putInt(abgr);
-            colors.putInt(abgr);
-            colors.putInt(abgr);
-            colors.putInt(abgr);
-            colors.putInt(abgr);
-            colors.putInt(abgr);
-            colors.putInt(abgr);
-            colors.putInt(abgr);
-            colors.putInt(abgr);
-            colors.putInt(abgr);
-            colors.putInt(abgr);
-            colors.putInt(abgr);
+            color.set(particleData.color);
+            color.a *= particleData.alpha;
+
+            colorsChanged |= putColor(colors, vertex, 12, color.asIntABGR());
+            count++;
         }
 
-        //	this.setBuffer(VertexBuffer.Type.Position, 3, positions);
-        positions.clear();
-        colors.clear();
+        // keep at least one degenerated particle to have a valid draw range
+        if (count == 0) {
+            positionsChanged |= putVector(positions, 0, 12, Vector3f.ZERO);
+            count = 1;
+        }
+
+        setDrawRange(count, 12, 18);
 
-        if (!isUniqueTexCoords())
-            texcoords.clear();
-        else {
-            texcoords.clear();
-            tvb.updateData(texcoords);
+        upload(pvb, positionsChanged);
+        upload(cvb, colorsChanged);
+
+        if (uniqueTexCoords) {
+            upload(tvb, texcoordsChanged);
         }
+    }
 
-        // force renderer to re-send data to GPU
-        pvb.updateData(positions);
-        cvb.updateData(colors);
+    /**
+     * Return true if the billboard mode has the same basis for all particles.
+     *
+     * @param billboardMode the billboard mode.
+     * @return true if the basis is shared by all particles.
+     */
+    private static boolean isSharedBasis(@NotNull BillboardMode billboardMode) {
+        switch (billboardMode) {
+            case CAMERA:
+            case UNIT_X:
+            case UNIT_Y:
+            case UNIT_Z:
+                return true;
+            default:
+                return false;
+        }
+    }
 
-        updateBound();
+    @Override
+    public boolean isBatchSupported() {
+        return true;
     }
 
     @Override
     public void cloneFields(@NotNull Cloner cloner, @NotNull Object original) {
         super.cloneFields(cloner, original);
 
-        left33 = cloner.clone(left33);
-        left66 = cloner.clone(left66);
-        temp1V3 = cloner.clone(temp1V3);
-        temp2V3 = cloner.clone(temp2V3);
-        temp3V3 = cloner.clone(temp3V3);
-        temp4V3 = cloner.clone(temp4V3);
-        temp1aV3 = cloner.clone(temp1aV3);
-        temp2aV3 = cloner.clone(temp2aV3);
-        temp3aV3 = cloner.clone(temp3aV3);
-        temp4aV3 = cloner.clone(temp4aV3);
-        temp1bV3 = cloner.clone(temp1bV3);
-        temp2bV3 = cloner.clone(temp2bV3);
-        temp3bV3 = cloner.clone(temp3bV3);
-        temp4bV3 = cloner.clone(temp4bV3);
-
-        q33 = cloner.clone(q33);
+        basisLeft = cloner.clone(basisLeft);
+        basisUp = cloner.clone(basisUp);
+        basisDir = cloner.clone(basisDir);
+        planeLeft = cloner.clone(planeLeft);
+        color = cloner.clone(color);
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,27 @@
 package tonegod.emitter.particle;
 
+import com.jme3.math.FastMath;
 import com.jme3.math.Matrix3f;
 import com.jme3.math.Vector3f;
 import com.jme3.renderer.Camera;
 import com.jme3.scene.Mesh;
 import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.VertexBuffer.Format;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.scene.VertexBuffer.Usage;
+import com.jme3.scene.mesh.IndexBuffer;
 import com.jme3.util.BufferUtils;
 import com.jme3.util.clone.Cloner;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import tonegod.emitter.ParticleEmitterNode;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
 
 /**
  * The type Particle data mesh.
@@ -26,23 +36,69 @@ public abstract class ParticleDataMesh extends Mesh {
     private ParticleEmitterNode emitterNode;
 
     /**
-     * The count of sprite columns.
+     * The texture coordinates of sprite frames.
      */
-    private int imagesX;
+    @NotNull
+    private SpriteFrameTable frameTable;
 
     /**
-     * The count of sprite rows.
+     * The flag of using uniq texture coords.
      */
-    private int imagesY;
+    private boolean uniqueTexCoords;
 
     /**
-     * The flag of using uniq texture coords.
+     * The counts of elements of vertex buffers which were uploaded to GPU by type.
      */
-    private boolean uniqueTexCoords;
+    private int[] uploadedLimits;
+
+    /**
+     * The count of bytes which were uploaded to GPU during the last update.
+     */
+    private int uploadedBytes;
+
+    /**
+     * The count of particles which are drawn after the last update.
+     */
+    private int drawnParticles;
+
+    /**
+     * True if vertex buffers use compact formats.
+     */
+    private boolean compactLayout;
+
+    /**
+     * True if positions are quantized to the range of the position offset and scale.
+     */
+    private boolean quantizedPositions;
+
+    /**
+     * The float data of vertex buffers which are packed to compact formats by type.
+     */
+    private FloatBuffer[] compactSources;
+
+    /**
+     * The center of the range of quantized positions.
+     */
+    @NotNull
+    private Vector3f positionOffset;
+
+    /**
+     * The half size of the range of quantized positions.
+     */
+    @NotNull
+    private Vector3f positionScale;
+
+    /**
+     * True if the range of quantized positions was changed after the last packing of positions.
+     */
+    private boolean positionRangeChanged;
 
     public ParticleDataMesh() {
-        this.imagesX = 1;
-        this.imagesY = 1;
+        this.frameTable = new SpriteFrameTable();
+        this.uploadedLimits = new int[VertexBuffer.Type.values().length];
+        this.compactSources = new FloatBuffer[VertexBuffer.Type.values().length];
+        this.positionOffset = new Vector3f();
+        this.positionScale = new Vector3f(1, 1, 1);
     }
 
     /**
@@ -51,17 +107,245 @@ public abstract class ParticleDataMesh extends Mesh {
      * @param size the size
      */
     protected void preparePositionBuffer(int size) {
+        setupFloatBuffer(Type.Position, Usage.Stream, 3, BufferUtils.createVector3Buffer(size));
+    }
+
+    /**
+     * Setup a float vertex buffer. If the compact layout is enabled and the type of the buffer has a compact
+     * format, the float data is kept on CPU side and the vertex buffer gets the packed data.
+     *
+     * @param type       the type of the buffer.
+     * @param usage      the usage of the buffer.
+     * @param components the count of components.
+     * @param buffer     the data.
+     * @see #getFloatData(VertexBuffer)
+     * @see #pack(VertexBuffer, boolean)
+     */
+    protected void setupFloatBuffer(
+            @NotNull Type type,
+            @NotNull Usage usage,
+            int components,
+            @NotNull FloatBuffer buffer
+    ) {
 
-        FloatBuffer buffer = BufferUtils.createVector3Buffer(size);
-        VertexBuffer vertexBuffer = getBuffer(VertexBuffer.Type.Position);
+        Format format = compactLayout ? getCompactFormat(type) : null;
+        Buffer data = buffer;
+
+        if (format == null) {
+            format = Format.Float;
+            compactSources[type.ordinal()] = null;
+        } else {
+            compactSources[type.ordinal()] = buffer;
+            data = createPackedBuffer(format, buffer.capacity());
+        }
+
+        VertexBuffer vertexBuffer = getBuffer(type);
+
+        if (vertexBuffer != null && vertexBuffer.getNumComponents() == components &&
+                vertexBuffer.getFormat() == format) {
+            vertexBuffer.updateData(data);
+            vertexBuffer.setUsage(usage);
+        } else {
+
+            if (vertexBuffer != null) {
+                clearBuffer(type);
+            }
+
+            vertexBuffer = new VertexBuffer(type);
+            vertexBuffer.setupData(usage, components, format, data);
+            vertexBuffer.setNormalized(format != Format.Float);
+            setBuffer(vertexBuffer);
+        }
+
+        if (format != Format.Float) {
+            positionRangeChanged = true;
+            pack(vertexBuffer, true);
+        }
+    }
+
+    /**
+     * Get a compact format of a vertex buffer type.
+     *
+     * @param type the type of the buffer.
+     * @return the compact format or null if the type should use floats.
+     */
+    protected @Nullable Format getCompactFormat(@NotNull Type type) {
+        switch (type) {
+            case Position:
+                return quantizedPositions ? Format.Short : null;
+            case Normal:
+                return Format.Byte;
+            case TexCoord:
+                return Format.UnsignedShort;
+            default:
+                return null;
+        }
+    }
+
+    private static @NotNull Buffer createPackedBuffer(@NotNull Format format, int size) {
+        if (format == Format.Byte) {
+            return BufferUtils.createByteBuffer(size);
+        } else {
+            return BufferUtils.createShortBuffer(size);
+        }
+    }
+
+    /**
+     * Get float data of a vertex buffer, for a packed buffer it's the float data to pack.
+     *
+     * @param vertexBuffer the vertex buffer.
+     * @return the float data.
+     */
+    protected @NotNull FloatBuffer getFloatData(@NotNull VertexBuffer vertexBuffer) {
+
+        FloatBuffer source = compactSources[vertexBuffer.getBufferType().ordinal()];
+
+        if (source != null) {
+            return source;
+        }
+
+        return (FloatBuffer) vertexBuffer.getData();
+    }
+
+    /**
+     * Pack float data of a vertex buffer to its compact format up to the current limit of the buffer.
+     *
+     * @param vertexBuffer the vertex buffer.
+     * @param changed      true if the float data was changed.
+     * @return true if the packed data was changed.
+     */
+    protected boolean pack(@NotNull VertexBuffer vertexBuffer, boolean changed) {
+
+        Type type = vertexBuffer.getBufferType();
+        FloatBuffer source = compactSources[type.ordinal()];
+
+        if (source == null) {
+            return changed;
+        }
+
+        boolean position = type == Type.Position;
+
+        if (!changed && !(position && positionRangeChanged)) {
+            return false;
+        }
+
+        Buffer data = vertexBuffer.getData();
+        int limit = data.limit();
+
+        if (position) {
+
+            ShortBuffer shorts = (ShortBuffer) data;
+
+            float factorX = positionScale.x > 0 ? 1F / positionScale.x : 0F;
+            float factorY = positionScale.y > 0 ? 1F / positionScale.y : 0F;
+            float factorZ = positionScale.z > 0 ? 1F / positionScale.z : 0F;
+
+            for (int i = 0; i + 2 < limit; i += 3) {
+                shorts.put(i, quantize((source.get(i) - positionOffset.x) * factorX));
+                shorts.put(i + 1, quantize((source.get(i + 1) - positionOffset.y) * factorY));
+                shorts.put(i + 2, quantize((source.get(i + 2) - positionOffset.z) * factorZ));
+            }
+
+            positionRangeChanged = false;
+
+        } else if (data instanceof ByteBuffer) {
+
+            ByteBuffer bytes = (ByteBuffer) data;
+
+            for (int i = 0; i < limit; i++) {
+                bytes.put(i, (byte) Math.round(FastMath.clamp(source.get(i), -1F, 1F) * Byte.MAX_VALUE));
+            }
 
-        if (vertexBuffer != null) {
-            vertexBuffer.updateData(buffer);
         } else {
-            VertexBuffer pvb = new VertexBuffer(VertexBuffer.Type.Position);
-            pvb.setupData(VertexBuffer.Usage.Stream, 3, VertexBuffer.Format.Float, buffer);
-            setBuffer(pvb);
+
+            ShortBuffer shorts = (ShortBuffer) data;
+
+            for (int i = 0; i < limit; i++) {
+                shorts.put(i, (short) Math.round(FastMath.clamp(source.get(i), 0F, 1F) * 0xFFFF));
+            }
         }
+
+        return true;
+    }
+
+    private static short quantize(float value) {
+        return (short) Math.round(FastMath.clamp(value, -1F, 1F) * Short.MAX_VALUE);
+    }
+
+    /**
+     * Enable or disable compact formats of vertex buffers: normalized shorts for texture coords, normalized bytes
+     * for normals and optionally quantized positions. The mesh should be initialized again to apply it.
+     *
+     * @param compactLayout      true if compact formats should be used.
+     * @param quantizedPositions true if positions should be quantized to normalized shorts, the material should
+     *                           decode them by the position offset and scale.
+     * @see #setPositionRange(Vector3f, Vector3f)
+     */
+    public void setCompactLayout(boolean compactLayout, boolean quantizedPositions) {
+        this.compactLayout = compactLayout;
+        this.quantizedPositions = compactLayout && quantizedPositions;
+    }
+
+    /**
+     * Return true if vertex buffers use compact formats.
+     *
+     * @return true if vertex buffers use compact formats.
+     */
+    public boolean isCompactLayout() {
+        return compactLayout;
+    }
+
+    /**
+     * Return true if positions are quantized to normalized shorts.
+     *
+     * @return true if positions are quantized.
+     */
+    public boolean isQuantizedPositions() {
+        return quantizedPositions;
+    }
+
+    /**
+     * Return true if this mesh supports compact formats of vertex buffers.
+     *
+     * @return true if compact formats are supported.
+     */
+    public boolean isCompactLayoutSupported() {
+        return false;
+    }
+
+    /**
+     * Set the range of quantized positions, a decoded position is offset + scale * quantized position.
+     *
+     * @param offset the center of the range.
+     * @param scale  the half size of the range, each component should be positive.
+     */
+    public void setPositionRange(@NotNull Vector3f offset, @NotNull Vector3f scale) {
+
+        if (positionOffset.equals(offset) && positionScale.equals(scale)) {
+            return;
+        }
+
+        positionOffset.set(offset);
+        positionScale.set(scale);
+        positionRangeChanged = true;
+    }
+
+    /**
+     * Get the center of the range of quantized positions.
+     *
+     * @return the center of the range.
+     */
+    public @NotNull Vector3f getPositionOffset() {
+        return positionOffset;
+    }
+
+    /**
+     * Get the half size of the range of quantized positions.
+     *
+     * @return the half size of the range.
+     */
+    public @NotNull Vector3f getPositionScale() {
+        return positionScale;
     }
 
     /**
@@ -74,6 +358,11 @@ public abstract class ParticleDataMesh extends Mesh {
         ByteBuffer buffer = BufferUtils.createByteBuffer(size);
         VertexBuffer vertexBuffer = getBuffer(VertexBuffer.Type.Color);
 
+        if (vertexBuffer != null && vertexBuffer.getFormat() != Format.UnsignedByte) {
+            clearBuffer(VertexBuffer.Type.Color);
+            vertexBuffer = null;
+        }
+
         if (vertexBuffer != null) {
             vertexBuffer.updateData(buffer);
         } else {
@@ -84,6 +373,315 @@ public abstract class ParticleDataMesh extends Mesh {
         }
     }
 
+    /**
+     * Create an index buffer to address the count of vertices. 32-bit indexes are used only when
+     * the count of vertices doesn't fit in 16-bit indexes.
+     *
+     * @param vertexCount the count of vertices.
+     * @param indexCount  the count of indexes.
+     * @return the new index buffer.
+     */
+    protected @NotNull IndexBuffer createIndexBuffer(int vertexCount, int indexCount) {
+        return IndexBuffer.createIndexBuffer(vertexCount, indexCount);
+    }
+
+    /**
+     * Fill an index buffer by indexes of quads, each quad is 4 sequential vertices.
+     *
+     * @param indexBuffer the index buffer.
+     * @param quadCount   the count of quads.
+     */
+    protected void fillQuadIndexes(@NotNull IndexBuffer indexBuffer, int quadCount) {
+
+        for (int i = 0, index = 0; i < quadCount; i++) {
+
+            int startIdx = (i * 4);
+
+            // triangle 1
+            indexBuffer.put(index++, startIdx + 1);
+            indexBuffer.put(index++, startIdx);
+            indexBuffer.put(index++, startIdx + 2);
+
+            // triangle 2
+            indexBuffer.put(index++, startIdx + 1);
+            indexBuffer.put(index++, startIdx + 2);
+            indexBuffer.put(index++, startIdx + 3);
+        }
+    }
+
+    /**
+     * Set an index buffer to this mesh, the format of the buffer is selected by the type of the index buffer.
+     *
+     * @param indexBuffer the index buffer.
+     */
+    protected void applyIndexBuffer(@NotNull IndexBuffer indexBuffer) {
+
+        Buffer buffer = indexBuffer.getBuffer();
+        buffer.clear();
+
+        Format format = buffer instanceof IntBuffer ? Format.UnsignedInt : Format.UnsignedShort;
+        VertexBuffer vertexBuffer = getBuffer(Type.Index);
+
+        // new indexes are uploaded by the next draw range
+        uploadedLimits[Type.Index.ordinal()] = 0;
+
+        if (vertexBuffer != null && vertexBuffer.getFormat() == format) {
+            vertexBuffer.updateData(buffer);
+            return;
+        } else if (vertexBuffer != null) {
+            clearBuffer(Type.Index);
+        }
+
+        VertexBuffer ivb = new VertexBuffer(Type.Index);
+        ivb.setupData(Usage.Static, 3, format, buffer);
+        setBuffer(ivb);
+    }
+
+    /**
+     * Put a float value to the buffer if the buffer contains another value.
+     *
+     * @param buffer the buffer.
+     * @param index  the index in the buffer.
+     * @param value  the value.
+     * @return true if the value was changed.
+     */
+    protected static boolean putIfChanged(@NotNull FloatBuffer buffer, int index, float value) {
+
+        if (buffer.get(index) == value) {
+            return false;
+        }
+
+        buffer.put(index, value);
+        return true;
+    }
+
+    /**
+     * Put a packed color to the vertices of a particle if the buffer contains another color.
+     *
+     * @param colors      the color buffer.
+     * @param vertex      the first vertex of the particle.
+     * @param vertexCount the count of vertices of the particle.
+     * @param abgr        the packed color.
+     * @return true if the color was changed.
+     */
+    protected static boolean putColor(@NotNull ByteBuffer colors, int vertex, int vertexCount, int abgr) {
+
+        boolean changed = false;
+
+        for (int i = vertex * 4, last = (vertex + vertexCount) * 4; i < last; i += 4) {
+            if (colors.getInt(i) != abgr) {
+                colors.putInt(i, abgr);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Put a vector to the vertices of a particle if the buffer contains another vector.
+     *
+     * @param buffer      the buffer with 3 components.
+     * @param vertex      the first vertex of the particle.
+     * @param vertexCount the count of vertices of the particle.
+     * @param vector      the vector.
+     * @return true if the vector was changed.
+     */
+    protected static boolean putVector(
+            @NotNull FloatBuffer buffer,
+            int vertex,
+            int vertexCount,
+            @NotNull Vector3f vector
+    ) {
+
+        boolean changed = false;
+
+        for (int i = vertex * 3, last = (vertex + vertexCount) * 3; i < last; i += 3) {
+            changed |= putIfChanged(buffer, i, vector.x);
+            changed |= putIfChanged(buffer, i + 1, vector.y);
+            changed |= putIfChanged(buffer, i + 2, vector.z);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Put corners of a quad to the position buffer, the order of corners is (+left, +up), (-left, +up),
+     * (+left, -up), (-left, -up).
+     *
+     * @param positions the position buffer.
+     * @param vertex    the first vertex of the quad.
+     * @param center    the center of the quad.
+     * @param left      the left vector of the quad.
+     * @param up        the up vector of the quad.
+     * @return true if the positions were changed.
+     */
+    protected static boolean putQuad(
+            @NotNull FloatBuffer positions,
+            int vertex,
+            @NotNull Vector3f center,
+            @NotNull Vector3f left,
+            @NotNull Vector3f up
+    ) {
+
+        int index = vertex * 3;
+
+        boolean changed = putIfChanged(positions, index, center.x + left.x + up.x);
+        changed |= putIfChanged(positions, index + 1, center.y + left.y + up.y);
+        changed |= putIfChanged(positions, index + 2, center.z + left.z + up.z);
+        changed |= putIfChanged(positions, index + 3, center.x - left.x + up.x);
+        changed |= putIfChanged(positions, index + 4, center.y - left.y + up.y);
+        changed |= putIfChanged(positions, index + 5, center.z - left.z + up.z);
+        changed |= putIfChanged(positions, index + 6, center.x + left.x - up.x);
+        changed |= putIfChanged(positions, index + 7, center.y + left.y - up.y);
+        changed |= putIfChanged(positions, index + 8, center.z + left.z - up.z);
+        changed |= putIfChanged(positions, index + 9, center.x - left.x - up.x);
+        changed |= putIfChanged(positions, index + 10, center.y - left.y - up.y);
+        changed |= putIfChanged(positions, index + 11, center.z - left.z - up.z);
+
+        return changed;
+    }
+
+    /**
+     * Put texture coords of a quad, the order of corners is the same as in {@link #putQuad}.
+     *
+     * @param texCoords the texture coords buffer.
+     * @param vertex    the first vertex of the quad.
+     * @param startX    the start X coord.
+     * @param startY    the start Y coord.
+     * @param endX      the end X coord.
+     * @param endY      the end Y coord.
+     * @return true if the texture coords were changed.
+     */
+    protected static boolean putQuadTexCoords(
+            @NotNull FloatBuffer texCoords,
+            int vertex,
+            float startX,
+            float startY,
+            float endX,
+            float endY
+    ) {
+
+        int index = vertex * 2;
+
+        boolean changed = putIfChanged(texCoords, index, startX);
+        changed |= putIfChanged(texCoords, index + 1, endY);
+        changed |= putIfChanged(texCoords, index + 2, endX);
+        changed |= putIfChanged(texCoords, index + 3, endY);
+        changed |= putIfChanged(texCoords, index + 4, startX);
+        changed |= putIfChanged(texCoords, index + 5, startY);
+        changed |= putIfChanged(texCoords, index + 6, endX);
+        changed |= putIfChanged(texCoords, index + 7, startY);
+
+        return changed;
+    }
+
+    /**
+     * Put texture coords of a sprite frame to a quad.
+     *
+     * @param texCoords the texture coords buffer.
+     * @param vertex    the first vertex of the quad.
+     * @param rects     the rectangles of sprite frames.
+     * @param offset    the offset of the frame's rectangle.
+     * @return true if the texture coords were changed.
+     * @see SpriteFrameTable
+     */
+    protected static boolean putQuadTexCoords(
+            @NotNull FloatBuffer texCoords,
+            int vertex,
+            @NotNull float[] rects,
+            int offset
+    ) {
+        return putQuadTexCoords(texCoords, vertex, rects[offset], rects[offset + 1], rects[offset + 2],
+                rects[offset + 3]);
+    }
+
+    /**
+     * Start a new update of the particle data, resets upload statistics.
+     */
+    protected void beginUpdate() {
+        uploadedBytes = 0;
+    }
+
+    /**
+     * Limit streamed vertex buffers and the index buffer to the first particles, so only alive particles are
+     * uploaded and drawn. Static vertex buffers aren't changed. The index buffer is uploaded again when the limit
+     * is greater than GPU has, because GPU keeps only the indexes of the limit of the previous upload.
+     *
+     * @param particleCount       the count of particles to draw.
+     * @param verticesPerParticle the count of vertices per particle.
+     * @param indexesPerParticle  the count of indexes per particle.
+     */
+    protected void setDrawRange(int particleCount, int verticesPerParticle, int indexesPerParticle) {
+
+        int vertexCount = particleCount * verticesPerParticle;
+
+        VertexBuffer indexBuffer = null;
+
+        for (VertexBuffer vertexBuffer : getBufferList().getArray()) {
+
+            Buffer data = vertexBuffer.getData();
+
+            if (data == null) {
+                continue;
+            } else if (vertexBuffer.getBufferType() == Type.Index) {
+                data.limit(particleCount * indexesPerParticle);
+                indexBuffer = vertexBuffer;
+            } else if (vertexBuffer.getUsage() != Usage.Static) {
+                data.limit(vertexCount * vertexBuffer.getNumComponents());
+            }
+        }
+
+        if (indexBuffer != null) {
+            upload(indexBuffer, false);
+        }
+
+        drawnParticles = particleCount;
+        updateCounts();
+    }
+
+    /**
+     * Upload a vertex buffer to GPU if its data was changed or GPU doesn't have enough data for the current
+     * limit of the buffer.
+     *
+     * @param vertexBuffer the vertex buffer.
+     * @param changed      true if data of the buffer was changed.
+     */
+    protected void upload(@NotNull VertexBuffer vertexBuffer, boolean changed) {
+
+        Buffer data = vertexBuffer.getData();
+        int ordinal = vertexBuffer.getBufferType().ordinal();
+        int limit = data.limit();
+
+        if (!changed && limit <= uploadedLimits[ordinal]) {
+            return;
+        }
+
+        data.rewind();
+        vertexBuffer.updateData(data);
+
+        uploadedLimits[ordinal] = limit;
+        uploadedBytes += limit * vertexBuffer.getFormat().getComponentSize();
+    }
+
+    /**
+     * Get the count of bytes which were uploaded to GPU during the last update.
+     *
+     * @return the count of uploaded bytes.
+     */
+    public int getUploadedBytes() {
+        return uploadedBytes;
+    }
+
+    /**
+     * Get the count of particles which are drawn after the last update.
+     *
+     * @return the count of drawn particles.
+     */
+    public int getDrawnParticles() {
+        return drawnParticles;
+    }
+
     /**
      * The particleMeshTemplate mesh to use for defining a particle
      *
@@ -100,6 +698,8 @@ public abstract class ParticleDataMesh extends Mesh {
      */
     public void initialize(@NotNull ParticleEmitterNode emitterNode, int numParticles) {
         this.emitterNode = emitterNode;
+        this.drawnParticles = numParticles;
+        Arrays.fill(uploadedLimits, 0);
     }
 
     /**
@@ -109,9 +709,25 @@ public abstract class ParticleDataMesh extends Mesh {
      * @param imagesY Images on the Y coordinate
      */
     public void setImagesXY(int imagesX, int imagesY) {
-        this.imagesX = imagesX;
-        this.imagesY = imagesY;
-        if (imagesX != 1 || imagesY != 1) {
+        frameTable.setGrid(imagesX, imagesY);
+        updateSpriteFrames();
+    }
+
+    /**
+     * Set explicit texture coordinates of sprite frames for non-uniform atlases.
+     *
+     * @param rects the rectangles of frames: startX, startY, endX, endY per a frame.
+     */
+    public void setSpriteFrames(@NotNull float[] rects) {
+        frameTable.setFrames(rects);
+        updateSpriteFrames();
+    }
+
+    /**
+     * Handle changes of sprite frames.
+     */
+    protected void updateSpriteFrames() {
+        if (!frameTable.isWholeTexture()) {
             setUniqueTexCoords(true);
         }
     }
@@ -130,6 +746,38 @@ public abstract class ParticleDataMesh extends Mesh {
     );
 
 
+    /**
+     * Calculate the max distance from the position of a particle to its vertices.
+     *
+     * @param particleData the particle data.
+     * @param stretch      the velocity stretching of the particle's height.
+     * @return the radius of the particle.
+     */
+    public float calcParticleRadius(@NotNull ParticleData particleData, float stretch) {
+        Vector3f size = particleData.size;
+        float sizeY = size.y * stretch;
+        return FastMath.sqrt(size.x * size.x + sizeY * sizeY);
+    }
+
+    /**
+     * Return true if this mesh moves particles which don't follow the emitter by the translation of the emitter.
+     *
+     * @return true if the offset of the emitter is applied to particles.
+     */
+    public boolean isEmitterOffsetSupported() {
+        return true;
+    }
+
+    /**
+     * Return true if particles of this mesh can be merged by {@link tonegod.emitter.node.ParticleBatchNode}, it
+     * requires float positions and texture coords, byte colors and an index buffer.
+     *
+     * @return true if this mesh can be batched.
+     */
+    public boolean isBatchSupported() {
+        return false;
+    }
+
     /**
      * Get an emitter node.
      *
@@ -170,24 +818,48 @@ public abstract class ParticleDataMesh extends Mesh {
     /**
      * Gets sprite cols.
      *
-     * @return the count of sprite columns.
+     * @return the count of sprite columns or 0 if sprite frames aren't a uniform grid.
      */
     public int getSpriteCols() {
-        return imagesX;
+        return frameTable.getCols();
     }
 
     /**
      * Gets sprite rows.
      *
-     * @return the count of sprite rows.
+     * @return the count of sprite rows or 0 if sprite frames aren't a uniform grid.
      */
     public int getSpriteRows() {
-        return imagesY;
+        return frameTable.getRows();
+    }
+
+    /**
+     * Gets the texture coordinates of sprite frames.
+     *
+     * @return the table of sprite frames.
+     */
+    public @NotNull SpriteFrameTable getFrameTable() {
+        return frameTable;
     }
 
     @Override
     public void cloneFields(@NotNull Cloner cloner, @NotNull Object original) {
         super.cloneFields(cloner, original);
         emitterNode = cloner.clone(emitterNode);
+        uploadedLimits = new int[uploadedLimits.length];
+        positionOffset = cloner.clone(positionOffset);
+        positionScale = cloner.clone(positionScale);
+        compactSources = compactSources.clone();
+
+        for (int i = 0; i < compactSources.length; i++) {
+            if (compactSources[i] != null) {
+                compactSources[i] = BufferUtils.clone(compactSources[i]);
+            }
+        }
+
+        SpriteFrameTable frameTable = new SpriteFrameTable();
+        frameTable.set(this.frameTable);
+
+        this.frameTable = frameTable;
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package tonegod.emitter.particle;
 
+import com.jme3.math.ColorRGBA;
 import com.jme3.math.Matrix3f;
 import com.jme3.renderer.Camera;
 import com.jme3.scene.Mesh;
@@ -7,6 +8,7 @@ import com.jme3.scene.VertexBuffer;
 import com.jme3.scene.VertexBuffer.Format;
 import com.jme3.scene.VertexBuffer.Usage;
 import com.jme3.util.BufferUtils;
+import com.jme3.util.clone.Cloner;
 import org.jetbrains.annotations.NotNull;
 import tonegod.emitter.ParticleEmitterNode;
 
@@ -20,8 +22,15 @@ import java.nio.FloatBuffer;
  */
 public final class ParticleDataPointMesh extends ParticleDataMesh {
 
+    /**
+     * The color.
+     */
+    @NotNull
+    private ColorRGBA color;
+
     public ParticleDataPointMesh() {
         super();
+        this.color = new ColorRGBA();
     }
 
     @Override
@@ -30,7 +39,7 @@ public final class ParticleDataPointMesh extends ParticleDataMesh {
 
         setMode(Mode.Points);
         preparePositionBuffer(numParticles);
-        prepareColorBuffer(numParticles);
+        prepareColorBuffer(numParticles * 4);
 
         // set sizes
         FloatBuffer sb = BufferUtils.createFloatBuffer(numParticles);
@@ -68,6 +77,8 @@ public final class ParticleDataPointMesh extends ParticleDataMesh {
             @NotNull Matrix3f inverseRotation
     ) {
 
+        beginUpdate();
+
         VertexBuffer pvb = getBuffer(VertexBuffer.Type.Position);
         FloatBuffer positions = (FloatBuffer) pvb.getData();
 
@@ -80,51 +91,79 @@ public final class ParticleDataPointMesh extends ParticleDataMesh {
         VertexBuffer tvb = getBuffer(VertexBuffer.Type.TexCoord);
         FloatBuffer texcoords = (FloatBuffer) tvb.getData();
 
-        //float sizeScale = emitter.getWorldScale().x;
+        positions.clear();
+        colors.clear();
+        sizes.clear();
+        texcoords.clear();
+
+        SpriteFrameTable frameTable = getFrameTable();
+        float[] frameRects = frameTable.getRects();
+
+        boolean positionsChanged = false;
+        boolean colorsChanged = false;
+        boolean sizesChanged = false;
+        boolean texcoordsChanged = false;
 
-        // update data in vertex buffers
-        positions.rewind();
-        colors.rewind();
-        sizes.rewind();
-        texcoords.rewind();
+        // alive particles are packed to the start of the buffers
+        int count = 0;
 
         for (ParticleData particleData : particles) {
 
-            positions.put(particleData.position.x)
-                    .put(particleData.position.y)
-                    .put(particleData.position.z);
+            if (particleData.life == 0 || !particleData.isActive()) {
+                continue;
+            }
 
-            sizes.put(particleData.size.x); // * worldSace);
+            positionsChanged |= putVector(positions, count, 1, particleData.position);
+            sizesChanged |= putIfChanged(sizes, count, particleData.size.x);
 
-            particleData.color.a *= particleData.alpha;
-            colors.putInt(particleData.color.asIntABGR());
+            color.set(particleData.color);
+            color.a *= particleData.alpha;
 
-            int imgX = particleData.spriteCol; //particleData.imageIndex % imagesX;
-            int imgY = particleData.spriteRow; //(particleData.imageIndex - imgX) / imagesY;
+            colorsChanged |= putColor(colors, count, 1, color.asIntABGR());
 
-            float startX = ((float) imgX) / getSpriteCols();
-            float startY = ((float) imgY) / getSpriteRows();
-            float endX = startX + (1f / getSpriteCols());
-            float endY = startY + (1f / getSpriteRows());
+            int offset = frameTable.getOffset(particleData.spriteFrame);
+            int index = count * 4;
 
-            texcoords.put(startX).put(startY).put(endX).put(endY);
+            texcoordsChanged |= putIfChanged(texcoords, index, frameRects[offset]);
+            texcoordsChanged |= putIfChanged(texcoords, index + 1, frameRects[offset + 1]);
+            texcoordsChanged |= putIfChanged(texcoords, index + 2, frameRects[offset + 2]);
+            texcoordsChanged |= putIfChanged(texcoords, index + 3, frameRects[offset + 3]);
+
+            count++;
         }
 
-        positions.flip();
-        colors.flip();
-        sizes.flip();
-        texcoords.flip();
+        // keep at least one invisible particle to have a valid draw range
+        if (count == 0) {
+            sizesChanged |= putIfChanged(sizes, 0, 0F);
+            colorsChanged |= putColor(colors, 0, 1, 0);
+            count = 1;
+        }
 
-        // force renderer to re-send data to GPU
-        pvb.updateData(positions);
-        cvb.updateData(colors);
-        svb.updateData(sizes);
-        tvb.updateData(texcoords);
+        setDrawRange(count, 1, 0);
 
-        updateBound();
+        upload(pvb, positionsChanged);
+        upload(cvb, colorsChanged);
+        upload(svb, sizesChanged);
+        upload(tvb, texcoordsChanged);
     }
 
     @Override
     public void extractTemplateFromMesh(@NotNull Mesh mesh) {
     }
+
+    @Override
+    public float calcParticleRadius(@NotNull ParticleData particleData, float stretch) {
+        return 0F;
+    }
+
+    @Override
+    public boolean isEmitterOffsetSupported() {
+        return false;
+    }
+
+    @Override
+    public void cloneFields(@NotNull Cloner cloner, @NotNull Object original) {
+        super.cloneFields(cloner, original);
+        color = cloner.clone(color);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,531 @@
+package tonegod.emitter.particle;
+
+import com.jme3.export.InputCapsule;
+import com.jme3.export.JmeExporter;
+import com.jme3.export.JmeImporter;
+import com.jme3.export.OutputCapsule;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.FastMath;
+import com.jme3.math.Matrix3f;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.scene.VertexBuffer.Usage;
+import com.jme3.scene.mesh.IndexBuffer;
+import com.jme3.util.BufferUtils;
+import com.jme3.util.clone.Cloner;
+import org.jetbrains.annotations.NotNull;
+import tonegod.emitter.ParticleEmitterNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * The implementation of data mesh to draw particles as camera-facing ribbons through their last positions. Each
+ * particle records its positions to a ring buffer, a new point is recorded when the particle moved further than
+ * the min segment length. The texture is mapped along the ribbon from the particle to the end of its trail.
+ *
+ * @author JavaSaBr
+ */
+public final class ParticleDataRibbonMesh extends ParticleDataMesh {
+
+    /**
+     * The default count of points of a ribbon.
+     */
+    public static final int DEFAULT_TRAIL_POINTS = 16;
+
+    /**
+     * The default min length of a ribbon's segment.
+     */
+    public static final float DEFAULT_MIN_SEGMENT_LENGTH = 0.1F;
+
+    /**
+     * The color.
+     */
+    @NotNull
+    private ColorRGBA color;
+
+    /**
+     * The first temp vector.
+     */
+    @NotNull
+    private Vector3f tempV1;
+
+    /**
+     * The second temp vector.
+     */
+    @NotNull
+    private Vector3f tempV2;
+
+    /**
+     * The third temp vector.
+     */
+    @NotNull
+    private Vector3f tempV3;
+
+    /**
+     * The fourth temp vector.
+     */
+    @NotNull
+    private Vector3f tempV4;
+
+    /**
+     * The recorded points of particles, each particle has {@link #trailPoints} points.
+     */
+    @NotNull
+    private float[] points;
+
+    /**
+     * The index of the newest point of each particle.
+     */
+    @NotNull
+    private int[] heads;
+
+    /**
+     * The count of recorded points of each particle.
+     */
+    @NotNull
+    private int[] counts;
+
+    /**
+     * The last life of each particle to detect re-emitted particles.
+     */
+    @NotNull
+    private float[] lives;
+
+    /**
+     * The count of points of a ribbon.
+     */
+    private int trailPoints;
+
+    /**
+     * The min length of a ribbon's segment.
+     */
+    private float minSegmentLength;
+
+    public ParticleDataRibbonMesh() {
+        this.color = new ColorRGBA();
+        this.tempV1 = new Vector3f();
+        this.tempV2 = new Vector3f();
+        this.tempV3 = new Vector3f();
+        this.tempV4 = new Vector3f();
+        this.points = new float[0];
+        this.heads = new int[0];
+        this.counts = new int[0];
+        this.lives = new float[0];
+        this.trailPoints = DEFAULT_TRAIL_POINTS;
+        this.minSegmentLength = DEFAULT_MIN_SEGMENT_LENGTH;
+    }
+
+    @Override
+    public void initialize(@NotNull ParticleEmitterNode emitterNode, int numParticles) {
+        super.initialize(emitterNode, numParticles);
+
+        int trailPoints = getTrailPoints();
+        int vertexCount = numParticles * trailPoints * 2;
+
+        setUniqueTexCoords(false);
+        setMode(Mode.Triangles);
+        preparePositionBuffer(vertexCount);
+        prepareColorBuffer(vertexCount * 4);
+
+        // the texture is mapped from the particle (v = 1) to the end of its trail (v = 0)
+        FloatBuffer tb = BufferUtils.createVector2Buffer(vertexCount);
+
+        for (int i = 0; i < numParticles; i++) {
+            for (int k = 0; k < trailPoints; k++) {
+                float v = 1F - (float) k / (trailPoints - 1);
+                tb.put(0F).put(v);
+                tb.put(1F).put(v);
+            }
+        }
+
+        tb.flip();
+
+        setupFloatBuffer(Type.TexCoord, Usage.Static, 2, tb);
+
+        // each segment between two points is a quad
+        int segments = trailPoints - 1;
+        IndexBuffer ib = createIndexBuffer(vertexCount, numParticles * segments * 6);
+
+        for (int i = 0, index = 0; i < numParticles; i++) {
+            for (int k = 0; k < segments; k++) {
+
+                int vertex = (i * trailPoints + k) * 2;
+
+                ib.put(index++, vertex);
+                ib.put(index++, vertex + 1);
+                ib.put(index++, vertex + 2);
+
+                ib.put(index++, vertex + 1);
+                ib.put(index++, vertex + 3);
+                ib.put(index++, vertex + 2);
+            }
+        }
+
+        applyIndexBuffer(ib);
+
+        points = new float[numParticles * trailPoints * 3];
+        heads = new int[numParticles];
+        counts = new int[numParticles];
+        lives = new float[numParticles];
+
+        updateCounts();
+    }
+
+    @Override
+    protected void updateSpriteFrames() {
+        super.updateSpriteFrames();
+
+        VertexBuffer buffer = getBuffer(Type.TexCoord);
+
+        if (buffer != null && !getFrameTable().isWholeTexture()) {
+            buffer.setUsage(Usage.Stream);
+        }
+    }
+
+    @Override
+    public void updateParticleData(
+            @NotNull ParticleData[] particles,
+            @NotNull Camera camera,
+            @NotNull Matrix3f inverseRotation
+    ) {
+
+        beginUpdate();
+
+        ParticleEmitterNode emitterNode = getEmitterNode();
+        Vector3f worldTranslation = emitterNode.getWorldTranslation();
+        Vector3f cameraDirection = camera.getDirection();
+        Vector3f cameraLeft = camera.getLeft();
+
+        boolean followEmitter = emitterNode.isParticlesFollowEmitter();
+
+        VertexBuffer pvb = getBuffer(Type.Position);
+        FloatBuffer positions = getFloatData(pvb);
+
+        VertexBuffer cvb = getBuffer(Type.Color);
+        ByteBuffer colors = (ByteBuffer) cvb.getData();
+
+        VertexBuffer tvb = getBuffer(Type.TexCoord);
+        FloatBuffer texcoords = getFloatData(tvb);
+
+        boolean uniqueTexCoords = isUniqueTexCoords();
+
+        SpriteFrameTable frameTable = getFrameTable();
+        float[] frameRects = frameTable.getRects();
+
+        int trailPoints = getTrailPoints();
+        int verticesPerParticle = trailPoints * 2;
+
+        boolean positionsChanged = false;
+        boolean colorsChanged = false;
+        boolean texcoordsChanged = false;
+
+        positions.clear();
+        colors.clear();
+        texcoords.clear();
+
+        // alive particles are packed to the start of the buffers
+        int count = 0;
+
+        for (ParticleData particleData : particles) {
+
+            int slot = particleData.index;
+
+            if (particleData.life == 0 || !particleData.isActive()) {
+                counts[slot] = 0;
+                continue;
+            }
+
+            record(particleData, followEmitter);
+
+            int vertex = count * verticesPerParticle;
+            int pointCount = counts[slot];
+            float halfWidth = particleData.size.x;
+
+            for (int k = 0; k < trailPoints; k++) {
+
+                // unused points are collapsed to the last recorded point
+                int age = Math.min(k, pointCount - 1);
+
+                Vector3f point = getPoint(slot, age, tempV1);
+                Vector3f prev = getPoint(slot, Math.max(age - 1, 0), tempV2);
+                Vector3f next = getPoint(slot, Math.min(age + 1, pointCount - 1), tempV3);
+
+                Vector3f side = prev.subtractLocal(next)
+                        .crossLocal(cameraDirection);
+
+                float length = side.length();
+
+                if (length < FastMath.ZERO_TOLERANCE) {
+                    side.set(cameraLeft).multLocal(halfWidth);
+                } else {
+                    side.multLocal(halfWidth / length);
+                }
+
+                if (!followEmitter) {
+                    point.subtractLocal(worldTranslation);
+                }
+
+                int index = (vertex + k * 2) * 3;
+
+                positionsChanged |= putIfChanged(positions, index, point.x + side.x);
+                positionsChanged |= putIfChanged(positions, index + 1, point.y + side.y);
+                positionsChanged |= putIfChanged(positions, index + 2, point.z + side.z);
+                positionsChanged |= putIfChanged(positions, index + 3, point.x - side.x);
+                positionsChanged |= putIfChanged(positions, index + 4, point.y - side.y);
+                positionsChanged |= putIfChanged(positions, index + 5, point.z - side.z);
+            }
+
+            if (uniqueTexCoords) {
+
+                int offset = frameTable.getOffset(particleData.spriteFrame);
+
+                float startX = frameRects[offset];
+                float startY = frameRects[offset + 1];
+                float endX = frameRects[offset + 2];
+                float endY = frameRects[offset + 3];
+
+                for (int k = 0; k < trailPoints; k++) {
+
+                    float v = endY - (endY - startY) * k / (trailPoints - 1);
+                    int index = (vertex + k * 2) * 2;
+
+                    texcoordsChanged |= putIfChanged(texcoords, index, startX);
+                    texcoordsChanged |= putIfChanged(texcoords, index + 1, v);
+                    texcoordsChanged |= putIfChanged(texcoords, index + 2, endX);
+                    texcoordsChanged |= putIfChanged(texcoords, index + 3, v);
+                }
+            }
+
+            color.set(particleData.color);
+            color.a *= particleData.alpha;
+
+            colorsChanged |= putColor(colors, vertex, verticesPerParticle, color.asIntABGR());
+            count++;
+        }
+
+        // keep at least one degenerated particle to have a valid draw range
+        if (count == 0) {
+
+            for (int i = 0, length = verticesPerParticle * 3; i < length; i++) {
+                positionsChanged |= putIfChanged(positions, i, 0F);
+            }
+
+            count = 1;
+        }
+
+        setDrawRange(count, verticesPerParticle, (trailPoints - 1) * 6);
+
+        upload(pvb, pack(pvb, positionsChanged));
+        upload(cvb, colorsChanged);
+
+        if (uniqueTexCoords) {
+            upload(tvb, pack(tvb, texcoordsChanged));
+        }
+    }
+
+    /**
+     * Record the current position of a particle to its ring buffer. The newest point always follows the particle,
+     * it's kept as a new point when it moved further than the min segment length from the previous point.
+     *
+     * @param particleData  the particle data.
+     * @param followEmitter true if particles follow the emitter.
+     */
+    private void record(@NotNull ParticleData particleData, boolean followEmitter) {
+
+        int slot = particleData.index;
+
+        // the particle was emitted again
+        if (particleData.life > lives[slot]) {
+            counts[slot] = 0;
+        }
+
+        lives[slot] = particleData.life;
+
+        Vector3f position = getAnchor(particleData, followEmitter, tempV4);
+
+        if (counts[slot] == 0) {
+            heads[slot] = 0;
+            counts[slot] = 1;
+            setPoint(slot, 0, position);
+            return;
+        }
+
+        if (counts[slot] > 1 && getPoint(slot, 1, tempV1).distanceSquared(position) <
+                minSegmentLength * minSegmentLength) {
+            setPoint(slot, 0, position);
+            return;
+        }
+
+        // keep the current head point and start a new one
+        heads[slot] = (heads[slot] + 1) % trailPoints;
+        counts[slot] = Math.min(counts[slot] + 1, trailPoints);
+
+        setPoint(slot, 0, position);
+    }
+
+    /**
+     * Get the position of a particle in the space of its trail points.
+     *
+     * @param particleData  the particle data.
+     * @param followEmitter true if particles follow the emitter.
+     * @param store         the vector to store the result.
+     * @return the position.
+     */
+    private static @NotNull Vector3f getAnchor(
+            @NotNull ParticleData particleData,
+            boolean followEmitter,
+            @NotNull Vector3f store
+    ) {
+
+        store.set(particleData.position);
+
+        if (!followEmitter) {
+            store.addLocal(particleData.initialPosition);
+        }
+
+        return store;
+    }
+
+    /**
+     * Get a point of a particle's trail.
+     *
+     * @param slot  the index of the particle.
+     * @param age   the age of the point, 0 is the newest point.
+     * @param store the vector to store the result.
+     * @return the point.
+     */
+    private @NotNull Vector3f getPoint(int slot, int age, @NotNull Vector3f store) {
+        int index = (slot * trailPoints + (heads[slot] - age + trailPoints) % trailPoints) * 3;
+        return store.set(points[index], points[index + 1], points[index + 2]);
+    }
+
+    /**
+     * Set a point of a particle's trail.
+     *
+     * @param slot  the index of the particle.
+     * @param age   the age of the point, 0 is the newest point.
+     * @param point the point.
+     */
+    private void setPoint(int slot, int age, @NotNull Vector3f point) {
+        int index = (slot * trailPoints + (heads[slot] - age + trailPoints) % trailPoints) * 3;
+        points[index] = point.x;
+        points[index + 1] = point.y;
+        points[index + 2] = point.z;
+    }
+
+    @Override
+    public float calcParticleRadius(@NotNull ParticleData particleData, float stretch) {
+
+        int slot = particleData.index;
+
+        if (slot >= counts.length) {
+            return particleData.size.x;
+        }
+
+        ParticleEmitterNode emitterNode = getEmitterNode();
+
+        Vector3f position = getAnchor(particleData, emitterNode.isParticlesFollowEmitter(), tempV4);
+        Vector3f point = tempV3;
+
+        float maxDistance = 0F;
+
+        for (int k = 0, count = counts[slot]; k < count; k++) {
+            maxDistance = Math.max(maxDistance, getPoint(slot, k, point).distanceSquared(position));
+        }
+
+        return particleData.size.x + FastMath.sqrt(maxDistance);
+    }
+
+    @Override
+    public void extractTemplateFromMesh(@NotNull Mesh mesh) {
+    }
+
+    @Override
+    public boolean isCompactLayoutSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean isBatchSupported() {
+        return true;
+    }
+
+    /**
+     * Set the count of points of a ribbon. The mesh should be initialized again to apply it.
+     *
+     * @param trailPoints the count of points, at least 2.
+     */
+    public void setTrailPoints(int trailPoints) {
+
+        if (trailPoints < 2) {
+            throw new IllegalArgumentException("the count of points " + trailPoints + " can't be less than 2.");
+        }
+
+        this.trailPoints = trailPoints;
+    }
+
+    /**
+     * Get the count of points of a ribbon.
+     *
+     * @return the count of points.
+     */
+    public int getTrailPoints() {
+        return trailPoints;
+    }
+
+    /**
+     * Set the min length of a ribbon's segment, a particle records a new point when it moved further.
+     *
+     * @param minSegmentLength the min length of a segment.
+     */
+    public void setMinSegmentLength(float minSegmentLength) {
+        this.minSegmentLength = minSegmentLength;
+    }
+
+    /**
+     * Get the min length of a ribbon's segment.
+     *
+     * @return the min length of a segment.
+     */
+    public float getMinSegmentLength() {
+        return minSegmentLength;
+    }
+
+    @Override
+    public void cloneFields(@NotNull Cloner cloner, @NotNull Object original) {
+        super.cloneFields(cloner, original);
+
+        color = cloner.clone(color);
+        tempV1 = cloner.clone(tempV1);
+        tempV2 = cloner.clone(tempV2);
+        tempV3 = cloner.clone(tempV3);
+        tempV4 = cloner.clone(tempV4);
+        points = points.clone();
+        heads = heads.clone();
+        counts = counts.clone();
+        lives = lives.clone();
+    }
+
+    @Override
+    public void read(@NotNull JmeImporter importer) throws IOException {
+        super.read(importer);
+
+        InputCapsule capsule = importer.getCapsule(this);
+        trailPoints = capsule.readInt("trailPoints", DEFAULT_TRAIL_POINTS);
+        minSegmentLength = capsule.readFloat("minSegmentLength", DEFAULT_MIN_SEGMENT_LENGTH);
+    }
+
+    @Override
+    public void write(@NotNull JmeExporter exporter) throws IOException {
+        super.write(exporter);
+
+        OutputCapsule capsule = exporter.getCapsule(this);
+        capsule.write(trailPoints, "trailPoints", DEFAULT_TRAIL_POINTS);
+        capsule.write(minSegmentLength, "minSegmentLength", DEFAULT_MIN_SEGMENT_LENGTH);
+    }
+}
@@ -4,61 +4,173 @@ import com.jme3.export.InputCapsule;
 import com.jme3.export.JmeExporter;
 import com.jme3.export.JmeImporter;
 import com.jme3.export.OutputCapsule;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.FastMath;
 import com.jme3.math.Matrix3f;
 import com.jme3.math.Vector3f;
 import com.jme3.renderer.Camera;
 import com.jme3.scene.Mesh;
 import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.VertexBuffer.Format;
+import com.jme3.scene.VertexBuffer.Type;
 import com.jme3.scene.VertexBuffer.Usage;
 import com.jme3.scene.mesh.IndexBuffer;
 import com.jme3.util.BufferUtils;
 import com.jme3.util.clone.Cloner;
 import org.jetbrains.annotations.NotNull;
-import tonegod.emitter.BillboardMode;
+import org.jetbrains.annotations.Nullable;
 import tonegod.emitter.ParticleEmitterNode;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
-import java.nio.ShortBuffer;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
  * The implementation of particle data mesh to use like some template.
+ * <p>
+ * Every particle is transformed by one 3x3 matrix (rotation by the particle's angles multiplied by the particle's
+ * size), particles which weren't changed since the last update aren't rewritten.
  *
  * @author t0neg0d, JavaSaBr
  */
 public final class ParticleDataTemplateMesh extends RotatedParticleDataMesh {
 
+    /**
+     * The count of floats in the state of a particle: position, size and angles of the particle.
+     */
+    private static final int STATE_SIZE = 9;
+
+    /**
+     * The rotation matrix of a particle.
+     */
     @NotNull
     private Matrix3f mat3;
 
+    /**
+     * The color.
+     */
+    @NotNull
+    private ColorRGBA color;
+
+    /**
+     * The template mesh.
+     */
     private Mesh template;
 
-    private IndexBuffer templateIndexes;
-    private ShortBuffer finIndexes;
+    /**
+     * The positions of the template.
+     */
+    private float[] templatePositions;
+
+    /**
+     * The normals of the template.
+     */
+    private float[] templateNormals;
+
+    /**
+     * The texture coords of the template.
+     */
+    @Nullable
+    private float[] templateCoords;
+
+    /**
+     * True if all texture coords of the template are in the range [0, 1].
+     */
+    private boolean templateCoordsNormalized;
+
+    /**
+     * The indexes of the template.
+     */
+    private int[] templateIndexes;
+
+    /**
+     * The max distance from the origin of the template to its vertices.
+     */
+    private float templateRadius;
+
+    /**
+     * The last written states of particles.
+     */
+    private float[] particleStates;
+
+    /**
+     * The last written colors of particles.
+     */
+    private int[] particleColors;
 
-    private FloatBuffer finVerts;
-    private FloatBuffer finCoords;
-    private FloatBuffer finNormals;
-    private FloatBuffer finColors;
+    /**
+     * The last written visibility of particles.
+     */
+    private boolean[] particleVisible;
 
-    private FloatBuffer templateVerts;
-    private FloatBuffer templateCoords;
-    private FloatBuffer templateNormals;
-    private FloatBuffer templateColors;
+    /**
+     * True if normals were transformed during the last update.
+     */
+    private boolean lightingApplied;
 
     public ParticleDataTemplateMesh() {
         this.mat3 = new Matrix3f();
+        this.color = new ColorRGBA();
     }
 
     @Override
     public void extractTemplateFromMesh(@NotNull Mesh mesh) {
+
+        FloatBuffer positions = Objects.requireNonNull(MeshUtils.getPositionBuffer(mesh));
+        FloatBuffer normals = MeshUtils.getNormalsBuffer(mesh);
+        FloatBuffer coords = MeshUtils.getTexCoordBuffer(mesh);
+        IndexBuffer indexes = Objects.requireNonNull(MeshUtils.getIndexBuffer(mesh));
+
         template = mesh;
-        templateVerts = MeshUtils.getPositionBuffer(mesh);
-        templateCoords = MeshUtils.getTexCoordBuffer(mesh);
-        templateIndexes = MeshUtils.getIndexBuffer(mesh);
-        templateNormals = MeshUtils.getNormalsBuffer(mesh);
-        templateColors = BufferUtils.createFloatBuffer(templateVerts.capacity() / 3 * 4);
+        templatePositions = toArray(positions);
+        templateCoords = coords == null ? null : toArray(coords);
+        templateCoordsNormalized = true;
+
+        if (templateCoords != null) {
+            for (float coord : templateCoords) {
+                if (coord < 0F || coord > 1F) {
+                    templateCoordsNormalized = false;
+                    break;
+                }
+            }
+        }
+
+        if (normals != null) {
+            templateNormals = toArray(normals);
+        } else {
+            templateNormals = new float[templatePositions.length];
+        }
+
+        templateRadius = 0F;
+
+        for (int i = 0; i < templatePositions.length; i += 3) {
+
+            float x = templatePositions[i];
+            float y = templatePositions[i + 1];
+            float z = templatePositions[i + 2];
+
+            templateRadius = Math.max(templateRadius, x * x + y * y + z * z);
+        }
+
+        templateRadius = FastMath.sqrt(templateRadius);
+        templateIndexes = new int[indexes.size()];
+
+        for (int i = 0; i < templateIndexes.length; i++) {
+            templateIndexes[i] = indexes.get(i);
+        }
+    }
+
+    private static @NotNull float[] toArray(@NotNull FloatBuffer buffer) {
+
+        float[] result = new float[buffer.limit()];
+
+        for (int i = 0; i < result.length; i++) {
+            result[i] = buffer.get(i);
+        }
+
+        return result;
     }
 
     /**
@@ -77,88 +189,89 @@ public final class ParticleDataTemplateMesh extends RotatedParticleDataMesh {
         setMode(Mode.Triangles);
         setUniqueTexCoords(false);
 
-        this.finVerts = BufferUtils.createFloatBuffer(templateVerts.capacity() * numParticles);
-        try {
-            this.finCoords = BufferUtils.createFloatBuffer(templateCoords.capacity() * numParticles);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        this.finIndexes = BufferUtils.createShortBuffer(templateIndexes.size() * numParticles);
-        this.finNormals = BufferUtils.createFloatBuffer(templateNormals.capacity() * numParticles);
-        this.finColors = BufferUtils.createFloatBuffer(templateVerts.capacity() / 3 * 4 * numParticles);
+        int templateVertexCount = templatePositions.length / 3;
+        int vertexCount = templateVertexCount * numParticles;
 
-        int index = 0, index2 = 0, index3 = 0, index4 = 0;
-        int indexOffset = 0;
+        preparePositionBuffer(vertexCount);
+        prepareColorBuffer(vertexCount * 4);
 
-        for (int i = 0; i < numParticles; i++) {
-            templateVerts.rewind();
+        FloatBuffer normals = BufferUtils.createVector3Buffer(vertexCount);
+        IndexBuffer indexes = createIndexBuffer(vertexCount, templateIndexes.length * numParticles);
 
-            for (int v = 0; v < templateVerts.capacity(); v += 3) {
-                finVerts.put(index, templateVerts.get(v));
-                index++;
-                finVerts.put(index, templateVerts.get(v + 1));
-                index++;
-                finVerts.put(index, templateVerts.get(v + 2));
-                index++;
-            }
-            try {
+        for (int i = 0, index = 0; i < numParticles; i++) {
 
-                templateCoords.rewind();
+            normals.put(templateNormals);
 
-                for (int v = 0; v < templateCoords.capacity(); v++) {
-                    finCoords.put(index2, templateCoords.get(v));
-                    index2++;
-                }
+            int indexOffset = templateVertexCount * i;
 
-            } catch (final Exception e) {
-                e.printStackTrace();
+            for (int templateIndex : templateIndexes) {
+                indexes.put(index++, templateIndex + indexOffset);
             }
+        }
 
-            for (int v = 0; v < templateIndexes.size(); v++) {
-                finIndexes.put(index3, (short) (templateIndexes.get(v) + indexOffset));
-                index3++;
-            }
+        normals.flip();
 
-            indexOffset += templateVerts.capacity() / 3;
+        setupFloatBuffer(Type.Normal, Usage.Stream, 3, normals);
 
-            templateNormals.rewind();
+        if (templateCoords != null) {
 
-            for (int v = 0; v < templateNormals.capacity(); v++) {
-                finNormals.put(index4, templateNormals.get(v));
-                index4++;
-            }
+            FloatBuffer coords = BufferUtils.createVector2Buffer(vertexCount);
 
-            for (int v = 0; v < finColors.capacity(); v++) {
-                finColors.put(v, 1.0f);
+            for (int i = 0; i < numParticles; i++) {
+                coords.put(templateCoords);
             }
-        }
 
-        // Clear & sign buffers
-        clearBuffer(VertexBuffer.Type.Position);
-        setBuffer(VertexBuffer.Type.Position, 3, finVerts);
-        clearBuffer(VertexBuffer.Type.TexCoord);
+            coords.flip();
+
+            setupFloatBuffer(Type.TexCoord, Usage.Static, 2, coords);
 
-        try {
-            setBuffer(VertexBuffer.Type.TexCoord, 2, finCoords);
-        } catch (Exception e) {
-            e.printStackTrace();
+        } else if (getBuffer(Type.TexCoord) != null) {
+            clearBuffer(Type.TexCoord);
         }
 
-        clearBuffer(VertexBuffer.Type.Index);
-        setBuffer(VertexBuffer.Type.Index, 3, finIndexes);
-        clearBuffer(VertexBuffer.Type.Normal);
-        setBuffer(VertexBuffer.Type.Normal, 3, finNormals);
-        clearBuffer(VertexBuffer.Type.Color);
-        setBuffer(VertexBuffer.Type.Color, 4, finColors);
+        applyIndexBuffer(indexes);
+
+        particleStates = new float[numParticles * STATE_SIZE];
+        particleColors = new int[numParticles];
+        particleVisible = new boolean[numParticles];
+
+        // the first update should write all particles
+        Arrays.fill(particleStates, Float.NaN);
+        Arrays.fill(particleVisible, true);
+
+        updateCounts();
         updateBound();
     }
 
     @Override
-    public void setImagesXY(int imagesX, int imagesY) {
-        super.setImagesXY(imagesX, imagesY);
-        if (imagesX != 1 || imagesY != 1) {
-            VertexBuffer buffer = getBuffer(VertexBuffer.Type.TexCoord);
+    protected @Nullable Format getCompactFormat(@NotNull Type type) {
+
+        // tiled texture coords can't be packed to normalized values
+        if (type == Type.TexCoord && !templateCoordsNormalized) {
+            return null;
+        }
+
+        return super.getCompactFormat(type);
+    }
+
+    @Override
+    public boolean isCompactLayoutSupported() {
+        return true;
+    }
+
+    @Override
+    public float calcParticleRadius(@NotNull ParticleData particleData, float stretch) {
+        Vector3f size = particleData.size;
+        return templateRadius * Math.max(Math.abs(size.x), Math.max(Math.abs(size.y), Math.abs(size.z)));
+    }
+
+    @Override
+    protected void updateSpriteFrames() {
+        super.updateSpriteFrames();
+
+        VertexBuffer buffer = getBuffer(Type.TexCoord);
+
+        if (buffer != null && !getFrameTable().isWholeTexture()) {
             buffer.setUsage(Usage.Stream);
         }
     }
@@ -170,82 +283,174 @@ public final class ParticleDataTemplateMesh extends RotatedParticleDataMesh {
             @NotNull Matrix3f inverseRotation
     ) {
 
+        beginUpdate();
+
         ParticleEmitterNode emitterNode = getEmitterNode();
-        BillboardMode billboardMode = emitterNode.getBillboardMode();
         Vector3f worldTranslation = emitterNode.getWorldTranslation();
 
-        for (int i = 0; i < particles.length; i++) {
+        boolean followEmitter = emitterNode.isParticlesFollowEmitter();
+        boolean applyLighting = emitterNode.isApplyLightingTransform();
 
-            ParticleData particleData = particles[i];
+        VertexBuffer pvb = getBuffer(Type.Position);
+        FloatBuffer positions = getFloatData(pvb);
 
-            int offset = templateVerts.capacity() * i;
-            int colorOffset = templateColors.capacity() * i;
+        VertexBuffer nvb = getBuffer(Type.Normal);
+        FloatBuffer normals = getFloatData(nvb);
 
-            if (particleData.life == 0 || !particleData.isActive()) {
-                for (int x = 0; x < templateVerts.capacity(); x += 3) {
-                    finVerts.put(offset + x, 0);
-                    finVerts.put(offset + x + 1, 0);
-                    finVerts.put(offset + x + 2, 0);
-                }
-            } else {
-                for (int x = 0; x < templateVerts.capacity(); x += 3) {
+        VertexBuffer cvb = getBuffer(Type.Color);
+        ByteBuffer colors = (ByteBuffer) cvb.getData();
+
+        float[] templatePositions = this.templatePositions;
+        float[] templateNormals = this.templateNormals;
+        float[] particleStates = this.particleStates;
+
+        int templateFloats = templatePositions.length;
+        int templateVertexCount = templateFloats / 3;
+
+        if (lightingApplied != applyLighting) {
+            lightingApplied = applyLighting;
+            Arrays.fill(particleStates, Float.NaN);
+        }
+
+        boolean positionsChanged = false;
+        boolean colorsChanged = false;
+
+        for (int i = 0; i < particles.length; i++) {
 
-                    updateRotation(particleData, billboardMode, camera);
+            ParticleData particleData = particles[i];
+
+            int offset = templateFloats * i;
+            int colorOffset = templateVertexCount * 4 * i;
 
-                    tempV1.set(templateVerts.get(x), templateVerts.get(x + 1), templateVerts.get(x + 2));
-                    tempV1.set(rotStore.mult(tempV1, tempV2));
-                    tempV1.multLocal(particleData.size);
+            boolean visible = particleData.life != 0 && particleData.isActive();
 
-                    rotStore.fromAngles(particleData.angles.x, particleData.angles.y, particleData.angles.z);
-                    tempV1.set(rotStore.mult(tempV1, tempV2));
+            if (!visible) {
 
-                    tempV1.addLocal(particleData.position);
+                if (particleVisible[i]) {
 
-                    if (!emitterNode.isParticlesFollowEmitter()) {
-                        tempV1.subtractLocal(worldTranslation.subtract(particleData.initialPosition, tempV2));//.divide(8f));
+                    for (int x = 0; x < templateFloats; x++) {
+                        positions.put(offset + x, 0);
                     }
 
-                    finVerts.put(offset + x, tempV1.getX());
-                    finVerts.put(offset + x + 1, tempV1.getY());
-                    finVerts.put(offset + x + 2, tempV1.getZ());
+                    particleVisible[i] = false;
+                    particleStates[i * STATE_SIZE] = Float.NaN;
+                    positionsChanged = true;
                 }
+
+                continue;
             }
 
-            if (emitterNode.isApplyLightingTransform()) {
-                for (int v = 0; v < templateNormals.capacity(); v += 3) {
+            if (updateState(particleData, i, followEmitter, worldTranslation)) {
+
+                Vector3f position = tempV1;
+                Vector3f size = particleData.size;
+                Vector3f angles = particleData.angles;
+
+                rotStore.fromAngles(angles.x, angles.y, angles.z)
+                        .toRotationMatrix(mat3);
+
+                float m00 = mat3.get(0, 0), m01 = mat3.get(0, 1), m02 = mat3.get(0, 2);
+                float m10 = mat3.get(1, 0), m11 = mat3.get(1, 1), m12 = mat3.get(1, 2);
+                float m20 = mat3.get(2, 0), m21 = mat3.get(2, 1), m22 = mat3.get(2, 2);
+
+                for (int x = 0; x < templateFloats; x += 3) {
+
+                    float vx = templatePositions[x] * size.x;
+                    float vy = templatePositions[x + 1] * size.y;
+                    float vz = templatePositions[x + 2] * size.z;
 
-                    tempV1.set(templateNormals.get(v), templateNormals.get(v + 1), templateNormals.get(v + 2));
-                    rotStore.fromAngles(particleData.angles.x, particleData.angles.y, particleData.angles.z);
-                    rotStore.toRotationMatrix(mat3);
+                    positions.put(offset + x, m00 * vx + m01 * vy + m02 * vz + position.x);
+                    positions.put(offset + x + 1, m10 * vx + m11 * vy + m12 * vz + position.y);
+                    positions.put(offset + x + 2, m20 * vx + m21 * vy + m22 * vz + position.z);
+                }
 
-                    float vx = tempV1.x, vy = tempV1.y, vz = tempV1.z;
+                if (applyLighting) {
+                    for (int x = 0; x < templateFloats; x += 3) {
 
-                    tempV1.x = mat3.get(0, 0) * vx + mat3.get(0, 1) * vy + mat3.get(0, 2) * vz;
-                    tempV1.y = mat3.get(1, 0) * vx + mat3.get(1, 1) * vy + mat3.get(1, 2) * vz;
-                    tempV1.z = mat3.get(2, 0) * vx + mat3.get(2, 1) * vy + mat3.get(2, 2) * vz;
+                        float nx = templateNormals[x];
+                        float ny = templateNormals[x + 1];
+                        float nz = templateNormals[x + 2];
 
-                    finNormals.put(offset + v, tempV1.getX());
-                    finNormals.put(offset + v + 1, tempV1.getY());
-                    finNormals.put(offset + v + 2, tempV1.getZ());
+                        normals.put(offset + x, m00 * nx + m01 * ny + m02 * nz);
+                        normals.put(offset + x + 1, m10 * nx + m11 * ny + m12 * nz);
+                        normals.put(offset + x + 2, m20 * nx + m21 * ny + m22 * nz);
+                    }
                 }
+
+                particleVisible[i] = true;
+                positionsChanged = true;
             }
 
-            for (int v = 0; v < templateColors.capacity(); v += 4) {
-                finColors.put(colorOffset + v, particleData.color.r)
-                        .put(colorOffset + v + 1, particleData.color.g)
-                        .put(colorOffset + v + 2, particleData.color.b)
-                        .put(colorOffset + v + 3, particleData.color.a * particleData.alpha);
+            color.set(particleData.color);
+            color.a *= particleData.alpha;
+
+            int abgr = color.asIntABGR();
+
+            if (particleColors[i] != abgr) {
+
+                for (int v = 0; v < templateVertexCount; v++) {
+                    colors.putInt(colorOffset + v * 4, abgr);
+                }
+
+                particleColors[i] = abgr;
+                colorsChanged = true;
             }
         }
 
-        setBuffer(VertexBuffer.Type.Position, 3, finVerts);
+        upload(pvb, pack(pvb, positionsChanged));
+        upload(cvb, colorsChanged);
 
-        if (emitterNode.isApplyLightingTransform()) {
-            setBuffer(VertexBuffer.Type.Normal, 3, finNormals);
+        if (applyLighting) {
+            upload(nvb, pack(nvb, positionsChanged));
         }
+    }
 
-        setBuffer(VertexBuffer.Type.Color, 4, finColors);
-        updateBound();
+    /**
+     * Update the last written state of a particle and store the render position of the particle to tempV1.
+     *
+     * @param particleData     the particle data.
+     * @param index            the index of the particle.
+     * @param followEmitter    true if particles follow the emitter.
+     * @param worldTranslation the world translation of the emitter.
+     * @return true if the state was changed.
+     */
+    private boolean updateState(
+            @NotNull ParticleData particleData,
+            int index,
+            boolean followEmitter,
+            @NotNull Vector3f worldTranslation
+    ) {
+
+        tempV1.set(particleData.position);
+
+        if (!followEmitter) {
+            tempV1.subtractLocal(worldTranslation.subtract(particleData.initialPosition, tempV2));
+        }
+
+        Vector3f position = tempV1;
+        Vector3f size = particleData.size;
+        Vector3f angles = particleData.angles;
+
+        float[] states = particleStates;
+        int offset = index * STATE_SIZE;
+
+        if (states[offset] == position.x && states[offset + 1] == position.y && states[offset + 2] == position.z &&
+                states[offset + 3] == size.x && states[offset + 4] == size.y && states[offset + 5] == size.z &&
+                states[offset + 6] == angles.x && states[offset + 7] == angles.y && states[offset + 8] == angles.z) {
+            return false;
+        }
+
+        states[offset] = position.x;
+        states[offset + 1] = position.y;
+        states[offset + 2] = position.z;
+        states[offset + 3] = size.x;
+        states[offset + 4] = size.y;
+        states[offset + 5] = size.z;
+        states[offset + 6] = angles.x;
+        states[offset + 7] = angles.y;
+        states[offset + 8] = angles.z;
+
+        return true;
     }
 
     @Override
@@ -253,9 +458,16 @@ public final class ParticleDataTemplateMesh extends RotatedParticleDataMesh {
         super.cloneFields(cloner, original);
 
         mat3 = cloner.clone(mat3);
+        color = cloner.clone(color);
         template = cloner.clone(template);
 
         extractTemplateFromMesh(template);
+
+        if (particleStates != null) {
+            particleStates = particleStates.clone();
+            particleColors = particleColors.clone();
+            particleVisible = particleVisible.clone();
+        }
     }
 
     @Override
@@ -273,4 +485,4 @@ public final class ParticleDataTemplateMesh extends RotatedParticleDataMesh {
         OutputCapsule capsule = exporter.getCapsule(this);
         capsule.write(template, "template", null);
     }
-}
\ No newline at end of file
+}
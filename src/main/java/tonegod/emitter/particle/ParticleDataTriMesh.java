@@ -5,8 +5,8 @@ import com.jme3.math.Matrix3f;
 import com.jme3.math.Vector3f;
 import com.jme3.renderer.Camera;
 import com.jme3.scene.VertexBuffer;
-import com.jme3.scene.VertexBuffer.Format;
 import com.jme3.scene.VertexBuffer.Usage;
+import com.jme3.scene.mesh.IndexBuffer;
 import com.jme3.util.BufferUtils;
 import com.jme3.util.clone.Cloner;
 import org.jetbrains.annotations.NotNull;
@@ -15,7 +15,6 @@ import tonegod.emitter.ParticleEmitterNode;
 
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
-import java.nio.ShortBuffer;
 
 /**
  * The type Particle data tri mesh.
@@ -55,55 +54,23 @@ public final class ParticleDataTriMesh extends RotatedParticleDataMesh {
 
         tb.flip();
 
-        VertexBuffer buf = getBuffer(VertexBuffer.Type.TexCoord);
-
-        if (buf != null) {
-            buf.updateData(tb);
-        } else {
-            final VertexBuffer tvb = new VertexBuffer(VertexBuffer.Type.TexCoord);
-            tvb.setupData(Usage.Static, 2, Format.Float, tb);
-            setBuffer(tvb);
-        }
+        setupFloatBuffer(VertexBuffer.Type.TexCoord, Usage.Static, 2, tb);
 
         // set indices
-        ShortBuffer ib = BufferUtils.createShortBuffer(numParticles * 6);
-
-        for (int i = 0; i < numParticles; i++) {
-
-            final int startIdx = (i * 4);
-
-            // triangle 1
-            ib.put((short) (startIdx + 1))
-                    .put((short) (startIdx + 0))
-                    .put((short) (startIdx + 2));
-
-            // triangle 2
-            ib.put((short) (startIdx + 1))
-                    .put((short) (startIdx + 2))
-                    .put((short) (startIdx + 3));
-        }
-
-        ib.flip();
-
-        buf = getBuffer(VertexBuffer.Type.Index);
-
-        if (buf != null) {
-            buf.updateData(ib);
-        } else {
-            VertexBuffer ivb = new VertexBuffer(VertexBuffer.Type.Index);
-            ivb.setupData(Usage.Static, 3, Format.UnsignedShort, ib);
-            setBuffer(ivb);
-        }
+        IndexBuffer ib = createIndexBuffer(numParticles * 4, numParticles * 6);
+        fillQuadIndexes(ib, numParticles);
+        applyIndexBuffer(ib);
 
         updateCounts();
     }
 
     @Override
-    public void setImagesXY(int imagesX, int imagesY) {
-        super.setImagesXY(imagesX, imagesY);
+    protected void updateSpriteFrames() {
+        super.updateSpriteFrames();
 
-        if (imagesX != 1 || imagesY != 1) {
-            VertexBuffer buffer = getBuffer(VertexBuffer.Type.TexCoord);
+        VertexBuffer buffer = getBuffer(VertexBuffer.Type.TexCoord);
+
+        if (buffer != null && !getFrameTable().isWholeTexture()) {
             buffer.setUsage(Usage.Stream);
         }
     }
@@ -115,129 +82,125 @@ public final class ParticleDataTriMesh extends RotatedParticleDataMesh {
             @NotNull Matrix3f inverseRotation
     ) {
 
+        beginUpdate();
+
         ParticleEmitterNode emitterNode = getEmitterNode();
         Vector3f worldTranslation = emitterNode.getWorldTranslation();
         BillboardMode billboardMode = emitterNode.getBillboardMode();
 
         VertexBuffer pvb = getBuffer(VertexBuffer.Type.Position);
-        FloatBuffer positions = (FloatBuffer) pvb.getData();
+        FloatBuffer positions = getFloatData(pvb);
 
         VertexBuffer cvb = getBuffer(VertexBuffer.Type.Color);
         ByteBuffer colors = (ByteBuffer) cvb.getData();
 
         VertexBuffer tvb = getBuffer(VertexBuffer.Type.TexCoord);
-        FloatBuffer texcoords = (FloatBuffer) tvb.getData();
+        FloatBuffer texcoords = getFloatData(tvb);
+
+        boolean uniqueTexCoords = isUniqueTexCoords();
+
+        SpriteFrameTable frameTable = getFrameTable();
+        float[] frameRects = frameTable.getRects();
+
+        boolean positionsChanged = false;
+        boolean colorsChanged = false;
+        boolean texcoordsChanged = false;
+
+        // alive particles are packed to the start of the buffers
+        int count = 0;
 
-        // update data in vertex buffers
         positions.clear();
         colors.clear();
         texcoords.clear();
 
         for (final ParticleData particleData : particles) {
-            if (particleData.life == 0 || !particleData.isActive()) {
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-                positions.put(0).put(0).put(0);
-            } else {
-
-                updateRotation(particleData, billboardMode, camera);
 
-                particleData.upVec.set(up);
-
-                if (emitterNode.isVelocityStretching()) {
-                    Vector3f velocity = particleData.getVelocity();
-                    up.multLocal(velocity.length() * emitterNode.getVelocityStretchFactor());
-                }
+            if (particleData.life == 0 || !particleData.isActive()) {
+                continue;
+            }
 
-                Vector3f size = particleData.getSize();
-                Vector3f angles = particleData.getAngles();
+            int vertex = count * 4;
 
-                up.multLocal(size.y);
-                left.multLocal(size.x);
+            updateRotation(particleData, billboardMode, camera);
 
-                rotStore.fromAngleNormalAxis(angles.y, tempV3.set(left).normalizeLocal());
+            particleData.upVec.set(up);
 
-                left.set(rotStore.mult(left, tempV2));
-                up.set(rotStore.mult(up, tempV2));
+            if (emitterNode.isVelocityStretching()) {
+                Vector3f velocity = particleData.getVelocity();
+                up.multLocal(velocity.length() * emitterNode.getVelocityStretchFactor());
+            }
 
-                rotStore.fromAngleNormalAxis(angles.x, tempV3.set(up).normalizeLocal());
+            Vector3f size = particleData.getSize();
+            Vector3f angles = particleData.getAngles();
 
-                left.set(rotStore.mult(left, tempV2));
-                up.set(rotStore.mult(up, tempV2));
+            up.multLocal(size.y);
+            left.multLocal(size.x);
 
-                rotStore.fromAngleNormalAxis(angles.z, tempV3.set(dir).normalizeLocal());
+            rotStore.fromAngleNormalAxis(angles.y, tempV3.set(left).normalizeLocal());
 
-                left.set(rotStore.mult(left, tempV2));
-                up.set(rotStore.mult(up, tempV2));
+            left.set(rotStore.mult(left, tempV2));
+            up.set(rotStore.mult(up, tempV2));
 
-                if (emitterNode.isParticlesFollowEmitter()) {
-                    tempV1.set(particleData.position);
-                } else {
+            rotStore.fromAngleNormalAxis(angles.x, tempV3.set(up).normalizeLocal());
 
-                    Vector3f subtract = worldTranslation
-                            .subtract(particleData.initialPosition, tempV2);
+            left.set(rotStore.mult(left, tempV2));
+            up.set(rotStore.mult(up, tempV2));
 
-                    tempV1.set(particleData.position)
-                            .subtractLocal(subtract);
-                }
+            rotStore.fromAngleNormalAxis(angles.z, tempV3.set(dir).normalizeLocal());
 
-                positions.put(tempV1.x + left.x + up.x)
-                        .put(tempV1.y + left.y + up.y)
-                        .put(tempV1.z + left.z + up.z);
+            left.set(rotStore.mult(left, tempV2));
+            up.set(rotStore.mult(up, tempV2));
 
-                positions.put(tempV1.x - left.x + up.x)
-                        .put(tempV1.y - left.y + up.y)
-                        .put(tempV1.z - left.z + up.z);
+            if (emitterNode.isParticlesFollowEmitter()) {
+                tempV1.set(particleData.position);
+            } else {
 
-                positions.put(tempV1.x + left.x - up.x)
-                        .put(tempV1.y + left.y - up.y)
-                        .put(tempV1.z + left.z - up.z);
+                Vector3f subtract = worldTranslation
+                        .subtract(particleData.initialPosition, tempV2);
 
-                positions.put(tempV1.x - left.x - up.x)
-                        .put(tempV1.y - left.y - up.y)
-                        .put(tempV1.z - left.z - up.z);
+                tempV1.set(particleData.position)
+                        .subtractLocal(subtract);
             }
 
-            if (isUniqueTexCoords()) {
-
-                float startX = 1f / emitterNode.getSpriteColCount() * particleData.spriteCol;
-                float startY = 1f / emitterNode.getSpriteRowCount() * particleData.spriteRow;
+            positionsChanged |= putQuad(positions, vertex, tempV1, left, up);
 
-                float endX = startX + 1f / emitterNode.getSpriteColCount();
-                float endY = startY + 1f / emitterNode.getSpriteRowCount();
+            if (uniqueTexCoords) {
 
-                texcoords.put(startX).put(endY);
-                texcoords.put(endX).put(endY);
-                texcoords.put(startX).put(startY);
-                texcoords.put(endX).put(startY);
+                int offset = frameTable.getOffset(particleData.spriteFrame);
+                texcoordsChanged |= putQuadTexCoords(texcoords, vertex, frameRects, offset);
             }
 
             color.set(particleData.color);
             color.a *= particleData.alpha;
 
-            int abgr = color.asIntABGR();
-            colors.putInt(abgr);
-            colors.putInt(abgr);
-            colors.putInt(abgr);
-            colors.putInt(abgr);
+            colorsChanged |= putColor(colors, vertex, 4, color.asIntABGR());
+            count++;
         }
 
-        positions.clear();
-        colors.clear();
+        // keep at least one degenerated particle to have a valid draw range
+        if (count == 0) {
+            positionsChanged |= putQuad(positions, 0, Vector3f.ZERO, Vector3f.ZERO, Vector3f.ZERO);
+            count = 1;
+        }
+
+        setDrawRange(count, 4, 6);
+
+        upload(pvb, pack(pvb, positionsChanged));
+        upload(cvb, colorsChanged);
 
-        if (!isUniqueTexCoords()) {
-            texcoords.clear();
-        } else {
-            texcoords.clear();
-            tvb.updateData(texcoords);
+        if (uniqueTexCoords) {
+            upload(tvb, pack(tvb, texcoordsChanged));
         }
+    }
 
-        // force renderer to re-send data to GPU
-        pvb.updateData(positions);
-        cvb.updateData(colors);
+    @Override
+    public boolean isCompactLayoutSupported() {
+        return true;
+    }
 
-        updateBound();
+    @Override
+    public boolean isBatchSupported() {
+        return true;
     }
 
     @Override
@@ -0,0 +1,279 @@
+package tonegod.emitter.particle;
+
+import static tonegod.emitter.particle.SpriteOutlineBuilder.MAX_VERTICES;
+import static tonegod.emitter.particle.SpriteOutlineBuilder.OUTLINE_SIZE;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.Matrix3f;
+import com.jme3.math.Vector3f;
+import com.jme3.renderer.Camera;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.VertexBuffer.Usage;
+import com.jme3.scene.mesh.IndexBuffer;
+import com.jme3.util.BufferUtils;
+import com.jme3.util.clone.Cloner;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import tonegod.emitter.BillboardMode;
+import tonegod.emitter.ParticleEmitterNode;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * The particle data mesh which draws each particle as a convex outline of its sprite frame instead of a quad, so
+ * transparent corners of sprites aren't blended. Outlines are built by {@link SpriteOutlineBuilder}, without
+ * outlines particles are drawn as quads.
+ *
+ * @author JavaSaBr
+ */
+public final class ParticleDataTrimmedMesh extends RotatedParticleDataMesh {
+
+    /**
+     * The count of indexes of a particle, the outline is drawn as a triangle fan.
+     */
+    private static final int INDEXES_PER_PARTICLE = (MAX_VERTICES - 2) * 3;
+
+    /**
+     * The outline of a quad.
+     */
+    @NotNull
+    private static final float[] QUAD_OUTLINE = {
+            0F, 0F, 1F, 0F, 1F, 1F, 0F, 1F, 0F, 1F, 0F, 1F, 0F, 1F, 0F, 1F
+    };
+
+    /**
+     * The outlines of sprite frames.
+     */
+    @NotNull
+    private float[] outlines;
+
+    /**
+     * The color.
+     */
+    @NotNull
+    private ColorRGBA color;
+
+    public ParticleDataTrimmedMesh() {
+        this.outlines = QUAD_OUTLINE;
+        this.color = new ColorRGBA();
+    }
+
+    /**
+     * Sets the outlines of sprite frames, the outline of a frame is selected by the frame index wrapped by the
+     * count of outlines.
+     *
+     * @param outlines the outlines: {@link SpriteOutlineBuilder#OUTLINE_SIZE} values per a frame or null to draw
+     *                 particles as quads.
+     */
+    public void setOutlines(@Nullable float[] outlines) {
+
+        if (outlines != null && (outlines.length < OUTLINE_SIZE || outlines.length % OUTLINE_SIZE != 0)) {
+            throw new IllegalArgumentException("the length " + outlines.length + " isn't a positive multiple of " +
+                    OUTLINE_SIZE + ".");
+        }
+
+        this.outlines = outlines == null ? QUAD_OUTLINE : outlines.clone();
+    }
+
+    /**
+     * Gets the outlines of sprite frames.
+     *
+     * @return the outlines of sprite frames.
+     */
+    public @NotNull float[] getOutlines() {
+        return outlines.clone();
+    }
+
+    @Override
+    public void initialize(@NotNull ParticleEmitterNode emitterNode, int numParticles) {
+        super.initialize(emitterNode, numParticles);
+
+        int vertexCount = numParticles * MAX_VERTICES;
+
+        // texture coords depend on outlines of frames
+        setUniqueTexCoords(true);
+        setMode(Mode.Triangles);
+        preparePositionBuffer(vertexCount);
+        prepareColorBuffer(vertexCount * 4);
+
+        setupFloatBuffer(VertexBuffer.Type.TexCoord, Usage.Stream, 2, BufferUtils.createVector2Buffer(vertexCount));
+
+        IndexBuffer ib = createIndexBuffer(vertexCount, numParticles * INDEXES_PER_PARTICLE);
+
+        for (int i = 0, index = 0; i < numParticles; i++) {
+
+            int startIdx = i * MAX_VERTICES;
+
+            for (int k = 1; k < MAX_VERTICES - 1; k++) {
+                ib.put(index++, startIdx);
+                ib.put(index++, startIdx + k);
+                ib.put(index++, startIdx + k + 1);
+            }
+        }
+
+        applyIndexBuffer(ib);
+        updateCounts();
+    }
+
+    @Override
+    protected void updateSpriteFrames() {
+        super.updateSpriteFrames();
+        setUniqueTexCoords(true);
+    }
+
+    @Override
+    public void updateParticleData(
+            @NotNull ParticleData[] particles,
+            @NotNull Camera camera,
+            @NotNull Matrix3f inverseRotation
+    ) {
+
+        beginUpdate();
+
+        ParticleEmitterNode emitterNode = getEmitterNode();
+        Vector3f worldTranslation = emitterNode.getWorldTranslation();
+        BillboardMode billboardMode = emitterNode.getBillboardMode();
+
+        VertexBuffer pvb = getBuffer(VertexBuffer.Type.Position);
+        FloatBuffer positions = getFloatData(pvb);
+
+        VertexBuffer cvb = getBuffer(VertexBuffer.Type.Color);
+        ByteBuffer colors = (ByteBuffer) cvb.getData();
+
+        VertexBuffer tvb = getBuffer(VertexBuffer.Type.TexCoord);
+        FloatBuffer texcoords = getFloatData(tvb);
+
+        SpriteFrameTable frameTable = getFrameTable();
+        float[] frameRects = frameTable.getRects();
+        float[] outlines = this.outlines;
+
+        int outlineCount = outlines.length / OUTLINE_SIZE;
+
+        boolean positionsChanged = false;
+        boolean colorsChanged = false;
+        boolean texcoordsChanged = false;
+
+        // alive particles are packed to the start of the buffers
+        int count = 0;
+
+        positions.clear();
+        colors.clear();
+        texcoords.clear();
+
+        for (final ParticleData particleData : particles) {
+
+            if (particleData.life == 0 || !particleData.isActive()) {
+                continue;
+            }
+
+            int vertex = count * MAX_VERTICES;
+
+            updateRotation(particleData, billboardMode, camera);
+
+            particleData.upVec.set(up);
+
+            if (emitterNode.isVelocityStretching()) {
+                Vector3f velocity = particleData.getVelocity();
+                up.multLocal(velocity.length() * emitterNode.getVelocityStretchFactor());
+            }
+
+            Vector3f size = particleData.getSize();
+            Vector3f angles = particleData.getAngles();
+
+            up.multLocal(size.y);
+            left.multLocal(size.x);
+
+            rotStore.fromAngleNormalAxis(angles.y, tempV3.set(left).normalizeLocal());
+
+            left.set(rotStore.mult(left, tempV2));
+            up.set(rotStore.mult(up, tempV2));
+
+            rotStore.fromAngleNormalAxis(angles.x, tempV3.set(up).normalizeLocal());
+
+            left.set(rotStore.mult(left, tempV2));
+            up.set(rotStore.mult(up, tempV2));
+
+            rotStore.fromAngleNormalAxis(angles.z, tempV3.set(dir).normalizeLocal());
+
+            left.set(rotStore.mult(left, tempV2));
+            up.set(rotStore.mult(up, tempV2));
+
+            if (emitterNode.isParticlesFollowEmitter()) {
+                tempV1.set(particleData.position);
+            } else {
+
+                Vector3f subtract = worldTranslation
+                        .subtract(particleData.initialPosition, tempV2);
+
+                tempV1.set(particleData.position)
+                        .subtractLocal(subtract);
+            }
+
+            int rectOffset = frameTable.getOffset(particleData.spriteFrame);
+            int outlineOffset = (rectOffset / SpriteFrameTable.FRAME_SIZE % outlineCount) * OUTLINE_SIZE;
+
+            float startX = frameRects[rectOffset];
+            float startY = frameRects[rectOffset + 1];
+            float width = frameRects[rectOffset + 2] - startX;
+            float height = frameRects[rectOffset + 3] - startY;
+
+            for (int i = 0; i < MAX_VERTICES; i++) {
+
+                float s = outlines[outlineOffset + i * 2];
+                float t = outlines[outlineOffset + i * 2 + 1];
+
+                // s = 0 is the +left side and t = 1 is the +up side as in quads
+                float leftFactor = 1F - s * 2F;
+                float upFactor = t * 2F - 1F;
+
+                int index = (vertex + i) * 3;
+
+                positionsChanged |= putIfChanged(positions, index,
+                        tempV1.x + left.x * leftFactor + up.x * upFactor);
+                positionsChanged |= putIfChanged(positions, index + 1,
+                        tempV1.y + left.y * leftFactor + up.y * upFactor);
+                positionsChanged |= putIfChanged(positions, index + 2,
+                        tempV1.z + left.z * leftFactor + up.z * upFactor);
+
+                index = (vertex + i) * 2;
+
+                texcoordsChanged |= putIfChanged(texcoords, index, startX + s * width);
+                texcoordsChanged |= putIfChanged(texcoords, index + 1, startY + t * height);
+            }
+
+            color.set(particleData.color);
+            color.a *= particleData.alpha;
+
+            colorsChanged |= putColor(colors, vertex, MAX_VERTICES, color.asIntABGR());
+            count++;
+        }
+
+        // keep at least one degenerated particle to have a valid draw range
+        if (count == 0) {
+            positionsChanged |= putVector(positions, 0, MAX_VERTICES, Vector3f.ZERO);
+            count = 1;
+        }
+
+        setDrawRange(count, MAX_VERTICES, INDEXES_PER_PARTICLE);
+
+        upload(pvb, pack(pvb, positionsChanged));
+        upload(cvb, colorsChanged);
+        upload(tvb, pack(tvb, texcoordsChanged));
+    }
+
+    @Override
+    public boolean isCompactLayoutSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean isBatchSupported() {
+        return true;
+    }
+
+    @Override
+    public void cloneFields(@NotNull Cloner cloner, @NotNull Object original) {
+        super.cloneFields(cloner, original);
+        color = cloner.clone(color);
+    }
+}
@@ -0,0 +1,337 @@
+package tonegod.emitter.particle;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The sorter to order particles back-to-front by the view depth. The order of the previous frame is reused, so
+ * a nearly sorted array is finished by an insertion sort, otherwise the sorter falls back to a radix sort of
+ * quantized depth keys.
+ *
+ * @author JavaSaBr
+ */
+public final class ParticleDepthSorter {
+
+    /**
+     * The max value of a quantized depth key.
+     */
+    private static final int MAX_KEY = 0xFFFF;
+
+    /**
+     * The count of allowed insertion sort moves per a particle before falling back to the radix sort.
+     */
+    private static final int INSERTION_MOVES_PER_PARTICLE = 4;
+
+    /**
+     * The empty particles array.
+     */
+    @NotNull
+    private static final ParticleData[] EMPTY_PARTICLES = new ParticleData[0];
+
+    /**
+     * The order of particles from the previous frame.
+     */
+    @NotNull
+    private int[] order;
+
+    /**
+     * The temp buffer of particle indexes.
+     */
+    @NotNull
+    private int[] tempOrder;
+
+    /**
+     * The depth keys of alive particles.
+     */
+    @NotNull
+    private int[] keys;
+
+    /**
+     * The temp buffer of depth keys.
+     */
+    @NotNull
+    private int[] tempKeys;
+
+    /**
+     * The depths of alive particles.
+     */
+    @NotNull
+    private float[] depths;
+
+    /**
+     * The count buffer of the radix sort.
+     */
+    @NotNull
+    private final int[] counts;
+
+    /**
+     * The sorted particles.
+     */
+    @NotNull
+    private ParticleData[] sorted;
+
+    /**
+     * The view direction in the particles space.
+     */
+    @NotNull
+    private final Vector3f direction;
+
+    /**
+     * The temp vector.
+     */
+    @NotNull
+    private final Vector3f tempVector;
+
+    /**
+     * The time of the last sorting in nanoseconds.
+     */
+    private long sortTime;
+
+    /**
+     * True if the last sorting was finished by the insertion sort.
+     */
+    private boolean incremental;
+
+    public ParticleDepthSorter() {
+        this.order = new int[0];
+        this.tempOrder = new int[0];
+        this.keys = new int[0];
+        this.tempKeys = new int[0];
+        this.depths = new float[0];
+        this.counts = new int[256];
+        this.sorted = EMPTY_PARTICLES;
+        this.direction = new Vector3f();
+        this.tempVector = new Vector3f();
+    }
+
+    /**
+     * Sorts alive particles back-to-front, dead particles are placed after alive particles.
+     *
+     * @param particles           the particles.
+     * @param viewDirection       the view direction in world space.
+     * @param rotation            the world rotation of particles geometry.
+     * @param scale               the world scale of particles geometry.
+     * @param useInitialPositions true if initial positions of particles are added to their render positions.
+     * @return the sorted particles, the array is reused by the next sorting.
+     */
+    public @NotNull ParticleData[] sort(
+            @NotNull ParticleData[] particles,
+            @NotNull Vector3f viewDirection,
+            @NotNull Quaternion rotation,
+            @NotNull Vector3f scale,
+            boolean useInitialPositions
+    ) {
+
+        long startTime = System.nanoTime();
+
+        prepare(particles.length);
+        toLocalDirection(viewDirection, rotation, scale);
+
+        int[] order = this.order;
+        int[] tempOrder = this.tempOrder;
+        float[] depths = this.depths;
+
+        float minDepth = Float.POSITIVE_INFINITY;
+        float maxDepth = Float.NEGATIVE_INFINITY;
+
+        int alive = 0;
+        int dead = particles.length;
+
+        // alive particles keep the order of the previous frame, dead particles are moved to the end
+        for (int i = 0; i < particles.length; i++) {
+
+            int index = order[i];
+            ParticleData particleData = particles[index];
+
+            if (particleData.life == 0 || !particleData.isActive()) {
+                tempOrder[--dead] = index;
+                continue;
+            }
+
+            float depth = direction.dot(particleData.position);
+
+            if (useInitialPositions) {
+                depth += direction.dot(particleData.initialPosition);
+            }
+
+            depths[alive] = depth;
+            order[alive++] = index;
+
+            minDepth = Math.min(minDepth, depth);
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        // keep the order of dead particles
+        for (int i = alive, j = particles.length - 1; i < particles.length; i++, j--) {
+            order[i] = tempOrder[j];
+        }
+
+        float range = maxDepth - minDepth;
+        float factor = range > 0 ? MAX_KEY / range : 0;
+
+        // the farthest particle gets the smallest key
+        for (int i = 0; i < alive; i++) {
+            keys[i] = (int) ((maxDepth - depths[i]) * factor);
+        }
+
+        incremental = insertionSort(alive);
+
+        if (!incremental) {
+            radixSort(alive);
+        }
+
+        ParticleData[] sorted = this.sorted;
+
+        for (int i = 0; i < particles.length; i++) {
+            sorted[i] = particles[order[i]];
+        }
+
+        sortTime = System.nanoTime() - startTime;
+
+        return sorted;
+    }
+
+    /**
+     * Prepares buffers for the count of particles.
+     *
+     * @param count the count of particles.
+     */
+    private void prepare(int count) {
+
+        if (order.length == count) {
+            return;
+        }
+
+        order = new int[count];
+        tempOrder = new int[count];
+        keys = new int[count];
+        tempKeys = new int[count];
+        depths = new float[count];
+        sorted = new ParticleData[count];
+
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+    }
+
+    /**
+     * Transforms the view direction to the particles space, the scale is applied to get the same depth order as in
+     * world space.
+     */
+    private void toLocalDirection(
+            @NotNull Vector3f viewDirection,
+            @NotNull Quaternion rotation,
+            @NotNull Vector3f scale
+    ) {
+
+        Vector3f column = tempVector;
+
+        rotation.getRotationColumn(0, column);
+        direction.x = column.dot(viewDirection) * scale.x;
+
+        rotation.getRotationColumn(1, column);
+        direction.y = column.dot(viewDirection) * scale.y;
+
+        rotation.getRotationColumn(2, column);
+        direction.z = column.dot(viewDirection) * scale.z;
+    }
+
+    /**
+     * Sorts the first particles by the insertion sort while it's cheap.
+     *
+     * @param count the count of alive particles.
+     * @return false if the sort was interrupted because the order is too different from the previous frame.
+     */
+    private boolean insertionSort(int count) {
+
+        int[] keys = this.keys;
+        int[] order = this.order;
+
+        int budget = count * INSERTION_MOVES_PER_PARTICLE;
+
+        for (int i = 1; i < count; i++) {
+
+            int key = keys[i];
+            int index = order[i];
+            int j = i - 1;
+
+            while (j >= 0 && keys[j] > key) {
+
+                if (--budget < 0) {
+                    keys[j + 1] = key;
+                    order[j + 1] = index;
+                    return false;
+                }
+
+                keys[j + 1] = keys[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+
+            keys[j + 1] = key;
+            order[j + 1] = index;
+        }
+
+        return true;
+    }
+
+    /**
+     * Sorts the first particles by the stable LSD radix sort of 16-bit keys.
+     *
+     * @param count the count of alive particles.
+     */
+    private void radixSort(int count) {
+
+        int[] keys = this.keys;
+        int[] order = this.order;
+        int[] tempKeys = this.tempKeys;
+        int[] tempOrder = this.tempOrder;
+
+        for (int shift = 0; shift < 16; shift += 8) {
+
+            int[] counts = this.counts;
+
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = 0;
+            }
+
+            for (int i = 0; i < count; i++) {
+                counts[(keys[i] >>> shift) & 0xFF]++;
+            }
+
+            for (int i = 0, offset = 0; i < counts.length; i++) {
+                int value = counts[i];
+                counts[i] = offset;
+                offset += value;
+            }
+
+            for (int i = 0; i < count; i++) {
+                int target = counts[(keys[i] >>> shift) & 0xFF]++;
+                tempKeys[target] = keys[i];
+                tempOrder[target] = order[i];
+            }
+
+            System.arraycopy(tempKeys, 0, keys, 0, count);
+            System.arraycopy(tempOrder, 0, order, 0, count);
+        }
+    }
+
+    /**
+     * Gets the time of the last sorting in nanoseconds.
+     *
+     * @return the time of the last sorting.
+     */
+    public long getSortTime() {
+        return sortTime;
+    }
+
+    /**
+     * Returns true if the last sorting was finished by the insertion sort of the previous order.
+     *
+     * @return true if the last sorting was incremental.
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+}
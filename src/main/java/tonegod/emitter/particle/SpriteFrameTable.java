@@ -0,0 +1,164 @@
+package tonegod.emitter.particle;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The table of texture coordinates of sprite frames. Each frame is stored as a rectangle of 4 values:
+ * startX, startY, endX, endY.
+ *
+ * @author JavaSaBr
+ */
+public final class SpriteFrameTable {
+
+    /**
+     * The count of values per a frame.
+     */
+    public static final int FRAME_SIZE = 4;
+
+    /**
+     * The rectangles of frames.
+     */
+    @NotNull
+    private float[] rects;
+
+    /**
+     * The count of frames.
+     */
+    private int frameCount;
+
+    /**
+     * The count of sprite columns or 0 if frames aren't a uniform grid.
+     */
+    private int cols;
+
+    /**
+     * The count of sprite rows or 0 if frames aren't a uniform grid.
+     */
+    private int rows;
+
+    public SpriteFrameTable() {
+        this.rects = new float[0];
+        setGrid(1, 1);
+    }
+
+    /**
+     * Fills this table by frames of a uniform grid, frames are indexed row by row.
+     *
+     * @param cols the count of sprite columns.
+     * @param rows the count of sprite rows.
+     */
+    public void setGrid(int cols, int rows) {
+
+        if (cols < 1 || rows < 1) {
+            throw new IllegalArgumentException("the values " + cols + "-" + rows + " can't be less than 1.");
+        }
+
+        this.cols = cols;
+        this.rows = rows;
+        this.frameCount = cols * rows;
+        this.rects = new float[frameCount * FRAME_SIZE];
+
+        float width = 1F / cols;
+        float height = 1F / rows;
+
+        for (int row = 0, offset = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++, offset += FRAME_SIZE) {
+                rects[offset] = width * col;
+                rects[offset + 1] = height * row;
+                rects[offset + 2] = width * (col + 1);
+                rects[offset + 3] = height * (row + 1);
+            }
+        }
+    }
+
+    /**
+     * Fills this table by explicit rectangles of frames of a non-uniform atlas.
+     *
+     * @param rects the rectangles of frames: startX, startY, endX, endY per a frame.
+     */
+    public void setFrames(@NotNull float[] rects) {
+
+        if (rects.length < FRAME_SIZE || rects.length % FRAME_SIZE != 0) {
+            throw new IllegalArgumentException("the length " + rects.length + " isn't a positive multiple of " +
+                    FRAME_SIZE + ".");
+        }
+
+        this.cols = 0;
+        this.rows = 0;
+        this.frameCount = rects.length / FRAME_SIZE;
+        this.rects = rects.clone();
+    }
+
+    /**
+     * Gets the offset of the frame's rectangle in the rectangles array, the frame index is wrapped by the count of
+     * frames.
+     *
+     * @param frame the frame index.
+     * @return the offset of the frame's rectangle.
+     */
+    public int getOffset(int frame) {
+
+        if (frame < 0 || frame >= frameCount) {
+            frame = ((frame % frameCount) + frameCount) % frameCount;
+        }
+
+        return frame * FRAME_SIZE;
+    }
+
+    /**
+     * Gets the rectangles of frames, the array must not be changed.
+     *
+     * @return the rectangles of frames.
+     */
+    public @NotNull float[] getRects() {
+        return rects;
+    }
+
+    /**
+     * Gets the count of frames.
+     *
+     * @return the count of frames.
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Gets the count of sprite columns.
+     *
+     * @return the count of sprite columns or 0 if frames aren't a uniform grid.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Gets the count of sprite rows.
+     *
+     * @return the count of sprite rows or 0 if frames aren't a uniform grid.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns true if this table has the only frame which covers the whole texture.
+     *
+     * @return true if the texture isn't split to frames.
+     */
+    public boolean isWholeTexture() {
+        return frameCount == 1 && rects[0] == 0F && rects[1] == 0F && rects[2] == 1F && rects[3] == 1F;
+    }
+
+    /**
+     * Copies frames of the other table.
+     *
+     * @param table the other table.
+     */
+    public void set(@NotNull SpriteFrameTable table) {
+        this.cols = table.cols;
+        this.rows = table.rows;
+        this.frameCount = table.frameCount;
+        this.rects = table.rects.clone();
+    }
+}
@@ -0,0 +1,383 @@
+package tonegod.emitter.particle;
+
+import com.jme3.material.MatParamTexture;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.Vector2f;
+import com.jme3.texture.Image;
+import com.jme3.texture.image.ImageRaster;
+import org.jetbrains.annotations.NotNull;
+import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.material.ParticlesMaterial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The builder of tight convex outlines of sprite frames by the alpha of a texture. Each outline has
+ * {@link #MAX_VERTICES} points in the frame space ([0, 1] from the start to the end of the frame's rectangle),
+ * unused points repeat the last point. The outlines are used by {@link ParticleDataTrimmedMesh} to skip
+ * transparent corners of sprites.
+ *
+ * @author JavaSaBr
+ */
+public final class SpriteOutlineBuilder {
+
+    /**
+     * The count of points of an outline.
+     */
+    public static final int MAX_VERTICES = 8;
+
+    /**
+     * The count of values of an outline.
+     */
+    public static final int OUTLINE_SIZE = MAX_VERTICES * 2;
+
+    /**
+     * The count of vertices of the result outlines, from 4 to {@link #MAX_VERTICES}.
+     */
+    private int vertexCount;
+
+    /**
+     * The min alpha of a visible pixel.
+     */
+    private float alphaThreshold;
+
+    public SpriteOutlineBuilder() {
+        this.vertexCount = MAX_VERTICES;
+        this.alphaThreshold = 1F / 255F;
+    }
+
+    /**
+     * Sets the count of vertices of the result outlines.
+     *
+     * @param vertexCount the count of vertices from 4 to {@link #MAX_VERTICES}.
+     */
+    public void setVertexCount(int vertexCount) {
+
+        if (vertexCount < 4 || vertexCount > MAX_VERTICES) {
+            throw new IllegalArgumentException("the vertex count " + vertexCount + " isn't in the range 4-" +
+                    MAX_VERTICES + ".");
+        }
+
+        this.vertexCount = vertexCount;
+    }
+
+    /**
+     * Gets the count of vertices of the result outlines.
+     *
+     * @return the count of vertices.
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Sets the min alpha of a visible pixel.
+     *
+     * @param alphaThreshold the min alpha of a visible pixel.
+     */
+    public void setAlphaThreshold(float alphaThreshold) {
+        this.alphaThreshold = alphaThreshold;
+    }
+
+    /**
+     * Gets the min alpha of a visible pixel.
+     *
+     * @return the min alpha of a visible pixel.
+     */
+    public float getAlphaThreshold() {
+        return alphaThreshold;
+    }
+
+    /**
+     * Builds outlines of sprite frames of the texture of an initialized emitter.
+     *
+     * @param emitterNode the emitter.
+     * @return the outlines, {@link #OUTLINE_SIZE} values per a frame.
+     */
+    public @NotNull float[] build(@NotNull ParticleEmitterNode emitterNode) {
+
+        ParticlesMaterial particlesMaterial = emitterNode.getParticlesMaterial();
+        MatParamTexture textureParam = particlesMaterial.getMaterial()
+                .getTextureParam(particlesMaterial.getTextureParam());
+
+        if (textureParam == null) {
+            throw new IllegalArgumentException("the emitter " + emitterNode.getName() + " doesn't have a texture.");
+        }
+
+        Image image = textureParam.getTextureValue().getImage();
+
+        return build(image, emitterNode.getParticleDataMesh().getFrameTable());
+    }
+
+    /**
+     * Builds outlines of sprite frames of the image.
+     *
+     * @param image      the image.
+     * @param frameTable the sprite frames.
+     * @return the outlines, {@link #OUTLINE_SIZE} values per a frame.
+     */
+    public @NotNull float[] build(@NotNull Image image, @NotNull SpriteFrameTable frameTable) {
+
+        ImageRaster raster = ImageRaster.create(image);
+        ColorRGBA color = new ColorRGBA();
+
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+
+        float[] rects = frameTable.getRects();
+        float[] outlines = new float[frameTable.getFrameCount() * OUTLINE_SIZE];
+
+        List<Vector2f> points = new ArrayList<>();
+
+        for (int frame = 0, count = frameTable.getFrameCount(); frame < count; frame++) {
+
+            int offset = frame * SpriteFrameTable.FRAME_SIZE;
+
+            int startX = Math.max(Math.round(rects[offset] * width), 0);
+            int startY = Math.max(Math.round(rects[offset + 1] * height), 0);
+            int endX = Math.min(Math.round(rects[offset + 2] * width), width);
+            int endY = Math.min(Math.round(rects[offset + 3] * height), height);
+
+            points.clear();
+
+            // the visible span of each row gives 4 corners of pixels
+            for (int y = startY; y < endY; y++) {
+
+                int minX = -1;
+                int maxX = -1;
+
+                for (int x = startX; x < endX; x++) {
+                    if (raster.getPixel(x, y, color).a >= alphaThreshold) {
+                        if (minX == -1) {
+                            minX = x;
+                        }
+                        maxX = x;
+                    }
+                }
+
+                if (minX == -1) {
+                    continue;
+                }
+
+                points.add(new Vector2f(minX, y));
+                points.add(new Vector2f(maxX + 1, y));
+                points.add(new Vector2f(minX, y + 1));
+                points.add(new Vector2f(maxX + 1, y + 1));
+            }
+
+            float frameWidth = Math.max(endX - startX, 1);
+            float frameHeight = Math.max(endY - startY, 1);
+
+            for (Vector2f point : points) {
+                point.set((point.x - startX) / frameWidth, (point.y - startY) / frameHeight);
+            }
+
+            writeOutline(outlines, frame * OUTLINE_SIZE, points);
+        }
+
+        return outlines;
+    }
+
+    /**
+     * Writes the reduced convex hull of points to the outlines.
+     */
+    private void writeOutline(@NotNull float[] outlines, int offset, @NotNull List<Vector2f> points) {
+
+        List<Vector2f> polygon;
+
+        // a frame without visible pixels keeps the whole quad, the threshold can be higher than the used alpha
+        if (points.isEmpty()) {
+            polygon = new ArrayList<>(4);
+            polygon.add(new Vector2f(0F, 0F));
+            polygon.add(new Vector2f(1F, 0F));
+            polygon.add(new Vector2f(1F, 1F));
+            polygon.add(new Vector2f(0F, 1F));
+        } else {
+
+            polygon = convexHull(points);
+
+            if (!reduce(polygon) || !isInFrame(polygon)) {
+                polygon = boundingRect(points);
+            }
+        }
+
+        for (int i = 0, index = offset; i < MAX_VERTICES; i++, index += 2) {
+            Vector2f point = polygon.get(Math.min(i, polygon.size() - 1));
+            outlines[index] = Math.min(Math.max(point.x, 0F), 1F);
+            outlines[index + 1] = Math.min(Math.max(point.y, 0F), 1F);
+        }
+    }
+
+    /**
+     * Builds the counter-clockwise convex hull of points by the monotone chain.
+     */
+    private static @NotNull List<Vector2f> convexHull(@NotNull List<Vector2f> points) {
+
+        Vector2f[] sorted = points.toArray(new Vector2f[points.size()]);
+
+        Arrays.sort(sorted, new Comparator<Vector2f>() {
+
+            @Override
+            public int compare(@NotNull Vector2f first, @NotNull Vector2f second) {
+                int result = Float.compare(first.x, second.x);
+                return result != 0 ? result : Float.compare(first.y, second.y);
+            }
+        });
+
+        Vector2f[] hull = new Vector2f[sorted.length * 2];
+        int size = 0;
+
+        for (Vector2f point : sorted) {
+            while (size >= 2 && cross(hull[size - 2], hull[size - 1], point) <= 0) {
+                size--;
+            }
+            hull[size++] = point;
+        }
+
+        for (int i = sorted.length - 2, lower = size + 1; i >= 0; i--) {
+            Vector2f point = sorted[i];
+            while (size >= lower && cross(hull[size - 2], hull[size - 1], point) <= 0) {
+                size--;
+            }
+            hull[size++] = point;
+        }
+
+        List<Vector2f> result = new ArrayList<>(size);
+
+        for (int i = 0; i < size - 1; i++) {
+            result.add(hull[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reduces the count of vertices of the convex polygon by replacing an edge by the intersection of its
+     * neighbour edges while the added area is minimal, the result polygon contains the source polygon.
+     *
+     * @return false if the polygon can't be reduced.
+     */
+    private boolean reduce(@NotNull List<Vector2f> polygon) {
+
+        Vector2f intersection = new Vector2f();
+        Vector2f best = new Vector2f();
+
+        while (polygon.size() > vertexCount) {
+
+            int size = polygon.size();
+            int bestEdge = -1;
+            float bestArea = Float.POSITIVE_INFINITY;
+
+            for (int i = 0; i < size; i++) {
+
+                Vector2f prev = polygon.get((i + size - 1) % size);
+                Vector2f first = polygon.get(i);
+                Vector2f second = polygon.get((i + 1) % size);
+                Vector2f next = polygon.get((i + 2) % size);
+
+                float area = calcExtension(prev, first, second, next, intersection);
+
+                if (area < bestArea) {
+                    bestArea = area;
+                    bestEdge = i;
+                    best.set(intersection);
+                }
+            }
+
+            if (bestEdge == -1) {
+                return false;
+            }
+
+            polygon.set(bestEdge, best.clone());
+            polygon.remove((bestEdge + 1) % size);
+        }
+
+        return polygon.size() >= 3;
+    }
+
+    /**
+     * Calculates the intersection of the lines prev-first and next-second.
+     *
+     * @return the area added by replacing the edge first-second by the intersection or infinity if the lines
+     * don't intersect outside of the polygon.
+     */
+    private static float calcExtension(
+            @NotNull Vector2f prev,
+            @NotNull Vector2f first,
+            @NotNull Vector2f second,
+            @NotNull Vector2f next,
+            @NotNull Vector2f store
+    ) {
+
+        float d1x = first.x - prev.x;
+        float d1y = first.y - prev.y;
+        float d2x = next.x - second.x;
+        float d2y = next.y - second.y;
+
+        float denominator = d1x * d2y - d1y * d2x;
+
+        if (denominator <= 1e-6F) {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        float t = ((second.x - first.x) * d2y - (second.y - first.y) * d2x) / denominator;
+
+        if (t < 0) {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        store.set(first.x + d1x * t, first.y + d1y * t);
+
+        return Math.abs(cross(first, store, second)) * 0.5F;
+    }
+
+    /**
+     * Returns true if all points of the polygon are in the frame.
+     */
+    private static boolean isInFrame(@NotNull List<Vector2f> polygon) {
+
+        for (Vector2f point : polygon) {
+            if (point.x < -1e-4F || point.y < -1e-4F || point.x > 1.0001F || point.y > 1.0001F) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Builds the counter-clockwise bounding rectangle of points.
+     */
+    private static @NotNull List<Vector2f> boundingRect(@NotNull List<Vector2f> points) {
+
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+
+        for (Vector2f point : points) {
+            minX = Math.min(minX, point.x);
+            minY = Math.min(minY, point.y);
+            maxX = Math.max(maxX, point.x);
+            maxY = Math.max(maxY, point.y);
+        }
+
+        List<Vector2f> result = new ArrayList<>(4);
+        result.add(new Vector2f(minX, minY));
+        result.add(new Vector2f(maxX, minY));
+        result.add(new Vector2f(maxX, maxY));
+        result.add(new Vector2f(minX, maxY));
+
+        return result;
+    }
+
+    /**
+     * Calculates the cross product of vectors origin-first and origin-second.
+     */
+    private static float cross(@NotNull Vector2f origin, @NotNull Vector2f first, @NotNull Vector2f second) {
+        return (first.x - origin.x) * (second.y - origin.y) - (first.y - origin.y) * (second.x - origin.x);
+    }
+}
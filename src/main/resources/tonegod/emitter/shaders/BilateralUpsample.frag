@@ -0,0 +1,40 @@
+#import "Common/ShaderLib/GLSLCompat.glsllib"
+
+#define DEPTH_EPSILON 0.0001
+
+uniform sampler2D m_Texture;
+uniform sampler2D m_LowDepthTexture;
+uniform sampler2D m_DepthTexture;
+uniform vec2 m_LowResolution;
+
+varying vec2 texCoord;
+
+vec4 depthWeighted(vec2 texel, float weight, float depth, inout float totalWeight) {
+
+    vec2 uv = texel / m_LowResolution;
+    float lowDepth = texture2D(m_LowDepthTexture, uv).r;
+
+    // texels which have a depth close to the full resolution depth are preferred
+    weight /= DEPTH_EPSILON + abs(lowDepth - depth);
+    totalWeight += weight;
+
+    return texture2D(m_Texture, uv) * weight;
+}
+
+void main() {
+
+    float depth = texture2D(m_DepthTexture, texCoord).r;
+
+    vec2 position = texCoord * m_LowResolution - 0.5;
+    vec2 base = floor(position) + 0.5;
+    vec2 f = position - floor(position);
+
+    float totalWeight = 0.0;
+
+    vec4 color = depthWeighted(base, (1.0 - f.x) * (1.0 - f.y), depth, totalWeight);
+    color += depthWeighted(base + vec2(1.0, 0.0), f.x * (1.0 - f.y), depth, totalWeight);
+    color += depthWeighted(base + vec2(0.0, 1.0), (1.0 - f.x) * f.y, depth, totalWeight);
+    color += depthWeighted(base + vec2(1.0, 1.0), f.x * f.y, depth, totalWeight);
+
+    gl_FragColor = totalWeight > 0.0 ? color / totalWeight : vec4(0.0);
+}
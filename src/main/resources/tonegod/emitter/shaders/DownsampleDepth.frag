@@ -0,0 +1,18 @@
+#import "Common/ShaderLib/GLSLCompat.glsllib"
+
+uniform sampler2D m_DepthTexture;
+uniform vec2 m_SampleOffset;
+
+varying vec2 texCoord;
+
+void main() {
+
+    // the farthest depth of the covered full resolution pixels
+    float depth0 = texture2D(m_DepthTexture, texCoord + vec2(-m_SampleOffset.x, -m_SampleOffset.y)).r;
+    float depth1 = texture2D(m_DepthTexture, texCoord + vec2(m_SampleOffset.x, -m_SampleOffset.y)).r;
+    float depth2 = texture2D(m_DepthTexture, texCoord + vec2(-m_SampleOffset.x, m_SampleOffset.y)).r;
+    float depth3 = texture2D(m_DepthTexture, texCoord + vec2(m_SampleOffset.x, m_SampleOffset.y)).r;
+
+    gl_FragDepth = max(max(depth0, depth1), max(depth2, depth3));
+    gl_FragColor = vec4(0.0);
+}
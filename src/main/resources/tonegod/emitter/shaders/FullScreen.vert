@@ -0,0 +1,12 @@
+#import "Common/ShaderLib/GLSLCompat.glsllib"
+
+attribute vec4 inPosition;
+attribute vec2 inTexCoord;
+
+varying vec2 texCoord;
+
+void main() {
+    // the unit quad is expanded to the whole screen without any transforms
+    texCoord = inTexCoord;
+    gl_Position = vec4(inPosition.xy * 2.0 - 1.0, 0.0, 1.0);
+}
@@ -19,6 +19,140 @@ varying vec4 color;
     varying vec4 texCoord;
 #endif
 
+#ifdef SHADER_BILLBOARD
+    uniform vec3 g_CameraLeft;
+    uniform vec3 g_CameraUp;
+    uniform vec3 g_CameraDirection;
+    uniform int m_BillboardMode;
+
+    #ifdef VELOCITY_STRETCHING
+        uniform float m_VelocityStretchFactor;
+    #endif
+
+    // velocity of a particle
+    attribute vec3 inNormal;
+    // rotation angles of a particle
+    attribute vec3 inTexCoord2;
+    // size of a particle or its life blend and seed with curves
+    attribute vec2 inTexCoord3;
+    // index of the corner of a particle
+    attribute float inTexCoord4;
+
+    // the values of tonegod.emitter.BillboardMode.ordinal()
+    const int MODE_VELOCITY = 0;
+    const int MODE_VELOCITY_Z_UP = 1;
+    const int MODE_CAMERA = 5;
+    const int MODE_UNIT_X = 6;
+    const int MODE_UNIT_Y = 7;
+    const int MODE_UNIT_Z = 8;
+
+    vec3 safeNormalize(in vec3 vector) {
+        float len = length(vector);
+        return len == 0.0 ? vector : vector / len;
+    }
+
+    vec3 rotateAround(in vec3 vector, in vec3 axis, in float angle) {
+        float c = cos(angle);
+        float s = sin(angle);
+        return vector * c + cross(axis, vector) * s + axis * dot(axis, vector) * (1.0 - c);
+    }
+
+    vec3 expandBillboard(in vec2 size) {
+
+        // corners are already calculated on the CPU
+        if (m_BillboardMode < 0) {
+            return inPosition;
+        }
+
+        vec3 left;
+        vec3 up;
+        vec3 dir;
+
+        if (m_BillboardMode == MODE_CAMERA) {
+            left = g_CameraLeft;
+            up = g_CameraUp;
+            dir = g_CameraDirection;
+        } else if (m_BillboardMode == MODE_UNIT_X) {
+            left = vec3(0.0, 0.0, 1.0);
+            up = vec3(0.0, 1.0, 0.0);
+            dir = vec3(1.0, 0.0, 0.0);
+        } else if (m_BillboardMode == MODE_UNIT_Y) {
+            left = vec3(1.0, 0.0, 0.0);
+            up = vec3(0.0, 0.0, 1.0);
+            dir = vec3(0.0, 1.0, 0.0);
+        } else if (m_BillboardMode == MODE_UNIT_Z) {
+            left = vec3(0.0, 1.0, 0.0);
+            up = vec3(1.0, 0.0, 0.0);
+            dir = vec3(0.0, 0.0, 1.0);
+        } else {
+
+            vec3 velocity = inNormal;
+            bool notUnitY = velocity.x != 0.0 && velocity.y != 1.0 && velocity.z != 0.0;
+            vec3 lock = notUnitY ? vec3(0.0, 1.0, 0.0) : vec3(0.0, 0.99, 0.01);
+
+            up = safeNormalize(cross(velocity, lock));
+            left = safeNormalize(cross(velocity, up));
+            dir = velocity;
+
+            if (m_BillboardMode == MODE_VELOCITY_Z_UP) {
+                up = rotateAround(up, left, -1.5707964);
+            }
+        }
+
+        #ifdef VELOCITY_STRETCHING
+            up *= length(inNormal) * m_VelocityStretchFactor;
+        #endif
+
+        up *= size.y;
+        left *= size.x;
+
+        vec3 axis = safeNormalize(left);
+        up = rotateAround(up, axis, inTexCoord2.y);
+
+        axis = safeNormalize(up);
+        left = rotateAround(left, axis, inTexCoord2.x);
+
+        axis = safeNormalize(dir);
+        left = rotateAround(left, axis, inTexCoord2.z);
+        up = rotateAround(up, axis, inTexCoord2.z);
+
+        // corners: 0 - (+left, +up), 1 - (-left, +up), 2 - (+left, -up), 3 - (-left, -up)
+        float leftSign = mod(inTexCoord4, 2.0) < 0.5 ? 1.0 : -1.0;
+        float upSign = inTexCoord4 < 1.5 ? 1.0 : -1.0;
+
+        return inPosition + left * leftSign + up * upSign;
+    }
+#endif
+
+#if defined(SHADER_BILLBOARD) && defined(CURVE_TEXTURE)
+    // color with alpha in the first row, size, frame position and random start frame flag in the second row
+    uniform sampler2D m_CurveTexture;
+    uniform float m_CurveSamples;
+    uniform vec2 m_SpriteGrid;
+
+    vec4 sampleCurve(in float row) {
+        float u = (inTexCoord3.x * (m_CurveSamples - 1.0) + 0.5) / m_CurveSamples;
+        return texture2DLod(m_CurveTexture, vec2(u, row), 0.0);
+    }
+
+    vec2 getFrameTexCoord(in vec4 sizeFrame) {
+
+        float frameCount = m_SpriteGrid.x * m_SpriteGrid.y;
+        float startFrame = sizeFrame.w > 0.5 ? floor(inTexCoord3.y * frameCount) : 0.0;
+        float frame = mod(floor(sizeFrame.z) + startFrame, frameCount);
+
+        vec2 cell = vec2(mod(frame, m_SpriteGrid.x), floor(frame / m_SpriteGrid.x));
+
+        return (inTexCoord.xy + cell) / m_SpriteGrid;
+    }
+#endif
+
+#ifdef COMPACT_POSITION
+    // positions are quantized to [-1, 1] in the range of particles
+    uniform vec3 m_PositionOffset;
+    uniform vec3 m_PositionScale;
+#endif
+
 #ifdef POINT_SPRITE
     const float SIZE_MULTIPLIER = 4.0;
     uniform mat4 g_WorldViewMatrix;
@@ -30,12 +164,28 @@ varying vec4 color;
 
 void main() {
 
+    vec4 particleColor = inColor;
+    vec4 particleTexCoord = inTexCoord;
+
+    #if defined(SHADER_BILLBOARD) && defined(CURVE_TEXTURE)
+        vec4 sizeFrame = sampleCurve(0.75);
+        vec3 position = expandBillboard(sizeFrame.xy);
+        particleColor = sampleCurve(0.25);
+        particleTexCoord.xy = getFrameTexCoord(sizeFrame);
+    #elif defined(SHADER_BILLBOARD)
+        vec3 position = expandBillboard(inTexCoord3);
+    #elif defined(COMPACT_POSITION)
+        vec3 position = m_PositionOffset + inPosition * m_PositionScale;
+    #else
+        vec3 position = inPosition;
+    #endif
+
     #ifdef SOFT_PARTICLES
 
-        vec4 pos = vec4(inPosition, 1.0);
+        vec4 pos = vec4(position, 1.0);
 
         gl_Position = g_WorldViewProjectionMatrix * pos;
-        color = inColor;
+        color = particleColor;
 
         projPos = gl_Position.zw;
         // projPos.x = 0.5 * (projPos.x) + 0.5;
@@ -44,7 +194,7 @@ void main() {
         vPos = (gl_Position.xy / gl_Position.w + 1.0) / 2.0;
 
         #ifdef USE_TEXTURE
-            texCoord = inTexCoord;
+            texCoord = particleTexCoord;
         #endif
 
         #ifdef POINT_SPRITE
@@ -59,14 +209,14 @@ void main() {
         #endif
     #else
 
-        vec4 pos = vec4(inPosition, 1.0);
+        vec4 pos = vec4(position, 1.0);
 
         gl_Position = g_WorldViewProjectionMatrix * pos;
 
-        color = inColor;
+        color = particleColor;
 
         #ifdef USE_TEXTURE
-            texCoord = inTexCoord;
+            texCoord = particleTexCoord;
         #endif
 
         #ifdef POINT_SPRITE
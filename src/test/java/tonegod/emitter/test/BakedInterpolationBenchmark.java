@@ -0,0 +1,100 @@
+package tonegod.emitter.test;
+
+import org.jetbrains.annotations.NotNull;
+import tonegod.emitter.interpolation.Interpolation;
+import tonegod.emitter.interpolation.InterpolationManager;
+
+/**
+ * The accuracy and speed benchmark of baked interpolations, it isn't a part of the test suite and is run by the main
+ * method.
+ *
+ * @author JavaSaBr
+ */
+public class BakedInterpolationBenchmark {
+
+    private static final int SAMPLES = 10_000;
+    private static final int ITERATIONS = 200;
+
+    private static final int[] RESOLUTIONS = {64, 256, 1024};
+
+    public static void main(String[] args) {
+
+        var values = new float[SAMPLES];
+
+        for (int i = 0; i < SAMPLES; i++) {
+            values[i] = (float) i / (SAMPLES - 1);
+        }
+
+        System.out.printf("%-16s %12s %12s %12s%n", "interpolation", "resolution", "max error", "speedup");
+
+        for (var interpolation : getSources()) {
+
+            var sourceTime = measure(interpolation, values);
+
+            for (var resolution : RESOLUTIONS) {
+
+                var baked = InterpolationManager.bake(interpolation, resolution);
+                var bakedTime = measure(baked, values);
+                var error = calcMaxError(interpolation, baked, values);
+
+                System.out.printf("%-16s %12d %12.6f %12.2f%n", interpolation.getName(), resolution, error,
+                        (double) sourceTime / Math.max(bakedTime, 1));
+            }
+        }
+    }
+
+    /**
+     * Gets the measured interpolations, circle and swing curves are included to show why they aren't baked.
+     */
+    private static @NotNull Interpolation[] getSources() {
+        return new Interpolation[]{
+                Interpolation.SINE, Interpolation.EXP_10, Interpolation.EXP_5_OUT, Interpolation.CIRCLE,
+                Interpolation.CIRCLE_IN, Interpolation.POW_3, Interpolation.POW_5_OUT, Interpolation.BOUNCE,
+                Interpolation.SWING, Interpolation.ELASTIC, Interpolation.ELASTIC_OUT
+        };
+    }
+
+    private static float calcMaxError(
+            @NotNull Interpolation source,
+            @NotNull Interpolation baked,
+            @NotNull float[] values
+    ) {
+
+        var error = 0F;
+
+        for (var value : values) {
+            error = Math.max(error, Math.abs(source.apply(value) - baked.apply(value)));
+        }
+
+        return error;
+    }
+
+    private static long measure(@NotNull Interpolation interpolation, @NotNull float[] values) {
+
+        var result = 0F;
+
+        // warm up
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (var value : values) {
+                result += interpolation.apply(value);
+            }
+        }
+
+        var startTime = System.nanoTime();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (var value : values) {
+                result += interpolation.apply(value);
+            }
+        }
+
+        var time = System.nanoTime() - startTime;
+
+        // keeps the result alive, so the loops aren't removed
+        if (result == Float.MIN_VALUE) {
+            System.out.println(result);
+        }
+
+        return time;
+    }
+}
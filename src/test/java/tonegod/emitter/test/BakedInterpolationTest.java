@@ -0,0 +1,99 @@
+package tonegod.emitter.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import tonegod.emitter.interpolation.Interpolation;
+import tonegod.emitter.interpolation.InterpolationManager;
+import tonegod.emitter.interpolation.impl.BakedInterpolation;
+import tonegod.emitter.interpolation.impl.LinearInterpolation;
+
+/**
+ * The test of baked interpolations.
+ *
+ * @author JavaSaBr
+ */
+public class BakedInterpolationTest {
+
+    private static final int SAMPLES = 10_000;
+
+    /**
+     * The max allowed error of the default resolution.
+     */
+    private static final float MAX_ERROR = 0.01F;
+
+    @Test
+    public void testAccuracy() {
+
+        for (var interpolation : getSources()) {
+
+            var baked = InterpolationManager.getBaked(interpolation);
+
+            assertTrue(baked instanceof BakedInterpolation, "no baked variant of " + interpolation.getName());
+            assertEquals(interpolation.apply(0F), baked.apply(0F), 1e-6F);
+            assertEquals(interpolation.apply(1F), baked.apply(1F), 1e-6F);
+
+            var error = calcMaxError(interpolation, baked);
+
+            assertTrue(error < MAX_ERROR, interpolation.getName() + " has the error " + error);
+        }
+    }
+
+    @Test
+    public void testNotBakeable() {
+        assertSame(Interpolation.LINEAR, InterpolationManager.getBaked(Interpolation.LINEAR));
+        assertSame(Interpolation.CIRCLE, InterpolationManager.getBaked(Interpolation.CIRCLE));
+        assertSame(Interpolation.SWING_OUT, InterpolationManager.getBaked(Interpolation.SWING_OUT));
+    }
+
+    @Test
+    public void testIds() {
+
+        assertEquals(1, InterpolationManager.getId(Interpolation.LINEAR));
+        assertEquals(Interpolation.ELASTIC_OUT, InterpolationManager.getInterpolation(35));
+
+        var baked = InterpolationManager.getBaked(Interpolation.EXP_10);
+        var id = InterpolationManager.getId(baked);
+
+        assertEquals(-InterpolationManager.getId(Interpolation.EXP_10), id);
+        assertSame(baked, InterpolationManager.getInterpolation(id));
+        assertSame(InterpolationManager.getBaked(Interpolation.BOUNCE_IN),
+                InterpolationManager.getInterpolation(-InterpolationManager.getId(Interpolation.BOUNCE_IN)));
+
+        var custom = new LinearInterpolation("Custom Baked Test");
+        InterpolationManager.register(custom);
+
+        assertEquals(InterpolationManager.getAvailable().size(), InterpolationManager.getId(custom));
+    }
+
+    @Test
+    public void testBake() {
+
+        var baked = InterpolationManager.bake(Interpolation.CIRCLE, 1024);
+
+        assertSame(Interpolation.CIRCLE, baked.getSource());
+        assertSame(Interpolation.CIRCLE, InterpolationManager.bake(baked, 64).getSource());
+        assertTrue(calcMaxError(Interpolation.CIRCLE, baked) < 0.05F);
+    }
+
+    private static @NotNull Interpolation[] getSources() {
+        return new Interpolation[]{
+                Interpolation.SINE, Interpolation.EXP_10, Interpolation.EXP_5_OUT, Interpolation.POW_3,
+                Interpolation.POW_5_OUT, Interpolation.BOUNCE, Interpolation.ELASTIC, Interpolation.ELASTIC_OUT
+        };
+    }
+
+    private static float calcMaxError(@NotNull Interpolation source, @NotNull Interpolation baked) {
+
+        var error = 0F;
+
+        for (int i = 0; i < SAMPLES; i++) {
+            var a = (float) i / (SAMPLES - 1);
+            error = Math.max(error, Math.abs(source.apply(a) - baked.apply(a)));
+        }
+
+        return error;
+    }
+}
@@ -0,0 +1,133 @@
+package tonegod.emitter.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.jme3.bounding.BoundingBox;
+import com.jme3.bounding.BoundingSphere;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import tonegod.emitter.collision.ColliderGrid;
+
+import java.util.Arrays;
+
+/**
+ * The test of finding candidate colliders by the uniform grid.
+ *
+ * @author JavaSaBr
+ */
+public class ColliderGridTest {
+
+    @Test
+    public void testCandidates() {
+
+        var grid = new ColliderGrid();
+        grid.setCount(3);
+        grid.setBounds(0, 0F, 0F, 0F, 1F, 1F, 1F);
+        grid.setBounds(1, 10F, 0F, 0F, 11F, 1F, 1F);
+        grid.setBounds(2, new BoundingSphere(0.5F, new Vector3f(20F, 0.5F, 0.5F)));
+        grid.rebuild();
+
+        assertCandidates(grid, grid.query(0.5F, 0.5F, 0.5F, 0.6F, 0.6F, 0.6F), 0);
+        assertCandidates(grid, grid.query(10.5F, 0.5F, 0.5F, 10.6F, 0.6F, 0.6F), 1);
+        assertCandidates(grid, grid.query(19.8F, 0.2F, 0.2F, 20.2F, 0.8F, 0.8F), 2);
+        assertCandidates(grid, grid.query(0.5F, 0.5F, 0.5F, 10.5F, 0.6F, 0.6F), 0, 1);
+
+        // the box between colliders and the box outside the grid
+        assertCandidates(grid, grid.query(5F, 0F, 0F, 6F, 1F, 1F));
+        assertCandidates(grid, grid.query(0F, 5F, 0F, 1F, 6F, 1F));
+        assertCandidates(grid, grid.query(-10F, 0F, 0F, -5F, 1F, 1F));
+    }
+
+    @Test
+    public void testUnboundedColliders() {
+
+        var grid = new ColliderGrid();
+        grid.setCount(3);
+        grid.setBounds(0, new BoundingBox(new Vector3f(0F, 0F, 0F), 1F, 1F, 1F));
+        grid.setBounds(2, null);
+        grid.rebuild();
+
+        // new colliders are unbounded by default and are returned by any query
+        assertCandidates(grid, grid.query(0F, 0F, 0F, 0.5F, 0.5F, 0.5F), 0, 1, 2);
+        assertCandidates(grid, grid.query(100F, 100F, 100F, 101F, 101F, 101F), 1, 2);
+
+        var start = new Vector3f(1000F, 0F, 0F);
+        var end = new Vector3f(1001F, 0F, 0F);
+
+        assertTrue(grid.intersectsSegment(1, start, end));
+        assertFalse(grid.intersectsSegment(0, start, end));
+
+        // only unbounded colliders are left
+        grid.setBounds(0, null);
+        grid.rebuild();
+
+        assertCandidates(grid, grid.query(0F, 0F, 0F, 1F, 1F, 1F), 0, 1, 2);
+    }
+
+    @Test
+    public void testRebuild() {
+
+        var grid = new ColliderGrid();
+        grid.setCount(1);
+        grid.setBounds(0, 0F, 0F, 0F, 1F, 1F, 1F);
+
+        assertTrue(grid.isDirty());
+
+        grid.rebuild();
+
+        var version = grid.getVersion();
+
+        assertFalse(grid.isDirty());
+
+        // the same bounds don't require rebuilding
+        grid.setBounds(0, 0F, 0F, 0F, 1F, 1F, 1F);
+        grid.rebuild();
+
+        assertEquals(version, grid.getVersion());
+
+        grid.setBounds(0, 5F, 5F, 5F, 6F, 6F, 6F);
+
+        assertTrue(grid.isDirty());
+
+        grid.rebuild();
+
+        assertEquals(version + 1, grid.getVersion());
+        assertCandidates(grid, grid.query(0F, 0F, 0F, 1F, 1F, 1F));
+        assertCandidates(grid, grid.query(5.5F, 5.5F, 5.5F, 5.6F, 5.6F, 5.6F), 0);
+    }
+
+    @Test
+    public void testSegments() {
+
+        var grid = new ColliderGrid();
+        grid.setCount(1);
+        grid.setBounds(0, 0F, 0F, 0F, 1F, 1F, 1F);
+
+        assertTrue(grid.intersectsSegment(0, new Vector3f(-1F, 0.5F, 0.5F), new Vector3f(2F, 0.5F, 0.5F)));
+        assertTrue(grid.intersectsSegment(0, new Vector3f(0.5F, 0.5F, 0.5F), new Vector3f(0.5F, 0.5F, 0.5F)));
+        assertFalse(grid.intersectsSegment(0, new Vector3f(-1F, 2F, 0.5F), new Vector3f(2F, 2F, 0.5F)));
+        assertFalse(grid.intersectsSegment(0, new Vector3f(-2F, 0.5F, 0.5F), new Vector3f(-1F, 0.5F, 0.5F)));
+    }
+
+    @Test
+    public void testWrongArguments() {
+
+        assertThrows(IllegalArgumentException.class, () -> new ColliderGrid(0));
+
+        var grid = new ColliderGrid();
+        grid.setCount(1);
+
+        assertThrows(IllegalArgumentException.class, () -> grid.setBounds(1, 0F, 0F, 0F, 1F, 1F, 1F));
+    }
+
+    private static void assertCandidates(@NotNull ColliderGrid grid, int found, int... expected) {
+
+        var candidates = Arrays.copyOf(grid.getCandidates(), found);
+        Arrays.sort(candidates);
+
+        assertEquals(Arrays.toString(expected), Arrays.toString(candidates));
+    }
+}
@@ -0,0 +1,173 @@
+package tonegod.emitter.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tonegod.emitter.test.util.TestUtils.createParticle;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.field.CurlNoise;
+import tonegod.emitter.field.VectorFieldGrid;
+import tonegod.emitter.influencers.impl.TurbulenceInfluencer;
+
+import java.util.Arrays;
+
+/**
+ * The test of generating curl noise lattices and caching them by the turbulence influencer.
+ *
+ * @author JavaSaBr
+ */
+public class CurlNoiseTest {
+
+    private static final int RESOLUTION = 16;
+
+    @Test
+    public void testGenerate() {
+
+        var grid = CurlNoise.generate(RESOLUTION, 2, 2, 42);
+
+        assertEquals(RESOLUTION, grid.getWidth());
+        assertEquals(RESOLUTION, grid.getHeight());
+        assertEquals(RESOLUTION, grid.getDepth());
+        assertTrue(grid.isTileable());
+
+        // the same seed gives the same lattice
+        assertArrayEquals(grid.getVectors(), CurlNoise.generate(RESOLUTION, 2, 2, 42).getVectors());
+        assertFalse(Arrays.equals(grid.getVectors(), CurlNoise.generate(RESOLUTION, 2, 2, 43).getVectors()));
+
+        var vectors = grid.getVectors();
+        var maxLength = 0F;
+
+        for (int i = 0; i < vectors.length; i += VectorFieldGrid.VECTOR_SIZE) {
+            var length = new Vector3f(vectors[i], vectors[i + 1], vectors[i + 2]).length();
+            maxLength = Math.max(maxLength, length);
+        }
+
+        assertEquals(1F, maxLength, 1e-5F);
+
+        assertThrows(IllegalArgumentException.class, () -> CurlNoise.generate(1, 2, 2, 0));
+        assertThrows(IllegalArgumentException.class, () -> CurlNoise.generate(RESOLUTION, 0, 2, 0));
+        assertThrows(IllegalArgumentException.class, () -> CurlNoise.generate(RESOLUTION, 2, 0, 0));
+    }
+
+    @Test
+    public void testTileable() {
+
+        var grid = CurlNoise.generate(RESOLUTION, 2, 2, 7);
+        var first = new Vector3f();
+        var second = new Vector3f();
+
+        // the lattice repeats after its resolution
+        for (float point = 0.25F; point < RESOLUTION; point += 1.5F) {
+            grid.sample(point, point * 0.5F, 1F, first);
+            grid.sample(point + RESOLUTION, point * 0.5F - RESOLUTION, 1F + RESOLUTION * 2, second);
+            assertTrue(first.distance(second) < 1e-5F, "the lattice isn't tileable at " + point);
+        }
+    }
+
+    @Test
+    public void testDivergenceFree() {
+
+        var grid = CurlNoise.generate(RESOLUTION, 2, 2, 11);
+        var vectors = grid.getVectors();
+
+        var maxDivergence = 0F;
+        var maxDerivative = 0F;
+
+        // the divergence by central differences wrapped over the tile
+        for (int z = 0; z < RESOLUTION; z++) {
+            for (int y = 0; y < RESOLUTION; y++) {
+                for (int x = 0; x < RESOLUTION; x++) {
+
+                    var dx = vectors[offset(x + 1, y, z)] - vectors[offset(x - 1, y, z)];
+                    var dy = vectors[offset(x, y + 1, z) + 1] - vectors[offset(x, y - 1, z) + 1];
+                    var dz = vectors[offset(x, y, z + 1) + 2] - vectors[offset(x, y, z - 1) + 2];
+
+                    maxDivergence = Math.max(maxDivergence, Math.abs(dx + dy + dz));
+                    maxDerivative = Math.max(maxDerivative, Math.max(Math.abs(dx), Math.max(Math.abs(dy),
+                            Math.abs(dz))));
+                }
+            }
+        }
+
+        assertTrue(maxDerivative > 0.1F, "the lattice is flat");
+        assertTrue(maxDivergence < maxDerivative * 1e-4F, "the divergence " + maxDivergence + " is too large");
+    }
+
+    @Test
+    public void testLatticeCaching() {
+
+        var emitterNode = new ParticleEmitterNode();
+        var influencer = new TurbulenceInfluencer();
+
+        assertNull(getLattice(influencer));
+
+        influencer.beforeUpdate(emitterNode, 0F);
+
+        var lattice = getLattice(influencer);
+
+        assertNotNull(lattice);
+
+        // the lattice is generated once and shared with clones
+        influencer.beforeUpdate(emitterNode, 0.1F);
+
+        assertSame(lattice, getLattice(influencer));
+        assertSame(lattice, getLattice((TurbulenceInfluencer) influencer.clone()));
+
+        // changing the noise resets the lattice
+        influencer.setSeed(influencer.getSeed() + 1);
+
+        assertNull(getLattice(influencer));
+
+        influencer.beforeUpdate(emitterNode, 0F);
+
+        assertNotSame(lattice, getLattice(influencer));
+        assertFalse(Arrays.equals(lattice.getVectors(), getLattice(influencer).getVectors()));
+    }
+
+    @Test
+    public void testVelocity() {
+
+        var emitterNode = new ParticleEmitterNode();
+        var influencer = new TurbulenceInfluencer();
+        influencer.setScale(RESOLUTION);
+        influencer.setResolution(RESOLUTION);
+        influencer.setStrength(2F);
+        influencer.beforeUpdate(emitterNode, 0F);
+
+        var particleData = createParticle(emitterNode, 0, new Vector3f(3.5F, 1.25F, 7F));
+        influencer.update(emitterNode, particleData, 0, 0.5F);
+
+        // a particle gets the lattice vector scaled by the strength and the time
+        var expected = getLattice(influencer).sample(3.5F, 1.25F, 7F, new Vector3f()).multLocal(2F * 0.5F);
+
+        assertTrue(expected.distance(particleData.velocity) < 1e-5F,
+                "expected " + expected + " but was " + particleData.velocity);
+    }
+
+    private static int offset(int x, int y, int z) {
+        x = (x + RESOLUTION) % RESOLUTION;
+        y = (y + RESOLUTION) % RESOLUTION;
+        z = (z + RESOLUTION) % RESOLUTION;
+        return ((z * RESOLUTION + y) * RESOLUTION + x) * VectorFieldGrid.VECTOR_SIZE;
+    }
+
+    private static @Nullable VectorFieldGrid getLattice(@NotNull TurbulenceInfluencer influencer) {
+        try {
+            var field = TurbulenceInfluencer.class.getDeclaredField("lattice");
+            field.setAccessible(true);
+            return (VectorFieldGrid) field.get(influencer);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
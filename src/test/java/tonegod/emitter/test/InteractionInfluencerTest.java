@@ -0,0 +1,218 @@
+package tonegod.emitter.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tonegod.emitter.test.util.TestUtils.createParticle;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.influencers.impl.InteractionInfluencer;
+import tonegod.emitter.particle.ParticleData;
+
+import java.util.Random;
+
+/**
+ * The test of finding neighbors of particles by the spatial hash of the interaction influencer.
+ *
+ * @author JavaSaBr
+ */
+public class InteractionInfluencerTest {
+
+    private static final float TPF = 0.1F;
+
+    private static final float EPSILON = 1e-4F;
+
+    @Test
+    public void testSeparation() {
+
+        var influencer = createInfluencer(1F, 1F, 0F, 0F);
+        var emitterNode = createEmitter(new Vector3f(0, 0, 0), new Vector3f(0.5F, 0, 0), new Vector3f(5, 0, 0));
+        var particles = emitterNode.getParticles();
+
+        update(influencer, emitterNode);
+
+        // the push is the offset divided by the squared distance
+        assertVector(new Vector3f(-2F * TPF, 0, 0), particles[0].velocity);
+        assertVector(new Vector3f(2F * TPF, 0, 0), particles[1].velocity);
+
+        // the particle out of the radius isn't affected
+        assertVector(Vector3f.ZERO, particles[2].velocity);
+    }
+
+    @Test
+    public void testNeighborCells() {
+
+        var influencer = createInfluencer(1F, 1F, 0F, 0F);
+        var emitterNode = createEmitter(new Vector3f(0.95F, 0.95F, 0.95F), new Vector3f(1.05F, 1.05F, 1.05F),
+                new Vector3f(-0.1F, 0.95F, 0.95F), new Vector3f(3.2F, -1.5F, 0.95F));
+        var particles = emitterNode.getParticles();
+
+        update(influencer, emitterNode);
+
+        // neighbors in the next cells are found, particles in the next cells out of the radius are skipped
+        assertTrue(particles[0].velocity.x < 0F);
+        assertTrue(particles[1].velocity.x > 0F);
+        assertVector(Vector3f.ZERO, particles[2].velocity);
+        assertVector(Vector3f.ZERO, particles[3].velocity);
+    }
+
+    @Test
+    public void testInactiveParticles() {
+
+        var influencer = createInfluencer(1F, 1F, 0F, 0F);
+        var emitterNode = createEmitter(new Vector3f(0, 0, 0), new Vector3f(0.5F, 0, 0));
+        var particles = emitterNode.getParticles();
+
+        particles[1].life = 0F;
+
+        update(influencer, emitterNode);
+
+        assertVector(Vector3f.ZERO, particles[0].velocity);
+    }
+
+    @Test
+    public void testBruteForce() {
+
+        var random = new Random(5);
+        var positions = new Vector3f[300];
+
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = new Vector3f(random.nextFloat() * 6F - 3F, random.nextFloat() * 6F - 3F,
+                    random.nextFloat() * 6F - 3F);
+        }
+
+        var emitterNode = createEmitter(positions);
+        var particles = emitterNode.getParticles();
+
+        for (var particleData : particles) {
+            particleData.velocity.set(random.nextFloat(), random.nextFloat(), random.nextFloat());
+        }
+
+        var radius = 0.8F;
+        var expected = new Vector3f[particles.length];
+
+        for (int i = 0; i < particles.length; i++) {
+            expected[i] = findVelocity(particles, i, radius, 1F, 0.5F, 0.25F);
+        }
+
+        var influencer = createInfluencer(radius, 1F, 0.5F, 0.25F);
+        influencer.setMaxNeighbors(particles.length);
+
+        update(influencer, emitterNode);
+
+        // the spatial hash finds the same neighbors as checking all particles
+        for (int i = 0; i < particles.length; i++) {
+            assertVector(expected[i], particles[i].velocity);
+        }
+    }
+
+    @Test
+    public void testMaxNeighbors() {
+
+        var influencer = createInfluencer(1F, 0F, 0F, 1F);
+        influencer.setMaxNeighbors(1);
+
+        var emitterNode = createEmitter(new Vector3f(0, 0, 0), new Vector3f(0.5F, 0, 0), new Vector3f(-0.5F, 0, 0));
+        var particles = emitterNode.getParticles();
+
+        update(influencer, emitterNode);
+
+        // with both neighbors the cohesion of the first particle would be zero
+        assertEquals(0.5F * TPF, Math.abs(particles[0].velocity.x), EPSILON);
+    }
+
+    /**
+     * Calculates the expected velocity of the particle by checking all particles.
+     */
+    private static @NotNull Vector3f findVelocity(
+            @NotNull ParticleData[] particles,
+            int index,
+            float radius,
+            float separation,
+            float alignment,
+            float cohesion
+    ) {
+
+        var particleData = particles[index];
+        var push = new Vector3f();
+        var velocity = new Vector3f();
+        var center = new Vector3f();
+        var neighbors = 0;
+
+        for (int i = 0; i < particles.length; i++) {
+
+            var diff = particleData.position.subtract(particles[i].position);
+
+            if (i == index || diff.lengthSquared() >= radius * radius) {
+                continue;
+            }
+
+            push.addLocal(diff.divideLocal(diff.lengthSquared()));
+            velocity.addLocal(particles[i].velocity);
+            center.addLocal(particles[i].position);
+            neighbors++;
+        }
+
+        if (neighbors == 0) {
+            return particleData.velocity.clone();
+        }
+
+        var force = push.multLocal(separation * radius)
+                .addLocal(velocity.divideLocal(neighbors).subtractLocal(particleData.velocity).multLocal(alignment))
+                .addLocal(center.divideLocal(neighbors).subtractLocal(particleData.position).multLocal(cohesion));
+
+        return force.multLocal(TPF).addLocal(particleData.velocity);
+    }
+
+    private static @NotNull InteractionInfluencer createInfluencer(
+            float radius,
+            float separation,
+            float alignment,
+            float cohesion
+    ) {
+
+        var influencer = new InteractionInfluencer();
+        influencer.setRadius(radius);
+        influencer.setSeparation(separation);
+        influencer.setAlignment(alignment);
+        influencer.setCohesion(cohesion);
+
+        return influencer;
+    }
+
+    /**
+     * Creates an emitter which has particles at the positions.
+     */
+    private static @NotNull ParticleEmitterNode createEmitter(@NotNull Vector3f... positions) {
+
+        // the emitter has its own field of particles, so the local array has another name
+        var created = new ParticleData[positions.length];
+        var emitterNode = new ParticleEmitterNode() {
+
+            @Override
+            public @NotNull ParticleData[] getParticles() {
+                return created;
+            }
+        };
+
+        for (int i = 0; i < positions.length; i++) {
+            created[i] = createParticle(emitterNode, i, positions[i]);
+        }
+
+        return emitterNode;
+    }
+
+    private static void update(@NotNull InteractionInfluencer influencer, @NotNull ParticleEmitterNode emitterNode) {
+
+        influencer.beforeUpdate(emitterNode, TPF);
+
+        for (var particleData : emitterNode.getParticles()) {
+            influencer.update(emitterNode, particleData, 0, TPF);
+        }
+    }
+
+    private static void assertVector(@NotNull Vector3f expected, @NotNull Vector3f actual) {
+        assertTrue(expected.distance(actual) < EPSILON, "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,178 @@
+package tonegod.emitter.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import tonegod.emitter.collision.BoxCollider;
+import tonegod.emitter.collision.HeightfieldCollider;
+import tonegod.emitter.collision.ParticleCollider;
+import tonegod.emitter.collision.PlaneCollider;
+import tonegod.emitter.collision.SphereCollider;
+
+/**
+ * The test of segment contacts of analytic colliders.
+ *
+ * @author JavaSaBr
+ */
+public class ParticleColliderTest {
+
+    private static final float EPSILON = 1e-4F;
+
+    @Test
+    public void testPlane() {
+
+        var collider = new PlaneCollider(Vector3f.UNIT_Y, 1F);
+        var normal = new Vector3f();
+
+        assertEquals(0.25F, collider.intersect(new Vector3f(0, 2, 0), new Vector3f(0, -2, 0), normal), EPSILON);
+        assertVector(Vector3f.UNIT_Y, normal);
+
+        // segments above the plane, below the plane and leaving the plane
+        assertNoHit(collider, new Vector3f(0, 3, 0), new Vector3f(5, 2, 0));
+        assertNoHit(collider, new Vector3f(0, -1, 0), new Vector3f(0, -2, 0));
+        assertNoHit(collider, new Vector3f(0, -1, 0), new Vector3f(0, 2, 0));
+
+        assertTrue(collider.contains(new Vector3f(100, 0, -100)));
+        assertFalse(collider.contains(new Vector3f(0, 2, 0)));
+
+        var min = new Vector3f();
+        var max = new Vector3f();
+
+        collider.getBounds(min, max);
+
+        assertEquals(Float.NEGATIVE_INFINITY, min.y);
+        assertEquals(Float.POSITIVE_INFINITY, max.y);
+        assertThrows(IllegalArgumentException.class, () -> collider.setNormal(Vector3f.ZERO));
+    }
+
+    @Test
+    public void testSphere() {
+
+        var collider = new SphereCollider(new Vector3f(0, 0, 5), 1F);
+        var normal = new Vector3f();
+
+        assertEquals(0.4F, collider.intersect(Vector3f.ZERO, new Vector3f(0, 0, 10), normal), EPSILON);
+        assertVector(Vector3f.UNIT_Z.negate(), normal);
+
+        // segments passing by, stopping before, starting inside and moving away from the sphere
+        assertNoHit(collider, new Vector3f(2, 0, 0), new Vector3f(2, 0, 10));
+        assertNoHit(collider, Vector3f.ZERO, new Vector3f(0, 0, 3));
+        assertNoHit(collider, new Vector3f(0, 0, 5), new Vector3f(0, 0, 10));
+        assertNoHit(collider, new Vector3f(0, 0, 7), new Vector3f(0, 0, 10));
+
+        assertTrue(collider.contains(new Vector3f(0, 0.5F, 5)));
+        assertFalse(collider.contains(new Vector3f(0, 1.5F, 5)));
+
+        var min = new Vector3f();
+        var max = new Vector3f();
+
+        collider.getBounds(min, max);
+
+        assertVector(new Vector3f(-1, -1, 4), min);
+        assertVector(new Vector3f(1, 1, 6), max);
+        assertThrows(IllegalArgumentException.class, () -> collider.setRadius(0F));
+    }
+
+    @Test
+    public void testBox() {
+
+        var collider = new BoxCollider(new Vector3f(5, 0, 0), new Vector3f(1, 2, 3), Quaternion.IDENTITY);
+        var normal = new Vector3f();
+
+        assertEquals(0.4F, collider.intersect(Vector3f.ZERO, new Vector3f(10, 0, 0), normal), EPSILON);
+        assertVector(Vector3f.UNIT_X.negate(), normal);
+
+        assertEquals(0.5F, collider.intersect(new Vector3f(5, 4, 0), new Vector3f(5, 0, 0), normal), EPSILON);
+        assertVector(Vector3f.UNIT_Y, normal);
+
+        assertNoHit(collider, new Vector3f(0, 3, 0), new Vector3f(10, 3, 0));
+        assertNoHit(collider, new Vector3f(5, 0, 0), new Vector3f(10, 0, 0));
+
+        assertTrue(collider.contains(new Vector3f(5.5F, 1.5F, -2.5F)));
+        assertFalse(collider.contains(new Vector3f(6.5F, 0, 0)));
+    }
+
+    @Test
+    public void testRotatedBox() {
+
+        var rotation = new Quaternion().fromAngleAxis(FastMath.QUARTER_PI, Vector3f.UNIT_Z);
+        var collider = new BoxCollider(Vector3f.ZERO, Vector3f.UNIT_XYZ, rotation);
+        var normal = new Vector3f();
+
+        // the corner of the rotated box is on the X axis
+        var fraction = collider.intersect(new Vector3f(0, 3, 0), Vector3f.ZERO, normal);
+
+        assertEquals(1F - FastMath.sqrt(2F) / 3F, fraction, EPSILON);
+        assertTrue(collider.contains(new Vector3f(1.3F, 0, 0)));
+        assertFalse(collider.contains(new Vector3f(1, 1, 0)));
+
+        var min = new Vector3f();
+        var max = new Vector3f();
+
+        collider.getBounds(min, max);
+
+        assertEquals(FastMath.sqrt(2F), max.x, EPSILON);
+        assertEquals(-FastMath.sqrt(2F), min.y, EPSILON);
+    }
+
+    @Test
+    public void testHeightfield() {
+
+        // the slope along X from the height 0 to the height 2
+        var heights = new float[]{
+                0F, 1F, 2F,
+                0F, 1F, 2F,
+                0F, 1F, 2F
+        };
+
+        var collider = new HeightfieldCollider(heights, 3, 3, new Vector3f(0, 1, 0), new Vector3f(1, 1, 1));
+
+        assertEquals(1F, collider.getHeight(0F, 0F), EPSILON);
+        assertEquals(2.5F, collider.getHeight(1.5F, 1F), EPSILON);
+        assertTrue(Float.isNaN(collider.getHeight(-1F, 0F)));
+
+        var normal = new Vector3f();
+        var fraction = collider.intersect(new Vector3f(1, 4, 1), new Vector3f(1, 0, 1), normal);
+
+        assertEquals(0.5F, fraction, EPSILON);
+
+        // the normal of the slope is tilted against X
+        var expected = new Vector3f(-1, 1, 0).normalizeLocal();
+        assertVector(expected, normal);
+
+        assertNoHit(collider, new Vector3f(1, 4, 1), new Vector3f(1, 3, 1));
+        assertNoHit(collider, new Vector3f(-5, 0, 1), new Vector3f(-4, 0, 1));
+
+        assertTrue(collider.contains(new Vector3f(0.5F, 1F, 0.5F)));
+        assertFalse(collider.contains(new Vector3f(0.5F, 2F, 0.5F)));
+        assertFalse(collider.contains(new Vector3f(5F, -10F, 0.5F)));
+
+        var min = new Vector3f();
+        var max = new Vector3f();
+
+        collider.getBounds(min, max);
+
+        assertVector(new Vector3f(0, 1, 0), min);
+        assertVector(new Vector3f(2, 3, 2), max);
+        assertThrows(IllegalArgumentException.class, () -> collider.setHeights(new float[4], 1, 4));
+    }
+
+    private static void assertNoHit(
+            @NotNull ParticleCollider collider,
+            @NotNull Vector3f start,
+            @NotNull Vector3f end
+    ) {
+        var fraction = collider.intersect(start, end, new Vector3f());
+        assertEquals(ParticleCollider.NO_HIT, fraction, "start " + start + ", end " + end);
+    }
+
+    private static void assertVector(@NotNull Vector3f expected, @NotNull Vector3f actual) {
+        assertTrue(expected.distance(actual) < EPSILON, "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,133 @@
+package tonegod.emitter.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tonegod.emitter.test.util.TestUtils.createParticle;
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import tonegod.emitter.ParticleEmitterNode;
+import tonegod.emitter.particle.ParticleData;
+import tonegod.emitter.particle.ParticleDepthSorter;
+
+import java.util.Random;
+
+/**
+ * The test of sorting particles by the view depth.
+ *
+ * @author JavaSaBr
+ */
+public class ParticleDepthSorterTest {
+
+    private static final int COUNT = 500;
+
+    private static final Vector3f VIEW_DIRECTION = new Vector3f(0, 0, -1);
+
+    @Test
+    public void testSortOrder() {
+
+        var particles = createParticles(new Random(1));
+        particles[3].life = 0F;
+        particles[10].life = 0F;
+
+        var sorted = new ParticleDepthSorter()
+                .sort(particles, VIEW_DIRECTION, Quaternion.IDENTITY, Vector3f.UNIT_XYZ, false);
+
+        assertEquals(COUNT, sorted.length);
+        assertBackToFront(sorted, COUNT - 2);
+
+        // dead particles are placed after alive particles
+        assertEquals(0F, sorted[COUNT - 2].life);
+        assertEquals(0F, sorted[COUNT - 1].life);
+    }
+
+    @Test
+    public void testIncrementalSort() {
+
+        var random = new Random(2);
+        var particles = createParticles(random);
+        var sorter = new ParticleDepthSorter();
+
+        sorter.sort(particles, VIEW_DIRECTION, Quaternion.IDENTITY, Vector3f.UNIT_XYZ, false);
+
+        // small moves keep the order of the previous frame nearly sorted
+        for (var particleData : particles) {
+            particleData.position.z += random.nextFloat() * 2F;
+        }
+
+        var sorted = sorter.sort(particles, VIEW_DIRECTION, Quaternion.IDENTITY, Vector3f.UNIT_XYZ, false);
+
+        assertTrue(sorter.isIncremental());
+        assertBackToFront(sorted, COUNT);
+    }
+
+    @Test
+    public void testRadixFallback() {
+
+        var particles = createParticles(new Random(3));
+        var sorter = new ParticleDepthSorter();
+
+        sorter.sort(particles, VIEW_DIRECTION, Quaternion.IDENTITY, Vector3f.UNIT_XYZ, false);
+
+        // the opposite view direction reverses the whole order
+        var viewDirection = VIEW_DIRECTION.negate();
+        var sorted = sorter.sort(particles, viewDirection, Quaternion.IDENTITY, Vector3f.UNIT_XYZ, false);
+
+        assertFalse(sorter.isIncremental());
+
+        for (int i = 1; i < COUNT; i++) {
+            assertTrue(sorted[i - 1].position.z >= sorted[i].position.z, "wrong order at " + i);
+        }
+    }
+
+    @Test
+    public void testRotatedParticles() {
+
+        var particles = createParticles(new Random(4));
+        var rotation = new Quaternion().fromAngleAxis(FastMath.HALF_PI, Vector3f.UNIT_Y);
+
+        var sorted = new ParticleDepthSorter()
+                .sort(particles, VIEW_DIRECTION, rotation, Vector3f.UNIT_XYZ, false);
+
+        var world = new Vector3f();
+
+        // depths are along the X axis of particles now, close depths can get the same quantized key
+        for (int i = 1; i < COUNT; i++) {
+            var previous = rotation.mult(sorted[i - 1].position, world).z;
+            assertTrue(previous <= rotation.mult(sorted[i].position, world).z + 1e-3F, "wrong order at " + i);
+        }
+    }
+
+    private static @NotNull ParticleData[] createParticles(@NotNull Random random) {
+
+        var emitterNode = new ParticleEmitterNode();
+        var particles = new ParticleData[COUNT];
+
+        for (int i = 0; i < COUNT; i++) {
+            var position = new Vector3f(random.nextFloat() * 10F, random.nextFloat() * 10F, i * 10F);
+            particles[i] = createParticle(emitterNode, i, position);
+        }
+
+        // shuffle depths, so the first sorting isn't incremental
+        for (int i = COUNT - 1; i > 0; i--) {
+            var other = particles[random.nextInt(i + 1)];
+            var z = other.position.z;
+            other.position.z = particles[i].position.z;
+            particles[i].position.z = z;
+        }
+
+        return particles;
+    }
+
+    /**
+     * Checks that the farthest particles along the view direction are the first.
+     */
+    private static void assertBackToFront(@NotNull ParticleData[] sorted, int alive) {
+        for (int i = 1; i < alive; i++) {
+            assertTrue(sorted[i - 1].position.z <= sorted[i].position.z, "wrong order at " + i);
+        }
+    }
+}
@@ -185,6 +185,8 @@ public class ParticleEmitterNodeTest extends SetUpTest {
     private @NotNull List<ParticleInfluencer<?>> createInfluencers() {
         return List.of(new ColorInfluencer(), new SizeInfluencer(0.1F, 0F), new AlphaInfluencer(),
                 new DestinationInfluencer(), new RotationInfluencer(), new PhysicsInfluencer(), new ImpulseInfluencer(),
-                new RadialVelocityInfluencer(), new SpriteInfluencer(), new GravityInfluencer());
+                new RadialVelocityInfluencer(), new SpriteInfluencer(), new GravityInfluencer(),
+                new VectorFieldInfluencer(), new TurbulenceInfluencer(),
+                new InteractionInfluencer());
     }
 }
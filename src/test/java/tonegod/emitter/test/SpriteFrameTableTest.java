@@ -0,0 +1,101 @@
+package tonegod.emitter.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import tonegod.emitter.particle.SpriteFrameTable;
+
+/**
+ * The test of looking up texture coordinates of sprite frames.
+ *
+ * @author JavaSaBr
+ */
+public class SpriteFrameTableTest {
+
+    @Test
+    public void testDefaultTable() {
+
+        var table = new SpriteFrameTable();
+
+        assertEquals(1, table.getFrameCount());
+        assertTrue(table.isWholeTexture());
+        assertArrayEquals(new float[]{0F, 0F, 1F, 1F}, getRect(table, 0));
+    }
+
+    @Test
+    public void testGrid() {
+
+        var table = new SpriteFrameTable();
+        table.setGrid(4, 2);
+
+        assertEquals(8, table.getFrameCount());
+        assertEquals(4, table.getCols());
+        assertEquals(2, table.getRows());
+        assertFalse(table.isWholeTexture());
+
+        // frames are indexed row by row
+        assertArrayEquals(new float[]{0F, 0F, 0.25F, 0.5F}, getRect(table, 0));
+        assertArrayEquals(new float[]{0.75F, 0F, 1F, 0.5F}, getRect(table, 3));
+        assertArrayEquals(new float[]{0.25F, 0.5F, 0.5F, 1F}, getRect(table, 5));
+    }
+
+    @Test
+    public void testWrappedFrames() {
+
+        var table = new SpriteFrameTable();
+        table.setGrid(3, 1);
+
+        assertEquals(table.getOffset(1), table.getOffset(4));
+        assertEquals(table.getOffset(2), table.getOffset(-1));
+        assertEquals(table.getOffset(0), table.getOffset(-3));
+    }
+
+    @Test
+    public void testExplicitFrames() {
+
+        var rects = new float[]{
+                0F, 0F, 0.5F, 0.25F,
+                0.5F, 0F, 1F, 0.75F
+        };
+
+        var table = new SpriteFrameTable();
+        table.setFrames(rects);
+
+        // the table keeps its own copy of rects
+        rects[0] = 1F;
+
+        assertEquals(2, table.getFrameCount());
+        assertEquals(0, table.getCols());
+        assertEquals(0, table.getRows());
+        assertArrayEquals(new float[]{0F, 0F, 0.5F, 0.25F}, getRect(table, 0));
+        assertArrayEquals(new float[]{0.5F, 0F, 1F, 0.75F}, getRect(table, 3));
+
+        var copy = new SpriteFrameTable();
+        copy.set(table);
+
+        assertArrayEquals(table.getRects(), copy.getRects());
+        assertEquals(2, copy.getFrameCount());
+    }
+
+    @Test
+    public void testWrongFrames() {
+
+        var table = new SpriteFrameTable();
+
+        assertThrows(IllegalArgumentException.class, () -> table.setFrames(new float[6]));
+        assertThrows(IllegalArgumentException.class, () -> table.setGrid(0, 1));
+    }
+
+    private static @NotNull float[] getRect(@NotNull SpriteFrameTable table, int frame) {
+
+        var rect = new float[SpriteFrameTable.FRAME_SIZE];
+
+        System.arraycopy(table.getRects(), table.getOffset(frame), rect, 0, rect.length);
+
+        return rect;
+    }
+}
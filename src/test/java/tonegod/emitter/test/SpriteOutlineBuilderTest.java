@@ -0,0 +1,236 @@
+package tonegod.emitter.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.Vector2f;
+import com.jme3.texture.Image;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.texture.image.ImageRaster;
+import com.jme3.util.BufferUtils;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import tonegod.emitter.particle.SpriteFrameTable;
+import tonegod.emitter.particle.SpriteOutlineBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The test of building convex outlines of sprite frames by the alpha of a texture.
+ *
+ * @author JavaSaBr
+ */
+public class SpriteOutlineBuilderTest {
+
+    private static final int SIZE = 32;
+
+    private static final float EPSILON = 1e-4F;
+
+    @Test
+    public void testCircle() {
+
+        var image = createImage(SIZE, SIZE);
+        fillCircle(image, 0, SIZE);
+
+        var outlines = new SpriteOutlineBuilder().build(image, createFrames(1, 1));
+        var polygon = getPolygon(outlines, 0);
+
+        assertEquals(SpriteOutlineBuilder.OUTLINE_SIZE, outlines.length);
+        assertTrue(polygon.size() <= SpriteOutlineBuilder.MAX_VERTICES);
+        assertTrue(polygon.size() > 4, "the outline of a circle isn't trimmed");
+        assertInFrame(polygon);
+        assertConvex(polygon);
+        assertContainsOpaque(polygon, image, 0, SIZE, SIZE);
+
+        // the trimmed outline is smaller than the quad
+        assertTrue(calcArea(polygon) < 0.95F, "the area " + calcArea(polygon) + " isn't trimmed");
+    }
+
+    @Test
+    public void testVertexCount() {
+
+        var image = createImage(SIZE, SIZE);
+        fillCircle(image, 0, SIZE);
+
+        var builder = new SpriteOutlineBuilder();
+        builder.setVertexCount(5);
+
+        var polygon = getPolygon(builder.build(image, createFrames(1, 1)), 0);
+
+        assertTrue(polygon.size() <= 5);
+        assertInFrame(polygon);
+        assertConvex(polygon);
+        assertContainsOpaque(polygon, image, 0, SIZE, SIZE);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.setVertexCount(3));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.setVertexCount(SpriteOutlineBuilder.MAX_VERTICES + 1));
+    }
+
+    @Test
+    public void testFallbackToQuad() {
+
+        // the first frame is fully opaque, the second frame is empty
+        var image = createImage(SIZE * 2, SIZE);
+        var raster = ImageRaster.create(image);
+
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                raster.setPixel(x, y, ColorRGBA.White);
+            }
+        }
+
+        var outlines = new SpriteOutlineBuilder().build(image, createFrames(2, 1));
+
+        assertQuad(getPolygon(outlines, 0));
+        assertQuad(getPolygon(outlines, 1));
+    }
+
+    @Test
+    public void testFrames() {
+
+        // each frame has a circle, the outlines are in the frame space
+        var image = createImage(SIZE * 2, SIZE);
+        fillCircle(image, 0, SIZE);
+        fillCircle(image, SIZE, SIZE);
+
+        var outlines = new SpriteOutlineBuilder().build(image, createFrames(2, 1));
+
+        for (int frame = 0; frame < 2; frame++) {
+            var polygon = getPolygon(outlines, frame);
+            assertInFrame(polygon);
+            assertContainsOpaque(polygon, image, frame * SIZE, SIZE, SIZE);
+        }
+    }
+
+    private static @NotNull Image createImage(int width, int height) {
+        return new Image(Image.Format.RGBA8, width, height, BufferUtils.createByteBuffer(width * height * 4),
+                ColorSpace.Linear);
+    }
+
+    private static @NotNull SpriteFrameTable createFrames(int cols, int rows) {
+        var frameTable = new SpriteFrameTable();
+        frameTable.setGrid(cols, rows);
+        return frameTable;
+    }
+
+    /**
+     * Fills the circle inscribed in the square frame at the offset.
+     */
+    private static void fillCircle(@NotNull Image image, int offsetX, int size) {
+
+        var raster = ImageRaster.create(image);
+        var radius = size * 0.5F - 1F;
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+
+                var dx = x + 0.5F - size * 0.5F;
+                var dy = y + 0.5F - size * 0.5F;
+
+                if (dx * dx + dy * dy <= radius * radius) {
+                    raster.setPixel(offsetX + x, y, ColorRGBA.White);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the points of the outline without repeated points.
+     */
+    private static @NotNull List<Vector2f> getPolygon(@NotNull float[] outlines, int frame) {
+
+        var polygon = new ArrayList<Vector2f>();
+        var offset = frame * SpriteOutlineBuilder.OUTLINE_SIZE;
+
+        for (int i = 0; i < SpriteOutlineBuilder.MAX_VERTICES; i++) {
+
+            var point = new Vector2f(outlines[offset + i * 2], outlines[offset + i * 2 + 1]);
+
+            if (polygon.isEmpty() || polygon.get(polygon.size() - 1).distance(point) > EPSILON) {
+                polygon.add(point);
+            }
+        }
+
+        return polygon;
+    }
+
+    private static void assertInFrame(@NotNull List<Vector2f> polygon) {
+        for (var point : polygon) {
+            assertTrue(point.x >= 0F && point.y >= 0F && point.x <= 1F && point.y <= 1F,
+                    "the point " + point + " is out of the frame");
+        }
+    }
+
+    private static void assertConvex(@NotNull List<Vector2f> polygon) {
+        for (int i = 0, size = polygon.size(); i < size; i++) {
+            var cross = cross(polygon.get(i), polygon.get((i + 1) % size), polygon.get((i + 2) % size));
+            assertTrue(cross >= -EPSILON, "the outline isn't convex at " + polygon.get((i + 1) % size));
+        }
+    }
+
+    /**
+     * Checks that all corners of opaque texels of the frame are inside the polygon.
+     */
+    private static void assertContainsOpaque(
+            @NotNull List<Vector2f> polygon,
+            @NotNull Image image,
+            int offsetX,
+            int width,
+            int height
+    ) {
+
+        var raster = ImageRaster.create(image);
+        var color = new ColorRGBA();
+        var corner = new Vector2f();
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+
+                if (raster.getPixel(offsetX + x, y, color).a <= 0F) {
+                    continue;
+                }
+
+                for (int i = 0; i < 4; i++) {
+                    corner.set((float) (x + i % 2) / width, (float) (y + i / 2) / height);
+                    assertTrue(contains(polygon, corner), "the texel " + x + ", " + y + " is out of the outline");
+                }
+            }
+        }
+    }
+
+    private static void assertQuad(@NotNull List<Vector2f> polygon) {
+        assertEquals(4, polygon.size());
+        assertEquals(1F, calcArea(polygon), EPSILON);
+    }
+
+    private static boolean contains(@NotNull List<Vector2f> polygon, @NotNull Vector2f point) {
+
+        for (int i = 0, size = polygon.size(); i < size; i++) {
+            if (cross(polygon.get(i), polygon.get((i + 1) % size), point) < -EPSILON) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static float calcArea(@NotNull List<Vector2f> polygon) {
+
+        var area = 0F;
+
+        for (int i = 0, size = polygon.size(); i < size; i++) {
+            var first = polygon.get(i);
+            var second = polygon.get((i + 1) % size);
+            area += first.x * second.y - second.x * first.y;
+        }
+
+        return Math.abs(area) * 0.5F;
+    }
+
+    private static float cross(@NotNull Vector2f origin, @NotNull Vector2f first, @NotNull Vector2f second) {
+        return (first.x - origin.x) * (second.y - origin.y) - (first.y - origin.y) * (second.x - origin.x);
+    }
+}
@@ -0,0 +1,161 @@
+package tonegod.emitter.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.jme3.math.Vector3f;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import tonegod.emitter.field.VectorFieldGrid;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * The test of trilinear sampling of vector field grids.
+ *
+ * @author JavaSaBr
+ */
+public class VectorFieldGridTest {
+
+    private static final float EPSILON = 1e-5F;
+
+    @Test
+    public void testCorners() {
+
+        var grid = createGrid(3, 2, 2, false);
+        var store = new Vector3f();
+
+        for (int z = 0; z < 2; z++) {
+            for (int y = 0; y < 2; y++) {
+                for (int x = 0; x < 3; x++) {
+                    assertVector(getVector(x, y, z), grid.sample(x, y, z, store));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMidpoints() {
+
+        var grid = createGrid(3, 2, 2, false);
+        var store = new Vector3f();
+
+        // the middle of an edge is the average of two samples
+        var expected = getVector(1, 0, 0).add(getVector(2, 0, 0)).multLocal(0.5F);
+        assertVector(expected, grid.sample(1.5F, 0F, 0F, store));
+
+        // the middle of a face is the average of four samples
+        expected = getVector(0, 0, 1).add(getVector(1, 0, 1)).addLocal(getVector(0, 1, 1))
+                .addLocal(getVector(1, 1, 1)).multLocal(0.25F);
+        assertVector(expected, grid.sample(0.5F, 0.5F, 1F, store));
+
+        // the middle of a cell is the average of eight samples
+        expected = new Vector3f();
+
+        for (int z = 0; z < 2; z++) {
+            for (int y = 0; y < 2; y++) {
+                for (int x = 1; x < 3; x++) {
+                    expected.addLocal(getVector(x, y, z));
+                }
+            }
+        }
+
+        assertVector(expected.multLocal(0.125F), grid.sample(1.5F, 0.5F, 0.5F, store));
+
+        // an arbitrary point of a linear field is exact
+        assertVector(getVector(1.25F, 0.75F, 0.1F), grid.sample(1.25F, 0.75F, 0.1F, store));
+    }
+
+    @Test
+    public void testClamping() {
+
+        var grid = createGrid(3, 2, 2, false);
+        var store = new Vector3f();
+
+        assertVector(getVector(0, 0, 0), grid.sample(-1F, -0.5F, -3F, store));
+        assertVector(getVector(2, 1, 1), grid.sample(5F, 1.5F, 10F, store));
+        assertVector(getVector(2, 0.5F, 1), grid.sample(2.5F, 0.5F, 1.5F, store));
+    }
+
+    @Test
+    public void testWrapping() {
+
+        var grid = createGrid(3, 2, 2, true);
+        var store = new Vector3f();
+
+        // the last cell blends the last sample with the first sample
+        var expected = getVector(2, 0, 0).add(getVector(0, 0, 0)).multLocal(0.5F);
+
+        assertVector(expected, grid.sample(2.5F, 0F, 0F, store));
+        assertVector(expected, grid.sample(-0.5F, 0F, 0F, store));
+        assertVector(getVector(1, 1, 0), grid.sample(4F, 3F, 2F, store));
+    }
+
+    @Test
+    public void testBatch() {
+
+        var grid = createGrid(3, 2, 2, true);
+        var points = new float[]{0.5F, 0.5F, 0.5F, -1.25F, 2.5F, 0.75F};
+        var results = new float[points.length];
+
+        grid.sample(points, 2, results);
+
+        var store = new Vector3f();
+
+        for (int i = 0; i < 2; i++) {
+            var offset = i * VectorFieldGrid.VECTOR_SIZE;
+            grid.sample(points[offset], points[offset + 1], points[offset + 2], store);
+            assertVector(store, new Vector3f(results[offset], results[offset + 1], results[offset + 2]));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> grid.sample(points, 3, results));
+    }
+
+    @Test
+    public void testBinaryFormat() throws IOException {
+
+        var grid = createGrid(3, 2, 2, true);
+        var output = new ByteArrayOutputStream();
+
+        grid.write(output);
+
+        var read = VectorFieldGrid.read(new ByteArrayInputStream(output.toByteArray()));
+
+        assertEquals(3, read.getWidth());
+        assertEquals(2, read.getHeight());
+        assertEquals(2, read.getDepth());
+        assertTrue(read.isTileable());
+        assertArrayEquals(grid.getVectors(), read.getVectors());
+
+        assertThrows(IOException.class, () -> VectorFieldGrid.read(new ByteArrayInputStream(new byte[16])));
+    }
+
+    /**
+     * Creates a grid of the linear field, so trilinear sampling inside the grid matches the field exactly.
+     */
+    private static @NotNull VectorFieldGrid createGrid(int width, int height, int depth, boolean tileable) {
+
+        var grid = new VectorFieldGrid(width, height, depth, tileable);
+
+        for (int z = 0; z < depth; z++) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    grid.setVector(x, y, z, getVector(x, y, z));
+                }
+            }
+        }
+
+        return grid;
+    }
+
+    private static @NotNull Vector3f getVector(float x, float y, float z) {
+        return new Vector3f(x + y * 2F + z * 4F, x * 10F, -z);
+    }
+
+    private static void assertVector(@NotNull Vector3f expected, @NotNull Vector3f actual) {
+        assertTrue(expected.distance(actual) < EPSILON, "expected " + expected + " but was " + actual);
+    }
+}
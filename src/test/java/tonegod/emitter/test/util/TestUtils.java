@@ -5,6 +5,7 @@ import com.jme3.math.Vector3f;
 import org.jetbrains.annotations.NotNull;
 import tonegod.emitter.ParticleEmitterNode;
 import tonegod.emitter.influencers.ParticleInfluencer;
+import tonegod.emitter.particle.ParticleData;
 import tonegod.emitter.test.SetUpTest;
 
 import java.util.concurrent.CountDownLatch;
@@ -128,4 +129,20 @@ public class TestUtils {
 
         SetUpTest.checkErrors();
     }
+
+    public static @NotNull ParticleData createParticle(
+            @NotNull ParticleEmitterNode emitterNode,
+            int index,
+            @NotNull Vector3f position
+    ) {
+
+        var particleData = new ParticleData(emitterNode);
+        particleData.index = index;
+        particleData.life = 1F;
+        particleData.startLife = 1F;
+        particleData.position.set(position);
+        particleData.setActive(true);
+
+        return particleData;
+    }
 }